@@ -0,0 +1,255 @@
+package com.azure.tools.apiview.processor;
+
+import com.azure.tools.apiview.processor.analysers.ASTAnalyser;
+import com.azure.tools.apiview.processor.analysers.BytecodeAnalyser;
+import com.azure.tools.apiview.processor.analysers.util.PackageFilter;
+import com.azure.tools.apiview.processor.analysers.util.SourceFiles;
+import com.azure.tools.apiview.processor.model.APIListing;
+import com.azure.tools.apiview.processor.model.Token;
+import com.azure.tools.apiview.processor.sink.JsonTokenSink;
+import com.azure.tools.apiview.processor.sink.ListTokenSink;
+import com.azure.tools.apiview.processor.sink.TokenSink;
+import com.github.javaparser.ParseProblemException;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.xpath.XPathExpressionException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * An entry point for embedding the processor in another application, which analyses a jar file held in memory. Unlike
+ * {@link Main}, nothing is read from or written to disk (beyond any configured token spilling), and failures are thrown
+ * rather than exiting the JVM.
+ *
+ * <p>As with {@link Main}, a jar whose file name ends with {@code -sources.jar} is analysed as source, and any other
+ * jar as class files. Files that cannot be parsed are reported and left out of the listing, as they are by
+ * {@link Main}. A processor may be used for any number of jars, from any number of threads.</p>
+ *
+ * <p>Source directories can be analysed in place too, with {@link #analyseSources(List, String, Function)}.</p>
+ */
+public final class APIViewProcessor {
+    private final List<String> includes;
+    private final List<String> excludes;
+
+    /**
+     * Creates a processor that filters packages with the globs in the {@link PackageFilter} system properties.
+     */
+    public APIViewProcessor() {
+        final PackageFilter packageFilter = PackageFilter.fromSystemProperties();
+        this.includes = packageFilter.getIncludes();
+        this.excludes = packageFilter.getExcludes();
+    }
+
+    /**
+     * Creates a processor that filters packages with the given include and exclude globs.
+     */
+    public APIViewProcessor(List<String> includes, List<String> excludes) {
+        this.includes = includes;
+        this.excludes = excludes;
+    }
+
+    /**
+     * Analyses the given jar file contents, returning the complete listing.
+     */
+    public APIListing analyse(byte[] jar, String fileName) throws IOException {
+        return analyse(new ByteArrayInputStream(jar), fileName);
+    }
+
+    /**
+     * Analyses the jar file contents remaining in the given buffer, returning the complete listing. The position of
+     * the buffer is not changed.
+     */
+    public APIListing analyse(ByteBuffer jar, String fileName) throws IOException {
+        return analyse(new ByteBufferInputStream(jar.duplicate()), fileName);
+    }
+
+    /**
+     * Analyses the jar file read from the given stream, returning the complete listing. The stream is closed once the
+     * jar has been read.
+     */
+    public APIListing analyse(InputStream jar, String fileName) throws IOException {
+        final List<Token> tokens = new ArrayList<>();
+        final APIListing apiListing = analyse(jar, fileName, listing -> new ListTokenSink(tokens));
+        apiListing.setTokens(tokens);
+        return apiListing;
+    }
+
+    /**
+     * Analyses the jar file read from the given stream, and writes the JSON listing to the given output stream as it
+     * is produced. The output stream is flushed, but not closed.
+     */
+    public APIListing writeListing(InputStream jar, String fileName, OutputStream outputStream) throws IOException {
+        return analyse(jar, fileName, listing -> new JsonTokenSink(outputStream, listing));
+    }
+
+    /**
+     * Analyses the jar file read from the given stream, giving the tokens to a sink created for the listing, in
+     * listing order. The sink is created once the navigation tree is complete, and closed once the diagnostics have
+     * been added to the listing. The returned listing has everything but the tokens.
+     */
+    public APIListing analyse(InputStream jar, String fileName, Function<APIListing, TokenSink> sinkFactory)
+            throws IOException {
+        if (!fileName.endsWith(".jar")) {
+            throw new IllegalArgumentException("Expected a '.jar' file, as the APIView tool only works with source jar "
+                    + "files and compiled jar files, but was given '" + fileName + "'");
+        }
+        final boolean isSourcesJar = fileName.endsWith("-sources.jar");
+        final PackageFilter packageFilter = new PackageFilter(includes, excludes);
+
+        // the entries are read straight out of the stream, keeping only the files that will be analysed
+        final List<JarFileEntry> entries = new ArrayList<>();
+        String[] pomCoordinates = null;
+        try (ZipInputStream zipInputStream = new ZipInputStream(jar)) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                final String name = entry.getName();
+                if (entry.isDirectory()) {
+                    continue;
+                } else if (ReviewNames.isPomFile(name)) {
+                    pomCoordinates = readPom(name, SourceFiles.readFully(zipInputStream));
+                } else if ((isSourcesJar ? ASTAnalyser.isAnalysable(name) : BytecodeAnalyser.isAnalysable(name))
+                        && packageFilter.acceptsFile(name)) {
+                    entries.add(new JarFileEntry(name, SourceFiles.readFully(zipInputStream)));
+                }
+            }
+        }
+
+        final APIListing apiListing = new APIListing(ReviewNames.getReviewName(pomCoordinates, fileName));
+        apiListing.setLanguage("Java");
+        apiListing.setTokens(new ArrayList<>());
+
+        try {
+            if (isSourcesJar) {
+                final ASTAnalyser analyser = new ASTAnalyser(apiListing, packageFilter);
+                entries.parallelStream().forEach(entry -> {
+                    try {
+                        analyser.scan(entry.name, new ByteArrayInputStream(entry.contents));
+                    } catch (ParseProblemException e) {
+                        System.err.println("Unable to parse '" + entry.name + "'");
+                        e.printStackTrace();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                try (TokenSink sink = sinkFactory.apply(apiListing)) {
+                    analyser.writeListing(sink);
+                    sink.complete();
+                }
+            } else {
+                final BytecodeAnalyser analyser = new BytecodeAnalyser(apiListing, packageFilter);
+                entries.parallelStream().forEach(entry -> {
+                    try {
+                        analyser.read(entry.name, new ByteArrayInputStream(entry.contents));
+                    } catch (IOException e) {
+                        System.err.println("Unable to read class file '" + entry.name + "'");
+                        e.printStackTrace();
+                    }
+                });
+                try (TokenSink sink = sinkFactory.apply(apiListing)) {
+                    analyser.writeListing(sink);
+                    sink.complete();
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return apiListing;
+    }
+
+    /**
+     * Analyses the {@code .java} files under the given source directories as if they were the contents of a sources
+     * jar, giving the tokens to a sink created for the listing in the same way as
+     * {@link #analyse(InputStream, String, Function)}.
+     */
+    public APIListing analyseSources(List<Path> sourceRoots, String reviewName,
+                                     Function<APIListing, TokenSink> sinkFactory) throws IOException {
+        final PackageFilter packageFilter = new PackageFilter(includes, excludes);
+
+        // files are named relative to their source root, as they would be within a sources jar
+        final Map<Path, String> sourceFiles = SourceFiles.listSourceFiles(sourceRoots, packageFilter);
+        final List<Path> files = new ArrayList<>(sourceFiles.keySet());
+        final List<String> names = new ArrayList<>(sourceFiles.values());
+
+        final APIListing apiListing = new APIListing(reviewName);
+        apiListing.setLanguage("Java");
+        apiListing.setTokens(new ArrayList<>());
+
+        final ASTAnalyser analyser = new ASTAnalyser(apiListing, packageFilter);
+        try {
+            IntStream.range(0, files.size()).parallel().forEach(i -> {
+                try (InputStream inputStream = Files.newInputStream(files.get(i))) {
+                    analyser.scan(names.get(i), inputStream);
+                } catch (ParseProblemException e) {
+                    System.err.println("Unable to parse '" + files.get(i) + "'");
+                    e.printStackTrace();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            try (TokenSink sink = sinkFactory.apply(apiListing)) {
+                analyser.writeListing(sink);
+                sink.complete();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return apiListing;
+    }
+
+    private static String[] readPom(String name, byte[] contents) throws IOException {
+        try {
+            return ReviewNames.readPom(new ByteArrayInputStream(contents));
+        } catch (ParserConfigurationException | SAXException | XPathExpressionException e) {
+            throw new IOException("Unable to read '" + name + "'", e);
+        }
+    }
+
+    private static final class JarFileEntry {
+        private final String name;
+        private final byte[] contents;
+
+        JarFileEntry(String name, byte[] contents) {
+            this.name = name;
+            this.contents = contents;
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            } else if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            final int read = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, read);
+            return read;
+        }
+    }
+}
@@ -1,44 +1,77 @@
 package com.azure.tools.apiview.processor;
 
-import com.azure.tools.apiview.processor.analysers.Analyser;
+import com.azure.tools.apiview.processor.analysers.BytecodeAnalyser;
+import com.azure.tools.apiview.processor.analysers.util.PackageFilter;
+import com.azure.tools.apiview.processor.diagnostics.Diagnostics;
 import com.azure.tools.apiview.processor.model.Diagnostic;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.azure.tools.apiview.processor.analysers.ASTAnalyser;
 import com.azure.tools.apiview.processor.model.APIListing;
 import com.azure.tools.apiview.processor.model.Token;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
+import com.azure.tools.apiview.processor.model.TypeIndex;
+import com.azure.tools.apiview.processor.pipeline.IncrementalSourceListing;
+import com.azure.tools.apiview.processor.pipeline.SourceJarPipeline;
+import com.azure.tools.apiview.processor.sink.FanOutTokenSink;
+import com.azure.tools.apiview.processor.sink.TokenSinks;
 import org.xml.sax.SAXException;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.jar.JarEntry;
+import java.util.concurrent.TimeUnit;
 import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import static com.fasterxml.jackson.databind.MapperFeature.*;
 import static com.azure.tools.apiview.processor.model.TokenKind.*;
 
 public class Main {
 
+    // enable with -Dapiview.debug=true to print additional diagnostic information about each run
+    private static final boolean DEBUG = Boolean.getBoolean("apiview.debug");
+
+    // By default, each listing in a batch run can link to (and have diagnostics consider) the types of the listings
+    // built before it, so libraries should be listed after the libraries they depend on. Disable with
+    // -Dapiview.isolateListings=true to build each listing on its own.
+    private static final boolean ISOLATE_LISTINGS = Boolean.getBoolean("apiview.isolateListings");
+
+    // pass --summary (before the other arguments) to only count the API surface of each package, without tokenising
+    private static final String SUMMARY_OPTION = "--summary";
+
+    // pass --watch (before the other arguments) with a source directory to keep its listing up to date as files change
+    private static final String WATCH_OPTION = "--watch";
+
+    // how long to wait for more changes after a change, so that saving several files at once updates the listing once
+    private static final long WATCH_SETTLE_MILLIS = 50;
+
     // expected argument order:
-    // [inputFiles] <outputDirectory>
+    // [--summary] [--watch] [inputFiles] <outputDirectory>
+    // where each input file is a jar file, or a directory of source files
     public static void main(String[] args) {
+        boolean summary = false;
+        boolean watch = false;
+        while (args.length > 0 && (SUMMARY_OPTION.equals(args[0]) || WATCH_OPTION.equals(args[0]))) {
+            summary |= SUMMARY_OPTION.equals(args[0]);
+            watch |= WATCH_OPTION.equals(args[0]);
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+
         if (args.length != 2) {
-            System.out.println("Expected argument order: [comma-separated sources jarFiles] <outputFile>, e.g. /path/to/jarfile.jar ./temp/");
+            System.out.println("Expected argument order: [--summary] [--watch] [comma-separated jarFiles or source directories] <outputFile>, e.g. /path/to/jarfile.jar ./temp/");
             System.exit(-1);
         }
 
@@ -52,119 +85,214 @@ public class Main {
 
         System.out.println("Running with following configuration:");
         System.out.println("  Output directory: '" + outputDir + "'");
+        if (summary) {
+            System.out.println("  Writing API summaries only");
+        }
 
+        if (watch && (jarFilesArray.length != 1 || !new File(jarFilesArray[0]).isDirectory())) {
+            System.out.println("Watch mode needs a single source directory as input");
+            System.exit(-1);
+        }
+
+        TypeIndex sharedTypeIndex = TypeIndex.EMPTY;
         for (String jarFile : jarFilesArray) {
+            final File file = new File(jarFile);
+            if (file.isDirectory()) {
+                System.out.println("  Processing input source directory: '" + jarFile + "'");
+                if (summary) {
+                    System.out.println("  Summaries are only available for sources jars, writing the full listing instead");
+                }
+                processDirectory(file, outputDir, watch);
+                continue;
+            }
+
             System.out.println("  Processing input .jar file: '" + jarFile + "'");
 
-            final File file = new File(jarFile);
             if (!file.exists()) {
                 System.out.println("Cannot find file '" + file + "'");
                 System.exit(-1);
             }
 
-            String jsonFileName = file.getName().substring(0, file.getName().length() - 4) + ".json";
+            String jsonFileName = file.getName().substring(0, file.getName().length() - 4) + (summary ? ".summary.json" : ".json");
             File outputFile = new File(outputDir, jsonFileName);
-            processFile(file, outputFile);
+            final APIListing apiListing = processFile(file, outputFile, summary, sharedTypeIndex);
+            if (!ISOLATE_LISTINGS) {
+                // later files in the batch can link to this file's types, without it having to be scanned again
+                sharedTypeIndex = sharedTypeIndex.plus(apiListing);
+                if (DEBUG) {
+                    System.out.println("  " + sharedTypeIndex);
+                }
+            }
+        }
+
+        if (DEBUG) {
+            System.out.println("  Diagnostic rules:");
+            Diagnostics.getRuleStatistics().forEach(rule -> System.out.println("    " + rule));
         }
     }
 
     private static String getReviewName(File inputFile) {
-        String artifactId = "";
-        String version = "";
+        String[] pomCoordinates = null;
 
         // we will firstly try to get the artifact ID from the maven file inside the jar file...if it exists
         try (final JarFile jarFile = new JarFile(inputFile)) {
             final Enumeration<JarEntry> enumOfJar = jarFile.entries();
             while (enumOfJar.hasMoreElements()) {
                 final JarEntry entry = enumOfJar.nextElement();
-                final String fullPath = entry.getName();
+                if (ReviewNames.isPomFile(entry.getName())) {
+                    pomCoordinates = ReviewNames.readPom(jarFile.getInputStream(entry));
+                }
+            }
+        } catch (IOException | ParserConfigurationException | SAXException | XPathExpressionException e) {
+            e.printStackTrace();
+        }
 
-                if (fullPath.startsWith("META-INF/maven") && fullPath.endsWith("pom.xml")) {
-                    final InputStream jarIS = jarFile.getInputStream(entry);
+        final String reviewName = ReviewNames.getReviewName(pomCoordinates, inputFile.getName());
+        System.out.println("  Using '" + reviewName + "' for the review name");
 
-                    // use xpath to get the artifact ID
-                    DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
-                    DocumentBuilder builder = builderFactory.newDocumentBuilder();
-                    Document xmlDocument = builder.parse(jarIS);
-                    XPath xPath = XPathFactory.newInstance().newXPath();
+        return reviewName;
+    }
+
+    private static void processDirectory(File directory, File outputDir, boolean watch) {
+        final String reviewName = ReviewNames.getReviewName(directory);
+        System.out.println("  Using '" + reviewName + "' for the review name");
 
-                    String artifactIdExpression = "/project/artifactId";
-                    Node artifactIdNode = (Node) xPath.compile(artifactIdExpression).evaluate(xmlDocument, XPathConstants.NODE);
-                    artifactId = artifactIdNode.getTextContent();
+        // the listing is named after the review, e.g. 'azure-core (version 1.0.0)' is written to azure-core-1.0.0.json
+        final File outputFile = new File(outputDir, reviewName.replace(" (version ", "-").replace(")", "") + ".json");
 
-                    String versionExpression = "/project/version";
-                    Node versionNode = (Node) xPath.compile(versionExpression).evaluate(xmlDocument, XPathConstants.NODE);
-                    version = versionNode.getTextContent();
+        final Path sourceRoot = directory.toPath();
+        final IncrementalSourceListing listing = new IncrementalSourceListing(Collections.singletonList(sourceRoot),
+                reviewName, PackageFilter.fromSystemProperties());
+        try {
+            listing.update(outputFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(-1);
+        }
+        if (!watch) {
+            return;
+        }
+
+        System.out.println("  Watching '" + directory + "' for changes, press Ctrl+C to stop");
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            register(watchService, sourceRoot);
+            while (true) {
+                // wait for a change, and then for the changes to settle, registering any new directories as they appear
+                WatchKey key = watchService.take();
+                do {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                            final Path path = ((Path) key.watchable()).resolve((Path) event.context());
+                            if (Files.isDirectory(path)) {
+                                register(watchService, path);
+                            }
+                        }
+                    }
+                    key.reset();
+                } while ((key = watchService.poll(WATCH_SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null);
+
+                try {
+                    listing.update(outputFile);
+                } catch (IOException | RuntimeException e) {
+                    // keep watching, as the next save may well fix whatever went wrong
+                    e.printStackTrace();
                 }
             }
-        } catch (IOException | ParserConfigurationException | SAXException | XPathExpressionException e) {
+        } catch (IOException e) {
             e.printStackTrace();
+            System.exit(-1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+    }
 
-        if (artifactId == null || artifactId.isEmpty()) {
-            // we failed to read it from the maven pom file, we will just take the file name without any extension
-            final String filename = inputFile.getName();
-            int i = 0;
-            while (i < filename.length() && !Character.isDigit(filename.charAt(i))) {
-                i++;
+    private static void register(WatchService watchService, Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.filter(Files::isDirectory)::iterator) {
+                path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
             }
-
-            artifactId = filename.substring(0, i - 1);
-            version = filename.substring(i, filename.indexOf("-sources.jar"));
         }
-
-        final String reviewName = artifactId + " (version " + version + ")";
-        System.out.println("  Using '" + reviewName + "' for the review name");
-
-        return reviewName;
     }
 
-    private static void processFile(File inputFile, File outputFile) {
+    private static APIListing processFile(File inputFile, File outputFile, boolean summary, TypeIndex sharedTypeIndex) {
         APIListing apiListing = new APIListing(getReviewName(inputFile));
         apiListing.setLanguage("Java");
+        apiListing.setSharedTypeIndex(sharedTypeIndex);
 
         // empty tokens list that we will fill as we process each class file
         List<Token> tokens = new ArrayList<>();
         apiListing.setTokens(tokens);
 
-        if (inputFile.getName().endsWith("-sources.jar")) {
-            Analyser analyser = new ASTAnalyser(inputFile, apiListing);
+        // the package globs are compiled once per file, and applied to jar entry names before anything is read
+        final PackageFilter packageFilter = PackageFilter.fromSystemProperties();
 
-            // Read all files within the jar file so that we can create a list of files to analyse
-            List<Path> allFiles = new ArrayList<>();
+        if (inputFile.getName().endsWith("-sources.jar")) {
+            // the pipeline writes the listing out as it goes, rather than building up all tokens in memory first
             try {
-                FileSystems.newFileSystem(inputFile.toPath(), Main.class.getClassLoader())
-                        .getRootDirectories()
-                        .forEach(root -> {
-                            try {
-                                Files.walk(root).forEach(allFiles::add);
-                            } catch (IOException e) {
-                                e.printStackTrace();
-                                System.exit(-1);
-                            }
-                        });
+                final SourceJarPipeline pipeline = new SourceJarPipeline(inputFile, apiListing, packageFilter);
+                if (summary) {
+                    System.out.println("  " + pipeline.summarise(outputFile).getTotals());
+                } else {
+                    pipeline.run(outputFile);
+                }
             } catch (IOException e) {
                 e.printStackTrace();
                 System.exit(-1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                e.printStackTrace();
+                System.exit(-1);
+            }
+
+            System.out.println("  " + packageFilter);
+            if (DEBUG) {
+                System.out.println("  Type indexes: " + apiListing.getTypeIndexStatistics());
             }
+            return apiListing;
+        }
+
+        if (summary) {
+            // the counts come from the parsed source, so there is nothing cheaper than the full listing for other files
+            System.out.println("  Summaries are only available for sources jars, writing the full listing instead");
+            outputFile = new File(outputFile.getParentFile(), outputFile.getName().replace(".summary.json", ".json"));
+        }
 
-            // Do the analysis
-            analyser.analyse(allFiles);
-        } else {
+        if (!inputFile.getName().endsWith(".jar")) {
             apiListing.getTokens().add(new Token(LINE_ID_MARKER, "Error!", "error"));
-            apiListing.addDiagnostic(new Diagnostic("error", "Uploaded files should end with '-sources.jar', " +
-                    "as the APIView tool only works with source jar files, not compiled jar files. The uploaded file " +
+            apiListing.addDiagnostic(new Diagnostic("error", "Uploaded files should end with '.jar', " +
+                    "as the APIView tool only works with source jar files and compiled jar files. The uploaded file " +
                     "that was submitted to APIView was named " + inputFile.getName()));
         }
 
-        // Write out to the filesystem
+        // the tokens are given to the configured sinks (by default, the JSON output file) as they are produced
+        final FanOutTokenSink sink;
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            objectMapper.disable(AUTO_DETECT_CREATORS, AUTO_DETECT_FIELDS, AUTO_DETECT_GETTERS, AUTO_DETECT_IS_GETTERS);
-            objectMapper.writerWithDefaultPrettyPrinter().writeValue(outputFile, apiListing);
+            sink = TokenSinks.create(outputFile, apiListing);
         } catch (IOException e) {
             e.printStackTrace();
+            System.exit(-1);
+            return apiListing;
+        }
+
+        try (FanOutTokenSink sinks = sink) {
+            if (inputFile.getName().endsWith(".jar")) {
+                // compiled jar files are read class file by class file, which is much cheaper than parsing source
+                try (FileSystem fs = FileSystems.newFileSystem(inputFile.toPath(), (ClassLoader) null);
+                     Stream<Path> files = Files.walk(fs.getPath("/"))) {
+                    new BytecodeAnalyser(apiListing, packageFilter).analyse(files.collect(Collectors.toList()), sinks);
+                }
+                System.out.println("  " + packageFilter);
+            } else {
+                sinks.acceptPackage("", apiListing.getTokens());
+            }
+            sinks.complete();
+        } catch (IOException | UncheckedIOException e) {
+            e.printStackTrace();
+            System.exit(-1);
         }
+        TokenSinks.report(sink);
+        return apiListing;
     }
 
     // Debug method to easily print to console
@@ -0,0 +1,124 @@
+package com.azure.tools.apiview.processor;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Works out the name of a review from the maven pom file inside a jar file (or above a source directory), or failing
+ * that, from the jar file (or directory) name.
+ */
+public final class ReviewNames {
+    private ReviewNames() { }
+
+    /**
+     * Returns true if the jar entry with the given name is a maven pom file that the review name can be read from.
+     */
+    static boolean isPomFile(String entryName) {
+        return entryName.startsWith("META-INF/maven") && entryName.endsWith("pom.xml");
+    }
+
+    /**
+     * Reads the artifact ID and version, in that order, from the given maven pom file.
+     */
+    static String[] readPom(InputStream pomInputStream)
+            throws IOException, ParserConfigurationException, SAXException, XPathExpressionException {
+        // use xpath to get the artifact ID
+        DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
+        DocumentBuilder builder = builderFactory.newDocumentBuilder();
+        Document xmlDocument = builder.parse(pomInputStream);
+        XPath xPath = XPathFactory.newInstance().newXPath();
+
+        String artifactIdExpression = "/project/artifactId";
+        Node artifactIdNode = (Node) xPath.compile(artifactIdExpression).evaluate(xmlDocument, XPathConstants.NODE);
+        String artifactId = artifactIdNode == null ? "" : artifactIdNode.getTextContent();
+
+        String versionExpression = "/project/version";
+        Node versionNode = (Node) xPath.compile(versionExpression).evaluate(xmlDocument, XPathConstants.NODE);
+        if (versionNode == null) {
+            // a module of a multi-module build may inherit its version from its parent
+            versionNode = (Node) xPath.compile("/project/parent/version").evaluate(xmlDocument, XPathConstants.NODE);
+        }
+        String version = versionNode == null ? "" : versionNode.getTextContent();
+
+        return new String[] { artifactId, version };
+    }
+
+    /**
+     * Returns the review name for a directory of source files, from the nearest maven pom file in the directory or
+     * one of its parents, falling back to the directory name.
+     */
+    static String getReviewName(File directory) {
+        for (File dir = directory.getAbsoluteFile(); dir != null; dir = dir.getParentFile()) {
+            final File pomFile = new File(dir, "pom.xml");
+            if (pomFile.isFile()) {
+                try (InputStream inputStream = new FileInputStream(pomFile)) {
+                    final String[] pomCoordinates = readPom(inputStream);
+                    if (!pomCoordinates[0].isEmpty()) {
+                        return getReviewName(pomCoordinates[0], pomCoordinates[1]);
+                    }
+                } catch (IOException | ParserConfigurationException | SAXException | XPathExpressionException e) {
+                    e.printStackTrace();
+                }
+                break;
+            }
+        }
+        return getReviewName(directory.getAbsoluteFile().getName(), "unknown");
+    }
+
+    /**
+     * Returns the review name for the given pom coordinates, which may be null if there was no pom file, falling back
+     * to the given jar file name. A file name without a version in it, such as one given to {@link APIViewProcessor} by
+     * an embedding application, is used whole, with an unknown version.
+     */
+    static String getReviewName(String[] pomCoordinates, String fileName) {
+        String artifactId = pomCoordinates == null ? "" : pomCoordinates[0];
+        String version = pomCoordinates == null ? "" : pomCoordinates[1];
+
+        if (artifactId == null || artifactId.isEmpty()) {
+            // we failed to read it from the maven pom file, we will just take the file name without any extension,
+            // which is expected to be the artifact ID and version separated by a character, e.g. 'foo-1.0.0.jar'
+            String baseName = fileName;
+            if (baseName.endsWith("-sources.jar")) {
+                baseName = baseName.substring(0, baseName.length() - "-sources.jar".length());
+            } else if (baseName.endsWith(".jar")) {
+                baseName = baseName.substring(0, baseName.length() - ".jar".length());
+            }
+
+            int i = 0;
+            while (i < baseName.length() && !Character.isDigit(baseName.charAt(i))) {
+                i++;
+            }
+
+            if (i < 2 || i == baseName.length()) {
+                // there is no version to be found in the name, so the whole name is used
+                artifactId = baseName;
+                version = "unknown";
+            } else {
+                artifactId = baseName.substring(0, i - 1);
+                version = baseName.substring(i);
+            }
+        }
+
+        return getReviewName(artifactId, version);
+    }
+
+    /**
+     * Returns the review name for the given artifact ID and version.
+     */
+    public static String getReviewName(String artifactId, String version) {
+        return artifactId + " (version " + version + ")";
+    }
+}
@@ -1,14 +1,24 @@
 package com.azure.tools.apiview.processor.analysers;
 
+import com.azure.tools.apiview.processor.analysers.util.MethodBodyFilter;
 import com.azure.tools.apiview.processor.analysers.util.MiscUtils;
+import com.azure.tools.apiview.processor.analysers.util.PackageFilter;
+import com.azure.tools.apiview.processor.analysers.util.SourceFiles;
 import com.azure.tools.apiview.processor.analysers.util.TokenModifier;
+import com.azure.tools.apiview.processor.analysers.util.TypeMembers;
 import com.azure.tools.apiview.processor.diagnostics.Diagnostics;
 import com.azure.tools.apiview.processor.model.APIListing;
+import com.azure.tools.apiview.processor.model.APISummary;
 import com.azure.tools.apiview.processor.model.ChildItem;
 import com.azure.tools.apiview.processor.model.Token;
+import com.azure.tools.apiview.processor.model.TokenSegmentStore;
 import com.azure.tools.apiview.processor.model.TypeKind;
+import com.azure.tools.apiview.processor.sink.ListTokenSink;
+import com.azure.tools.apiview.processor.sink.TokenSink;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ParseResult;
 import com.github.javaparser.ParserConfiguration;
-import com.github.javaparser.StaticJavaParser;
 import com.github.javaparser.TokenRange;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.ImportDeclaration;
@@ -20,7 +30,6 @@ import com.github.javaparser.ast.body.AnnotationMemberDeclaration;
 import com.github.javaparser.ast.body.BodyDeclaration;
 import com.github.javaparser.ast.body.CallableDeclaration;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
-import com.github.javaparser.ast.body.ConstructorDeclaration;
 import com.github.javaparser.ast.body.EnumConstantDeclaration;
 import com.github.javaparser.ast.body.EnumDeclaration;
 import com.github.javaparser.ast.body.FieldDeclaration;
@@ -43,27 +52,30 @@ import com.github.javaparser.ast.type.ReferenceType;
 import com.github.javaparser.ast.type.Type;
 import com.github.javaparser.ast.type.TypeParameter;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
-import com.github.javaparser.symbolsolver.JavaSymbolSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.TreeMap;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
-import java.util.stream.Collector;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
-import static com.azure.tools.apiview.processor.analysers.util.ASTUtils.getPackageName;
+import static com.azure.tools.apiview.processor.analysers.util.ASTUtils.getImportedNames;
 import static com.azure.tools.apiview.processor.analysers.util.ASTUtils.isInterfaceType;
 import static com.azure.tools.apiview.processor.analysers.util.ASTUtils.isPrivateOrPackagePrivate;
 import static com.azure.tools.apiview.processor.analysers.util.ASTUtils.isTypeAPublicAPI;
@@ -84,50 +96,270 @@ public class ASTAnalyser implements Analyser {
 
     public static final String MODULE_INFO_KEY = "module-info";
 
+    private static final String PACKAGE_INFO_FILE = "package-info.java";
+
+    // The listing is built only from declarations, so by default method, constructor and initializer bodies are
+    // blanked out before parsing, which saves most of the parse time and memory for implementation-heavy files. Enable
+    // with -Dapiview.parseMethodBodies=true to parse files in full.
+    private static final boolean PARSE_METHOD_BODIES = Boolean.getBoolean("apiview.parseMethodBodies");
+
+    // files within a package are listed by their primary type name, falling back to the file name to break ties
+    private static final Comparator<ScanClass> SCAN_CLASS_ORDER =
+            Comparator.comparing((ScanClass scanClass) -> scanClass.primaryTypeName, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(ScanClass::getFileName);
+
+    // JavaParser instances hold per-parse state, so each thread that scans files is given its own. They are shared by
+    // all analysers, so that a long-lived JVM (such as a Maven build) keeps its warmed-up parsers
+    private static final ThreadLocal<JavaParser> JAVA_PARSER = ThreadLocal.withInitial(ASTAnalyser::createJavaParser);
+
     private final APIListing apiListing;
 
+    private final PackageFilter packageFilter;
+
     private final Map<String, JavadocComment> packageNameToPackageInfoJavaDoc;
 
-    private int indent;
+    // the files that have been scanned so far, grouped by package. Files may be scanned from any number of threads
+    private final Map<String, Queue<ScanClass>> packages;
 
-    public ASTAnalyser(File inputFile, APIListing apiListing) {
+    /**
+     * Creates an analyser that adds the sources it is given to the given listing, whether they are
+     * {@link #analyse(List) analysed} from a file system or {@link #scan(String, InputStream) scanned} from elsewhere,
+     * such as from memory. The package filter is applied to the files given to {@code analyse}.
+     */
+    public ASTAnalyser(APIListing apiListing, PackageFilter packageFilter) {
         this.apiListing = apiListing;
-        this.indent = 0;
-        this.packageNameToPackageInfoJavaDoc = new HashMap<>();
+        this.packageFilter = packageFilter;
+        this.packageNameToPackageInfoJavaDoc = new ConcurrentHashMap<>();
+        this.packages = new ConcurrentHashMap<>();
     }
 
+    /**
+     * Analyses the given files, adding the tokens to the listing. The whole listing is then held on the heap, so only
+     * {@link #analyse(List, TokenSink)}, which gives each package to a sink as it is written, keeps the heap bounded
+     * for large jars.
+     */
     @Override
     public void analyse(List<Path> allFiles) {
-        // firstly we filter out the files we don't care about
-        allFiles = allFiles.stream()
-                .filter(path -> {
-                    String inputFileName = path.toString();
-                    if (Files.isDirectory(path)) return false;
-                    else if (inputFileName.contains("implementation")) return false;
-                    else return inputFileName.endsWith(".java");
-                }).collect(Collectors.toList());
-
-        // then we do a pass to build a map of all known types and package names, and a map of package names to nav items,
-        // followed by a pass to tokenise each file
+        analyse(allFiles, new ListTokenSink(apiListing.getTokens()));
+    }
+
+    /**
+     * Analyses the given files, sending the tokens of each package to the given sink in listing order, rather than
+     * adding them to the listing.
+     */
+    public void analyse(List<Path> allFiles, TokenSink sink) {
+        // firstly we filter out the files we don't care about, and then we do a pass to build a map of all known types
+        // and package names, and the navigation tree
         allFiles.stream()
-                .map(this::scanForTypes)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(Collectors.groupingBy(ScanClass::getPackageName, TreeMap::new, Collectors.toList()))
-                .forEach(this::processPackage);
+                .filter(path -> !Files.isDirectory(path) && isAnalysable(path.toString()))
+                .filter(path -> packageFilter.acceptsFile(path.toString()))
+                .forEach(path -> {
+                    try (InputStream inputStream = Files.newInputStream(path)) {
+                        scan(path.toString(), inputStream);
+                    } catch (IOException | ParseProblemException e) {
+                        e.printStackTrace();
+                    }
+                });
+
+        writeListing(sink);
+    }
+
+    /**
+     * Tokenises every package that has been scanned, sending the tokens to the given sink in listing order, and then
+     * runs the diagnostics. All files must have been scanned first.
+     */
+    public void writeListing(TokenSink sink) {
+        // packages are tokenised independently of each other (and concurrently), and their output is given to the
+        // sink in package name order, so the listing is identical to tokenising one package after another. Finished
+        // packages are held in a segment store, which spills them to disk once too many tokens are held in memory
+        final List<String> packageNames = getPackageNames();
+        try (TokenSegmentStore segments = new TokenSegmentStore(packageNames.size())) {
+            IntStream.range(0, packageNames.size()).parallel()
+                    .forEach(i -> segments.set(i, packageNames.get(i), tokenisePackage(packageNames.get(i))));
+            segments.drain(sink::acceptPackage);
+            if (Boolean.getBoolean("apiview.debug")) {
+                System.out.println("  " + segments);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // finally we run the diagnostics over each file, in the order the files appear in the listing
+        packageNames.forEach(this::scanDiagnostics);
+        scanProjectDiagnostics();
+    }
+
+    /**
+     * Returns true if the file with the given name is one that should be scanned. Which packages are scanned is
+     * decided separately, by the {@link PackageFilter}.
+     */
+    public static boolean isAnalysable(String fileName) {
+        return fileName.endsWith(".java");
+    }
+
+    /**
+     * Parses the given source file, recording the types, package mappings and navigation items it declares. This may
+     * be called from multiple threads at once, but all files must be scanned before any package is tokenised, as
+     * tokenising relies on the complete set of known types.
+     */
+    public void scan(String fileName, InputStream inputStream) throws IOException {
+        add(fileName, parse(fileName, inputStream));
+    }
+
+    /**
+     * Parses the given source file, without recording anything about it. This may be called from multiple threads at
+     * once, and the compilation unit may later be {@link #add(String, CompilationUnit) added} to any analyser, which
+     * lets a compilation unit be kept between runs over files that have not changed.
+     */
+    public static CompilationUnit parse(String fileName, InputStream inputStream) throws IOException {
+        final String source = SourceFiles.readSource(inputStream);
+
+        ParseResult<CompilationUnit> parseResult;
+        if (PARSE_METHOD_BODIES) {
+            parseResult = JAVA_PARSER.get().parse(source);
+        } else {
+            parseResult = JAVA_PARSER.get().parse(MethodBodyFilter.removeBodies(source));
+            if (!parseResult.isSuccessful()) {
+                // this should not happen, but if we got the bodies wrong we would rather pay for a full parse than
+                // lose the file from the listing
+                System.err.println("Unable to parse declarations of '" + fileName + "', parsing in full instead");
+                parseResult = JAVA_PARSER.get().parse(source);
+            }
+        }
+        if (!parseResult.isSuccessful() || !parseResult.getResult().isPresent()) {
+            throw new ParseProblemException(parseResult.getProblems());
+        }
+
+        // the primary type of a compilation unit is determined from its file name, so we record where it came from
+        final CompilationUnit compilationUnit = parseResult.getResult().get();
+        compilationUnit.setStorage(Paths.get(fileName));
+        return compilationUnit;
+    }
+
+    /**
+     * Records the types, package mappings and navigation items declared by the given parsed source file. This has the
+     * same threading requirements as {@link #scan(String, InputStream)}.
+     */
+    public void add(String fileName, CompilationUnit compilationUnit) {
+        new ScanForClassTypeVisitor().visit(compilationUnit, null);
+
+        if (fileName.equals(PACKAGE_INFO_FILE) || fileName.endsWith("/" + PACKAGE_INFO_FILE)) {
+            compilationUnit.getPackageDeclaration().ifPresent(pd -> {
+                compilationUnit.getAllComments().stream()
+                        .filter(Comment::isJavadocComment)
+                        .map(Comment::asJavadocComment)
+                        .findFirst()
+                        .ifPresent(comment -> packageNameToPackageInfoJavaDoc.put(pd.getNameAsString(), comment));
+            });
+        } else {
+            final ScanClass scanClass = new ScanClass(fileName, compilationUnit);
+            packages.computeIfAbsent(scanClass.getPackageName(), name -> new ConcurrentLinkedQueue<>()).add(scanClass);
+        }
+    }
+
+    /**
+     * Returns the names of all packages scanned so far, in the order they appear in the listing.
+     */
+    public List<String> getPackageNames() {
+        return packages.keySet().stream().sorted().collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the tokens for the given package. Packages may be tokenised concurrently, but each package must only be
+     * tokenised once, and not at the same time as its diagnostics are scanned.
+     */
+    public List<Token> tokenisePackage(String packageName) {
+        final VisitorContext context = new VisitorContext();
+        new ClassOrInterfaceVisitor(context).visitPackage(packageName, getScanClasses(packageName));
+        return context.tokens;
+    }
+
+    /**
+     * Runs the diagnostic rules over each file in the given package, in the order the files appear in the listing.
+     * Diagnostics are numbered when they are added to the listing, which happens once each file has been checked, after
+     * its diagnostics have been put in rule order. So packages should be scanned one at a time, in listing order.
+     */
+    public void scanDiagnostics(String packageName) {
+        getScanClasses(packageName).forEach(scanClass -> Diagnostics.scan(scanClass.getCompilationUnit(), apiListing));
+    }
+
+    /**
+     * Runs the project-wide diagnostic rules, which check across files using what was gathered while the files were
+     * scanned. This must be called once, after {@link #scanDiagnostics(String)} has been called for every package.
+     */
+    public void scanProjectDiagnostics() {
+        Diagnostics.scanProject(apiListing);
+    }
+
+    /**
+     * Counts the public API of the given package, as it would appear in the listing, without tokenising it. This has
+     * the same threading requirements as {@link #tokenisePackage(String)}.
+     */
+    public APISummary.Counts summarisePackage(String packageName) {
+        final APISummary.Counts counts = new APISummary.Counts(packageName);
+        getScanClasses(packageName).forEach(scanClass ->
+                scanClass.getCompilationUnit().getTypes().forEach(type -> summariseType(type, counts)));
+        return counts;
+    }
+
+    private static void summariseType(TypeDeclaration<?> typeDeclaration, APISummary.Counts counts) {
+        if (!isTypeAPublicAPI(typeDeclaration)) {
+            return;
+        }
+
+        final TypeMembers typeMembers = TypeMembers.of(typeDeclaration);
+
+        // as in the listing, a class with no constructors at all is shown with its implicit default constructor
+        int constructors = typeMembers.getApiConstructors().size();
+        if (!typeMembers.hasConstructors() && !isInterfaceType(typeDeclaration)
+                && !typeDeclaration.isEnumDeclaration() && !typeDeclaration.isAnnotationDeclaration()) {
+            constructors = 1;
+        }
+
+        // annotation members are listed as methods, and enum constants as fields
+        int methods = typeMembers.getApiMethods().size();
+        int fields = typeMembers.getApiFields().stream().mapToInt(field -> field.getVariables().size()).sum();
+        if (typeDeclaration.isAnnotationDeclaration()) {
+            methods += Math.toIntExact(typeDeclaration.getMembers().stream()
+                    .filter(BodyDeclaration::isAnnotationMemberDeclaration)
+                    .count());
+        } else if (typeDeclaration.isEnumDeclaration()) {
+            fields += typeDeclaration.asEnumDeclaration().getEntries().size();
+        }
+        counts.addType(constructors, methods, fields);
+
+        typeDeclaration.getMembers().stream()
+                .filter(m -> m.isEnumDeclaration() || m.isClassOrInterfaceDeclaration())
+                .forEach(m -> summariseType(m.asTypeDeclaration(), counts));
+    }
+
+    private List<ScanClass> getScanClasses(String packageName) {
+        return packages.getOrDefault(packageName, new ConcurrentLinkedQueue<>()).stream()
+                .sorted(SCAN_CLASS_ORDER)
+                .collect(Collectors.toList());
+    }
+
+    private static JavaParser createJavaParser() {
+        // types are linked by name, from the imports and the known types of the listing, and nothing is ever resolved,
+        // so the parser is not given a symbol resolver
+        ParserConfiguration parserConfiguration = new ParserConfiguration()
+                .setStoreTokens(true)
+                .setLanguageLevel(ParserConfiguration.LanguageLevel.JAVA_11);
+
+        return new JavaParser(parserConfiguration);
     }
 
     // This class represents a class that is going to go through the analysis pipeline, and it collects
     // together all useful properties that were identified so that they can form part of the analysis.
     private static class ScanClass implements Comparable<ScanClass> {
         private final CompilationUnit compilationUnit;
-        private final Path path;
+        private final String fileName;
         private String primaryTypeName;
         private String packageName = "";
 
-        public ScanClass(Path path, CompilationUnit compilationUnit) {
+        public ScanClass(String fileName, CompilationUnit compilationUnit) {
             this.compilationUnit = compilationUnit;
-            this.path = path;
+            this.fileName = fileName;
             compilationUnit.getPackageDeclaration().ifPresent(packageDeclaration -> {
                 packageName = packageDeclaration.getNameAsString();
             });
@@ -138,8 +370,8 @@ public class ASTAnalyser implements Analyser {
             return compilationUnit;
         }
 
-        public Path getPath() {
-            return path;
+        public String getFileName() {
+            return fileName;
         }
 
         public String getPackageName() {
@@ -152,97 +384,67 @@ public class ASTAnalyser implements Analyser {
         }
     }
 
-    private Optional<ScanClass> scanForTypes(Path path) {
-        try {
-            // Set up a minimal type solver that only looks at the classes used to run this sample.
-            CombinedTypeSolver combinedTypeSolver = new CombinedTypeSolver();
-            combinedTypeSolver.add(new ReflectionTypeSolver(false));
-//            combinedTypeSolver.add(new SourceJarTypeSolver(inputFile));
-
-            ParserConfiguration parserConfiguration = new ParserConfiguration()
-                    .setStoreTokens(true)
-                    .setSymbolResolver(new JavaSymbolSolver(combinedTypeSolver))
-                    .setLanguageLevel(ParserConfiguration.LanguageLevel.JAVA_11);
-
-            // Configure JavaParser to use type resolution
-            StaticJavaParser.setConfiguration(parserConfiguration);
-
-            CompilationUnit compilationUnit = StaticJavaParser.parse(path);
-            new ScanForClassTypeVisitor().visit(compilationUnit, null);
-
-            if (path.endsWith("package-info.java")) {
-                compilationUnit.getPackageDeclaration().ifPresent(pd -> {
-                    compilationUnit.getAllComments().stream()
-                            .filter(Comment::isJavadocComment)
-                            .map(Comment::asJavadocComment)
-                            .findFirst()
-                            .ifPresent(comment -> packageNameToPackageInfoJavaDoc.put(pd.getNameAsString(), comment));
-                });
-
-                return Optional.empty();
-            } else {
-                return Optional.of(new ScanClass(path, compilationUnit));
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-            return Optional.empty();
-        }
+    /*
+     * The state that is built up while tokenising a single package. Each package gets its own context, so packages
+     * can be tokenised independently of each other.
+     */
+    private static class VisitorContext {
+        private final List<Token> tokens = new ArrayList<>();
+        private int indent;
     }
 
-    private void processPackage(String packageName, List<ScanClass> scanClasses) {
-        // lets see if we have javadoc for this packageName
-        if (packageNameToPackageInfoJavaDoc.containsKey(packageName)) {
-            visitJavaDoc(packageNameToPackageInfoJavaDoc.get(packageName));
-        }
+    private class ClassOrInterfaceVisitor extends VoidVisitorAdapter<Void> {
+        private final VisitorContext context;
 
-        addToken(new Token(KEYWORD, "package"), SPACE);
+        // the names imported by the compilation unit being visited, which decide the types of other listings it sees
+        private Set<String> importedNames = Collections.emptySet();
 
-        Token packageToken;
-        if (packageName.isEmpty()) {
-            packageToken = new Token(TEXT, "<root package>");
-        } else {
-            packageToken = new Token(TYPE_NAME, packageName, packageName);
-            packageToken.setNavigateToId(packageName);
+        ClassOrInterfaceVisitor(VisitorContext context) {
+            this.context = context;
         }
-        addToken(packageToken, SPACE);
-        addToken(new Token(PUNCTUATION, "{"), NEWLINE);
 
-        indent();
+        // nested types are visited by a visitor of their own, which sees the imports of the enclosing compilation unit
+        ClassOrInterfaceVisitor(VisitorContext context, Set<String> importedNames) {
+            this.context = context;
+            this.importedNames = importedNames;
+        }
 
-        scanClasses.stream()
-                .sorted(Comparator.comparing(s -> s.primaryTypeName))
-                .forEach(this::processSingleFile);
+        void visitPackage(String packageName, List<ScanClass> scanClasses) {
+            // lets see if we have javadoc for this packageName
+            if (packageNameToPackageInfoJavaDoc.containsKey(packageName)) {
+                visitJavaDoc(packageNameToPackageInfoJavaDoc.get(packageName));
+            }
 
-        unindent();
+            addToken(new Token(KEYWORD, "package"), SPACE);
 
-        addToken(new Token(PUNCTUATION, "}"), NEWLINE);
-    }
+            Token packageToken;
+            if (packageName.isEmpty()) {
+                packageToken = new Token(TEXT, "<root package>");
+            } else {
+                packageToken = new Token(TYPE_NAME, packageName, packageName);
+                packageToken.setNavigateToId(packageName);
+            }
+            addToken(packageToken, SPACE);
+            addToken(new Token(PUNCTUATION, "{"), NEWLINE);
 
-    private void processSingleFile(ScanClass scanClass) {
-        new ClassOrInterfaceVisitor().visit(scanClass.compilationUnit, null);
-    }
+            indent();
 
-    private class ClassOrInterfaceVisitor extends VoidVisitorAdapter<Void> {
-        private ChildItem parentNav;
+            scanClasses.forEach(scanClass -> new ClassOrInterfaceVisitor(context).visit(scanClass.getCompilationUnit(), null));
 
-        ClassOrInterfaceVisitor() {
-            this(null);
-        }
+            unindent();
 
-        ClassOrInterfaceVisitor(ChildItem parentNav) {
-            this.parentNav = parentNav;
+            addToken(new Token(PUNCTUATION, "}"), NEWLINE);
         }
 
         @Override
         public void visit(CompilationUnit compilationUnit, Void args) {
+            importedNames = getImportedNames(compilationUnit);
             compilationUnit.getModule().ifPresent(this::visitModuleDeclaration);
 
             NodeList<TypeDeclaration<?>> types = compilationUnit.getTypes();
             for (final TypeDeclaration<?> typeDeclaration : types) {
                 visitClassOrInterfaceOrEnumDeclaration(typeDeclaration);
             }
-
-            Diagnostics.scan(compilationUnit, apiListing);
         }
 
         private void visitClassOrInterfaceOrEnumDeclaration(TypeDeclaration<?> typeDeclaration) {
@@ -289,12 +491,13 @@ public class ASTAnalyser implements Analyser {
                 tokeniseAnnotationMember(annotationDeclaration);
             }
 
+            final TypeMembers typeMembers = TypeMembers.of(typeDeclaration);
+
             // get fields
-            tokeniseFields(isInterfaceDeclaration, typeDeclaration);
+            tokeniseFields(typeMembers);
 
             // get Constructors
-            final List<ConstructorDeclaration> constructors = typeDeclaration.getConstructors();
-            if (constructors.isEmpty()) {
+            if (!typeMembers.hasConstructors()) {
                 // add default constructor if there is no constructor at all, except interface and enum
                 if (!isInterfaceDeclaration && !typeDeclaration.isEnumDeclaration() && !typeDeclaration.isAnnotationDeclaration()) {
                     addDefaultConstructor(typeDeclaration);
@@ -302,11 +505,11 @@ public class ASTAnalyser implements Analyser {
                     // skip and do nothing if there is no constructor in the interface.
                 }
             } else {
-                tokeniseConstructorsOrMethods(typeDeclaration, isInterfaceDeclaration, true, constructors);
+                tokeniseConstructors(typeMembers);
             }
 
             // get Methods
-            tokeniseConstructorsOrMethods(typeDeclaration, isInterfaceDeclaration, false, typeDeclaration.getMethods());
+            tokeniseMethods(typeMembers);
 
             // get Inner classes
             tokeniseInnerClasses(typeDeclaration.getMembers());
@@ -458,28 +661,11 @@ public class ASTAnalyser implements Analyser {
             getModifiers(typeDeclaration.getModifiers());
 
             // Get type kind
-            TypeKind typeKind;
-            if (typeDeclaration.isClassOrInterfaceDeclaration()) {
-                typeKind = ((ClassOrInterfaceDeclaration)typeDeclaration).isInterface() ? TypeKind.INTERFACE : TypeKind.CLASS;
-            } else if (typeDeclaration.isEnumDeclaration()) {
-                typeKind = TypeKind.ENUM;
-            } else if (typeDeclaration.isAnnotationDeclaration()) {
-                typeKind = TypeKind.INTERFACE;
-            } else {
-                typeKind = TypeKind.UNKNOWN;
-            }
+            final TypeKind typeKind = getTypeKind(typeDeclaration);
 
-            // Create navigation for this class and add it to the parent
+            // the navigation item for this type was already created when the file was scanned
             final String className = typeDeclaration.getNameAsString();
-            final String packageName = getPackageName(typeDeclaration);
             final String classId = makeId(typeDeclaration);
-            ChildItem classNav = new ChildItem(classId, className, typeKind);
-            if (parentNav == null) {
-                apiListing.addChildItem(packageName, classNav);
-            } else {
-                parentNav.addChildItem(classNav);
-            }
-            parentNav = classNav;
 
             if (typeDeclaration.isAnnotationDeclaration()) {
                 addToken(new Token(KEYWORD, "@"));
@@ -535,8 +721,8 @@ public class ASTAnalyser implements Analyser {
                     addToken(new Token(WHITESPACE, " "));
                 }
                 if (!implementedTypes.isEmpty()) {
-                    apiListing.getTokens().remove(apiListing.getTokens().size() - 1);
-                    apiListing.getTokens().remove(apiListing.getTokens().size() - 1);
+                    removeLastToken();
+                    removeLastToken();
                 }
             }
             // open ClassOrInterfaceDeclaration
@@ -582,20 +768,9 @@ public class ASTAnalyser implements Analyser {
             unindent();
         }
 
-        private void tokeniseFields(boolean isInterfaceDeclaration, TypeDeclaration<?> typeDeclaration) {
-            final List<? extends FieldDeclaration> fieldDeclarations = typeDeclaration.getFields();
-            final String fullPathName = typeDeclaration.getFullyQualifiedName().get();
-
+        private void tokeniseFields(TypeMembers typeMembers) {
             indent();
-            for (FieldDeclaration fieldDeclaration : fieldDeclarations) {
-                // By default , interface has public abstract methods if there is no access specifier declared
-                if (isInterfaceDeclaration) {
-                    // no-op - we take all methods in the method
-                } else if (isPrivateOrPackagePrivate(fieldDeclaration.getAccessSpecifier())) {
-                    // Skip if not public API
-                    continue;
-                }
-
+            for (FieldDeclaration fieldDeclaration : typeMembers.getApiFields()) {
                 visitJavaDoc(fieldDeclaration.getJavadocComment());
 
                 addToken(makeWhitespace());
@@ -617,17 +792,17 @@ public class ASTAnalyser implements Analyser {
 
                     for (VariableDeclarator variableDeclarator : variableDeclarators) {
                         final String name = variableDeclarator.getNameAsString();
-                        final String definitionId = makeId(fullPathName + "." + variableDeclarator.getName());
+                        final String definitionId = makeId(variableDeclarator);
                         addToken(new Token(MEMBER_NAME, name, definitionId));
                         addToken(new Token(PUNCTUATION, ","), SPACE);
                     }
-                    apiListing.getTokens().remove(apiListing.getTokens().size() - 1);
-                    apiListing.getTokens().remove(apiListing.getTokens().size() - 1);
+                    removeLastToken();
+                    removeLastToken();
                 } else if (variableDeclarators.size() == 1) {
                     getType(fieldDeclaration);
                     final VariableDeclarator variableDeclarator = variableDeclarators.get(0);
                     final String name = variableDeclarator.getNameAsString();
-                    final String definitionId = makeId(fullPathName + "." + variableDeclarator.getName());
+                    final String definitionId = makeId(variableDeclarator);
                     addToken(new Token(MEMBER_NAME, name, definitionId));
 
                     final Optional<Expression> variableDeclaratorOption = variableDeclarator.getInitializer();
@@ -643,166 +818,85 @@ public class ASTAnalyser implements Analyser {
             unindent();
         }
 
-        private void tokeniseConstructorsOrMethods(final TypeDeclaration<?> typeDeclaration,
-                                                   final boolean isInterfaceDeclaration,
-                                                   final boolean isConstructor,
-                                                   final List<? extends CallableDeclaration<?>> callableDeclarations) {
+        private void tokeniseConstructors(final TypeMembers typeMembers) {
             indent();
 
-            if (isConstructor) {
-                // determining if we are looking at a set of constructors that are all private, indicating that the
-                // class is unlikely to be instantiable via 'new' calls.
-                // We also must check if there are no constructors, because this indicates that there is the default,
-                // no-args public constructor
-                final boolean isAllPrivateOrPackagePrivate = ! callableDeclarations.isEmpty() && callableDeclarations.stream()
-                        .filter(BodyDeclaration::isConstructorDeclaration)
-                        .allMatch(callableDeclaration -> isPrivateOrPackagePrivate(callableDeclaration.getAccessSpecifier()));
-
-                if (isAllPrivateOrPackagePrivate) {
-                    addToken(INDENT,
-                            new Token(COMMENT, "// This class does not have any public constructors, and is not able to be instantiated using 'new'."),
-                            NEWLINE);
-                    unindent();
-                    return;
-                }
+            // a set of constructors that are all private indicates that the class is unlikely to be instantiable via
+            // 'new' calls.
+            if (typeMembers.isNotInstantiable()) {
+                addToken(INDENT,
+                        new Token(COMMENT, "// This class does not have any public constructors, and is not able to be instantiated using 'new'."),
+                        NEWLINE);
+            } else {
+                typeMembers.getApiConstructors().forEach(member -> tokeniseCallableDeclaration(member.getDeclaration()));
             }
 
-            // if the class we are looking at is annotated with @ServiceClient, we will break up the methods that are
-            // displayed into service methods and non-service methods
-            final boolean showGroupings = !isConstructor && typeDeclaration.isAnnotationPresent("ServiceClient");
-            Collector<CallableDeclaration<?>, ?, Map<String, List<CallableDeclaration<?>>>> collector = Collectors.groupingBy((CallableDeclaration<?> cd) -> {
-                if (showGroupings) {
-                    if (cd.isAnnotationPresent("ServiceMethod")) {
-                        return "Service Methods";
-                    } else {
-                        return "Non-Service Methods";
-                    }
-                } else {
-                    return "";
-                }
-            });
-
-            callableDeclarations.stream()
-                    .filter(callableDeclaration -> {
-                        if (isInterfaceDeclaration) {
-                            // By default , interface has public abstract methods if there is no access specifier declared.
-                            // we take all methods in the interface.
-                            return true;
-                        } else if (isPrivateOrPackagePrivate(callableDeclaration.getAccessSpecifier())) {
-                            // Skip if not public API
-                            return false;
-                        }
-                        return true;
-                    })
-                    .sorted(this::sortMethods)
-                    .collect(collector)
-                    .forEach((groupName, group) -> {
-                        if (showGroupings && !group.isEmpty()) {
-                            // we group inside the APIView each of the groups, so that we can visualise their operations
-                            // more clearly
-                            addToken(INDENT, new Token(COMMENT, "// " + groupName + ":"), NEWLINE);
-                        }
-
-                        group.forEach(callableDeclaration -> {
-                            // print the JavaDoc above each method / constructor
-                            visitJavaDoc(callableDeclaration.getJavadocComment());
-
-                            addToken(makeWhitespace());
-
-                            // annotations
-                            getAnnotations(callableDeclaration, false, false);
+            unindent();
+        }
 
-                            // modifiers
-                            getModifiers(callableDeclaration.getModifiers());
+        private void tokeniseMethods(final TypeMembers typeMembers) {
+            indent();
 
-                            // type parameters of methods
-                            getTypeParameters(callableDeclaration.getTypeParameters());
+            if (typeMembers.showServiceMethodGroupings()) {
+                // we group inside the APIView each of the groups, so that we can visualise their operations more clearly
+                tokeniseMethodGroup("Service Methods", typeMembers.getServiceMethods());
+                tokeniseMethodGroup("Non-Service Methods", typeMembers.getNonServiceMethods());
+            } else {
+                typeMembers.getApiMethods().forEach(member -> tokeniseCallableDeclaration(member.getDeclaration()));
+            }
 
-                            // if type parameters of method is not empty, we need to add a space before adding type name
-                            if (!callableDeclaration.getTypeParameters().isEmpty()) {
-                                addToken(new Token(WHITESPACE, " "));
-                            }
+            unindent();
+        }
 
-                            // type name
-                            if (callableDeclaration instanceof MethodDeclaration) {
-                                getType(callableDeclaration);
-                            }
+        private void tokeniseMethodGroup(final String groupName, final List<TypeMembers.Member<MethodDeclaration>> group) {
+            if (group.isEmpty()) {
+                return;
+            }
 
-                            // method name and parameters
-                            getDeclarationNameAndParameters(callableDeclaration, callableDeclaration.getParameters());
+            addToken(INDENT, new Token(COMMENT, "// " + groupName + ":"), NEWLINE);
+            group.forEach(member -> tokeniseCallableDeclaration(member.getDeclaration()));
+        }
 
-                            // throw exceptions
-                            getThrowException(callableDeclaration);
+        private void tokeniseCallableDeclaration(final CallableDeclaration<?> callableDeclaration) {
+            // print the JavaDoc above each method / constructor
+            visitJavaDoc(callableDeclaration.getJavadocComment());
 
-                            // close statements
-                            addToken(new Token(NEW_LINE, ""));
-                        });
-                    });
+            addToken(makeWhitespace());
 
-            unindent();
-        }
+            // annotations
+            getAnnotations(callableDeclaration, false, false);
 
-        private int sortMethods(CallableDeclaration<?> c1, CallableDeclaration<?> c2) {
-            // we try our best to sort the callable methods using the following rules:
-            //  * If the method starts with 'set', 'get', or 'is', we strip off the prefix for the sake of comparison
-            //  * We do all comparisons in a case-insensitive manner
-            //  * Constructors always go at the top
-            //  * build* methods always go at the bottom
+            // modifiers
+            getModifiers(callableDeclaration.getModifiers());
 
-            final int methodParamCountCompare = Integer.compare(c1.getParameters().size(), c2.getParameters().size());
+            // type parameters of methods
+            getTypeParameters(callableDeclaration.getTypeParameters());
 
-            if (c1.isConstructorDeclaration()) {
-                if (c2.isConstructorDeclaration()) {
-                    // if both are constructors, we sort in order of the number of arguments
-                    return methodParamCountCompare;
-                } else {
-                    // only c1 is a constructor, so it goes first
-                    return -1;
-                }
-            } else if (c2.isConstructorDeclaration()) {
-                // only c2 is a constructor, so it goes first
-                return 1;
+            // if type parameters of method is not empty, we need to add a space before adding type name
+            if (!callableDeclaration.getTypeParameters().isEmpty()) {
+                addToken(new Token(WHITESPACE, " "));
             }
 
-            final String fullName1 = c1.getNameAsString();
-            String s1 = (fullName1.startsWith("set") || fullName1.startsWith("get") ? fullName1.substring(3)
-                    : fullName1.startsWith("is") ? fullName1.substring(2) : fullName1).toLowerCase();
+            // type name
+            if (callableDeclaration instanceof MethodDeclaration) {
+                getType(callableDeclaration);
+            }
 
-            final String fullName2 = c2.getNameAsString();
-            String s2 = (fullName2.startsWith("set") || fullName2.startsWith("get") ? fullName2.substring(3)
-                    : fullName2.startsWith("is") ? fullName2.substring(2) : fullName2).toLowerCase();
+            // method name and parameters
+            getDeclarationNameAndParameters(callableDeclaration, callableDeclaration.getParameters());
 
-            if (s1.startsWith("build")) {
-                if (s2.startsWith("build")) {
-                    // two 'build' methods, sort alphabetically
-                    return s1.compareTo(s2);
-                } else {
-                    // only s1 is a build method, so it goes last
-                    return 1;
-                }
-            } else if (s2.startsWith("build")) {
-                // only s2 is a build method, so it goes last
-                return -1;
-            }
+            // throw exceptions
+            getThrowException(callableDeclaration);
 
-            int methodNameCompare = s1.compareTo(s2);
-            if (methodNameCompare == 0) {
-                // they have the same name, so here we firstly compare by the full name (including prefix), and then
-                // we compare by number of args
-                methodNameCompare = fullName1.compareTo(fullName2);
-                if (methodNameCompare == 0) {
-                    // compare by number of args
-                    return methodParamCountCompare;
-                }
-            }
-            return methodNameCompare;
+            // close statements
+            addToken(new Token(NEW_LINE, ""));
         }
 
         private void tokeniseInnerClasses(NodeList<BodyDeclaration<?>> bodyDeclarations) {
             for (final BodyDeclaration<?> bodyDeclaration : bodyDeclarations) {
                 if (bodyDeclaration.isEnumDeclaration() || bodyDeclaration.isClassOrInterfaceDeclaration()) {
                     indent();
-                    new ClassOrInterfaceVisitor(parentNav).visitClassOrInterfaceOrEnumDeclaration(bodyDeclaration.asTypeDeclaration());
+                    new ClassOrInterfaceVisitor(context, importedNames).visitClassOrInterfaceOrEnumDeclaration(bodyDeclaration.asTypeDeclaration());
                     unindent();
                 }
             }
@@ -860,9 +954,10 @@ public class ASTAnalyser implements Analyser {
             if (valueExpr.isClassExpr()) {
                 // lookup to see if the type is known about, if so, make it a link, otherwise leave it as text
                 String typeName = valueExpr.getChildNodes().get(0).toString();
-                if (apiListing.getKnownTypes().containsKey(typeName)) {
+                final String typeId = apiListing.getTypeId(typeName, importedNames);
+                if (typeId != null) {
                     final Token token = new Token(TYPE_NAME, typeName);
-                    token.setNavigateToId(apiListing.getKnownTypes().get(typeName));
+                    token.setNavigateToId(typeId);
                     addToken(token);
                     return;
                 }
@@ -940,8 +1035,9 @@ public class ASTAnalyser implements Analyser {
             // set navigateToId
             final String typeName = typeParameter.getNameAsString();
             final Token token = new Token(TYPE_NAME, typeName);
-            if (apiListing.getKnownTypes().containsKey(typeName)) {
-                token.setNavigateToId(apiListing.getKnownTypes().get(typeName));
+            final String typeId = apiListing.getTypeId(typeName, importedNames);
+            if (typeId != null) {
+                token.setNavigateToId(typeId);
             }
             addToken(token);
 
@@ -970,8 +1066,8 @@ public class ASTAnalyser implements Analyser {
 
                 // we look up the package name in case it is a custom type in the same library,
                 // so that we can link to it
-                if (apiListing.getTypeToPackageNameMap().containsKey(exceptionName)) {
-                    String fullPath = apiListing.getTypeToPackageNameMap().get(exceptionName);
+                final String fullPath = apiListing.getPackageName(exceptionName, importedNames);
+                if (fullPath != null) {
                     throwsToken.setNavigateToId(makeId(fullPath + "." + exceptionName));
                 }
 
@@ -1034,8 +1130,9 @@ public class ASTAnalyser implements Analyser {
             if (childrenSize <= 1) {
                 final String typeName = node.toString();
                 final Token token = new Token(TYPE_NAME, typeName);
-                if (apiListing.getKnownTypes().containsKey(typeName)) {
-                    token.setNavigateToId(apiListing.getKnownTypes().get(typeName));
+                final String typeId = apiListing.getTypeId(typeName, importedNames);
+                if (typeId != null) {
+                    token.setNavigateToId(typeId);
                 }
                 addToken(token);
                 return;
@@ -1098,6 +1195,64 @@ public class ASTAnalyser implements Analyser {
 
             unindent();
         }
+
+        private void visitJavaDoc(Optional<JavadocComment> javadocComment) {
+            javadocComment.ifPresent(this::visitJavaDoc);
+        }
+
+        private void visitJavaDoc(JavadocComment jd) {
+            if (!SHOW_JAVADOC) {
+                return;
+            }
+            Arrays.stream(jd.toString().split("\n")).forEach(line -> {
+                addToken(makeWhitespace());
+                addToken(new Token(COMMENT, MiscUtils.escapeHTML(line)));
+                addToken(new Token(NEW_LINE, ""));
+            });
+        }
+
+        private void indent() {
+            context.indent += 4;
+        }
+
+        private void unindent() {
+            context.indent = Math.max(context.indent - 4, 0);
+        }
+
+        private Token makeWhitespace() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < context.indent; i++) {
+                sb.append(" ");
+            }
+            return new Token(WHITESPACE, sb.toString());
+        }
+
+        private void addToken(Token token) {
+            addToken(token, NOTHING);
+        }
+
+        private void addToken(Token token, TokenModifier suffix) {
+            addToken(NOTHING, token, suffix);
+        }
+
+        private void addToken(TokenModifier prefix, Token token, TokenModifier suffix) {
+            handleTokenModifier(prefix);
+            context.tokens.add(token);
+            handleTokenModifier(suffix);
+        }
+
+        private void removeLastToken() {
+            context.tokens.remove(context.tokens.size() - 1);
+        }
+
+        private void handleTokenModifier(TokenModifier modifier) {
+            switch (modifier) {
+                case INDENT: addToken(makeWhitespace()); break;
+                case SPACE: addToken(new Token(WHITESPACE, " ")); break;
+                case NEWLINE: addToken(new Token(NEW_LINE, "")); break;
+                case NOTHING: break;
+            }
+        }
     }
 
     private class ScanForClassTypeVisitor extends VoidVisitorAdapter<Map<String, String>> {
@@ -1108,7 +1263,7 @@ public class ASTAnalyser implements Analyser {
             });
 
             for (final TypeDeclaration<?> typeDeclaration : compilationUnit.getTypes()) {
-                buildTypeHierarchyForNavigation(typeDeclaration);
+                buildTypeHierarchyForNavigation(typeDeclaration, null);
             }
 
             // we build up a map between types and the packages they are in, for use in our diagnostic rules
@@ -1121,10 +1276,10 @@ public class ASTAnalyser implements Analyser {
     }
 
     /*
-     * This method is only called in relation to building up the types for linking, it does not build up the actual
-     * text output that is displayed to the user.
+     * This method is only called in relation to building up the types for linking and the navigation tree, it does not
+     * build up the actual text output that is displayed to the user.
      */
-    private void buildTypeHierarchyForNavigation(TypeDeclaration<?> typeDeclaration) {
+    private void buildTypeHierarchyForNavigation(TypeDeclaration<?> typeDeclaration, String parentNavId) {
         // Skip if the class is private or package-private, unless it is a nested type defined inside a public interface
         if (!isTypeAPublicAPI(typeDeclaration)) {
             return;
@@ -1142,65 +1297,32 @@ public class ASTAnalyser implements Analyser {
         final String packageName = fullQualifiedName.substring(0, fullQualifiedName.lastIndexOf("."));
         apiListing.addPackageTypeMapping(packageName, typeName);
 
-        apiListing.getKnownTypes().put(typeName, makeId(typeDeclaration));
+        final String typeId = makeId(typeDeclaration);
+        apiListing.addKnownType(typeName, typeId);
+
+        // Create navigation for this type and add it to the parent
+        final ChildItem typeNav = new ChildItem(typeId, typeName, getTypeKind(typeDeclaration));
+        if (parentNavId == null) {
+            apiListing.addChildItem(packageName, typeNav);
+        } else {
+            apiListing.addNestedChildItem(parentNavId, typeNav);
+        }
 
         // now do internal types
         typeDeclaration.getMembers().stream()
                 .filter(m -> m.isEnumDeclaration() || m.isClassOrInterfaceDeclaration())
-                .forEach(m -> buildTypeHierarchyForNavigation(m.asTypeDeclaration()));
-    }
-
-    private void visitJavaDoc(Optional<JavadocComment> javadocComment) {
-        javadocComment.ifPresent(this::visitJavaDoc);
-    }
-
-    private void visitJavaDoc(JavadocComment jd) {
-        if (!SHOW_JAVADOC) {
-            return;
-        }
-        Arrays.stream(jd.toString().split("\n")).forEach(line -> {
-            addToken(makeWhitespace());
-            addToken(new Token(COMMENT, MiscUtils.escapeHTML(line)));
-            addToken(new Token(NEW_LINE, ""));
-        });
-    }
-
-    private void indent() {
-        indent += 4;
+                .forEach(m -> buildTypeHierarchyForNavigation(m.asTypeDeclaration(), typeId));
     }
 
-    private void unindent() {
-        indent = Math.max(indent - 4, 0);
-    }
-
-    private Token makeWhitespace() {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < indent; i++) {
-            sb.append(" ");
-        }
-        return new Token(WHITESPACE, sb.toString());
-    }
-
-    private void addToken(Token token) {
-        addToken(token, NOTHING);
-    }
-
-    private void addToken(Token token, TokenModifier suffix) {
-        addToken(NOTHING, token, suffix);
-    }
-
-    private void addToken(TokenModifier prefix, Token token, TokenModifier suffix) {
-        handleTokenModifier(prefix);
-        apiListing.getTokens().add(token);
-        handleTokenModifier(suffix);
-    }
-
-    private void handleTokenModifier(TokenModifier modifier) {
-        switch (modifier) {
-            case INDENT: addToken(makeWhitespace()); break;
-            case SPACE: addToken(new Token(WHITESPACE, " ")); break;
-            case NEWLINE: addToken(new Token(NEW_LINE, "")); break;
-            case NOTHING: break;
+    private static TypeKind getTypeKind(TypeDeclaration<?> typeDeclaration) {
+        if (typeDeclaration.isClassOrInterfaceDeclaration()) {
+            return ((ClassOrInterfaceDeclaration)typeDeclaration).isInterface() ? TypeKind.INTERFACE : TypeKind.CLASS;
+        } else if (typeDeclaration.isEnumDeclaration()) {
+            return TypeKind.ENUM;
+        } else if (typeDeclaration.isAnnotationDeclaration()) {
+            return TypeKind.INTERFACE;
+        } else {
+            return TypeKind.UNKNOWN;
         }
     }
 }
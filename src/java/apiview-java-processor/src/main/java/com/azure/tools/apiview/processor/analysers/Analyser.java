@@ -9,7 +9,7 @@ import java.util.List;
  * We support multiple analysers, to serve different purposes.
  *
  * @see ASTAnalyser
- * @see ReflectiveAnalyser
+ * @see BytecodeAnalyser
  */
 @FunctionalInterface
 public interface Analyser {
@@ -0,0 +1,1390 @@
+package com.azure.tools.apiview.processor.analysers;
+
+import com.azure.tools.apiview.processor.analysers.util.PackageFilter;
+import com.azure.tools.apiview.processor.analysers.util.TokenModifier;
+import com.azure.tools.apiview.processor.analysers.util.TypeMembers;
+import com.azure.tools.apiview.processor.model.APIListing;
+import com.azure.tools.apiview.processor.model.ChildItem;
+import com.azure.tools.apiview.processor.model.Diagnostic;
+import com.azure.tools.apiview.processor.model.Token;
+import com.azure.tools.apiview.processor.model.TokenSegmentStore;
+import com.azure.tools.apiview.processor.model.TypeKind;
+import com.azure.tools.apiview.processor.sink.ListTokenSink;
+import com.azure.tools.apiview.processor.sink.TokenSink;
+import javassist.bytecode.AccessFlag;
+import javassist.bytecode.AnnotationDefaultAttribute;
+import javassist.bytecode.AnnotationsAttribute;
+import javassist.bytecode.AttributeInfo;
+import javassist.bytecode.BadBytecode;
+import javassist.bytecode.ClassFile;
+import javassist.bytecode.CodeAttribute;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.ExceptionsAttribute;
+import javassist.bytecode.FieldInfo;
+import javassist.bytecode.InnerClassesAttribute;
+import javassist.bytecode.LocalVariableAttribute;
+import javassist.bytecode.MethodInfo;
+import javassist.bytecode.MethodParametersAttribute;
+import javassist.bytecode.SignatureAttribute;
+import javassist.bytecode.annotation.Annotation;
+import javassist.bytecode.annotation.ArrayMemberValue;
+import javassist.bytecode.annotation.ClassMemberValue;
+import javassist.bytecode.annotation.EnumMemberValue;
+import javassist.bytecode.annotation.MemberValue;
+import javassist.bytecode.annotation.StringMemberValue;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.azure.tools.apiview.processor.analysers.util.ASTUtils.makeId;
+import static com.azure.tools.apiview.processor.analysers.util.TokenModifier.*;
+import static com.azure.tools.apiview.processor.model.TokenKind.COMMENT;
+import static com.azure.tools.apiview.processor.model.TokenKind.KEYWORD;
+import static com.azure.tools.apiview.processor.model.TokenKind.LINE_ID_MARKER;
+import static com.azure.tools.apiview.processor.model.TokenKind.MEMBER_NAME;
+import static com.azure.tools.apiview.processor.model.TokenKind.NEW_LINE;
+import static com.azure.tools.apiview.processor.model.TokenKind.PUNCTUATION;
+import static com.azure.tools.apiview.processor.model.TokenKind.TEXT;
+import static com.azure.tools.apiview.processor.model.TokenKind.TYPE_NAME;
+import static com.azure.tools.apiview.processor.model.TokenKind.WHITESPACE;
+
+/**
+ * An analyser that works from the class files in a compiled jar file, rather than from source code. Reading class
+ * files is far cheaper than parsing source, and the output follows the same layout as the {@link ASTAnalyser}, using
+ * generic signatures where the class files include them.
+ *
+ * <p>Some information only exists in source, so it is missing from the listing: javadoc, enum constant arguments,
+ * field initializers that are not compile-time constants, annotations with source retention (such as
+ * {@code @Override}), and parameter names where the class files were compiled without debug information. No
+ * diagnostics are produced, as the diagnostic rules work on source.</p>
+ */
+public class BytecodeAnalyser implements Analyser {
+    // the annotations that we display, in the order they are displayed
+    private static final String[] DISPLAYED_ANNOTATIONS = {
+        "Deprecated", "Override", "ServiceClient", "ServiceClientBuilder", "Fluent", "Immutable"
+    };
+
+    private static final Comparator<ClassInfo> CLASS_ORDER = Comparator.comparing((ClassInfo c) -> c.simpleName)
+            .thenComparing(c -> c.name);
+
+    private final APIListing apiListing;
+
+    private final PackageFilter packageFilter;
+
+    // binary class name (e.g. 'com.azure.Foo$Bar') to the class file for it
+    private final Map<String, ClassInfo> classes = new ConcurrentHashMap<>();
+
+    // the definition IDs of all types in the public API, so that references to them can be linked
+    private final Set<String> typeIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates an analyser that adds the class files it is given to the given listing, whether they are
+     * {@link #analyse(List) analysed} from a file system or {@link #read(String, InputStream) read} from elsewhere,
+     * such as from memory. The package filter is applied to the files given to {@code analyse}.
+     */
+    public BytecodeAnalyser(APIListing apiListing, PackageFilter packageFilter) {
+        this.apiListing = apiListing;
+        this.packageFilter = packageFilter;
+    }
+
+    /**
+     * Analyses the given files, adding the tokens to the listing. The whole listing is then held on the heap, so only
+     * {@link #analyse(List, TokenSink)}, which gives each package to a sink as it is written, keeps the heap bounded
+     * for large jars.
+     */
+    @Override
+    public void analyse(List<Path> allFiles) {
+        analyse(allFiles, new ListTokenSink(apiListing.getTokens()));
+    }
+
+    /**
+     * Analyses the given class files, sending the tokens of each package to the given sink in listing order, rather
+     * than adding them to the listing.
+     */
+    public void analyse(List<Path> allFiles, TokenSink sink) {
+        // firstly we read all class files. Class files are independent of each other, so this is done concurrently
+        allFiles.parallelStream()
+                .filter(path -> !Files.isDirectory(path) && isAnalysable(path.toString()))
+                .filter(path -> packageFilter.acceptsFile(path.toString()))
+                .forEach(this::readClassFile);
+
+        writeListing(sink);
+    }
+
+    /**
+     * Reads the given class file. This may be called from multiple threads at once, but all class files must be read
+     * before the listing is written.
+     */
+    public void read(String fileName, InputStream inputStream) throws IOException {
+        final ClassInfo classInfo = new ClassInfo(new ClassFile(new DataInputStream(new BufferedInputStream(inputStream))));
+        classes.put(classInfo.name, classInfo);
+    }
+
+    /**
+     * Tokenises every class file that has been read, sending the tokens of each package to the given sink in listing
+     * order. All class files must have been read first.
+     */
+    public void writeListing(TokenSink sink) {
+        if (classes.isEmpty()) {
+            // a jar such as a javadoc jar would otherwise give an empty listing, as if it were an API with no types
+            sink.acceptPackage("", Collections.singletonList(new Token(LINE_ID_MARKER, "Error!", "error")));
+            apiListing.addDiagnostic(new Diagnostic("error", "No class files were found in the uploaded file, so "
+                    + "there is no API to show. The APIView tool only works with source jar files and compiled jar "
+                    + "files that contain the classes of the library, not with other jar files such as javadoc jars."));
+            return;
+        }
+
+        // we attach nested types to the types that declare them, and group the top-level types by package
+        final Map<String, List<ClassInfo>> packages = new TreeMap<>();
+        classes.values().stream().sorted(CLASS_ORDER).forEach(classInfo -> {
+            if (classInfo.outerName == null) {
+                if (classInfo.isPublicAPI()) {
+                    packages.computeIfAbsent(classInfo.packageName, name -> new ArrayList<>()).add(classInfo);
+                }
+            } else {
+                final ClassInfo outer = classes.get(classInfo.outerName);
+                if (outer != null) {
+                    outer.nestedTypes.add(classInfo);
+                }
+            }
+        });
+
+        // followed by a pass to build a map of all known types, and the navigation tree
+        packages.values().forEach(types -> types.forEach(classInfo -> buildTypeHierarchyForNavigation(classInfo, null)));
+
+        // finally we tokenise each package. As with source, packages are tokenised concurrently, and their output is
+        // given to the sink in package name order
+        final List<String> packageNames = new ArrayList<>(packages.keySet());
+        try (TokenSegmentStore segments = new TokenSegmentStore(packageNames.size())) {
+            IntStream.range(0, packageNames.size()).parallel().forEach(i -> {
+                final String packageName = packageNames.get(i);
+                segments.set(i, packageName, new PackageTokeniser().tokenise(packageName, packages.get(packageName)));
+            });
+            segments.drain(sink::acceptPackage);
+            if (Boolean.getBoolean("apiview.debug")) {
+                System.out.println("  " + segments);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns true if the file with the given name is a class file that should be read. Which packages are read is
+     * decided separately, by the {@link PackageFilter}.
+     */
+    public static boolean isAnalysable(String fileName) {
+        return fileName.endsWith(".class")
+                && !fileName.endsWith("module-info.class")
+                && !fileName.endsWith("package-info.class");
+    }
+
+    private void readClassFile(Path path) {
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            read(path.toString(), inputStream);
+        } catch (IOException e) {
+            System.err.println("Unable to read class file '" + path + "'");
+            e.printStackTrace();
+        }
+    }
+
+    /*
+     * Types are linked to if they are in the public API of this library, or of a library built before it in a batch.
+     */
+    private boolean isLinkable(String typeId) {
+        return typeIds.contains(typeId) || apiListing.getSharedTypeIndex().containsTypeId(typeId);
+    }
+
+    private void buildTypeHierarchyForNavigation(ClassInfo classInfo, String parentNavId) {
+        apiListing.addPackageTypeMapping(classInfo.packageName, classInfo.simpleName);
+        apiListing.addKnownType(classInfo.simpleName, classInfo.id);
+        typeIds.add(classInfo.id);
+
+        final ChildItem typeNav = new ChildItem(classInfo.id, classInfo.simpleName, classInfo.getTypeKind());
+        if (parentNavId == null) {
+            apiListing.addChildItem(classInfo.packageName, typeNav);
+        } else {
+            apiListing.addNestedChildItem(parentNavId, typeNav);
+        }
+
+        classInfo.getApiNestedTypes().forEach(nested -> buildTypeHierarchyForNavigation(nested, classInfo.id));
+    }
+
+    /*
+     * A class file, along with the properties that come from how it is declared within its outer class, if any.
+     */
+    private static class ClassInfo {
+        private final ClassFile classFile;
+        private final String name;
+        private final String packageName;
+        private final String simpleName;
+        private final String id;
+        private final int accessFlags;
+        private final boolean isNested;
+        private String outerName;
+
+        // filled in once all class files have been read
+        private final List<ClassInfo> nestedTypes = new ArrayList<>();
+
+        // filled in the first time the ID of any constructor or method is asked for
+        private Map<MethodInfo, String> callableIds;
+
+        ClassInfo(ClassFile classFile) {
+            this.classFile = classFile;
+            this.name = classFile.getName();
+
+            final int lastDot = name.lastIndexOf('.');
+            this.packageName = lastDot == -1 ? "" : name.substring(0, lastDot);
+
+            // nested classes are described in the InnerClasses attribute, which gives the declared modifiers and name
+            String innerName = null;
+            int flags = classFile.getAccessFlags();
+            boolean nested = false;
+            final InnerClassesAttribute innerClasses = (InnerClassesAttribute) classFile.getAttribute(InnerClassesAttribute.tag);
+            if (innerClasses != null) {
+                for (int i = 0; i < innerClasses.tableLength(); i++) {
+                    if (name.equals(innerClasses.innerClass(i))) {
+                        nested = true;
+                        outerName = innerClasses.outerClass(i);
+                        innerName = innerClasses.innerName(i);
+                        flags = innerClasses.accessFlags(i);
+                        break;
+                    }
+                }
+            }
+
+            this.isNested = nested;
+            this.accessFlags = flags;
+            this.simpleName = innerName != null ? innerName : name.substring(lastDot + 1);
+            this.id = makeId(name.replace('$', '.'));
+        }
+
+        boolean isPublicAPI() {
+            if ((accessFlags & AccessFlag.SYNTHETIC) != 0) {
+                return false;
+            } else if (isNested && outerName == null) {
+                // local and anonymous classes are never part of the API
+                return false;
+            }
+            return (accessFlags & (AccessFlag.PUBLIC | AccessFlag.PROTECTED)) != 0;
+        }
+
+        List<ClassInfo> getApiNestedTypes() {
+            return nestedTypes.stream().filter(ClassInfo::isPublicAPI).collect(Collectors.toList());
+        }
+
+        boolean isInterface() {
+            return (classFile.getAccessFlags() & AccessFlag.INTERFACE) != 0;
+        }
+
+        boolean isAnnotation() {
+            return (classFile.getAccessFlags() & AccessFlag.ANNOTATION) != 0;
+        }
+
+        boolean isEnum() {
+            return (classFile.getAccessFlags() & AccessFlag.ENUM) != 0;
+        }
+
+        TypeKind getTypeKind() {
+            if (isInterface()) {
+                return TypeKind.INTERFACE;
+            } else if (isEnum()) {
+                return TypeKind.ENUM;
+            }
+            return TypeKind.CLASS;
+        }
+    }
+
+    /*
+     * Tokenises a single package. Each package gets its own tokeniser, so packages can be tokenised independently of
+     * each other.
+     */
+    private class PackageTokeniser {
+        private final List<Token> tokens = new ArrayList<>();
+        private int indent;
+
+        List<Token> tokenise(String packageName, List<ClassInfo> types) {
+            addToken(new Token(KEYWORD, "package"), SPACE);
+
+            Token packageToken;
+            if (packageName.isEmpty()) {
+                packageToken = new Token(TEXT, "<root package>");
+            } else {
+                packageToken = new Token(TYPE_NAME, packageName, packageName);
+                packageToken.setNavigateToId(packageName);
+            }
+            addToken(packageToken, SPACE);
+            addToken(new Token(PUNCTUATION, "{"), NEWLINE);
+
+            indent();
+            types.forEach(this::tokeniseType);
+            unindent();
+
+            addToken(new Token(PUNCTUATION, "}"), NEWLINE);
+            return tokens;
+        }
+
+        private void tokeniseType(ClassInfo classInfo) {
+            final ClassFile classFile = classInfo.classFile;
+            final List<Annotation> annotations = getAnnotations(classFile.getAttribute(AnnotationsAttribute.visibleTag),
+                    classFile.getAttribute(AnnotationsAttribute.invisibleTag));
+
+            // the annotations on an annotation type, for example @Retention(RUNTIME)
+            if (classInfo.isAnnotation()) {
+                for (Annotation annotation : annotations) {
+                    addToken(INDENT, new Token(KEYWORD, getAnnotationText(annotation)), NEWLINE);
+                }
+            }
+
+            tokeniseAnnotations(annotations, true);
+
+            addToken(makeWhitespace());
+            tokeniseTypeModifiers(classInfo);
+
+            if (classInfo.isAnnotation()) {
+                addToken(new Token(KEYWORD, "@"));
+            }
+            addToken(new Token(KEYWORD, classInfo.getTypeKind().getName()), SPACE);
+            addToken(new Token(TYPE_NAME, classInfo.simpleName, classInfo.id));
+
+            tokeniseTypeHeader(classInfo);
+            addToken(SPACE, new Token(PUNCTUATION, "{"), NEWLINE);
+
+            if (classInfo.isEnum()) {
+                tokeniseEnumConstants(classInfo);
+            }
+            if (classInfo.isAnnotation()) {
+                tokeniseAnnotationMembers(classInfo);
+            }
+            tokeniseFields(classInfo);
+            // enum constructors are always private, and the compiler generates one if none is declared, so as with
+            // source, we show nothing for them
+            if (!classInfo.isInterface() && !classInfo.isEnum()) {
+                tokeniseConstructors(classInfo);
+            }
+            if (!classInfo.isAnnotation()) {
+                tokeniseMethods(classInfo, annotations);
+            }
+
+            for (ClassInfo nested : classInfo.getApiNestedTypes()) {
+                indent();
+                tokeniseType(nested);
+                unindent();
+            }
+
+            // close class
+            addToken(makeWhitespace());
+            addToken(new Token(PUNCTUATION, "}"), NEWLINE);
+        }
+
+        private void tokeniseTypeModifiers(ClassInfo classInfo) {
+            final int flags = classInfo.accessFlags;
+            addAccessModifiers(flags);
+
+            // interfaces, enums and annotations are implicitly abstract, static or final, so we only show these for
+            // classes
+            if (!classInfo.isInterface() && !classInfo.isEnum()) {
+                if ((flags & AccessFlag.ABSTRACT) != 0) {
+                    addToken(new Token(KEYWORD, "abstract "));
+                }
+                if (classInfo.isNested && (flags & AccessFlag.STATIC) != 0) {
+                    addToken(new Token(KEYWORD, "static "));
+                }
+                if ((flags & AccessFlag.FINAL) != 0) {
+                    addToken(new Token(KEYWORD, "final "));
+                }
+            }
+        }
+
+        private void tokeniseTypeHeader(ClassInfo classInfo) {
+            final ClassFile classFile = classInfo.classFile;
+
+            SignatureAttribute.ClassSignature signature = null;
+            final SignatureAttribute signatureAttribute = (SignatureAttribute) classFile.getAttribute(SignatureAttribute.tag);
+            if (signatureAttribute != null) {
+                try {
+                    signature = SignatureAttribute.toClassSignature(signatureAttribute.getSignature());
+                } catch (BadBytecode e) {
+                    System.err.println("Unable to read generic signature of '" + classInfo.name + "'");
+                }
+            }
+            if (signature == null) {
+                final String[] interfaceNames = classFile.getInterfaces();
+                final SignatureAttribute.ClassType[] interfaces = new SignatureAttribute.ClassType[interfaceNames.length];
+                for (int i = 0; i < interfaceNames.length; i++) {
+                    interfaces[i] = new SignatureAttribute.ClassType(interfaceNames[i]);
+                }
+                final String superclass = classFile.getSuperclass();
+                signature = new SignatureAttribute.ClassSignature(null,
+                        superclass == null ? null : new SignatureAttribute.ClassType(superclass), interfaces);
+            }
+
+            tokeniseTypeParameters(signature.getParameters());
+
+            // annotations implicitly extend Annotation, and enums implicitly extend Enum
+            final List<SignatureAttribute.ClassType> interfaces = new ArrayList<>();
+            for (SignatureAttribute.ClassType type : signature.getInterfaces()) {
+                if (!(classInfo.isAnnotation() && "java.lang.annotation.Annotation".equals(type.getName()))) {
+                    interfaces.add(type);
+                }
+            }
+
+            final List<SignatureAttribute.ClassType> extendedTypes = new ArrayList<>();
+            final List<SignatureAttribute.ClassType> implementedTypes = new ArrayList<>();
+            if (classInfo.isInterface()) {
+                extendedTypes.addAll(interfaces);
+            } else {
+                final SignatureAttribute.ClassType superClass = signature.getSuperClass();
+                if (superClass != null && !classInfo.isEnum() && !"java.lang.Object".equals(superClass.getName())) {
+                    extendedTypes.add(superClass);
+                }
+                implementedTypes.addAll(interfaces);
+            }
+
+            tokeniseTypeList("extends", extendedTypes);
+            tokeniseTypeList("implements", implementedTypes);
+        }
+
+        private void tokeniseTypeList(String keyword, List<SignatureAttribute.ClassType> types) {
+            if (types.isEmpty()) {
+                return;
+            }
+            addToken(SPACE, new Token(KEYWORD, keyword), SPACE);
+            for (int i = 0; i < types.size(); i++) {
+                addType(types.get(i));
+                if (i < types.size() - 1) {
+                    addToken(new Token(PUNCTUATION, ","), SPACE);
+                }
+            }
+        }
+
+        private void tokeniseEnumConstants(ClassInfo classInfo) {
+            final List<FieldInfo> constants = classInfo.classFile.getFields().stream()
+                    .filter(field -> (field.getAccessFlags() & AccessFlag.ENUM) != 0)
+                    .collect(Collectors.toList());
+
+            indent();
+            for (int i = 0; i < constants.size(); i++) {
+                addToken(makeWhitespace());
+                addToken(new Token(MEMBER_NAME, constants.get(i).getName(), makeId(classInfo.id + "." + i)));
+                addToken(new Token(PUNCTUATION, i < constants.size() - 1 ? "," : ";"), NEWLINE);
+            }
+            unindent();
+        }
+
+        private void tokeniseAnnotationMembers(ClassInfo classInfo) {
+            indent();
+            for (MethodInfo method : classInfo.classFile.getMethods()) {
+                if ((method.getAccessFlags() & (AccessFlag.STATIC | AccessFlag.SYNTHETIC)) != 0) {
+                    continue;
+                }
+
+                addToken(makeWhitespace());
+                addType(getMethodSignature(method).getReturnType());
+                addToken(new Token(WHITESPACE, " "));
+                addToken(new Token(MEMBER_NAME, method.getName(), makeId(classInfo.id + "." + method.getName())));
+                addToken(new Token(PUNCTUATION, "("));
+                addToken(new Token(PUNCTUATION, ")"));
+
+                final AnnotationDefaultAttribute defaultValue =
+                        (AnnotationDefaultAttribute) method.getAttribute(AnnotationDefaultAttribute.tag);
+                if (defaultValue != null) {
+                    addToken(SPACE, new Token(KEYWORD, "default"), SPACE);
+                    addToken(new Token(KEYWORD, getMemberValueText(defaultValue.getDefaultValue())));
+                }
+
+                addToken(new Token(PUNCTUATION, ";"), NEWLINE);
+            }
+            unindent();
+        }
+
+        private void tokeniseFields(ClassInfo classInfo) {
+            indent();
+            for (FieldInfo field : classInfo.classFile.getFields()) {
+                final int flags = field.getAccessFlags();
+                if ((flags & (AccessFlag.ENUM | AccessFlag.SYNTHETIC)) != 0 || !isPublicOrProtected(flags)) {
+                    continue;
+                }
+
+                addToken(makeWhitespace());
+                tokeniseAnnotations(getAnnotations(field.getAttribute(AnnotationsAttribute.visibleTag),
+                        field.getAttribute(AnnotationsAttribute.invisibleTag)), false);
+
+                // fields in interfaces are implicitly public, static and final
+                if (!classInfo.isInterface()) {
+                    addAccessModifiers(flags);
+                    addModifier(flags, AccessFlag.STATIC, "static ");
+                    addModifier(flags, AccessFlag.FINAL, "final ");
+                    addModifier(flags, AccessFlag.TRANSIENT, "transient ");
+                    addModifier(flags, AccessFlag.VOLATILE, "volatile ");
+                }
+
+                addType(getFieldType(field));
+                addToken(new Token(WHITESPACE, " "));
+                addToken(new Token(MEMBER_NAME, field.getName(), makeId(classInfo.id + "." + field.getName())));
+
+                final String constantValue = getConstantValue(field);
+                if (constantValue != null) {
+                    addToken(SPACE, new Token(PUNCTUATION, "="), SPACE);
+                    addToken(new Token(TEXT, constantValue));
+                }
+
+                addToken(new Token(PUNCTUATION, ";"), NEWLINE);
+            }
+            unindent();
+        }
+
+        private void tokeniseConstructors(ClassInfo classInfo) {
+            final List<MethodInfo> constructors = classInfo.classFile.getMethods().stream()
+                    .filter(MethodInfo::isConstructor)
+                    .filter(method -> (method.getAccessFlags() & AccessFlag.SYNTHETIC) == 0)
+                    .collect(Collectors.toList());
+
+            indent();
+
+            // a set of constructors that are all private indicates that the class is unlikely to be instantiable via
+            // 'new' calls.
+            if (!constructors.isEmpty() && constructors.stream().noneMatch(c -> isPublicOrProtected(c.getAccessFlags()))) {
+                addToken(INDENT,
+                        new Token(COMMENT, "// This class does not have any public constructors, and is not able to be instantiated using 'new'."),
+                        NEWLINE);
+            } else {
+                sortMembers(classInfo, constructors).forEach(method -> tokeniseCallable(classInfo, method));
+            }
+
+            unindent();
+        }
+
+        private void tokeniseMethods(ClassInfo classInfo, List<Annotation> typeAnnotations) {
+            final List<MethodInfo> methods = sortMembers(classInfo, classInfo.classFile.getMethods().stream()
+                    .filter(method -> !method.isConstructor() && !method.isStaticInitializer())
+                    .filter(method -> (method.getAccessFlags() & (AccessFlag.SYNTHETIC | AccessFlag.BRIDGE)) == 0)
+                    .filter(method -> isPublicOrProtected(method.getAccessFlags()))
+                    .filter(method -> !(classInfo.isEnum() && isImplicitEnumMethod(classInfo, method)))
+                    .collect(Collectors.toList()));
+
+            indent();
+
+            if (hasAnnotation(typeAnnotations, TypeMembers.SERVICE_CLIENT)) {
+                // we group inside the APIView each of the groups, so that we can visualise their operations more clearly
+                final List<MethodInfo> serviceMethods = new ArrayList<>();
+                final List<MethodInfo> nonServiceMethods = new ArrayList<>();
+                for (MethodInfo method : methods) {
+                    final List<Annotation> annotations = getAnnotations(method.getAttribute(AnnotationsAttribute.visibleTag),
+                            method.getAttribute(AnnotationsAttribute.invisibleTag));
+                    (hasAnnotation(annotations, TypeMembers.SERVICE_METHOD) ? serviceMethods : nonServiceMethods).add(method);
+                }
+                tokeniseMethodGroup(classInfo, "Service Methods", serviceMethods);
+                tokeniseMethodGroup(classInfo, "Non-Service Methods", nonServiceMethods);
+            } else {
+                methods.forEach(method -> tokeniseCallable(classInfo, method));
+            }
+
+            unindent();
+        }
+
+        private void tokeniseMethodGroup(ClassInfo classInfo, String groupName, List<MethodInfo> group) {
+            if (group.isEmpty()) {
+                return;
+            }
+
+            addToken(INDENT, new Token(COMMENT, "// " + groupName + ":"), NEWLINE);
+            group.forEach(method -> tokeniseCallable(classInfo, method));
+        }
+
+        private void tokeniseCallable(ClassInfo classInfo, MethodInfo method) {
+            final int flags = method.getAccessFlags();
+            final boolean isConstructor = method.isConstructor();
+            final String name = isConstructor ? classInfo.simpleName : method.getName();
+            final SignatureAttribute.MethodSignature signature = getMethodSignature(method);
+            final SignatureAttribute.Type[] parameterTypes = getParameterTypes(classInfo, method, signature);
+
+            addToken(makeWhitespace());
+
+            // annotations
+            tokeniseAnnotations(getAnnotations(method.getAttribute(AnnotationsAttribute.visibleTag),
+                    method.getAttribute(AnnotationsAttribute.invisibleTag)), false);
+
+            // modifiers
+            if (classInfo.isInterface()) {
+                addModifier(flags, AccessFlag.STATIC, "static ");
+                if ((flags & (AccessFlag.ABSTRACT | AccessFlag.STATIC)) == 0) {
+                    addToken(new Token(KEYWORD, "default "));
+                }
+            } else {
+                addAccessModifiers(flags);
+                addModifier(flags, AccessFlag.ABSTRACT, "abstract ");
+                addModifier(flags, AccessFlag.STATIC, "static ");
+                addModifier(flags, AccessFlag.FINAL, "final ");
+                addModifier(flags, AccessFlag.SYNCHRONIZED, "synchronized ");
+                addModifier(flags, AccessFlag.NATIVE, "native ");
+            }
+
+            // type parameters of methods
+            final SignatureAttribute.TypeParameter[] typeParameters = signature.getTypeParameters();
+            tokeniseTypeParameters(typeParameters);
+            if (typeParameters.length > 0) {
+                addToken(new Token(WHITESPACE, " "));
+            }
+
+            // return type
+            if (!isConstructor) {
+                addType(signature.getReturnType());
+                addToken(new Token(WHITESPACE, " "));
+            }
+
+            // name and parameters
+            addToken(new Token(MEMBER_NAME, name, getCallableId(classInfo, method)));
+            addToken(new Token(PUNCTUATION, "("));
+
+            final String[] parameterNames = getParameterNames(method, parameterTypes.length);
+            final boolean isVarArgs = (flags & AccessFlag.VARARGS) != 0;
+            for (int i = 0; i < parameterTypes.length; i++) {
+                final SignatureAttribute.Type parameterType = parameterTypes[i];
+                if (isVarArgs && i == parameterTypes.length - 1 && parameterType instanceof SignatureAttribute.ArrayType) {
+                    addType(getComponentType((SignatureAttribute.ArrayType) parameterType));
+                    addToken(new Token(PUNCTUATION, "..."));
+                } else {
+                    addType(parameterType);
+                }
+                addToken(new Token(WHITESPACE, " "));
+                addToken(new Token(TEXT, parameterNames[i]));
+
+                if (i < parameterTypes.length - 1) {
+                    addToken(new Token(PUNCTUATION, ","), SPACE);
+                }
+            }
+            addToken(new Token(PUNCTUATION, ")"), SPACE);
+
+            // thrown exceptions
+            final List<SignatureAttribute.ObjectType> exceptions = getExceptionTypes(method, signature);
+            if (!exceptions.isEmpty()) {
+                addToken(new Token(KEYWORD, "throws"), SPACE);
+                for (int i = 0; i < exceptions.size(); i++) {
+                    addType(exceptions.get(i));
+                    if (i < exceptions.size() - 1) {
+                        addToken(new Token(PUNCTUATION, ","), SPACE);
+                    }
+                }
+                addToken(new Token(WHITESPACE, " "));
+            }
+
+            // close statements
+            addToken(new Token(NEW_LINE, ""));
+        }
+
+        private void tokeniseTypeParameters(SignatureAttribute.TypeParameter[] typeParameters) {
+            if (typeParameters == null || typeParameters.length == 0) {
+                return;
+            }
+
+            addToken(new Token(PUNCTUATION, "<"));
+            for (int i = 0; i < typeParameters.length; i++) {
+                final SignatureAttribute.TypeParameter typeParameter = typeParameters[i];
+                addToken(new Token(TYPE_NAME, typeParameter.getName()));
+
+                final List<SignatureAttribute.ObjectType> bounds = getBounds(typeParameter);
+
+                if (!bounds.isEmpty()) {
+                    addToken(SPACE, new Token(KEYWORD, "extends"), SPACE);
+                    for (int j = 0; j < bounds.size(); j++) {
+                        addType(bounds.get(j));
+                        if (j < bounds.size() - 1) {
+                            addToken(SPACE, new Token(PUNCTUATION, "&"), SPACE);
+                        }
+                    }
+                }
+
+                if (i < typeParameters.length - 1) {
+                    addToken(new Token(PUNCTUATION, ","), SPACE);
+                }
+            }
+            addToken(new Token(PUNCTUATION, ">"));
+        }
+
+        private void tokeniseAnnotations(List<Annotation> annotations, boolean isTypeAnnotation) {
+            for (String displayed : DISPLAYED_ANNOTATIONS) {
+                for (Annotation annotation : annotations) {
+                    if (!displayed.equals(getSimpleName(annotation.getTypeName()))) {
+                        continue;
+                    }
+
+                    if (isTypeAnnotation) {
+                        addToken(makeWhitespace());
+                    }
+
+                    addToken(new Token(TYPE_NAME, "@" + displayed));
+                    if (isTypeAnnotation && annotation.getMemberNames() != null) {
+                        addToken(new Token(PUNCTUATION, "("));
+                        int i = 0;
+                        for (String memberName : annotation.getMemberNames()) {
+                            if (i++ > 0) {
+                                addToken(new Token(PUNCTUATION, ", "));
+                            }
+                            addToken(new Token(TEXT, memberName));
+                            addToken(new Token(PUNCTUATION, " = "));
+                            tokeniseMemberValue(annotation.getMemberValue(memberName));
+                        }
+                        addToken(new Token(PUNCTUATION, ")"));
+                    }
+
+                    if (isTypeAnnotation) {
+                        addToken(new Token(NEW_LINE, ""));
+                    } else {
+                        addToken(new Token(WHITESPACE, " "));
+                    }
+                }
+            }
+        }
+
+        private void tokeniseMemberValue(MemberValue value) {
+            if (value instanceof ClassMemberValue) {
+                // if the type is known about, make it a link, otherwise leave it as text
+                final String className = ((ClassMemberValue) value).getValue();
+                final String typeId = makeId(className.replace('$', '.'));
+                if (isLinkable(typeId)) {
+                    final Token token = new Token(TYPE_NAME, getSimpleName(className));
+                    token.setNavigateToId(typeId);
+                    addToken(token);
+                    return;
+                }
+            } else if (value instanceof ArrayMemberValue) {
+                final MemberValue[] values = ((ArrayMemberValue) value).getValue();
+                addToken(new Token(PUNCTUATION, "{ "));
+                for (int i = 0; i < values.length; i++) {
+                    tokeniseMemberValue(values[i]);
+                    if (i < values.length - 1) {
+                        addToken(new Token(PUNCTUATION, ", "));
+                    }
+                }
+                addToken(new Token(PUNCTUATION, " }"));
+                return;
+            }
+
+            // if we fall through to here, just treat it as a string
+            addToken(new Token(TEXT, getMemberValueText(value)));
+        }
+
+        /*
+         * Adds the tokens for the given type, using simple names and linking to types within the API.
+         */
+        private void addType(SignatureAttribute.Type type) {
+            if (type instanceof SignatureAttribute.ArrayType) {
+                final SignatureAttribute.ArrayType arrayType = (SignatureAttribute.ArrayType) type;
+                addType(arrayType.getComponentType());
+                for (int i = 0; i < arrayType.getDimension(); i++) {
+                    addToken(new Token(PUNCTUATION, "[]"));
+                }
+            } else if (type instanceof SignatureAttribute.ClassType) {
+                final SignatureAttribute.ClassType classType = (SignatureAttribute.ClassType) type;
+                final String fullName = getFullName(classType);
+                final Token token = new Token(TYPE_NAME, getSimpleName(fullName));
+                final String typeId = makeId(fullName);
+                if (isLinkable(typeId)) {
+                    token.setNavigateToId(typeId);
+                }
+                addToken(token);
+
+                final SignatureAttribute.TypeArgument[] typeArguments = classType.getTypeArguments();
+                if (typeArguments != null && typeArguments.length > 0) {
+                    addToken(new Token(PUNCTUATION, "<"));
+                    for (int i = 0; i < typeArguments.length; i++) {
+                        addTypeArgument(typeArguments[i]);
+                        if (i < typeArguments.length - 1) {
+                            addToken(new Token(PUNCTUATION, ","), SPACE);
+                        }
+                    }
+                    addToken(new Token(PUNCTUATION, ">"));
+                }
+            } else if (type instanceof SignatureAttribute.TypeVariable) {
+                addToken(new Token(TYPE_NAME, ((SignatureAttribute.TypeVariable) type).getName()));
+            } else {
+                // primitive types, including void
+                addToken(new Token(TYPE_NAME, type.toString()));
+            }
+        }
+
+        private void addTypeArgument(SignatureAttribute.TypeArgument typeArgument) {
+            switch (typeArgument.getKind()) {
+                case '*':
+                    addToken(new Token(TEXT, "?"));
+                    break;
+                case '+':
+                    addToken(new Token(TEXT, "?"), SPACE);
+                    addToken(new Token(KEYWORD, "extends"), SPACE);
+                    addType(typeArgument.getType());
+                    break;
+                case '-':
+                    addToken(new Token(TEXT, "?"), SPACE);
+                    addToken(new Token(KEYWORD, "super"), SPACE);
+                    addType(typeArgument.getType());
+                    break;
+                default:
+                    addType(typeArgument.getType());
+                    break;
+            }
+        }
+
+        private void addAccessModifiers(int flags) {
+            addModifier(flags, AccessFlag.PUBLIC, "public ");
+            addModifier(flags, AccessFlag.PROTECTED, "protected ");
+        }
+
+        private void addModifier(int flags, int flag, String modifier) {
+            if ((flags & flag) != 0) {
+                addToken(new Token(KEYWORD, modifier));
+            }
+        }
+
+        private void indent() {
+            indent += 4;
+        }
+
+        private void unindent() {
+            indent = Math.max(indent - 4, 0);
+        }
+
+        private Token makeWhitespace() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < indent; i++) {
+                sb.append(" ");
+            }
+            return new Token(WHITESPACE, sb.toString());
+        }
+
+        private void addToken(Token token) {
+            addToken(token, NOTHING);
+        }
+
+        private void addToken(Token token, TokenModifier suffix) {
+            addToken(NOTHING, token, suffix);
+        }
+
+        private void addToken(TokenModifier prefix, Token token, TokenModifier suffix) {
+            handleTokenModifier(prefix);
+            tokens.add(token);
+            handleTokenModifier(suffix);
+        }
+
+        private void handleTokenModifier(TokenModifier modifier) {
+            switch (modifier) {
+                case INDENT: addToken(makeWhitespace()); break;
+                case SPACE: addToken(new Token(WHITESPACE, " ")); break;
+                case NEWLINE: addToken(new Token(NEW_LINE, "")); break;
+                case NOTHING: break;
+            }
+        }
+    }
+
+    private static List<MethodInfo> sortMembers(ClassInfo classInfo, List<MethodInfo> methods) {
+        final List<MethodInfo> sorted = new ArrayList<>(methods);
+        sorted.sort(Comparator.comparing(method -> new TypeMembers.SortKey(
+                method.isConstructor() ? classInfo.simpleName : method.getName(), method.isConstructor(),
+                getParameterTypes(classInfo, method, getMethodSignature(method)).length)));
+        return sorted;
+    }
+
+    /*
+     * Returns the definition ID for a constructor or method, in the same form as DefinitionIdGenerator gives for
+     * source, e.g. 'com.azure.Foo.bar(String,List,Map.Entry,int...)'.
+     */
+    private static String getCallableId(ClassInfo classInfo, MethodInfo method) {
+        if (classInfo.callableIds == null) {
+            classInfo.callableIds = assignCallableIds(classInfo);
+        }
+        return classInfo.callableIds.get(method);
+    }
+
+    /*
+     * Gives an ID to every constructor and method declared in the class, whether displayed or not, as source does.
+     * Callables that would share an ID are all given one built from their full signature instead, e.g.
+     * 'com.azure.Foo.foo<T-extends-Number>(T)', so the IDs do not depend on the order the callables are declared in.
+     */
+    private static Map<MethodInfo, String> assignCallableIds(ClassInfo classInfo) {
+        final Map<String, List<MethodInfo>> methodsByBaseId = new LinkedHashMap<>();
+        for (MethodInfo method : classInfo.classFile.getMethods()) {
+            if (method.isStaticInitializer()
+                    || (method.getAccessFlags() & (AccessFlag.SYNTHETIC | AccessFlag.BRIDGE)) != 0
+                    || (classInfo.isEnum() && isImplicitEnumMethod(classInfo, method))) {
+                continue;
+            }
+            methodsByBaseId.computeIfAbsent(getCallableId(classInfo, method, false), id -> new ArrayList<>())
+                    .add(method);
+        }
+
+        final Map<MethodInfo, String> ids = new HashMap<>();
+        final Set<String> assigned = new HashSet<>();
+        methodsByBaseId.forEach((baseId, methods) -> {
+            for (MethodInfo method : methods) {
+                // callables with identical full signatures (which cannot compile) are told apart by declaration order
+                final String fullId = methods.size() == 1 ? baseId : getCallableId(classInfo, method, true);
+                String id = fullId;
+                for (int i = 2; !assigned.add(id); i++) {
+                    id = fullId + "-" + i;
+                }
+                ids.put(method, id);
+            }
+        });
+        return ids;
+    }
+
+    private static String getCallableId(ClassInfo classInfo, MethodInfo method, boolean isFullSignature) {
+        final SignatureAttribute.MethodSignature signature = getMethodSignature(method);
+        final SignatureAttribute.Type[] parameterTypes = getParameterTypes(classInfo, method, signature);
+        final boolean isVarArgs = (method.getAccessFlags() & AccessFlag.VARARGS) != 0;
+
+        final StringBuilder sb = new StringBuilder(classInfo.id).append('.')
+                .append(method.isConstructor() ? classInfo.simpleName : method.getName());
+        if (isFullSignature) {
+            appendTypeParameters(classInfo, signature.getTypeParameters(), sb);
+        }
+        sb.append('(');
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            final SignatureAttribute.Type type = parameterTypes[i];
+            if (isVarArgs && i == parameterTypes.length - 1 && type instanceof SignatureAttribute.ArrayType) {
+                appendTypeName(classInfo, getComponentType((SignatureAttribute.ArrayType) type), isFullSignature, sb);
+                sb.append("...");
+            } else {
+                appendTypeName(classInfo, type, isFullSignature, sb);
+            }
+        }
+        return makeId(sb.append(')').toString());
+    }
+
+    private static void appendTypeParameters(ClassInfo classInfo, SignatureAttribute.TypeParameter[] typeParameters,
+                                             StringBuilder sb) {
+        if (typeParameters.length == 0) {
+            return;
+        }
+
+        sb.append('<');
+        for (int i = 0; i < typeParameters.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(typeParameters[i].getName());
+            final List<SignatureAttribute.ObjectType> bounds = getBounds(typeParameters[i]);
+            for (int j = 0; j < bounds.size(); j++) {
+                sb.append(j == 0 ? " extends " : "&");
+                appendTypeName(classInfo, bounds.get(j), true, sb);
+            }
+        }
+        sb.append('>');
+    }
+
+    /*
+     * Appends the type name as it would usually be written in the source of the given class, with or without its type
+     * arguments, e.g. 'Map.Entry<String,? extends Number>[]' or 'Map.Entry[]'.
+     */
+    private static void appendTypeName(ClassInfo classInfo, SignatureAttribute.Type type, boolean withTypeArguments,
+                                       StringBuilder sb) {
+        if (type instanceof SignatureAttribute.ArrayType) {
+            final SignatureAttribute.ArrayType arrayType = (SignatureAttribute.ArrayType) type;
+            appendTypeName(classInfo, arrayType.getComponentType(), withTypeArguments, sb);
+            for (int i = 0; i < arrayType.getDimension(); i++) {
+                sb.append("[]");
+            }
+        } else if (type instanceof SignatureAttribute.ClassType) {
+            final SignatureAttribute.ClassType classType = (SignatureAttribute.ClassType) type;
+            sb.append(getWrittenName(classInfo, classType));
+
+            final SignatureAttribute.TypeArgument[] typeArguments = classType.getTypeArguments();
+            if (withTypeArguments && typeArguments != null && typeArguments.length > 0) {
+                sb.append('<');
+                for (int i = 0; i < typeArguments.length; i++) {
+                    if (i > 0) {
+                        sb.append(',');
+                    }
+                    final SignatureAttribute.TypeArgument typeArgument = typeArguments[i];
+                    if (typeArgument.getKind() == '*') {
+                        sb.append('?');
+                        continue;
+                    }
+                    if (typeArgument.getKind() == '+') {
+                        sb.append("? extends ");
+                    } else if (typeArgument.getKind() == '-') {
+                        sb.append("? super ");
+                    }
+                    appendTypeName(classInfo, typeArgument.getType(), true, sb);
+                }
+                sb.append('>');
+            }
+        } else if (type instanceof SignatureAttribute.TypeVariable) {
+            sb.append(((SignatureAttribute.TypeVariable) type).getName());
+        } else {
+            sb.append(type.toString());
+        }
+    }
+
+    /*
+     * Returns the name of the given type as it is usually written in the source of the given class. Nested types are
+     * qualified by their outer types, e.g. 'Map.Entry', apart from the outer types that are in scope because they
+     * enclose the class, so 'Outer.Inner' is written as 'Inner' within 'Outer' and within 'Outer.Other'. Types that
+     * were imported directly by their nested name cannot be told apart from this, and get the qualified form.
+     */
+    private static String getWrittenName(ClassInfo classInfo, SignatureAttribute.ClassType classType) {
+        final String binaryName = getBinaryName(classType);
+        for (int i = binaryName.lastIndexOf('$'); i > 0; i = binaryName.lastIndexOf('$', i - 1)) {
+            final String outerName = binaryName.substring(0, i);
+            if (classInfo.name.equals(outerName) || classInfo.name.startsWith(outerName + "$")) {
+                return binaryName.substring(i + 1).replace('$', '.');
+            }
+        }
+        return binaryName.substring(binaryName.lastIndexOf('.') + 1).replace('$', '.');
+    }
+
+    /*
+     * Returns the binary name of the given type, e.g. 'com.azure.Foo$Bar'.
+     */
+    private static String getBinaryName(SignatureAttribute.ClassType classType) {
+        final SignatureAttribute.ClassType declaringClass = classType.getDeclaringClass();
+        if (declaringClass != null) {
+            return getBinaryName(declaringClass) + "$" + classType.getName();
+        }
+        return classType.getName();
+    }
+
+    /*
+     * Returns the declared bounds of the given type parameter, leaving out the implicit 'Object' bound.
+     */
+    private static List<SignatureAttribute.ObjectType> getBounds(SignatureAttribute.TypeParameter typeParameter) {
+        final List<SignatureAttribute.ObjectType> bounds = new ArrayList<>();
+        final SignatureAttribute.ObjectType classBound = typeParameter.getClassBound();
+        if (classBound != null && !(classBound instanceof SignatureAttribute.ClassType
+                && "java.lang.Object".equals(((SignatureAttribute.ClassType) classBound).getName()))) {
+            bounds.add(classBound);
+        }
+        Collections.addAll(bounds, typeParameter.getInterfaceBound());
+        return bounds;
+    }
+
+    private static SignatureAttribute.Type getComponentType(SignatureAttribute.ArrayType arrayType) {
+        return arrayType.getDimension() == 1
+                ? arrayType.getComponentType()
+                : new SignatureAttribute.ArrayType(arrayType.getDimension() - 1, arrayType.getComponentType());
+    }
+
+    private static SignatureAttribute.MethodSignature getMethodSignature(MethodInfo method) {
+        final SignatureAttribute signatureAttribute = (SignatureAttribute) method.getAttribute(SignatureAttribute.tag);
+        if (signatureAttribute != null) {
+            try {
+                return SignatureAttribute.toMethodSignature(signatureAttribute.getSignature());
+            } catch (BadBytecode e) {
+                System.err.println("Unable to read generic signature of method '" + method.getName() + "'");
+            }
+        }
+        try {
+            // a method descriptor is also a valid (non-generic) method signature
+            return SignatureAttribute.toMethodSignature(method.getDescriptor());
+        } catch (BadBytecode e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /*
+     * Returns the parameter types of the given method, as they were declared. Constructors of inner classes are given
+     * the outer instance as an extra first parameter, which is not part of the declaration.
+     */
+    private static SignatureAttribute.Type[] getParameterTypes(ClassInfo classInfo, MethodInfo method,
+                                                               SignatureAttribute.MethodSignature signature) {
+        final SignatureAttribute.Type[] parameterTypes = signature.getParameterTypes();
+        if (method.isConstructor() && classInfo.isNested && classInfo.outerName != null
+                && (classInfo.accessFlags & AccessFlag.STATIC) == 0 && !classInfo.isInterface() && !classInfo.isEnum()
+                && parameterTypes.length > 0 && parameterTypes.length == countParameters(method.getDescriptor())
+                && parameterTypes[0] instanceof SignatureAttribute.ClassType
+                && classInfo.outerName.equals(((SignatureAttribute.ClassType) parameterTypes[0]).getName())) {
+            final SignatureAttribute.Type[] declared = new SignatureAttribute.Type[parameterTypes.length - 1];
+            System.arraycopy(parameterTypes, 1, declared, 0, declared.length);
+            return declared;
+        }
+        return parameterTypes;
+    }
+
+    private static List<SignatureAttribute.ObjectType> getExceptionTypes(MethodInfo method,
+                                                                        SignatureAttribute.MethodSignature signature) {
+        final List<SignatureAttribute.ObjectType> exceptions = new ArrayList<>();
+        final SignatureAttribute.ObjectType[] signatureExceptions = signature.getExceptionTypes();
+        if (signatureExceptions != null && signatureExceptions.length > 0) {
+            for (SignatureAttribute.ObjectType exception : signatureExceptions) {
+                exceptions.add(exception);
+            }
+        } else {
+            final ExceptionsAttribute exceptionsAttribute = method.getExceptionsAttribute();
+            if (exceptionsAttribute != null && exceptionsAttribute.getExceptions() != null) {
+                for (String exception : exceptionsAttribute.getExceptions()) {
+                    exceptions.add(new SignatureAttribute.ClassType(exception));
+                }
+            }
+        }
+        return exceptions;
+    }
+
+    /*
+     * Returns the declared names of the parameters, from the MethodParameters attribute or the local variable table
+     * where the class file has them, and otherwise 'arg0', 'arg1', etc.
+     */
+    private static String[] getParameterNames(MethodInfo method, int count) {
+        final String[] names = new String[count];
+        final ConstPool constPool = method.getConstPool();
+        final int[] slotWidths = getParameterSlotWidths(method.getDescriptor());
+
+        // any extra parameters in the descriptor are synthetic ones added at the start, e.g. the outer instance
+        final int skip = slotWidths.length - count;
+
+        final MethodParametersAttribute methodParameters =
+                (MethodParametersAttribute) method.getAttribute(MethodParametersAttribute.tag);
+        final CodeAttribute code = method.getCodeAttribute();
+        final LocalVariableAttribute localVariables =
+                code == null ? null : (LocalVariableAttribute) code.getAttribute(LocalVariableAttribute.tag);
+
+        if (methodParameters != null && methodParameters.size() == slotWidths.length) {
+            for (int i = 0; i < count; i++) {
+                final int nameIndex = methodParameters.name(i + skip);
+                names[i] = nameIndex == 0 ? null : constPool.getUtf8Info(nameIndex);
+            }
+        } else if (localVariables != null && skip >= 0) {
+            int slot = (method.getAccessFlags() & AccessFlag.STATIC) == 0 ? 1 : 0;
+            for (int i = 0; i < slotWidths.length; i++) {
+                if (i >= skip) {
+                    names[i - skip] = getLocalVariableName(localVariables, slot);
+                }
+                slot += slotWidths[i];
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (names[i] == null) {
+                names[i] = "arg" + i;
+            }
+        }
+        return names;
+    }
+
+    private static String getLocalVariableName(LocalVariableAttribute localVariables, int slot) {
+        for (int i = 0; i < localVariables.tableLength(); i++) {
+            if (localVariables.index(i) == slot && localVariables.startPc(i) == 0) {
+                return localVariables.variableName(i);
+            }
+        }
+        return null;
+    }
+
+    private static int countParameters(String descriptor) {
+        return getParameterSlotWidths(descriptor).length;
+    }
+
+    /*
+     * Returns the number of local variable slots each parameter in the method descriptor takes up.
+     */
+    private static int[] getParameterSlotWidths(String descriptor) {
+        final List<Integer> widths = new ArrayList<>();
+        int i = 1;
+        while (i < descriptor.length() && descriptor.charAt(i) != ')') {
+            final char c = descriptor.charAt(i);
+            if (c == '[') {
+                while (descriptor.charAt(i) == '[') {
+                    i++;
+                }
+                i = skipFieldType(descriptor, i);
+                widths.add(1);
+            } else {
+                widths.add(c == 'J' || c == 'D' ? 2 : 1);
+                i = skipFieldType(descriptor, i);
+            }
+        }
+
+        final int[] result = new int[widths.size()];
+        for (int j = 0; j < result.length; j++) {
+            result[j] = widths.get(j);
+        }
+        return result;
+    }
+
+    private static int skipFieldType(String descriptor, int i) {
+        return descriptor.charAt(i) == 'L' ? descriptor.indexOf(';', i) + 1 : i + 1;
+    }
+
+    private static SignatureAttribute.Type getFieldType(FieldInfo field) {
+        final SignatureAttribute signatureAttribute = (SignatureAttribute) field.getAttribute(SignatureAttribute.tag);
+        try {
+            if (signatureAttribute != null) {
+                try {
+                    return SignatureAttribute.toFieldSignature(signatureAttribute.getSignature());
+                } catch (BadBytecode e) {
+                    System.err.println("Unable to read generic signature of field '" + field.getName() + "'");
+                }
+            }
+            return SignatureAttribute.toTypeSignature(field.getDescriptor());
+        } catch (BadBytecode e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /*
+     * Returns the source form of the compile-time constant value of the given field, or null if it has none.
+     */
+    private static String getConstantValue(FieldInfo field) {
+        final int index = field.getConstantValue();
+        if (index == 0) {
+            return null;
+        }
+
+        final ConstPool constPool = field.getConstPool();
+        switch (constPool.getTag(index)) {
+            case ConstPool.CONST_String:
+                return "\"" + escape(constPool.getStringInfo(index)) + "\"";
+            case ConstPool.CONST_Long:
+                return constPool.getLongInfo(index) + "L";
+            case ConstPool.CONST_Float: {
+                // NaN and the infinities have no literal form, so they are written as the constants that hold them
+                final float value = constPool.getFloatInfo(index);
+                if (Float.isNaN(value)) {
+                    return "Float.NaN";
+                } else if (Float.isInfinite(value)) {
+                    return value > 0 ? "Float.POSITIVE_INFINITY" : "Float.NEGATIVE_INFINITY";
+                }
+                return value + "f";
+            }
+            case ConstPool.CONST_Double: {
+                final double value = constPool.getDoubleInfo(index);
+                if (Double.isNaN(value)) {
+                    return "Double.NaN";
+                } else if (Double.isInfinite(value)) {
+                    return value > 0 ? "Double.POSITIVE_INFINITY" : "Double.NEGATIVE_INFINITY";
+                }
+                return String.valueOf(value);
+            }
+            case ConstPool.CONST_Integer: {
+                final int value = constPool.getIntegerInfo(index);
+                switch (field.getDescriptor()) {
+                    case "Z": return value != 0 ? "true" : "false";
+                    case "C": return "'" + escape(String.valueOf((char) value)) + "'";
+                    default: return String.valueOf(value);
+                }
+            }
+            default:
+                return null;
+        }
+    }
+
+    private static String escape(String value) {
+        final StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '\\': sb.append("\\\\"); break;
+                case '"': sb.append("\\\""); break;
+                case '\'': sb.append("\\'"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default: sb.append(c); break;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean isImplicitEnumMethod(ClassInfo classInfo, MethodInfo method) {
+        final String descriptor = method.getDescriptor();
+        return ("values".equals(method.getName()) && descriptor.equals("()[L" + classInfo.classFile.getName().replace('.', '/') + ";"))
+                || ("valueOf".equals(method.getName()) && descriptor.startsWith("(Ljava/lang/String;)"));
+    }
+
+    private static boolean isPublicOrProtected(int flags) {
+        return (flags & (AccessFlag.PUBLIC | AccessFlag.PROTECTED)) != 0;
+    }
+
+    private static List<Annotation> getAnnotations(AttributeInfo visible, AttributeInfo invisible) {
+        final List<Annotation> annotations = new ArrayList<>();
+        for (AttributeInfo attribute : new AttributeInfo[] { visible, invisible }) {
+            if (attribute instanceof AnnotationsAttribute) {
+                for (Annotation annotation : ((AnnotationsAttribute) attribute).getAnnotations()) {
+                    annotations.add(annotation);
+                }
+            }
+        }
+        return annotations;
+    }
+
+    private static boolean hasAnnotation(List<Annotation> annotations, int annotation) {
+        for (Annotation a : annotations) {
+            if (TypeMembers.getAnnotationBit(getSimpleName(a.getTypeName())) == annotation) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String getAnnotationText(Annotation annotation) {
+        final StringBuilder sb = new StringBuilder("@").append(getSimpleName(annotation.getTypeName()));
+        final Set<String> memberNames = annotation.getMemberNames();
+        if (memberNames != null && !memberNames.isEmpty()) {
+            sb.append('(');
+            if (memberNames.size() == 1 && memberNames.contains("value")) {
+                sb.append(getMemberValueText(annotation.getMemberValue("value")));
+            } else {
+                sb.append(memberNames.stream()
+                        .map(name -> name + " = " + getMemberValueText(annotation.getMemberValue(name)))
+                        .collect(Collectors.joining(", ")));
+            }
+            sb.append(')');
+        }
+        return sb.toString();
+    }
+
+    private static String getMemberValueText(MemberValue value) {
+        if (value instanceof ClassMemberValue) {
+            return getSimpleName(((ClassMemberValue) value).getValue()) + ".class";
+        } else if (value instanceof EnumMemberValue) {
+            final EnumMemberValue enumValue = (EnumMemberValue) value;
+            return getSimpleName(enumValue.getType()) + "." + enumValue.getValue();
+        } else if (value instanceof StringMemberValue) {
+            return "\"" + escape(((StringMemberValue) value).getValue()) + "\"";
+        } else if (value instanceof ArrayMemberValue) {
+            final MemberValue[] values = ((ArrayMemberValue) value).getValue();
+            final StringBuilder sb = new StringBuilder("{");
+            for (int i = 0; i < values.length; i++) {
+                sb.append(i == 0 ? "" : ", ").append(getMemberValueText(values[i]));
+            }
+            return sb.append('}').toString();
+        }
+        return String.valueOf(value);
+    }
+
+    /*
+     * Returns the source form of the fully-qualified name of the given type, e.g. 'com.azure.Foo.Bar'.
+     */
+    private static String getFullName(SignatureAttribute.ClassType classType) {
+        final SignatureAttribute.ClassType declaringClass = classType.getDeclaringClass();
+        if (declaringClass != null) {
+            return getFullName(declaringClass) + "." + classType.getName();
+        }
+        return classType.getName().replace('$', '.');
+    }
+
+    private static String getSimpleName(String className) {
+        final String name = className.replace('$', '.');
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+}
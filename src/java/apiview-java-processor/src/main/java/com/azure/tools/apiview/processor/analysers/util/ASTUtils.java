@@ -3,7 +3,6 @@ package com.azure.tools.apiview.processor.analysers.util;
 import com.github.javaparser.ast.AccessSpecifier;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.ImportDeclaration;
-import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.PackageDeclaration;
 import com.github.javaparser.ast.body.CallableDeclaration;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
@@ -13,7 +12,9 @@ import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.body.TypeDeclaration;
 import com.github.javaparser.ast.body.VariableDeclarator;
 
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
 
 public class ASTUtils {
@@ -32,6 +33,20 @@ public class ASTUtils {
         return cu.getImports().stream().map(ImportDeclaration::getNameAsString);
     }
 
+    /**
+     * Returns the names the given compilation unit brings into scope, in the form used to resolve types from a
+     * {@link com.azure.tools.apiview.processor.model.TypeIndex}: the name of each single-type import, and
+     * {@code <name>.*} for each on-demand import and for the package of the compilation unit itself.
+     */
+    public static Set<String> getImportedNames(CompilationUnit cu) {
+        final Set<String> importedNames = new HashSet<>();
+        importedNames.add(getPackageName(cu).orElse("") + ".*");
+        for (ImportDeclaration importDeclaration : cu.getImports()) {
+            importedNames.add(importDeclaration.getNameAsString() + (importDeclaration.isAsterisk() ? ".*" : ""));
+        }
+        return importedNames;
+    }
+
     public static Optional<String> getClassName(CompilationUnit cu) {
         return cu.getPrimaryTypeName();
     }
@@ -42,25 +57,21 @@ public class ASTUtils {
 
     public static Stream<ConstructorDeclaration> getPublicOrProtectedConstructors(CompilationUnit cu) {
         return cu.getTypes().stream()
-                       .flatMap(typeDeclaration -> typeDeclaration.getConstructors().stream())
-                       .filter(type -> isPublicOrProtected(type.getAccessSpecifier()));
+                       .flatMap(typeDeclaration -> TypeMembers.of(typeDeclaration).getPublicOrProtectedConstructors().stream());
     }
 
     public static Stream<MethodDeclaration> getPublicOrProtectedMethods(CompilationUnit cu) {
         return cu.getTypes().stream()
-                       .flatMap(typeDeclaration -> typeDeclaration.getMethods().stream())
-                       .filter(type -> isPublicOrProtected(type.getAccessSpecifier()));
+                       .flatMap(typeDeclaration -> TypeMembers.of(typeDeclaration).getPublicOrProtectedMethods().stream());
     }
 
     public static Stream<MethodDeclaration> getPublicOrProtectedMethods(TypeDeclaration<?> typeDeclaration) {
-        return typeDeclaration.getMethods().stream()
-                       .filter(type -> isPublicOrProtected(type.getAccessSpecifier()));
+        return TypeMembers.of(typeDeclaration).getPublicOrProtectedMethods().stream();
     }
 
     public static Stream<FieldDeclaration> getPublicOrProtectedFields(CompilationUnit cu) {
         return cu.getTypes().stream()
-                       .flatMap(typeDeclaration -> typeDeclaration.getFields().stream())
-                       .filter(type -> isPublicOrProtected(type.getAccessSpecifier()));
+                       .flatMap(typeDeclaration -> TypeMembers.of(typeDeclaration).getPublicOrProtectedFields().stream());
     }
 
     public static boolean isPublicOrProtected(AccessSpecifier accessSpecifier) {
@@ -76,23 +87,23 @@ public class ASTUtils {
     }
 
     public static String makeId(TypeDeclaration<?> typeDeclaration) {
-        return makeId(typeDeclaration.getFullyQualifiedName().get());
+        return DefinitionIdGenerator.getId(typeDeclaration);
     }
 
     public static String makeId(VariableDeclarator variableDeclarator) {
-        return makeId(getNodeFullyQualifiedName(variableDeclarator.getParentNode()) + "." + variableDeclarator.getNameAsString());
+        return DefinitionIdGenerator.getId(variableDeclarator);
     }
 
-    public static String makeId(CallableDeclaration callableDeclaration) {
-        return makeId(getNodeFullyQualifiedName(callableDeclaration.getParentNode()) + "." + callableDeclaration.getDeclarationAsString());
+    public static String makeId(CallableDeclaration<?> callableDeclaration) {
+        return DefinitionIdGenerator.getId(callableDeclaration);
     }
 
     public static String makeId(FieldDeclaration fieldDeclaration) {
-        return makeId(fieldDeclaration.getVariables().get(0));
+        return DefinitionIdGenerator.getId(fieldDeclaration);
     }
 
     public static String makeId(String fullPath) {
-        return fullPath.replaceAll("\"| ", "-");
+        return DefinitionIdGenerator.makeId(fullPath);
     }
 
     /**
@@ -130,18 +141,4 @@ public class ASTUtils {
         }
         return false;
     }
-
-    private static String getNodeFullyQualifiedName(Optional<Node> nodeOptional) {
-        if (!nodeOptional.isPresent()) {
-            return "";
-        }
-
-        Node node = nodeOptional.get();
-        if (node instanceof ClassOrInterfaceDeclaration) {
-            ClassOrInterfaceDeclaration type = (ClassOrInterfaceDeclaration)node;
-            return type.getFullyQualifiedName().get();
-        } else {
-            return "";
-        }
-    }
 }
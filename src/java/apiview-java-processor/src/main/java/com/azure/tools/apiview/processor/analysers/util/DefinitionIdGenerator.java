@@ -0,0 +1,279 @@
+package com.azure.tools.apiview.processor.analysers.util;
+
+import com.github.javaparser.ast.DataKey;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.type.ArrayType;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.ast.type.TypeParameter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Generates the definition IDs used to link tokens, navigation items and diagnostics together.
+ *
+ * <p>IDs are built from the fully-qualified name of the enclosing type, the member name and, for constructors and
+ * methods, the erased parameter type names as they are written in source, e.g.
+ * {@code com.azure.Foo.bar(String,List,int...)}. No regular expressions or pretty printing are involved.</p>
+ *
+ * <p>Every ID is memoised on the declaration node itself, so the tokeniser and all diagnostic rules share a single
+ * computation per node. The first time any member of a type is asked for its ID, the IDs of all members of that type
+ * are assigned together. Should two members end up with the same ID (e.g. {@code <T extends Number> void foo(T)}
+ * and {@code <T extends CharSequence> void foo(T)}), every one of them is instead given an ID built from its full
+ * signature, with type parameters and type arguments, e.g. {@code com.azure.Foo.foo<T-extends-Number>(T)}. This
+ * does not depend on the order the members are declared in, so reordering them does not move review comments from
+ * one to another. Only members with identical full signatures, which cannot compile, fall back to a numeric suffix in
+ * declaration order. Such collisions are recorded on the type (see {@link #getCollisions(TypeDeclaration)}), and
+ * those that needed a numeric suffix (see {@link #getSuffixedCollisions(TypeDeclaration)}) are reported as diagnostics
+ * of the listing.</p>
+ *
+ * <p>Before this format, constructor and method IDs were the whole declaration as printed, with spaces and quotes
+ * replaced, e.g. {@code com.azure.Foo.public-void-bar(String-name)}. APIView keys review comments by ID, so comments
+ * made against listings with the old IDs are not carried over to listings with the new ones, and listings with the new
+ * IDs have a higher {@code VersionString} (see {@code APIListing}) so that the two can be told apart.</p>
+ *
+ * <p>Node data is not synchronised, so a compilation unit must only be worked on by one thread at a time.</p>
+ */
+public final class DefinitionIdGenerator {
+    private static final DataKey<String> DEFINITION_ID = new DataKey<String>() { };
+
+    // maps from member ID to the declaring node, stored on the type declaration once its members have IDs assigned
+    private static final DataKey<Map<String, Node>> MEMBER_IDS = new DataKey<Map<String, Node>>() { };
+
+    // maps from a suffixed member ID to the ID it would have had, stored on the type declaration alongside MEMBER_IDS
+    private static final DataKey<Map<String, String>> COLLISIONS = new DataKey<Map<String, String>>() { };
+
+    // the part of COLLISIONS that could only be told apart by declaration order
+    private static final DataKey<Map<String, String>> SUFFIXED_COLLISIONS = new DataKey<Map<String, String>>() { };
+
+    private DefinitionIdGenerator() { }
+
+    public static String getId(TypeDeclaration<?> typeDeclaration) {
+        if (typeDeclaration.containsData(DEFINITION_ID)) {
+            return typeDeclaration.getData(DEFINITION_ID);
+        }
+        final String id = makeId(typeDeclaration.getFullyQualifiedName().orElse(typeDeclaration.getNameAsString()));
+        typeDeclaration.setData(DEFINITION_ID, id);
+        return id;
+    }
+
+    public static String getId(CallableDeclaration<?> callableDeclaration) {
+        return getMemberId(callableDeclaration, callableDeclaration.getParentNode());
+    }
+
+    public static String getId(FieldDeclaration fieldDeclaration) {
+        return getId(fieldDeclaration.getVariable(0));
+    }
+
+    public static String getId(VariableDeclarator variableDeclarator) {
+        // the variable declarator belongs to a field declaration, which in turn belongs to the type
+        return getMemberId(variableDeclarator, variableDeclarator.getParentNode().flatMap(Node::getParentNode));
+    }
+
+    /**
+     * Returns the members of the given type that were given a suffixed ID because another member already had the ID
+     * they would have had, as a map from the suffixed ID to the original one, in declaration order.
+     */
+    public static Map<String, String> getCollisions(TypeDeclaration<?> typeDeclaration) {
+        assignMemberIds(typeDeclaration);
+        return typeDeclaration.getData(COLLISIONS);
+    }
+
+    /**
+     * Returns the members of the given type whose full signatures are identical to that of another member, so that
+     * they were given a numeric suffix in declaration order, as a map from the suffixed ID to the original one. This is
+     * a subset of {@link #getCollisions(TypeDeclaration)}.
+     */
+    public static Map<String, String> getSuffixedCollisions(TypeDeclaration<?> typeDeclaration) {
+        assignMemberIds(typeDeclaration);
+        return typeDeclaration.getData(SUFFIXED_COLLISIONS);
+    }
+
+    /**
+     * Replaces the characters that are not permitted in definition IDs. This is a simple character scan, it does not
+     * compile a regular expression.
+     */
+    public static String makeId(String fullPath) {
+        return fullPath.replace('"', '-').replace(' ', '-');
+    }
+
+    private static String getMemberId(Node member, Optional<Node> parent) {
+        if (member.containsData(DEFINITION_ID)) {
+            return member.getData(DEFINITION_ID);
+        }
+
+        if (parent.isPresent() && parent.get() instanceof TypeDeclaration) {
+            assignMemberIds((TypeDeclaration<?>) parent.get());
+            if (member.containsData(DEFINITION_ID)) {
+                return member.getData(DEFINITION_ID);
+            }
+        }
+
+        // the member is not declared directly in a type (e.g. it is part of an anonymous class body), so there is
+        // nothing to check for collisions against
+        final String id = makeId(getParentPath(parent) + "." + getSimpleId(member));
+        member.setData(DEFINITION_ID, id);
+        return id;
+    }
+
+    private static void assignMemberIds(TypeDeclaration<?> typeDeclaration) {
+        if (typeDeclaration.containsData(MEMBER_IDS)) {
+            return;
+        }
+
+        final Map<String, Node> memberIds = new HashMap<>();
+        final Map<String, String> collisions = new LinkedHashMap<>();
+        final Map<String, String> suffixedCollisions = new LinkedHashMap<>();
+        final String typeId = getId(typeDeclaration);
+
+        // group the members by the ID they would usually have, so that members sharing one can all be told apart
+        final Map<String, List<Node>> membersByBaseId = new LinkedHashMap<>();
+        for (BodyDeclaration<?> bodyDeclaration : typeDeclaration.getMembers()) {
+            if (bodyDeclaration.isCallableDeclaration()) {
+                addMember(typeId, bodyDeclaration, membersByBaseId);
+            } else if (bodyDeclaration.isFieldDeclaration()) {
+                for (VariableDeclarator variableDeclarator : bodyDeclaration.asFieldDeclaration().getVariables()) {
+                    addMember(typeId, variableDeclarator, membersByBaseId);
+                }
+            }
+        }
+
+        membersByBaseId.forEach((baseId, members) -> {
+            for (Node member : members) {
+                final String id = members.size() == 1 ? baseId : makeId(typeId + "." + getFullId(member));
+                register(baseId, id, member, memberIds, collisions, suffixedCollisions);
+            }
+        });
+
+        typeDeclaration.setData(COLLISIONS,
+                collisions.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(collisions));
+        typeDeclaration.setData(SUFFIXED_COLLISIONS, suffixedCollisions.isEmpty()
+                ? Collections.emptyMap() : Collections.unmodifiableMap(suffixedCollisions));
+        typeDeclaration.setData(MEMBER_IDS, memberIds);
+    }
+
+    private static void addMember(String typeId, Node member, Map<String, List<Node>> membersByBaseId) {
+        membersByBaseId.computeIfAbsent(makeId(typeId + "." + getSimpleId(member)), id -> new ArrayList<>())
+                .add(member);
+    }
+
+    private static void register(String baseId, String fullId, Node member, Map<String, Node> memberIds,
+                                 Map<String, String> collisions, Map<String, String> suffixedCollisions) {
+        // members with identical full signatures (which cannot compile) are told apart by declaration order
+        String id = fullId;
+        for (int i = 2; memberIds.containsKey(id); i++) {
+            id = fullId + "-" + i;
+        }
+        if (!id.equals(baseId)) {
+            collisions.put(id, baseId);
+        }
+        if (!id.equals(fullId)) {
+            suffixedCollisions.put(id, baseId);
+        }
+
+        memberIds.put(id, member);
+        member.setData(DEFINITION_ID, id);
+    }
+
+    private static String getParentPath(Optional<Node> parent) {
+        return parent.filter(node -> node instanceof TypeDeclaration)
+                .map(node -> getId((TypeDeclaration<?>) node))
+                .orElse("");
+    }
+
+    private static String getSimpleId(Node member) {
+        if (member instanceof VariableDeclarator) {
+            return ((VariableDeclarator) member).getNameAsString();
+        }
+
+        final CallableDeclaration<?> callableDeclaration = (CallableDeclaration<?>) member;
+        final NodeList<Parameter> parameters = callableDeclaration.getParameters();
+
+        final StringBuilder sb = new StringBuilder(callableDeclaration.getNameAsString()).append('(');
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            final Parameter parameter = parameters.get(i);
+            appendTypeName(parameter.getType(), sb);
+            if (parameter.isVarArgs()) {
+                sb.append("...");
+            }
+        }
+        return sb.append(')').toString();
+    }
+
+    /*
+     * The member name with its type parameters, bounds and parameter types as written in the source, without erasure,
+     * e.g. 'foo<T extends Number>(List<T>,T...)'.
+     */
+    private static String getFullId(Node member) {
+        if (member instanceof VariableDeclarator) {
+            return ((VariableDeclarator) member).getNameAsString();
+        }
+
+        final CallableDeclaration<?> callableDeclaration = (CallableDeclaration<?>) member;
+        final StringBuilder sb = new StringBuilder(callableDeclaration.getNameAsString());
+        final NodeList<TypeParameter> typeParameters = callableDeclaration.getTypeParameters();
+        if (typeParameters.isNonEmpty()) {
+            sb.append('<');
+            for (int i = 0; i < typeParameters.size(); i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(typeParameters.get(i).asString().replace(", ", ","));
+            }
+            sb.append('>');
+        }
+
+        final NodeList<Parameter> parameters = callableDeclaration.getParameters();
+        sb.append('(');
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            final Parameter parameter = parameters.get(i);
+            sb.append(parameter.getType().asString().replace(", ", ","));
+            if (parameter.isVarArgs()) {
+                sb.append("...");
+            }
+        }
+        return sb.append(')').toString();
+    }
+
+    /*
+     * Appends the erased type name as written in the source, e.g. 'Map<String, Integer>' becomes 'Map', and
+     * 'com.azure.Foo[]' stays as it is.
+     */
+    private static void appendTypeName(Type type, StringBuilder sb) {
+        if (type.isClassOrInterfaceType()) {
+            final ClassOrInterfaceType classOrInterfaceType = type.asClassOrInterfaceType();
+            classOrInterfaceType.getScope().ifPresent(scope -> {
+                appendTypeName(scope, sb);
+                sb.append('.');
+            });
+            sb.append(classOrInterfaceType.getName().getIdentifier());
+        } else if (type.isArrayType()) {
+            final ArrayType arrayType = type.asArrayType();
+            appendTypeName(arrayType.getComponentType(), sb);
+            sb.append("[]");
+        } else if (type.isPrimitiveType()) {
+            sb.append(type.asPrimitiveType().getType().asString());
+        } else {
+            sb.append(type.asString());
+        }
+    }
+}
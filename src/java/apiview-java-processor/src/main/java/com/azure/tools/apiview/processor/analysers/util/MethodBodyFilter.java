@@ -0,0 +1,245 @@
+package com.azure.tools.apiview.processor.analysers.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Blanks out the bodies of methods, constructors and initializers in Java source, so that the parser only has to
+ * build nodes for declarations. The API listing is built purely from signatures, annotations, modifiers, field
+ * initializers and javadoc, so none of the dropped code is ever looked at.
+ *
+ * <p>This is a single pass over the characters of the source, which understands just enough of the Java lexical
+ * structure (comments, string and character literals, identifiers and brackets) to find where each body starts and
+ * ends. Everything between the braces of a body is replaced with spaces, with line breaks left in place, so that the
+ * positions of all remaining nodes are unchanged. Braces that belong to type bodies, enum constant bodies, field
+ * initializers (including anonymous classes), annotation values and annotation defaults are left untouched.</p>
+ */
+public final class MethodBodyFilter {
+    private enum FrameKind {
+        // the body of a class, interface, enum or annotation type
+        TYPE,
+        // the enum constants at the start of an enum body, up to the first ';'
+        ENUM_CONSTANTS,
+        // braces within an expression, such as an array initializer or an anonymous class
+        EXPRESSION
+    }
+
+    private static final class Frame {
+        private final FrameKind kind;
+        private final int parenDepth;
+
+        // what has been seen in the declaration currently being read at this level
+        private boolean sawTypeKeyword;
+        private boolean sawEnumKeyword;
+        private boolean sawInitializer;
+
+        Frame(FrameKind kind, int parenDepth) {
+            this.kind = kind;
+            this.parenDepth = parenDepth;
+        }
+
+        void startDeclaration() {
+            sawTypeKeyword = false;
+            sawEnumKeyword = false;
+            sawInitializer = false;
+        }
+    }
+
+    private MethodBodyFilter() { }
+
+    /**
+     * Returns the given source with all method, constructor and initializer bodies blanked out.
+     */
+    public static String removeBodies(String source) {
+        final char[] chars = source.toCharArray();
+        final int length = chars.length;
+
+        final Deque<Frame> frames = new ArrayDeque<>();
+        // the compilation unit itself, where '{' may open a type or a module declaration
+        Frame frame = new Frame(FrameKind.EXPRESSION, 0);
+        frame.startDeclaration();
+        int parenDepth = 0;
+        char previous = 0;
+
+        int i = 0;
+        while (i < length) {
+            final char c = chars[i];
+
+            if (c == '/' && i + 1 < length && (chars[i + 1] == '/' || chars[i + 1] == '*')) {
+                i = skipComment(chars, i);
+                continue;
+            } else if (c == '"' || c == '\'') {
+                i = skipLiteral(chars, i);
+                previous = c;
+                continue;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                final int start = i;
+                while (i < length && Character.isJavaIdentifierPart(chars[i])) {
+                    i++;
+                }
+                if (parenDepth == frame.parenDepth && previous != '.') {
+                    onIdentifier(frame, chars, start, i - start, previous);
+                }
+                previous = 'a';
+                continue;
+            }
+
+            switch (c) {
+                case '(':
+                    parenDepth++;
+                    break;
+                case ')':
+                    parenDepth--;
+                    break;
+                case '=':
+                    if (parenDepth == frame.parenDepth) {
+                        frame.sawInitializer = true;
+                    }
+                    break;
+                case ';':
+                    if (parenDepth == frame.parenDepth) {
+                        if (frame.kind == FrameKind.ENUM_CONSTANTS) {
+                            // the enum constants are over, the rest of the enum body is like any other type body
+                            frame = new Frame(FrameKind.TYPE, frame.parenDepth);
+                        }
+                        frame.startDeclaration();
+                    }
+                    break;
+                case '{': {
+                    final FrameKind kind = getBraceKind(frame, frames.isEmpty(), parenDepth);
+                    if (kind == null) {
+                        // a method, constructor or initializer body - blank it out and carry on after it
+                        i = blankBody(chars, i);
+                        frame.startDeclaration();
+                        previous = '}';
+                        continue;
+                    }
+                    final Frame opened = new Frame(kind == FrameKind.TYPE && frame.sawEnumKeyword
+                            ? FrameKind.ENUM_CONSTANTS : kind, parenDepth);
+                    opened.startDeclaration();
+                    frames.push(frame);
+                    frame = opened;
+                    break;
+                }
+                case '}':
+                    if (!frames.isEmpty()) {
+                        final Frame closed = frame;
+                        frame = frames.pop();
+                        parenDepth = closed.parenDepth;
+                        if (closed.kind != FrameKind.EXPRESSION) {
+                            // the closing brace of a type body ends the declaration it belongs to
+                            frame.startDeclaration();
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+
+            if (!Character.isWhitespace(c)) {
+                previous = c;
+            }
+            i++;
+        }
+
+        return new String(chars);
+    }
+
+    /*
+     * Works out what a '{' opens, returning null if it opens a body that should be blanked out.
+     */
+    private static FrameKind getBraceKind(Frame frame, boolean isCompilationUnit, int parenDepth) {
+        if (parenDepth != frame.parenDepth) {
+            // braces within parentheses, e.g. annotation array values or lambdas in method arguments
+            return FrameKind.EXPRESSION;
+        } else if (frame.sawTypeKeyword) {
+            return FrameKind.TYPE;
+        } else if (isCompilationUnit || frame.kind == FrameKind.EXPRESSION || frame.sawInitializer) {
+            return FrameKind.EXPRESSION;
+        } else if (frame.kind == FrameKind.ENUM_CONSTANTS) {
+            // an enum constant with a class body
+            return FrameKind.TYPE;
+        }
+        return null;
+    }
+
+    private static void onIdentifier(Frame frame, char[] chars, int start, int length, char previous) {
+        if (matches("class", chars, start, length) || matches("interface", chars, start, length)) {
+            frame.sawTypeKeyword = true;
+        } else if (matches("enum", chars, start, length)) {
+            frame.sawTypeKeyword = true;
+            frame.sawEnumKeyword = true;
+        } else if (previous == ')' && matches("default", chars, start, length)) {
+            // an annotation member default value, which may be an array initializer, rather than a default method
+            frame.sawInitializer = true;
+        }
+    }
+
+    private static boolean matches(String keyword, char[] chars, int start, int length) {
+        if (keyword.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (keyword.charAt(i) != chars[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Blanks out everything between the '{' at the given index and its matching '}', returning the index after the
+     * closing brace.
+     */
+    private static int blankBody(char[] chars, int open) {
+        int depth = 0;
+        int i = open;
+        while (i < chars.length) {
+            final char c = chars[i];
+            int next;
+            if (c == '/' && i + 1 < chars.length && (chars[i + 1] == '/' || chars[i + 1] == '*')) {
+                next = skipComment(chars, i);
+            } else if (c == '"' || c == '\'') {
+                next = skipLiteral(chars, i);
+            } else {
+                if (c == '{') {
+                    depth++;
+                } else if (c == '}' && --depth == 0) {
+                    return i + 1;
+                }
+                next = i + 1;
+            }
+
+            for (int j = Math.max(i, open + 1); j < next; j++) {
+                if (chars[j] != '\n' && chars[j] != '\r') {
+                    chars[j] = ' ';
+                }
+            }
+            i = next;
+        }
+        // unbalanced braces - leave the remainder for the parser to report on
+        return chars.length;
+    }
+
+    private static int skipComment(char[] chars, int i) {
+        if (chars[i + 1] == '/') {
+            while (i < chars.length && chars[i] != '\n' && chars[i] != '\r') {
+                i++;
+            }
+            return i;
+        }
+        i += 2;
+        while (i + 1 < chars.length && !(chars[i] == '*' && chars[i + 1] == '/')) {
+            i++;
+        }
+        return Math.min(i + 2, chars.length);
+    }
+
+    private static int skipLiteral(char[] chars, int i) {
+        final char quote = chars[i++];
+        while (i < chars.length && chars[i] != quote && chars[i] != '\n') {
+            i += chars[i] == '\\' ? 2 : 1;
+        }
+        return Math.min(i + 1, chars.length);
+    }
+}
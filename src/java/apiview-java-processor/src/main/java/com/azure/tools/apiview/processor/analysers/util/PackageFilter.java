@@ -0,0 +1,141 @@
+package com.azure.tools.apiview.processor.analysers.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Decides which packages are part of the listing, from include and exclude package globs such as
+ * {@code **.implementation.**} or {@code com.azure.*}. In a glob, {@code *} matches a single package name segment and
+ * {@code **} matches any number of segments (including none). A package is accepted if it matches any include glob
+ * (or there are none), and does not match any exclude glob.
+ *
+ * <p>The globs are compiled once, and the filter is applied to the names of jar entries before any bytes are read, so
+ * excluded files are never read or parsed. The filter keeps count of what it has accepted and skipped, which is
+ * reported through {@link #toString()}. It may be used from multiple threads at once.</p>
+ */
+public final class PackageFilter {
+    // comma-separated package globs, e.g. -Dapiview.excludePackages=**.implementation.**,**.samples.**
+    public static final String INCLUDE_PACKAGES_PROPERTY = "apiview.includePackages";
+    public static final String EXCLUDE_PACKAGES_PROPERTY = "apiview.excludePackages";
+
+    public static final String DEFAULT_EXCLUDE_PACKAGES = "**.implementation.**";
+
+    private final List<String> includes;
+    private final List<String> excludes;
+    private final Pattern includePattern;
+    private final Pattern excludePattern;
+
+    private final AtomicInteger accepted = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+
+    public PackageFilter(List<String> includes, List<String> excludes) {
+        this.includes = Collections.unmodifiableList(new ArrayList<>(includes));
+        this.excludes = Collections.unmodifiableList(new ArrayList<>(excludes));
+        this.includePattern = compile(includes);
+        this.excludePattern = compile(excludes);
+    }
+
+    /**
+     * Creates a filter from the {@value #INCLUDE_PACKAGES_PROPERTY} and {@value #EXCLUDE_PACKAGES_PROPERTY} system
+     * properties. By default all packages are included, and implementation packages are excluded.
+     */
+    public static PackageFilter fromSystemProperties() {
+        return new PackageFilter(split(System.getProperty(INCLUDE_PACKAGES_PROPERTY, "")),
+                split(System.getProperty(EXCLUDE_PACKAGES_PROPERTY, DEFAULT_EXCLUDE_PACKAGES)));
+    }
+
+    /**
+     * Returns true if the file with the given path, relative to the root of the jar file, is in an accepted package.
+     * The package is taken from the directory the file is in. Module descriptors are not in any package, and are
+     * always accepted.
+     */
+    public boolean acceptsFile(String path) {
+        String packagePath = path.replace('\\', '/');
+        final int lastSlash = packagePath.lastIndexOf('/');
+        final String fileName = packagePath.substring(lastSlash + 1);
+        packagePath = lastSlash == -1 ? "" : packagePath.substring(0, lastSlash);
+        if (packagePath.startsWith("/")) {
+            packagePath = packagePath.substring(1);
+        }
+
+        final boolean accepts = fileName.startsWith("module-info.") || acceptsPackage(packagePath.replace('/', '.'));
+        (accepts ? accepted : skipped).incrementAndGet();
+        return accepts;
+    }
+
+    /**
+     * Returns true if the package with the given name is accepted. This does not count towards the statistics.
+     */
+    public boolean acceptsPackage(String packageName) {
+        // every segment in the compiled patterns is followed by a '.', so we add one to the end of the package name
+        final String name = packageName.isEmpty() ? "" : packageName + ".";
+        return (includePattern == null || includePattern.matcher(name).matches())
+                && (excludePattern == null || !excludePattern.matcher(name).matches());
+    }
+
+    public List<String> getIncludes() {
+        return includes;
+    }
+
+    public List<String> getExcludes() {
+        return excludes;
+    }
+
+    public int getAcceptedCount() {
+        return accepted.get();
+    }
+
+    public int getSkippedCount() {
+        return skipped.get();
+    }
+
+    @Override
+    public String toString() {
+        return "Package filter: skipped " + skipped.get() + " of " + (accepted.get() + skipped.get())
+                + " files before reading (includes: " + includes + ", excludes: " + excludes + ")";
+    }
+
+    private static List<String> split(String globs) {
+        final List<String> result = new ArrayList<>();
+        for (String glob : globs.split(",")) {
+            if (!glob.trim().isEmpty()) {
+                result.add(glob.trim());
+            }
+        }
+        return result;
+    }
+
+    /*
+     * Compiles the given globs into a single pattern, or returns null if there are none.
+     */
+    private static Pattern compile(List<String> globs) {
+        if (globs.isEmpty()) {
+            return null;
+        }
+
+        final StringBuilder regex = new StringBuilder();
+        for (String glob : globs) {
+            if (regex.length() > 0) {
+                regex.append('|');
+            }
+            regex.append("(?:");
+            for (String segment : glob.split("\\.")) {
+                if (segment.equals("**")) {
+                    regex.append("(?:[^.]+\\.)*");
+                } else {
+                    for (String part : segment.split("\\*", -1)) {
+                        regex.append(part.isEmpty() ? "" : Pattern.quote(part)).append("[^.]*");
+                    }
+                    // each part is followed by a wildcard, and the last one should not be
+                    regex.setLength(regex.length() - "[^.]*".length());
+                    regex.append("\\.");
+                }
+            }
+            regex.append(')');
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
@@ -0,0 +1,64 @@
+package com.azure.tools.apiview.processor.analysers.util;
+
+import com.azure.tools.apiview.processor.analysers.ASTAnalyser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Reads the files to be analysed, whether they come from a jar file, a stream held in memory or a source directory.
+ */
+public final class SourceFiles {
+    private SourceFiles() { }
+
+    /**
+     * Reads the rest of the given stream, without closing it. This can be used to read the current entry of a
+     * {@link java.util.zip.ZipInputStream}.
+     */
+    public static byte[] readFully(InputStream inputStream) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads the rest of the given stream as a UTF-8 source file, without closing it.
+     */
+    public static String readSource(InputStream inputStream) throws IOException {
+        return new String(readFully(inputStream), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns every source file under the given source roots that should be analysed, mapped to the name it would have
+     * within a sources jar, i.e. relative to its source root and separated by '/'. Files are in the order they were
+     * found, one source root after another.
+     */
+    public static Map<Path, String> listSourceFiles(List<Path> sourceRoots, PackageFilter packageFilter)
+            throws IOException {
+        final Map<Path, String> sourceFiles = new LinkedHashMap<>();
+        for (Path sourceRoot : sourceRoots) {
+            try (Stream<Path> paths = Files.walk(sourceRoot)) {
+                paths.filter(Files::isRegularFile).forEach(path -> {
+                    final String name = sourceRoot.relativize(path).toString().replace(File.separatorChar, '/');
+                    if (ASTAnalyser.isAnalysable(name) && packageFilter.acceptsFile(name)) {
+                        sourceFiles.put(path, name);
+                    }
+                });
+            }
+        }
+        return sourceFiles;
+    }
+}
@@ -21,6 +21,8 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 /**
  * Will let the symbol solver look inside a jar file while solving types.
@@ -58,25 +60,21 @@ public class SourceJarTypeSolver implements TypeSolver {
         return instance;
     }
 
-    private File dumpToTempFile(InputStream inputStream) throws IOException {
-        File tempFile = File.createTempFile("jar_file_from_input_stream", ".jar");
-        tempFile.deleteOnExit();
-
-        byte[] buffer = new byte[8 * 1024];
-
-        try (OutputStream output = new FileOutputStream(tempFile)) {
-            int bytesRead;
-            while ((bytesRead = inputStream.read(buffer)) != -1) {
-                output.write(buffer, 0, bytesRead);
+    /*
+     * The source files of a jar given as a stream are held in memory, rather than writing the jar out to a temp file.
+     * A sources jar has no class files, so there is nothing to add to the class pool beyond the system path.
+     */
+    private void addPathToJar(InputStream jarInputStream) throws IOException {
+        classPool.appendSystemPath();
+        try (ZipInputStream zipInputStream = new ZipInputStream(jarInputStream)) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                if (!entry.isDirectory() && entry.getName().endsWith(".java")) {
+                    String name = entryPathToClassName(entry.getName());
+                    classpathElements.put(name, new ClasspathElement(SourceFiles.readFully(zipInputStream)));
+                }
             }
-        } finally {
-            inputStream.close();
         }
-        return tempFile;
-    }
-
-    private void addPathToJar(InputStream jarInputStream) throws IOException {
-        addPathToJar(dumpToTempFile(jarInputStream).getAbsolutePath());
     }
 
     private void addPathToJar(String pathToJar) throws IOException {
@@ -154,15 +152,21 @@ public class SourceJarTypeSolver implements TypeSolver {
     private class ClasspathElement {
         private JarFile jarFile;
         private JarEntry entry;
+        private byte[] contents;
 
         ClasspathElement(JarFile jarFile, JarEntry entry) {
             this.jarFile = jarFile;
             this.entry = entry;
         }
 
+        ClasspathElement(byte[] contents) {
+            this.contents = contents;
+        }
+
         public CompilationUnit parseJava() {
             try {
-                return StaticJavaParser.parse(jarFile.getInputStream(entry));
+                return StaticJavaParser.parse(contents != null
+                        ? new ByteArrayInputStream(contents) : jarFile.getInputStream(entry));
             } catch (IOException e) {
                 e.printStackTrace();
             }
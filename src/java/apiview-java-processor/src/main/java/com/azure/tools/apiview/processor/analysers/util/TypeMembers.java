@@ -0,0 +1,320 @@
+package com.azure.tools.apiview.processor.analysers.util;
+
+import com.github.javaparser.ast.DataKey;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import com.github.javaparser.ast.nodeTypes.NodeWithAnnotations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.azure.tools.apiview.processor.analysers.util.ASTUtils.isInterfaceType;
+import static com.azure.tools.apiview.processor.analysers.util.ASTUtils.isPrivateOrPackagePrivate;
+import static com.azure.tools.apiview.processor.analysers.util.ASTUtils.isPublicOrProtected;
+
+/**
+ * A view over the members of a single type, built once per {@link TypeDeclaration} and shared by the tokeniser and the
+ * diagnostic rules. Visibility, annotation presence and the sort keys used to order constructors and methods in the
+ * listing are all computed up front, so none of that work is repeated per comparison or per rule.
+ *
+ * <p>The model is memoised on the type declaration node, so a compilation unit must only be worked on by one thread at
+ * a time.</p>
+ */
+public final class TypeMembers {
+    private static final DataKey<TypeMembers> TYPE_MEMBERS = new DataKey<TypeMembers>() { };
+
+    // annotation presence bits, for the annotations that we make decisions on
+    public static final int DEPRECATED = 1;
+    public static final int OVERRIDE = 1 << 1;
+    public static final int SERVICE_CLIENT = 1 << 2;
+    public static final int SERVICE_CLIENT_BUILDER = 1 << 3;
+    public static final int SERVICE_METHOD = 1 << 4;
+    public static final int FLUENT = 1 << 5;
+    public static final int IMMUTABLE = 1 << 6;
+
+    private final int annotations;
+    private final boolean hasConstructors;
+    private final boolean isNotInstantiable;
+
+    // members that are part of the API listing, sorted in the order they are displayed
+    private final List<Member<ConstructorDeclaration>> apiConstructors;
+    private final List<Member<MethodDeclaration>> apiMethods;
+    private final List<Member<MethodDeclaration>> serviceMethods;
+    private final List<Member<MethodDeclaration>> nonServiceMethods;
+    private final List<FieldDeclaration> apiFields;
+
+    // members that are public or protected, in declaration order
+    private final List<ConstructorDeclaration> publicOrProtectedConstructors;
+    private final List<MethodDeclaration> publicOrProtectedMethods;
+    private final List<FieldDeclaration> publicOrProtectedFields;
+    private final int publicOrProtectedServiceMethodCount;
+
+    private TypeMembers(TypeDeclaration<?> typeDeclaration) {
+        this.annotations = getAnnotationBits(typeDeclaration);
+
+        // By default, interfaces have public members if there is no access specifier declared, so we take all of them
+        final boolean isInterface = isInterfaceType(typeDeclaration);
+
+        final List<Member<ConstructorDeclaration>> constructors = new ArrayList<>();
+        final List<Member<MethodDeclaration>> methods = new ArrayList<>();
+        final List<FieldDeclaration> fields = new ArrayList<>();
+        final List<ConstructorDeclaration> publicConstructors = new ArrayList<>();
+        final List<MethodDeclaration> publicMethods = new ArrayList<>();
+        final List<FieldDeclaration> publicFields = new ArrayList<>();
+
+        int serviceMethodCount = 0;
+        boolean foundConstructor = false;
+        boolean allConstructorsPrivate = true;
+
+        for (BodyDeclaration<?> bodyDeclaration : typeDeclaration.getMembers()) {
+            if (bodyDeclaration.isConstructorDeclaration()) {
+                final ConstructorDeclaration constructor = bodyDeclaration.asConstructorDeclaration();
+                foundConstructor = true;
+                allConstructorsPrivate &= isPrivateOrPackagePrivate(constructor.getAccessSpecifier());
+
+                if (isPublicOrProtected(constructor.getAccessSpecifier())) {
+                    publicConstructors.add(constructor);
+                }
+                if (isInterface || !isPrivateOrPackagePrivate(constructor.getAccessSpecifier())) {
+                    constructors.add(new Member<>(constructor));
+                }
+            } else if (bodyDeclaration.isMethodDeclaration()) {
+                final MethodDeclaration method = bodyDeclaration.asMethodDeclaration();
+                final Member<MethodDeclaration> member = new Member<>(method);
+
+                if (isPublicOrProtected(method.getAccessSpecifier())) {
+                    publicMethods.add(method);
+                    if (member.hasAnnotation(SERVICE_METHOD)) {
+                        serviceMethodCount++;
+                    }
+                }
+                if (isInterface || !isPrivateOrPackagePrivate(method.getAccessSpecifier())) {
+                    methods.add(member);
+                }
+            } else if (bodyDeclaration.isFieldDeclaration()) {
+                final FieldDeclaration field = bodyDeclaration.asFieldDeclaration();
+
+                if (isPublicOrProtected(field.getAccessSpecifier())) {
+                    publicFields.add(field);
+                }
+                if (isInterface || !isPrivateOrPackagePrivate(field.getAccessSpecifier())) {
+                    fields.add(field);
+                }
+            }
+        }
+
+        constructors.sort(TypeMembers::compare);
+        methods.sort(TypeMembers::compare);
+
+        // if the class we are looking at is annotated with @ServiceClient, we break up the methods that are displayed
+        // into service methods and non-service methods
+        final List<Member<MethodDeclaration>> service = new ArrayList<>();
+        final List<Member<MethodDeclaration>> nonService = new ArrayList<>();
+        if (hasAnnotation(SERVICE_CLIENT)) {
+            for (Member<MethodDeclaration> method : methods) {
+                (method.hasAnnotation(SERVICE_METHOD) ? service : nonService).add(method);
+            }
+        }
+
+        this.hasConstructors = foundConstructor;
+        this.isNotInstantiable = foundConstructor && allConstructorsPrivate;
+        this.apiConstructors = Collections.unmodifiableList(constructors);
+        this.apiMethods = Collections.unmodifiableList(methods);
+        this.serviceMethods = Collections.unmodifiableList(service);
+        this.nonServiceMethods = Collections.unmodifiableList(nonService);
+        this.apiFields = Collections.unmodifiableList(fields);
+        this.publicOrProtectedConstructors = Collections.unmodifiableList(publicConstructors);
+        this.publicOrProtectedMethods = Collections.unmodifiableList(publicMethods);
+        this.publicOrProtectedFields = Collections.unmodifiableList(publicFields);
+        this.publicOrProtectedServiceMethodCount = serviceMethodCount;
+    }
+
+    /**
+     * Returns the member model for the given type, building it on first use.
+     */
+    public static TypeMembers of(TypeDeclaration<?> typeDeclaration) {
+        if (typeDeclaration.containsData(TYPE_MEMBERS)) {
+            return typeDeclaration.getData(TYPE_MEMBERS);
+        }
+        final TypeMembers typeMembers = new TypeMembers(typeDeclaration);
+        typeDeclaration.setData(TYPE_MEMBERS, typeMembers);
+        return typeMembers;
+    }
+
+    public boolean hasAnnotation(int annotation) {
+        return (annotations & annotation) != 0;
+    }
+
+    public boolean hasConstructors() {
+        return hasConstructors;
+    }
+
+    /**
+     * Returns true if the type declares constructors, and all of them are private or package-private, indicating that
+     * the class is unlikely to be instantiable via 'new' calls.
+     */
+    public boolean isNotInstantiable() {
+        return isNotInstantiable;
+    }
+
+    public List<Member<ConstructorDeclaration>> getApiConstructors() {
+        return apiConstructors;
+    }
+
+    public List<Member<MethodDeclaration>> getApiMethods() {
+        return apiMethods;
+    }
+
+    /**
+     * Returns true if the methods should be displayed split into service and non-service groups.
+     */
+    public boolean showServiceMethodGroupings() {
+        return hasAnnotation(SERVICE_CLIENT);
+    }
+
+    public List<Member<MethodDeclaration>> getServiceMethods() {
+        return serviceMethods;
+    }
+
+    public List<Member<MethodDeclaration>> getNonServiceMethods() {
+        return nonServiceMethods;
+    }
+
+    public List<FieldDeclaration> getApiFields() {
+        return apiFields;
+    }
+
+    public List<ConstructorDeclaration> getPublicOrProtectedConstructors() {
+        return publicOrProtectedConstructors;
+    }
+
+    public List<MethodDeclaration> getPublicOrProtectedMethods() {
+        return publicOrProtectedMethods;
+    }
+
+    public List<FieldDeclaration> getPublicOrProtectedFields() {
+        return publicOrProtectedFields;
+    }
+
+    /**
+     * Returns the number of public or protected methods that are annotated with {@code @ServiceMethod}.
+     */
+    public int getPublicOrProtectedServiceMethodCount() {
+        return publicOrProtectedServiceMethodCount;
+    }
+
+    static int getAnnotationBits(NodeWithAnnotations<?> node) {
+        int bits = 0;
+        for (AnnotationExpr annotation : node.getAnnotations()) {
+            bits |= getAnnotationBit(annotation.getNameAsString());
+        }
+        return bits;
+    }
+
+    /**
+     * Returns the annotation presence bit for the annotation with the given name, or zero if it is not one that we
+     * make decisions on.
+     */
+    public static int getAnnotationBit(String annotationName) {
+        switch (annotationName) {
+            case "Deprecated": return DEPRECATED;
+            case "Override": return OVERRIDE;
+            case "ServiceClient": return SERVICE_CLIENT;
+            case "ServiceClientBuilder": return SERVICE_CLIENT_BUILDER;
+            case "ServiceMethod": return SERVICE_METHOD;
+            case "Fluent": return FLUENT;
+            case "Immutable": return IMMUTABLE;
+            default: return 0;
+        }
+    }
+
+    private static int compare(Member<?> m1, Member<?> m2) {
+        return m1.sortKey.compareTo(m2.sortKey);
+    }
+
+    /**
+     * The properties of a constructor or method that decide where it is displayed in the listing. This is kept apart
+     * from {@link Member} so that analysers working from something other than source can order members the same way.
+     */
+    public static final class SortKey implements Comparable<SortKey> {
+        private final String name;
+        private final String sortName;
+        private final boolean isConstructor;
+        private final boolean isBuildMethod;
+        private final int parameterCount;
+
+        public SortKey(String name, boolean isConstructor, int parameterCount) {
+            this.name = name;
+            this.sortName = (name.startsWith("set") || name.startsWith("get") ? name.substring(3)
+                    : name.startsWith("is") ? name.substring(2) : name).toLowerCase();
+            this.isConstructor = isConstructor;
+            this.isBuildMethod = sortName.startsWith("build");
+            this.parameterCount = parameterCount;
+        }
+
+        @Override
+        public int compareTo(SortKey other) {
+            // we try our best to sort the callable methods using the following rules:
+            //  * If the method starts with 'set', 'get', or 'is', we strip off the prefix for the sake of comparison
+            //  * We do all comparisons in a case-insensitive manner
+            //  * Constructors always go at the top
+            //  * build* methods always go at the bottom
+            final int methodParamCountCompare = Integer.compare(parameterCount, other.parameterCount);
+
+            if (isConstructor) {
+                // if both are constructors, we sort in order of the number of arguments, otherwise this goes first
+                return other.isConstructor ? methodParamCountCompare : -1;
+            } else if (other.isConstructor) {
+                return 1;
+            }
+
+            if (isBuildMethod) {
+                // two 'build' methods are sorted alphabetically, otherwise this goes last
+                return other.isBuildMethod ? sortName.compareTo(other.sortName) : 1;
+            } else if (other.isBuildMethod) {
+                return -1;
+            }
+
+            int methodNameCompare = sortName.compareTo(other.sortName);
+            if (methodNameCompare == 0) {
+                // they have the same name, so here we firstly compare by the full name (including prefix), and then
+                // we compare by number of args
+                methodNameCompare = name.compareTo(other.name);
+                if (methodNameCompare == 0) {
+                    return methodParamCountCompare;
+                }
+            }
+            return methodNameCompare;
+        }
+    }
+
+    /**
+     * A constructor or method, along with the properties that are precomputed for it.
+     */
+    public static final class Member<T extends CallableDeclaration<?>> {
+        private final T declaration;
+        private final SortKey sortKey;
+        private final int annotations;
+
+        private Member(T declaration) {
+            this.declaration = declaration;
+            this.sortKey = new SortKey(declaration.getNameAsString(), declaration.isConstructorDeclaration(),
+                    declaration.getParameters().size());
+            this.annotations = getAnnotationBits(declaration);
+        }
+
+        public T getDeclaration() {
+            return declaration;
+        }
+
+        public boolean hasAnnotation(int annotation) {
+            return (annotations & annotation) != 0;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.azure.tools.apiview.processor.diagnostics;
+
+import com.azure.tools.apiview.processor.analysers.util.TypeMembers;
+import com.azure.tools.apiview.processor.model.APIListing;
+import com.azure.tools.apiview.processor.model.Diagnostic;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.azure.tools.apiview.processor.analysers.util.ASTUtils.makeId;
+
+/**
+ * What a {@link NodeCheck} knows about where it is in the walk over a compilation unit: the listing, the compilation
+ * unit, the enclosing type and the node being checked. The ID of the node is worked out the first time a check asks
+ * for it, and then shared with every other check of the same node.
+ *
+ * <p>Names are matched against the name patterns of every rule at once, and each distinct name is only matched once
+ * per compilation unit, however many rules or nodes ask about it.</p>
+ *
+ * <p>Diagnostics are held back per rule until the whole compilation unit has been checked, and are then added to the
+ * listing rule by rule, so they come out in the same order as if each rule had walked the compilation unit in turn.</p>
+ */
+public final class DiagnosticContext {
+    private final APIListing listing;
+    private final CompilationUnit compilationUnit;
+    private final List<List<Diagnostic>> ruleDiagnostics;
+    private final NameMatcher nameMatcher;
+    private final Map<String, NameMatches> nameMatches = new HashMap<>();
+    private final RuleBudgets budgets;
+
+    private TypeDeclaration<?> type;
+    private TypeMembers typeMembers;
+    private Node node;
+    private String nodeId;
+    private int rule;
+
+    DiagnosticContext(APIListing listing, CompilationUnit compilationUnit, int ruleCount, NameMatcher nameMatcher,
+                      RuleBudgets budgets) {
+        this.listing = listing;
+        this.compilationUnit = compilationUnit;
+        this.nameMatcher = nameMatcher;
+        this.budgets = budgets;
+        this.ruleDiagnostics = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            ruleDiagnostics.add(null);
+        }
+    }
+
+    public APIListing getListing() {
+        return listing;
+    }
+
+    /**
+     * Returns the compilation unit being checked, or null during the project-wide checks.
+     */
+    public CompilationUnit getCompilationUnit() {
+        return compilationUnit;
+    }
+
+    /**
+     * Returns the type being checked, or the type that encloses the member being checked. This is null while the
+     * compilation unit itself is being checked.
+     */
+    public TypeDeclaration<?> getType() {
+        return type;
+    }
+
+    /**
+     * Returns the members of {@link #getType()}.
+     */
+    public TypeMembers getTypeMembers() {
+        return typeMembers;
+    }
+
+    /**
+     * Returns the definition ID of the node being checked.
+     */
+    public String getNodeId() {
+        if (nodeId == null) {
+            if (node == null) {
+                throw new IllegalStateException("There is no node being checked in the project-wide checks");
+            } else if (node instanceof CompilationUnit) {
+                nodeId = makeId((CompilationUnit) node);
+            } else if (node instanceof TypeDeclaration) {
+                nodeId = makeId((TypeDeclaration<?>) node);
+            } else if (node instanceof CallableDeclaration) {
+                nodeId = makeId((CallableDeclaration<?>) node);
+            } else if (node instanceof FieldDeclaration) {
+                nodeId = makeId((FieldDeclaration) node);
+            } else {
+                throw new IllegalStateException("No ID for " + node.getClass().getSimpleName());
+            }
+        }
+        return nodeId;
+    }
+
+    /**
+     * Returns the name patterns registered by the rules that are found in the given name, which may be the name of a
+     * type, method, field or parameter.
+     */
+    public NameMatches matchName(String name) {
+        return nameMatches.computeIfAbsent(name, nameMatcher::match);
+    }
+
+    public void addDiagnostic(Diagnostic diagnostic) {
+        List<Diagnostic> diagnostics = ruleDiagnostics.get(rule);
+        if (diagnostics == null) {
+            diagnostics = new ArrayList<>();
+            ruleDiagnostics.set(rule, diagnostics);
+        }
+        diagnostics.add(diagnostic);
+    }
+
+    /*
+     * The time budgets of the rules for this listing, or null if budgets are not applied in this run.
+     */
+    RuleBudgets getBudgets() {
+        return budgets;
+    }
+
+    /*
+     * The node being checked, if there is one, for diagnostics about the checks themselves rather than the code.
+     */
+    String getNodeIdOrNull() {
+        return node == null ? null : getNodeId();
+    }
+
+    void enterType(TypeDeclaration<?> type) {
+        this.type = type;
+        this.typeMembers = type == null ? null : TypeMembers.of(type);
+    }
+
+    void enterNode(Node node) {
+        this.node = node;
+        this.nodeId = null;
+    }
+
+    void enterRule(int rule) {
+        this.rule = rule;
+    }
+
+    void flush(RuleStatistics[] statistics) {
+        for (int rule = 0; rule < ruleDiagnostics.size(); rule++) {
+            final List<Diagnostic> diagnostics = ruleDiagnostics.get(rule);
+            if (diagnostics != null) {
+                statistics[rule].addDiagnostics(diagnostics.size());
+                diagnostics.forEach(listing::addDiagnostic);
+            }
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.azure.tools.apiview.processor.diagnostics;
 
-import com.azure.tools.apiview.processor.model.APIListing;
-import com.github.javaparser.ast.CompilationUnit;
-
+/**
+ * A diagnostic rule does not walk compilation units itself. Instead, it registers checks for the kinds of nodes it is
+ * interested in, so that every rule is served by the same single walk over each compilation unit (see
+ * {@link Diagnostics}).
+ */
 public interface DiagnosticRule {
-    void scan(CompilationUnit cu, APIListing listing);
+    void register(RuleDispatchTable.Builder table);
 }
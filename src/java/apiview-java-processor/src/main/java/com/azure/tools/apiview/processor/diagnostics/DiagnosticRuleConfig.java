@@ -0,0 +1,216 @@
+package com.azure.tools.apiview.processor.diagnostics;
+
+import com.azure.tools.apiview.processor.diagnostics.rules.BadPrefixesDiagnosticRule;
+import com.azure.tools.apiview.processor.diagnostics.rules.ConsiderFinalClassDiagnosticRule;
+import com.azure.tools.apiview.processor.diagnostics.rules.DefinitionIdCollisionDiagnosticRule;
+import com.azure.tools.apiview.processor.diagnostics.rules.FluentSetterReturnTypeDiagnosticRule;
+import com.azure.tools.apiview.processor.diagnostics.rules.IllegalPackageAPIExportsDiagnosticRule;
+import com.azure.tools.apiview.processor.diagnostics.rules.ImportsDiagnosticRule;
+import com.azure.tools.apiview.processor.diagnostics.rules.MissingAnnotationsDiagnosticRule;
+import com.azure.tools.apiview.processor.diagnostics.rules.NoPublicFieldsDiagnosticRule;
+import com.azure.tools.apiview.processor.diagnostics.rules.PackageNameDiagnosticRule;
+import com.azure.tools.apiview.processor.diagnostics.rules.RequiredBuilderMethodsDiagnosticRule;
+import com.azure.tools.apiview.processor.diagnostics.rules.ServiceClientPairingDiagnosticRule;
+import com.azure.tools.apiview.processor.diagnostics.rules.UpperCaseNamingDiagnosticRule;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static com.azure.tools.apiview.processor.diagnostics.rules.RequiredBuilderMethodsDiagnosticRule.DirectSubclassCheckFunction;
+import static com.azure.tools.apiview.processor.diagnostics.rules.RequiredBuilderMethodsDiagnosticRule.ExactTypeNameCheckFunction;
+import static com.azure.tools.apiview.processor.diagnostics.rules.RequiredBuilderMethodsDiagnosticRule.ParameterAllowedTypes;
+
+/**
+ * Reads which diagnostic rules to run, in which order and with which parameters, from a JSON file, so that rules can be
+ * tuned without building a new processor. The file given with {@code -Dapiview.diagnosticRules=<path>} is used if set,
+ * and otherwise the {@code apiview-diagnostic-rules.json} resource bundled with the processor, which also documents the
+ * format.
+ *
+ * <p>The file has a {@code rules} array, with one object per rule naming the rule and giving its parameters. A rule can
+ * be switched off with {@code "enabled": false}, or by leaving it out, and given a time budget for each listing with
+ * {@code "timeBudgetMillis"}, which is only applied when enabled with {@code -Dapiview.ruleTimeBudgets=true} (see
+ * {@link RuleBudgets}).</p>
+ */
+final class DiagnosticRuleConfig {
+    private static final String CONFIG_PROPERTY = "apiview.diagnosticRules";
+    private static final String DEFAULT_CONFIG = "/apiview-diagnostic-rules.json";
+    private static final List<String> COMMON_KEYS = Arrays.asList("name", "enabled", "timeBudgetMillis");
+    private static final List<String> METHOD_KEYS = Arrays.asList("parameterTypes", "directSubclassOf");
+
+    private DiagnosticRuleConfig() {
+    }
+
+    static List<ConfiguredRule> load() {
+        final String configFile = System.getProperty(CONFIG_PROPERTY);
+        final ObjectMapper objectMapper = new ObjectMapper();
+        try {
+            if (configFile != null) {
+                return parse(objectMapper.readTree(new File(configFile)), configFile);
+            }
+            try (InputStream inputStream = DiagnosticRuleConfig.class.getResourceAsStream(DEFAULT_CONFIG)) {
+                return parse(objectMapper.readTree(inputStream), DEFAULT_CONFIG);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read the diagnostic rules from '"
+                    + (configFile != null ? configFile : DEFAULT_CONFIG) + "'", e);
+        }
+    }
+
+    static List<ConfiguredRule> parse(JsonNode config, String source) {
+        final List<ConfiguredRule> rules = new ArrayList<>();
+        for (JsonNode ruleConfig : config.path("rules")) {
+            if (ruleConfig.path("enabled").asBoolean(true)) {
+                final long timeBudgetMillis = ruleConfig.path("timeBudgetMillis").asLong(0);
+                if (timeBudgetMillis < 0) {
+                    throw new IllegalArgumentException("Negative time budget for diagnostic rule '"
+                            + ruleConfig.path("name").asText() + "' in '" + source + "'");
+                }
+                rules.add(new ConfiguredRule(createRule(ruleConfig, source),
+                        new RuleStatistics(ruleConfig.path("name").asText(), timeBudgetMillis)));
+            }
+        }
+        return rules;
+    }
+
+    private static DiagnosticRule createRule(JsonNode ruleConfig, String source) {
+        final String name = ruleConfig.path("name").asText();
+        switch (name) {
+            case "packageName":
+                checkKeys(ruleConfig, name, source);
+                return new PackageNameDiagnosticRule();
+            case "imports":
+                checkKeys(ruleConfig, name, source, "packages");
+                return new ImportsDiagnosticRule(strings(required(ruleConfig, "packages", name, source)));
+            case "illegalPackageApiExports":
+                checkKeys(ruleConfig, name, source, "packages");
+                return new IllegalPackageAPIExportsDiagnosticRule(
+                        strings(required(ruleConfig, "packages", name, source)));
+            case "noPublicFields":
+                checkKeys(ruleConfig, name, source);
+                return new NoPublicFieldsDiagnosticRule();
+            case "upperCaseNaming":
+                checkKeys(ruleConfig, name, source, "names");
+                return new UpperCaseNamingDiagnosticRule(strings(required(ruleConfig, "names", name, source)));
+            case "badPrefixes":
+                checkKeys(ruleConfig, name, source, "prefixes");
+                return new BadPrefixesDiagnosticRule(strings(required(ruleConfig, "prefixes", name, source)));
+            case "requiredBuilderMethods":
+                checkKeys(ruleConfig, name, source, "methods");
+                return createRequiredBuilderMethodsRule(required(ruleConfig, "methods", name, source), source);
+            case "missingAnnotations":
+                checkKeys(ruleConfig, name, source);
+                return new MissingAnnotationsDiagnosticRule();
+            case "fluentSetterReturnType":
+                checkKeys(ruleConfig, name, source);
+                return new FluentSetterReturnTypeDiagnosticRule();
+            case "considerFinalClass":
+                checkKeys(ruleConfig, name, source);
+                return new ConsiderFinalClassDiagnosticRule();
+            case "serviceClientPairing":
+                checkKeys(ruleConfig, name, source);
+                return new ServiceClientPairingDiagnosticRule();
+            case "definitionIdCollisions":
+                checkKeys(ruleConfig, name, source);
+                return new DefinitionIdCollisionDiagnosticRule();
+            default:
+                throw new IllegalArgumentException("Unknown diagnostic rule '" + name + "' in '" + source + "'");
+        }
+    }
+
+    /*
+     * Each builder method either lists the types allowed for each of its parameters (a name, or an array of names where
+     * several types are allowed), or names the type its single parameter must directly subclass.
+     */
+    private static DiagnosticRule createRequiredBuilderMethodsRule(JsonNode methods, String source) {
+        final RequiredBuilderMethodsDiagnosticRule rule = new RequiredBuilderMethodsDiagnosticRule();
+        final Iterator<Map.Entry<String, JsonNode>> fields = methods.fields();
+        while (fields.hasNext()) {
+            final Map.Entry<String, JsonNode> method = fields.next();
+            final String what = "builder method '" + method.getKey() + "'";
+            final JsonNode methodConfig = method.getValue();
+            checkKeys(methodConfig, what, source, METHOD_KEYS);
+            if (methodConfig.has("directSubclassOf") == methodConfig.has("parameterTypes")) {
+                throw new IllegalArgumentException("Exactly one of 'directSubclassOf' and 'parameterTypes' must be "
+                        + "given for " + what + " in '" + source + "'");
+            }
+
+            if (methodConfig.has("directSubclassOf")) {
+                rule.add(method.getKey(), new DirectSubclassCheckFunction(methodConfig.get("directSubclassOf").asText()));
+            } else {
+                final List<ParameterAllowedTypes> parameterTypes = new ArrayList<>();
+                for (JsonNode allowedTypes : methodConfig.get("parameterTypes")) {
+                    parameterTypes.add(new ParameterAllowedTypes(allowedTypes.isArray()
+                            ? strings(allowedTypes)
+                            : new String[] { allowedTypes.asText() }));
+                }
+                rule.add(method.getKey(),
+                        new ExactTypeNameCheckFunction(parameterTypes.toArray(new ParameterAllowedTypes[0])));
+            }
+        }
+        return rule;
+    }
+
+    /*
+     * Rejects any key a rule does not know, so that a misspelt parameter fails loudly rather than leaving the rule
+     * quietly running with no parameters.
+     */
+    private static void checkKeys(JsonNode ruleConfig, String name, String source, String... ruleKeys) {
+        final List<String> keys = new ArrayList<>(COMMON_KEYS);
+        keys.addAll(Arrays.asList(ruleKeys));
+        checkKeys(ruleConfig, "diagnostic rule '" + name + "'", source, keys);
+    }
+
+    private static void checkKeys(JsonNode config, String what, String source, List<String> keys) {
+        final Iterator<String> fieldNames = config.fieldNames();
+        while (fieldNames.hasNext()) {
+            final String key = fieldNames.next();
+            if (!keys.contains(key)) {
+                throw new IllegalArgumentException("Unknown key '" + key + "' for " + what + " in '" + source + "'");
+            }
+        }
+    }
+
+    private static JsonNode required(JsonNode ruleConfig, String key, String name, String source) {
+        if (!ruleConfig.has(key)) {
+            throw new IllegalArgumentException("Missing key '" + key + "' for diagnostic rule '" + name + "' in '"
+                    + source + "'");
+        }
+        return ruleConfig.get(key);
+    }
+
+    private static String[] strings(JsonNode array) {
+        final List<String> strings = new ArrayList<>();
+        array.forEach(value -> strings.add(value.asText()));
+        return strings.toArray(new String[0]);
+    }
+
+    /**
+     * A rule as configured, with the statistics it is accounted against.
+     */
+    static final class ConfiguredRule {
+        private final DiagnosticRule rule;
+        private final RuleStatistics statistics;
+
+        ConfiguredRule(DiagnosticRule rule, RuleStatistics statistics) {
+            this.rule = rule;
+            this.statistics = statistics;
+        }
+
+        DiagnosticRule getRule() {
+            return rule;
+        }
+
+        RuleStatistics getStatistics() {
+            return statistics;
+        }
+    }
+}
@@ -1,58 +1,60 @@
 package com.azure.tools.apiview.processor.diagnostics;
 
-import com.azure.tools.apiview.processor.diagnostics.rules.BadPrefixesDiagnosticRule;
-import com.azure.tools.apiview.processor.diagnostics.rules.ConsiderFinalClassDiagnosticRule;
-import com.azure.tools.apiview.processor.diagnostics.rules.FluentSetterReturnTypeDiagnosticRule;
-import com.azure.tools.apiview.processor.diagnostics.rules.IllegalPackageAPIExportsDiagnosticRule;
-import com.azure.tools.apiview.processor.diagnostics.rules.ImportsDiagnosticRule;
-import com.azure.tools.apiview.processor.diagnostics.rules.MissingAnnotationsDiagnosticRule;
-import com.azure.tools.apiview.processor.diagnostics.rules.NoPublicFieldsDiagnosticRule;
-import com.azure.tools.apiview.processor.diagnostics.rules.PackageNameDiagnosticRule;
-import com.azure.tools.apiview.processor.diagnostics.rules.RequiredBuilderMethodsDiagnosticRule;
-import com.azure.tools.apiview.processor.diagnostics.rules.UpperCaseNamingDiagnosticRule;
 import com.azure.tools.apiview.processor.model.APIListing;
 import com.github.javaparser.ast.CompilationUnit;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
-import static com.azure.tools.apiview.processor.diagnostics.rules.RequiredBuilderMethodsDiagnosticRule.ExactTypeNameCheckFunction;
-import static com.azure.tools.apiview.processor.diagnostics.rules.RequiredBuilderMethodsDiagnosticRule.DirectSubclassCheckFunction;
+public class Diagnostics {
+    // the configured rules, compiled once into a table of checks by node kind (see DiagnosticRuleConfig)
+    private static final RuleDispatchTable diagnostics = RuleDispatchTable.ofConfigured(DiagnosticRuleConfig.load());
 
-import static com.azure.tools.apiview.processor.diagnostics.rules.RequiredBuilderMethodsDiagnosticRule.ParameterAllowedTypes;
+    // Rule time budgets (see RuleBudgets) make which rules run depend on how fast the machine is, so they are only
+    // applied when enabled with -Dapiview.ruleTimeBudgets=true.
+    private static final boolean TIME_BUDGETS = Boolean.getBoolean("apiview.ruleTimeBudgets")
+            && diagnostics.hasTimeBudgets();
 
-public class Diagnostics {
-    private static final List<DiagnosticRule> diagnostics = new ArrayList<>();
-    static {
-        diagnostics.add(new PackageNameDiagnosticRule());
-        diagnostics.add(new ImportsDiagnosticRule("com.sun"));
-        diagnostics.add(new IllegalPackageAPIExportsDiagnosticRule("implementation", "netty"));
-        diagnostics.add(new NoPublicFieldsDiagnosticRule());
-        diagnostics.add(new UpperCaseNamingDiagnosticRule("URL", "HTTP", "XML", "JSON", "SAS", "CPK", "API"));
-        diagnostics.add(new BadPrefixesDiagnosticRule("isHas", "setHas"));
-        diagnostics.add(new RequiredBuilderMethodsDiagnosticRule()
-            .add("addPolicy", new ExactTypeNameCheckFunction("HttpPipelinePolicy"))
-            .add("configuration", new ExactTypeNameCheckFunction("Configuration"))
-            .add("credential", new ExactTypeNameCheckFunction(new ParameterAllowedTypes("TokenCredential", "AzureKeyCredential")))
-            .add("connectionString", new ExactTypeNameCheckFunction("String"))
-            .add("endpoint", new ExactTypeNameCheckFunction("String"))
-            .add("httpClient", new ExactTypeNameCheckFunction("HttpClient"))
-            .add("httpLogOptions", new ExactTypeNameCheckFunction("HttpLogOptions"))
-            .add("pipeline", new ExactTypeNameCheckFunction("HttpPipeline"))
-            .add("retryPolicy", new ExactTypeNameCheckFunction("RetryPolicy"))
-            .add("serviceVersion", new DirectSubclassCheckFunction("ServiceVersion")));
-        diagnostics.add(new MissingAnnotationsDiagnosticRule());
-        diagnostics.add(new FluentSetterReturnTypeDiagnosticRule());
-        diagnostics.add(new ConsiderFinalClassDiagnosticRule());
-    }
+    // what has been gathered for the project-wide checks of each listing whose files are being checked
+    private static final Map<APIListing, ProjectAggregates> projectAggregates =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    // the time each rule has spent on each listing whose files are being checked, when time budgets are applied
+    private static final Map<APIListing, RuleBudgets> ruleBudgets = Collections.synchronizedMap(new WeakHashMap<>());
 
     public static void scan(CompilationUnit cu, APIListing listing) {
         // We do not scan compilation units that are missing any primary type (i.e. they are completely commented out).
         if (! cu.getPrimaryType().isPresent()) {
             return;
         }
-        for (DiagnosticRule rule : diagnostics) {
-            rule.scan(cu, listing);
+        diagnostics.scan(cu, listing, diagnostics.hasProjectChecks()
+                ? projectAggregates.computeIfAbsent(listing, key -> new ProjectAggregates())
+                : null, getBudgets(listing));
+    }
+
+    /**
+     * Runs the project-wide checks over everything gathered while scanning the files of the given listing. This is
+     * called once, after every file of the listing has been scanned, and its diagnostics follow those of the files.
+     */
+    public static void scanProject(APIListing listing) {
+        final ProjectAggregates aggregates = projectAggregates.remove(listing);
+        if (aggregates != null) {
+            diagnostics.scanProject(aggregates, listing, getBudgets(listing));
         }
+        // the listing is finished, so a listing that is updated later (in watch mode) starts with its full budgets
+        ruleBudgets.remove(listing);
+    }
+
+    private static RuleBudgets getBudgets(APIListing listing) {
+        return TIME_BUDGETS ? ruleBudgets.computeIfAbsent(listing, key -> diagnostics.newBudgets()) : null;
+    }
+
+    /**
+     * Returns how much each configured rule has cost so far in this run, in the order the rules are configured.
+     */
+    public static List<RuleStatistics> getRuleStatistics() {
+        return diagnostics.getStatistics();
     }
 }
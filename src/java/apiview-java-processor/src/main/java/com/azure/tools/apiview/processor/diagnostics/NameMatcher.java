@@ -0,0 +1,123 @@
+package com.azure.tools.apiview.processor.diagnostics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds which of a fixed set of patterns occur in an identifier, and which of them it starts with, in a single pass over
+ * the identifier however many patterns there are. This is an Aho-Corasick automaton, compiled to a table of transitions
+ * over the characters that appear in the patterns, so matching one character is a single array lookup.
+ *
+ * <p>A matcher is built once, from the name patterns of every configured rule, and is never changed afterwards, so it
+ * can be shared by any number of threads.</p>
+ */
+final class NameMatcher {
+    // characters that appear in no pattern all share character class 0
+    private final int[] asciiClasses = new int[128];
+    private final Map<Character, Integer> otherClasses = new HashMap<>();
+    private final int classCount;
+
+    private final int[] transitions;
+    private final int[][] outputs;
+    private final int[] patternLengths;
+
+    NameMatcher(List<String> patterns) {
+        int nextClass = 1;
+        for (String pattern : patterns) {
+            for (int i = 0; i < pattern.length(); i++) {
+                final char c = pattern.charAt(i);
+                if (charClass(c) == 0) {
+                    if (c < asciiClasses.length) {
+                        asciiClasses[c] = nextClass++;
+                    } else {
+                        otherClasses.put(c, nextClass++);
+                    }
+                }
+            }
+        }
+        this.classCount = nextClass;
+
+        // build the trie of the patterns, with the patterns that end at each state
+        final List<int[]> trie = new ArrayList<>();
+        final List<List<Integer>> ends = new ArrayList<>();
+        trie.add(new int[classCount]);
+        ends.add(new ArrayList<>());
+        this.patternLengths = new int[patterns.size()];
+        for (int p = 0; p < patterns.size(); p++) {
+            final String pattern = patterns.get(p);
+            patternLengths[p] = pattern.length();
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                final int c = charClass(pattern.charAt(i));
+                if (trie.get(state)[c] == 0) {
+                    trie.get(state)[c] = trie.size();
+                    trie.add(new int[classCount]);
+                    ends.add(new ArrayList<>());
+                }
+                state = trie.get(state)[c];
+            }
+            ends.get(state).add(p);
+        }
+
+        // follow the failure links breadth first, turning the trie into a complete transition table, and gathering the
+        // patterns that end at each state through its failure links
+        final int stateCount = trie.size();
+        this.transitions = new int[stateCount * classCount];
+        this.outputs = new int[stateCount][];
+        final int[] failure = new int[stateCount];
+        final int[] queue = new int[stateCount];
+        int head = 0;
+        int tail = 0;
+        outputs[0] = new int[0];
+        for (int c = 0; c < classCount; c++) {
+            final int next = trie.get(0)[c];
+            transitions[c] = next;
+            if (next != 0) {
+                queue[tail++] = next;
+            }
+        }
+        while (head < tail) {
+            final int state = queue[head++];
+            final List<Integer> output = new ArrayList<>(ends.get(state));
+            for (int p : outputs[failure[state]]) {
+                output.add(p);
+            }
+            outputs[state] = output.stream().mapToInt(Integer::intValue).toArray();
+
+            for (int c = 0; c < classCount; c++) {
+                final int next = trie.get(state)[c];
+                if (next == 0) {
+                    transitions[state * classCount + c] = transitions[failure[state] * classCount + c];
+                } else {
+                    failure[next] = transitions[failure[state] * classCount + c];
+                    transitions[state * classCount + c] = next;
+                    queue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns every pattern found in the given identifier.
+     */
+    NameMatches match(String identifier) {
+        final NameMatches matches = new NameMatches();
+        int state = 0;
+        for (int i = 0; i < identifier.length(); i++) {
+            state = transitions[state * classCount + charClass(identifier.charAt(i))];
+            for (int p : outputs[state]) {
+                matches.add(p, i + 1 == patternLengths[p]);
+            }
+        }
+        return matches;
+    }
+
+    private int charClass(char c) {
+        if (c < asciiClasses.length) {
+            return asciiClasses[c];
+        }
+        return otherClasses.getOrDefault(c, 0);
+    }
+}
@@ -0,0 +1,54 @@
+package com.azure.tools.apiview.processor.diagnostics;
+
+import java.util.BitSet;
+
+/**
+ * The name patterns found in one identifier, by the index returned when each pattern was registered with
+ * {@link RuleDispatchTable.Builder#namePattern(String)}.
+ */
+public final class NameMatches {
+    private final BitSet contains = new BitSet();
+    private final BitSet startsWith = new BitSet();
+
+    NameMatches() {
+    }
+
+    void add(int pattern, boolean atStart) {
+        contains.set(pattern);
+        if (atStart) {
+            startsWith.set(pattern);
+        }
+    }
+
+    public boolean contains(int pattern) {
+        return contains.get(pattern);
+    }
+
+    public boolean startsWith(int pattern) {
+        return startsWith.get(pattern);
+    }
+
+    /**
+     * Returns true if the identifier contains any of the given patterns.
+     */
+    public boolean containsAny(int[] patterns) {
+        for (int pattern : patterns) {
+            if (contains.get(pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if the identifier starts with any of the given patterns.
+     */
+    public boolean startsWithAny(int[] patterns) {
+        for (int pattern : patterns) {
+            if (startsWith.get(pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,9 @@
+package com.azure.tools.apiview.processor.diagnostics;
+
+/**
+ * A check registered by a {@link DiagnosticRule}, run against each node of the kind it was registered for.
+ */
+@FunctionalInterface
+public interface NodeCheck<T> {
+    void check(T node, DiagnosticContext context);
+}
@@ -0,0 +1,251 @@
+package com.azure.tools.apiview.processor.diagnostics;
+
+import com.azure.tools.apiview.processor.analysers.util.TypeMembers;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import com.github.javaparser.ast.expr.ArrayInitializerExpr;
+import com.github.javaparser.ast.expr.ClassExpr;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.MemberValuePair;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.Type;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.azure.tools.apiview.processor.analysers.util.ASTUtils.makeId;
+import static com.azure.tools.apiview.processor.analysers.util.TypeMembers.SERVICE_CLIENT;
+import static com.azure.tools.apiview.processor.analysers.util.TypeMembers.SERVICE_CLIENT_BUILDER;
+
+/**
+ * What the project-wide diagnostic checks know about a whole listing: a summary of each top-level type, gathered while
+ * the per-file checks walk each compilation unit, so no file is walked twice. The views over the summaries (the types
+ * by name, the service clients and builders, and the supertypes and method sets of each type) are each worked out the
+ * first time a check asks for them, and then shared by every project-wide check.
+ *
+ * <p>The files of a listing are checked one at a time, so this is not thread-safe.</p>
+ */
+public final class ProjectAggregates {
+    private final List<TypeSummary> types = new ArrayList<>();
+
+    private Map<String, TypeSummary> typesByName;
+    private List<TypeSummary> serviceClients;
+    private List<TypeSummary> serviceClientBuilders;
+    private final Map<TypeSummary, List<TypeSummary>> superTypes = new HashMap<>();
+    private final Map<TypeSummary, Set<String>> methodNames = new HashMap<>();
+
+    ProjectAggregates() {
+    }
+
+    void addType(TypeDeclaration<?> type, TypeMembers typeMembers) {
+        types.add(new TypeSummary(type, typeMembers));
+    }
+
+    /**
+     * Returns every top-level type, in the order they were checked.
+     */
+    public List<TypeSummary> getTypes() {
+        return Collections.unmodifiableList(types);
+    }
+
+    /**
+     * Returns the type with the given simple name, or null if there is none. Where several types share the name, the
+     * first one checked is returned.
+     */
+    public TypeSummary getType(String name) {
+        if (typesByName == null) {
+            typesByName = new HashMap<>();
+            types.forEach(type -> typesByName.putIfAbsent(type.getName(), type));
+        }
+        return typesByName.get(name);
+    }
+
+    /**
+     * Returns the types annotated with {@code @ServiceClient}.
+     */
+    public List<TypeSummary> getServiceClients() {
+        if (serviceClients == null) {
+            serviceClients = filter(SERVICE_CLIENT);
+        }
+        return serviceClients;
+    }
+
+    /**
+     * Returns the types annotated with {@code @ServiceClientBuilder}.
+     */
+    public List<TypeSummary> getServiceClientBuilders() {
+        if (serviceClientBuilders == null) {
+            serviceClientBuilders = filter(SERVICE_CLIENT_BUILDER);
+        }
+        return serviceClientBuilders;
+    }
+
+    /**
+     * Returns the supertypes of the given type that are in this listing, nearest first, following the whole hierarchy.
+     */
+    public List<TypeSummary> getSuperTypes(TypeSummary type) {
+        List<TypeSummary> result = superTypes.get(type);
+        if (result == null) {
+            final Set<TypeSummary> found = new LinkedHashSet<>();
+            final List<TypeSummary> pending = new ArrayList<>();
+            pending.add(type);
+            for (int i = 0; i < pending.size(); i++) {
+                for (String superTypeName : pending.get(i).getSuperTypeNames()) {
+                    final TypeSummary superType = getType(superTypeName);
+                    if (superType != null && superType != type && found.add(superType)) {
+                        pending.add(superType);
+                    }
+                }
+            }
+            result = Collections.unmodifiableList(new ArrayList<>(found));
+            superTypes.put(type, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the names of the public or protected methods of the given type, including those it inherits from
+     * supertypes in this listing.
+     */
+    public Set<String> getMethodNames(TypeSummary type) {
+        Set<String> result = methodNames.get(type);
+        if (result == null) {
+            final Set<String> names = new HashSet<>(type.getDeclaredMethodNames());
+            getSuperTypes(type).forEach(superType -> names.addAll(superType.getDeclaredMethodNames()));
+            result = Collections.unmodifiableSet(names);
+            methodNames.put(type, result);
+        }
+        return result;
+    }
+
+    private List<TypeSummary> filter(int annotation) {
+        final List<TypeSummary> result = new ArrayList<>();
+        for (TypeSummary type : types) {
+            if ((type.annotations & annotation) != 0) {
+                result.add(type);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * The parts of a top-level type that the project-wide checks make decisions on. Nothing here refers back to the
+     * compilation unit, so the summaries can outlive it.
+     */
+    public static final class TypeSummary {
+        private final String name;
+        private final String id;
+        private final int annotations;
+        private final Set<String> declaredMethodNames;
+        private final List<String> superTypeNames;
+        private final List<String> builtClientNames;
+        private final String builderName;
+
+        private TypeSummary(TypeDeclaration<?> type, TypeMembers typeMembers) {
+            this.name = type.getNameAsString();
+            this.id = makeId(type);
+            this.annotations = (typeMembers.hasAnnotation(SERVICE_CLIENT) ? SERVICE_CLIENT : 0)
+                    | (typeMembers.hasAnnotation(SERVICE_CLIENT_BUILDER) ? SERVICE_CLIENT_BUILDER : 0);
+
+            final Set<String> methods = new HashSet<>();
+            for (MethodDeclaration method : typeMembers.getPublicOrProtectedMethods()) {
+                methods.add(method.getNameAsString());
+            }
+            this.declaredMethodNames = Collections.unmodifiableSet(methods);
+
+            final List<String> supers = new ArrayList<>();
+            if (type.isClassOrInterfaceDeclaration()) {
+                type.asClassOrInterfaceDeclaration().getExtendedTypes().forEach(t -> supers.add(t.getNameAsString()));
+                type.asClassOrInterfaceDeclaration().getImplementedTypes().forEach(t -> supers.add(t.getNameAsString()));
+            } else if (type.isEnumDeclaration()) {
+                type.asEnumDeclaration().getImplementedTypes().forEach(t -> supers.add(t.getNameAsString()));
+            }
+            this.superTypeNames = Collections.unmodifiableList(supers);
+
+            // @ServiceClientBuilder(serviceClients = { ... }) and @ServiceClient(builder = ...)
+            this.builtClientNames = Collections.unmodifiableList(
+                    getClassNames(getAnnotationValue(type, "ServiceClientBuilder", "serviceClients")));
+            final List<String> builder = getClassNames(getAnnotationValue(type, "ServiceClient", "builder"));
+            this.builderName = builder.isEmpty() ? null : builder.get(0);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the definition ID of the type, for diagnostics to target.
+         */
+        public String getId() {
+            return id;
+        }
+
+        public boolean hasAnnotation(int annotation) {
+            return (annotations & annotation) != 0;
+        }
+
+        public Set<String> getDeclaredMethodNames() {
+            return declaredMethodNames;
+        }
+
+        /**
+         * Returns the simple names of the types this type directly extends or implements.
+         */
+        public List<String> getSuperTypeNames() {
+            return superTypeNames;
+        }
+
+        /**
+         * Returns the simple names of the clients listed in this type's {@code @ServiceClientBuilder} annotation.
+         */
+        public List<String> getBuiltClientNames() {
+            return builtClientNames;
+        }
+
+        /**
+         * Returns the simple name of the builder named in this type's {@code @ServiceClient} annotation, or null.
+         */
+        public String getBuilderName() {
+            return builderName;
+        }
+
+        private static Optional<Expression> getAnnotationValue(TypeDeclaration<?> type, String annotationName,
+                                                               String memberName) {
+            return type.getAnnotationByName(annotationName)
+                    .filter(AnnotationExpr::isNormalAnnotationExpr)
+                    .flatMap(annotation -> annotation.asNormalAnnotationExpr().getPairs().stream()
+                            .filter(pair -> pair.getNameAsString().equals(memberName))
+                            .map(MemberValuePair::getValue)
+                            .findFirst());
+        }
+
+        // the simple names of the types of 'Foo.class' or '{ Foo.class, Bar.class }'
+        private static List<String> getClassNames(Optional<Expression> value) {
+            final List<String> names = new ArrayList<>();
+            value.ifPresent(expression -> {
+                final List<Expression> values = new ArrayList<>();
+                if (expression instanceof ArrayInitializerExpr) {
+                    values.addAll(((ArrayInitializerExpr) expression).getValues());
+                } else {
+                    values.add(expression);
+                }
+                for (Expression classExpression : values) {
+                    if (classExpression instanceof ClassExpr) {
+                        final Type classType = ((ClassExpr) classExpression).getType();
+                        names.add(classType instanceof ClassOrInterfaceType
+                                ? ((ClassOrInterfaceType) classType).getNameAsString() : classType.asString());
+                    }
+                }
+            });
+            return names;
+        }
+    }
+}
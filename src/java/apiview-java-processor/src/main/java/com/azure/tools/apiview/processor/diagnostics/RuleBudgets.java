@@ -0,0 +1,42 @@
+package com.azure.tools.apiview.processor.diagnostics;
+
+/**
+ * The time each rule has spent checking the files of one listing, for rules given a time budget with
+ * {@code "timeBudgetMillis"} in the rule configuration. Once a rule's checks have taken longer than its budget on a
+ * listing, the rule is turned off for the rest of that listing, so that a rule that is slow on some unusual code cannot
+ * hold the listing up. Other listings, including those built at the same time, are not affected.
+ *
+ * <p>The diagnostics of a listing are run one file at a time, on one thread, so the budgets of a listing are never
+ * used concurrently and are not synchronized. Listings built at the same time each have budgets of their own.</p>
+ */
+final class RuleBudgets {
+    private final long[] budgetNanos;
+    private final long[] nanos;
+    private final boolean[] disabled;
+
+    RuleBudgets(RuleStatistics[] statistics) {
+        this.budgetNanos = new long[statistics.length];
+        for (int rule = 0; rule < statistics.length; rule++) {
+            budgetNanos[rule] = statistics[rule].getTimeBudgetNanos();
+        }
+        this.nanos = new long[statistics.length];
+        this.disabled = new boolean[statistics.length];
+    }
+
+    boolean isDisabled(int rule) {
+        return disabled[rule];
+    }
+
+    /*
+     * Records one run of a check of the given rule, returning true if it took the rule over its budget, in which case
+     * the rule is now disabled for this listing. This is only true once per rule.
+     */
+    boolean record(int rule, long elapsedNanos) {
+        if (budgetNanos[rule] <= 0 || disabled[rule]) {
+            return false;
+        }
+        nanos[rule] += elapsedNanos;
+        disabled[rule] = nanos[rule] > budgetNanos[rule];
+        return disabled[rule];
+    }
+}
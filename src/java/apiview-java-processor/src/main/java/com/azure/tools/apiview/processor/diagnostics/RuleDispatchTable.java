@@ -0,0 +1,288 @@
+package com.azure.tools.apiview.processor.diagnostics;
+
+import com.azure.tools.apiview.processor.diagnostics.DiagnosticRuleConfig.ConfiguredRule;
+import com.azure.tools.apiview.processor.model.APIListing;
+import com.azure.tools.apiview.processor.model.Diagnostic;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The checks of every configured rule, grouped by the kind of node they apply to, and for methods optionally by method
+ * name. The table is built once and never changed, and each compilation unit is walked just once to run it, however
+ * many rules there are:
+ *
+ * <ul>
+ *     <li>the compilation unit itself,</li>
+ *     <li>then each top-level type,</li>
+ *     <li>then the public or protected constructors of each top-level type,</li>
+ *     <li>then the public or protected methods of each top-level type, running the checks for any method, then those
+ *     registered for the method's name,</li>
+ *     <li>then the public or protected fields of each top-level type.</li>
+ * </ul>
+ *
+ * <p>Kinds with no checks are skipped entirely. Some checks can only be made across all the files of a listing. These
+ * are run once, after every file has been checked, over {@link ProjectAggregates} gathered during the walk above.</p>
+ *
+ * <p>Rules that look for patterns in names register them with the table too,
+ * and all of them are matched against each name in one pass (see {@link DiagnosticContext#matchName(String)}).</p>
+ *
+ * <p>The time spent in each rule's checks is accounted in its {@link RuleStatistics}. Where time budgets are applied,
+ * a rule that goes over its budget on a listing is skipped for the rest of that listing (see {@link RuleBudgets}).</p>
+ */
+public final class RuleDispatchTable {
+    private final int ruleCount;
+    private final List<Entry<CompilationUnit>> compilationUnitChecks;
+    private final List<Entry<TypeDeclaration<?>>> typeChecks;
+    private final List<Entry<ConstructorDeclaration>> constructorChecks;
+    private final List<Entry<MethodDeclaration>> methodChecks;
+    private final Map<String, List<Entry<MethodDeclaration>>> namedMethodChecks;
+    private final List<Entry<FieldDeclaration>> fieldChecks;
+    private final List<Entry<ProjectAggregates>> projectChecks;
+    private final NameMatcher nameMatcher;
+    private final RuleStatistics[] statistics;
+
+    private RuleDispatchTable(Builder builder, List<RuleStatistics> statistics) {
+        this.ruleCount = builder.rule + 1;
+        this.statistics = statistics.toArray(new RuleStatistics[0]);
+        this.compilationUnitChecks = Collections.unmodifiableList(builder.compilationUnitChecks);
+        this.typeChecks = Collections.unmodifiableList(builder.typeChecks);
+        this.constructorChecks = Collections.unmodifiableList(builder.constructorChecks);
+        this.methodChecks = Collections.unmodifiableList(builder.methodChecks);
+        final Map<String, List<Entry<MethodDeclaration>>> named = new HashMap<>();
+        builder.namedMethodChecks.forEach((name, entries) -> named.put(name, Collections.unmodifiableList(entries)));
+        this.namedMethodChecks = Collections.unmodifiableMap(named);
+        this.fieldChecks = Collections.unmodifiableList(builder.fieldChecks);
+        this.projectChecks = Collections.unmodifiableList(builder.projectChecks);
+        this.nameMatcher = new NameMatcher(builder.namePatterns);
+    }
+
+    /**
+     * Builds the table for the given rules. Their diagnostics are added to the listing in the order the rules are given.
+     */
+    static RuleDispatchTable ofConfigured(List<ConfiguredRule> rules) {
+        final Builder builder = new Builder();
+        final List<RuleStatistics> statistics = new ArrayList<>();
+        for (ConfiguredRule rule : rules) {
+            builder.rule++;
+            rule.getRule().register(builder);
+            statistics.add(rule.getStatistics());
+        }
+        return new RuleDispatchTable(builder, statistics);
+    }
+
+    /**
+     * Returns the statistics of each rule, in the order the rules were given.
+     */
+    public List<RuleStatistics> getStatistics() {
+        return Collections.unmodifiableList(Arrays.asList(statistics));
+    }
+
+    /*
+     * Only tables with a rule that has a time budget need to track the time of each listing.
+     */
+    boolean hasTimeBudgets() {
+        for (RuleStatistics rule : statistics) {
+            if (rule.getTimeBudgetNanos() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    RuleBudgets newBudgets() {
+        return new RuleBudgets(statistics);
+    }
+
+    /*
+     * Only tables with project-wide checks need the aggregates, which are otherwise null.
+     */
+    boolean hasProjectChecks() {
+        return !projectChecks.isEmpty();
+    }
+
+    void scan(CompilationUnit cu, APIListing listing, ProjectAggregates aggregates, RuleBudgets budgets) {
+        final DiagnosticContext context = new DiagnosticContext(listing, cu, ruleCount, nameMatcher, budgets);
+        final List<TypeDeclaration<?>> types = cu.getTypes();
+
+        context.enterNode(cu);
+        run(compilationUnitChecks, cu, context);
+
+        if (!typeChecks.isEmpty() || aggregates != null) {
+            for (TypeDeclaration<?> type : types) {
+                context.enterType(type);
+                if (aggregates != null) {
+                    aggregates.addType(type, context.getTypeMembers());
+                }
+                context.enterNode(type);
+                run(typeChecks, type, context);
+            }
+        }
+
+        if (!constructorChecks.isEmpty()) {
+            for (TypeDeclaration<?> type : types) {
+                context.enterType(type);
+                for (ConstructorDeclaration constructor : context.getTypeMembers().getPublicOrProtectedConstructors()) {
+                    context.enterNode(constructor);
+                    run(constructorChecks, constructor, context);
+                }
+            }
+        }
+
+        if (!methodChecks.isEmpty() || !namedMethodChecks.isEmpty()) {
+            for (TypeDeclaration<?> type : types) {
+                context.enterType(type);
+                for (MethodDeclaration method : context.getTypeMembers().getPublicOrProtectedMethods()) {
+                    context.enterNode(method);
+                    run(methodChecks, method, context);
+                    final List<Entry<MethodDeclaration>> named = namedMethodChecks.get(method.getNameAsString());
+                    if (named != null) {
+                        run(named, method, context);
+                    }
+                }
+            }
+        }
+
+        if (!fieldChecks.isEmpty()) {
+            for (TypeDeclaration<?> type : types) {
+                context.enterType(type);
+                for (FieldDeclaration field : context.getTypeMembers().getPublicOrProtectedFields()) {
+                    context.enterNode(field);
+                    run(fieldChecks, field, context);
+                }
+            }
+        }
+
+        context.flush(statistics);
+    }
+
+    void scanProject(ProjectAggregates aggregates, APIListing listing, RuleBudgets budgets) {
+        final DiagnosticContext context = new DiagnosticContext(listing, null, ruleCount, nameMatcher, budgets);
+        run(projectChecks, aggregates, context);
+        context.flush(statistics);
+    }
+
+    private <T> void run(List<Entry<T>> entries, T node, DiagnosticContext context) {
+        final RuleBudgets budgets = context.getBudgets();
+        for (Entry<T> entry : entries) {
+            if (budgets != null && budgets.isDisabled(entry.rule)) {
+                continue;
+            }
+            final RuleStatistics rule = statistics[entry.rule];
+            context.enterRule(entry.rule);
+            final long start = System.nanoTime();
+            entry.check.check(node, context);
+            final long elapsed = System.nanoTime() - start;
+            rule.record(elapsed);
+            if (budgets != null && budgets.record(entry.rule, elapsed)) {
+                rule.addDisabledListing();
+                // APIView shows every diagnostic the same way, so the text says that this one is not about the API
+                context.addDiagnostic(new Diagnostic(context.getNodeIdOrNull(),
+                        "Informational, not an API issue: the '" + rule.getName() + "' diagnostic rule took longer "
+                        + "than its time budget of " + rule.getTimeBudgetMillis() + " ms, so it was turned off for "
+                        + "the rest of this listing, and the code after this point was not checked by it."));
+            }
+        }
+    }
+
+    private static final class Entry<T> {
+        private final int rule;
+        private final NodeCheck<T> check;
+
+        Entry(int rule, NodeCheck<T> check) {
+            this.rule = rule;
+            this.check = check;
+        }
+    }
+
+    /**
+     * Collects the checks of each rule as it registers them.
+     */
+    public static final class Builder {
+        private final List<Entry<CompilationUnit>> compilationUnitChecks = new ArrayList<>();
+        private final List<Entry<TypeDeclaration<?>>> typeChecks = new ArrayList<>();
+        private final List<Entry<ConstructorDeclaration>> constructorChecks = new ArrayList<>();
+        private final List<Entry<MethodDeclaration>> methodChecks = new ArrayList<>();
+        private final Map<String, List<Entry<MethodDeclaration>>> namedMethodChecks = new HashMap<>();
+        private final List<Entry<FieldDeclaration>> fieldChecks = new ArrayList<>();
+        private final List<Entry<ProjectAggregates>> projectChecks = new ArrayList<>();
+        private final List<String> namePatterns = new ArrayList<>();
+        private int rule = -1;
+
+        private Builder() {
+        }
+
+        public Builder onCompilationUnit(NodeCheck<CompilationUnit> check) {
+            compilationUnitChecks.add(new Entry<>(rule, check));
+            return this;
+        }
+
+        public Builder onType(NodeCheck<TypeDeclaration<?>> check) {
+            typeChecks.add(new Entry<>(rule, check));
+            return this;
+        }
+
+        public Builder onConstructor(NodeCheck<ConstructorDeclaration> check) {
+            constructorChecks.add(new Entry<>(rule, check));
+            return this;
+        }
+
+        public Builder onMethod(NodeCheck<MethodDeclaration> check) {
+            methodChecks.add(new Entry<>(rule, check));
+            return this;
+        }
+
+        /**
+         * Registers a check that is only run against methods with the given name.
+         */
+        public Builder onMethod(String methodName, NodeCheck<MethodDeclaration> check) {
+            namedMethodChecks.computeIfAbsent(methodName, name -> new ArrayList<>()).add(new Entry<>(rule, check));
+            return this;
+        }
+
+        public Builder onField(NodeCheck<FieldDeclaration> check) {
+            fieldChecks.add(new Entry<>(rule, check));
+            return this;
+        }
+
+        /**
+         * Registers a check that is run once for the whole listing, after every file has been checked.
+         */
+        public Builder onProject(NodeCheck<ProjectAggregates> check) {
+            projectChecks.add(new Entry<>(rule, check));
+            return this;
+        }
+
+        /**
+         * Registers a pattern to look for in names, returning the index to look it up by in {@link NameMatches}. Rules
+         * registering the same pattern share the same index.
+         */
+        public int namePattern(String pattern) {
+            if (pattern == null || pattern.isEmpty()) {
+                throw new IllegalArgumentException("Name patterns must not be empty");
+            }
+            final int index = namePatterns.indexOf(pattern);
+            if (index >= 0) {
+                return index;
+            }
+            namePatterns.add(pattern);
+            return namePatterns.size() - 1;
+        }
+
+        /**
+         * Registers each of the given patterns, as with {@link #namePattern(String)}.
+         */
+        public int[] namePatterns(List<String> patterns) {
+            return patterns.stream().mapToInt(this::namePattern).toArray();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.azure.tools.apiview.processor.diagnostics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * How much one configured rule has cost over the whole run: the time spent in its checks, how many times they were run,
+ * and how many diagnostics they emitted, across every listing built in this JVM. Listings may be built concurrently (by
+ * the Maven plugin in a parallel build), so the counts are all concurrent.
+ *
+ * <p>These are only reported, and never change what is checked. A rule's time budget is applied to each listing on
+ * its own (see {@link RuleBudgets}), and the statistics only count how many listings the rule was turned off for.</p>
+ */
+public final class RuleStatistics {
+    private final String name;
+    private final long timeBudgetNanos;
+
+    private final LongAdder nanos = new LongAdder();
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder diagnostics = new LongAdder();
+    private final LongAdder disabledListings = new LongAdder();
+
+    RuleStatistics(String name, long timeBudgetMillis) {
+        this.name = name;
+        this.timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+    }
+
+    void record(long elapsedNanos) {
+        nanos.add(elapsedNanos);
+        invocations.increment();
+    }
+
+    void addDisabledListing() {
+        disabledListings.increment();
+    }
+
+    void addDiagnostics(int count) {
+        diagnostics.add(count);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the time budget of the rule in milliseconds, or zero if it has none.
+     */
+    public long getTimeBudgetMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(timeBudgetNanos);
+    }
+
+    long getTimeBudgetNanos() {
+        return timeBudgetNanos;
+    }
+
+    public long getNanos() {
+        return nanos.sum();
+    }
+
+    public long getInvocations() {
+        return invocations.sum();
+    }
+
+    public long getDiagnostics() {
+        return diagnostics.sum();
+    }
+
+    /**
+     * Returns the number of listings the rule was turned off for, after going over its time budget.
+     */
+    public long getDisabledListings() {
+        return disabledListings.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %.2f ms, %d invocations, %d diagnostics%s", name, getNanos() / 1_000_000.0,
+                getInvocations(), getDiagnostics(),
+                getDisabledListings() > 0 ? ", turned off for " + getDisabledListings()
+                        + " listings after exceeding its budget of " + getTimeBudgetMillis() + " ms" : "");
+    }
+}
@@ -1,20 +1,18 @@
 package com.azure.tools.apiview.processor.diagnostics.rules;
 
+import com.azure.tools.apiview.processor.diagnostics.DiagnosticContext;
 import com.azure.tools.apiview.processor.diagnostics.DiagnosticRule;
-import com.azure.tools.apiview.processor.model.APIListing;
+import com.azure.tools.apiview.processor.diagnostics.RuleDispatchTable;
 import com.azure.tools.apiview.processor.model.Diagnostic;
-import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
 
 import java.util.Arrays;
 import java.util.List;
 
-import static com.azure.tools.apiview.processor.analysers.util.ASTUtils.getClassName;
-import static com.azure.tools.apiview.processor.analysers.util.ASTUtils.getPublicOrProtectedMethods;
-import static com.azure.tools.apiview.processor.analysers.util.ASTUtils.makeId;
-
 public class BadPrefixesDiagnosticRule implements DiagnosticRule {
 
     private final List<String> badPrefixes;
+    private int[] badPrefixPatterns;
 
     public BadPrefixesDiagnosticRule(String... badPrefixes) {
         if (badPrefixes == null || badPrefixes.length == 0) {
@@ -24,15 +22,16 @@ public class BadPrefixesDiagnosticRule implements DiagnosticRule {
     }
 
     @Override
-    public void scan(final CompilationUnit cu, final APIListing listing) {
+    public void register(final RuleDispatchTable.Builder table) {
+        badPrefixPatterns = table.namePatterns(badPrefixes);
+
         // check all public / protected methods
-        getPublicOrProtectedMethods(cu)
-                .forEach(methodDeclaration -> check(methodDeclaration.getNameAsString(), makeId(methodDeclaration), listing));
+        table.onMethod(this::check);
     }
 
-    private void check(String name, String id, APIListing listing) {
-        if (badPrefixes.stream().anyMatch(name::startsWith)) {
-            listing.addDiagnostic(new Diagnostic(id, "This has a bad prefix."));
+    private void check(final MethodDeclaration methodDeclaration, final DiagnosticContext context) {
+        if (context.matchName(methodDeclaration.getNameAsString()).startsWithAny(badPrefixPatterns)) {
+            context.addDiagnostic(new Diagnostic(context.getNodeId(), "This has a bad prefix."));
         }
     }
 }
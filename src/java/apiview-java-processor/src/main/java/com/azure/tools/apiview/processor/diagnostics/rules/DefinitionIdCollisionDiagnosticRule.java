@@ -0,0 +1,42 @@
+package com.azure.tools.apiview.processor.diagnostics.rules;
+
+import com.azure.tools.apiview.processor.analysers.util.DefinitionIdGenerator;
+import com.azure.tools.apiview.processor.diagnostics.DiagnosticContext;
+import com.azure.tools.apiview.processor.diagnostics.DiagnosticRule;
+import com.azure.tools.apiview.processor.diagnostics.RuleDispatchTable;
+import com.azure.tools.apiview.processor.model.Diagnostic;
+import com.github.javaparser.ast.body.TypeDeclaration;
+
+import java.util.Map;
+
+/**
+ * Reports members that share their full signature with another member of the same type, so that they could only be
+ * given distinct definition IDs by their declaration order. Members whose IDs were told apart by their full signatures
+ * are ordinary overloads, which reviewers cannot act on, so they are only logged with {@code -Dapiview.debug=true}.
+ */
+public class DefinitionIdCollisionDiagnosticRule implements DiagnosticRule {
+    private static final boolean DEBUG = Boolean.getBoolean("apiview.debug");
+
+    @Override
+    public void register(final RuleDispatchTable.Builder table) {
+        table.onType(this::check);
+    }
+
+    private void check(final TypeDeclaration<?> type, final DiagnosticContext context) {
+        // nested types have their own members, and so their own collisions
+        for (TypeDeclaration<?> nestedType : type.findAll(TypeDeclaration.class)) {
+            final Map<String, String> suffixed = DefinitionIdGenerator.getSuffixedCollisions(nestedType);
+            DefinitionIdGenerator.getCollisions(nestedType).forEach((id, baseId) -> {
+                if (suffixed.containsKey(id)) {
+                    context.addDiagnostic(new Diagnostic(id, "This member has the same signature as another member "
+                            + "of this type, so it has been given the definition ID '" + id + "', which depends on "
+                            + "the order the members are declared in. Review comments are kept by definition ID, so "
+                            + "when a colliding overload is added or removed, the IDs of the existing overloads "
+                            + "change, and their existing comments move to a different member."));
+                } else if (DEBUG) {
+                    System.out.println("  Definition ID '" + baseId + "' is shared, so '" + id + "' is used instead");
+                }
+            });
+        }
+    }
+}
@@ -1,38 +1,35 @@
 package com.azure.tools.apiview.processor.diagnostics.rules;
 
+import com.azure.tools.apiview.processor.diagnostics.DiagnosticContext;
 import com.azure.tools.apiview.processor.diagnostics.DiagnosticRule;
-import com.azure.tools.apiview.processor.model.APIListing;
+import com.azure.tools.apiview.processor.diagnostics.RuleDispatchTable;
 import com.azure.tools.apiview.processor.model.Diagnostic;
-import com.github.javaparser.ast.CompilationUnit;
-import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
 
-import static com.azure.tools.apiview.processor.analysers.util.ASTUtils.getPublicOrProtectedMethods;
-import static com.azure.tools.apiview.processor.analysers.util.ASTUtils.makeId;
+import static com.azure.tools.apiview.processor.analysers.util.TypeMembers.FLUENT;
 
 public class FluentSetterReturnTypeDiagnosticRule implements DiagnosticRule {
 
+    private int setterPrefixPattern;
+
     public FluentSetterReturnTypeDiagnosticRule() {
         // no-op
     }
 
     @Override
-    public void scan(final CompilationUnit cu, final APIListing listing) {
-        cu.getTypes().forEach(type -> {
-            type.getAnnotationByName("Fluent").ifPresent(a -> processFluentType(type, listing));
-        });
+    public void register(final RuleDispatchTable.Builder table) {
+        setterPrefixPattern = table.namePattern("set");
+        table.onMethod(this::check);
     }
 
-    private void processFluentType(final TypeDeclaration<?> type, final APIListing listing) {
-        // get all setter methods (we will find them just by looking for all methods that start with 'set')
-        final String typeName = type.getNameAsString();
-
-        getPublicOrProtectedMethods(type)
-                .filter(method -> method.getNameAsString().startsWith("set"))
-                .forEach(method -> {
-                    if (!method.getType().toString().equals(typeName)) {
-                        listing.addDiagnostic(new Diagnostic(makeId(method),
-                                "Setter methods in a @Fluent class must return the same type as the fluent type."));
-                    }
-                });
+    private void check(final MethodDeclaration method, final DiagnosticContext context) {
+        // setter methods are found just by looking for all methods that start with 'set'
+        if (context.getTypeMembers().hasAnnotation(FLUENT)
+                && context.matchName(method.getNameAsString()).startsWith(setterPrefixPattern)) {
+            if (!method.getType().toString().equals(context.getType().getNameAsString())) {
+                context.addDiagnostic(new Diagnostic(context.getNodeId(),
+                        "Setter methods in a @Fluent class must return the same type as the fluent type."));
+            }
+        }
     }
 }
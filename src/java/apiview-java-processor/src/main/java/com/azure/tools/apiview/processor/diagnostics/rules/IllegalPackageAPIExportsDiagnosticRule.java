@@ -1,26 +1,45 @@
 package com.azure.tools.apiview.processor.diagnostics.rules;
 
+import com.azure.tools.apiview.processor.diagnostics.DiagnosticContext;
 import com.azure.tools.apiview.processor.diagnostics.DiagnosticRule;
+import com.azure.tools.apiview.processor.diagnostics.RuleDispatchTable;
 import com.azure.tools.apiview.processor.model.APIListing;
 import com.azure.tools.apiview.processor.model.Diagnostic;
+import com.azure.tools.apiview.processor.model.TypeIndex;
 import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.CallableDeclaration;
 import com.github.javaparser.ast.body.Parameter;
 import com.github.javaparser.ast.type.ClassOrInterfaceType;
 import com.github.javaparser.ast.type.Type;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 
-import static com.azure.tools.apiview.processor.analysers.util.ASTUtils.*;
+import static com.azure.tools.apiview.processor.analysers.util.ASTUtils.getImportedNames;
 
 /**
  * A diagnostic rule that ensures our public API does not return or accept as a parameter into it something that has a
  * fully-qualified type that includes one of the illegal package names passed in as a constructor argument to this class
+ *
+ * <p>The types whose packages are illegal are worked out once per listing, from all the types the listing knows about,
+ * so each type reference is then a single lookup. The result for a whole type reference, generic arguments and all, is
+ * also remembered, as the same few type references are used over and over in an API. Types of listings built earlier
+ * in the batch are only considered where the file imports them, so those results are only remembered per file.</p>
  */
 public class IllegalPackageAPIExportsDiagnosticRule implements DiagnosticRule {
+    private static final String[] NONE = new String[0];
 
     private final List<String> illegalPackages;
 
+    // the types are only known once the listing has been scanned, so they are worked out on first use for each listing
+    private final Map<APIListing, IllegalTypes> illegalTypesByListing = Collections.synchronizedMap(new WeakHashMap<>());
+
     public IllegalPackageAPIExportsDiagnosticRule(String... packageNames) {
         if (packageNames == null || packageNames.length == 0) {
             throw new IllegalArgumentException("IllegalPackageAPIExportsDiagnosticRule created with no illegal package names");
@@ -29,60 +48,119 @@ public class IllegalPackageAPIExportsDiagnosticRule implements DiagnosticRule {
     }
 
     @Override
-    public void scan(final CompilationUnit cu, final APIListing listing) {
-        getPublicOrProtectedConstructors(cu)
-                .forEach(methodDecl -> {
-                    final String methodId = makeId(methodDecl);
-
-                    methodDecl.getParameters().stream()
-                            .map(Parameter::getType)
-                            .filter(Type::isClassOrInterfaceType)
-                            .map(Type::asClassOrInterfaceType)
-                            .forEach(parameter -> validateType(methodId, parameter, listing));
-                });
-
-        getPublicOrProtectedMethods(cu)
-                .forEach(methodDecl -> {
-                    final String methodId = makeId(methodDecl);
-
-                    if (methodDecl.getType() instanceof ClassOrInterfaceType) {
-                        ClassOrInterfaceType returnType = (ClassOrInterfaceType) methodDecl.getType();
-                        validateType(methodId, returnType, listing);
-                    }
-
-                    methodDecl.getParameters().stream()
-                            .map(Parameter::getType)
-                            .filter(Type::isClassOrInterfaceType)
-                            .map(Type::asClassOrInterfaceType)
-                            .forEach(parameter -> validateType(methodId, parameter, listing));
-                });
+    public void register(final RuleDispatchTable.Builder table) {
+        table.onConstructor(this::validateParameters);
+
+        table.onMethod((methodDecl, context) -> {
+            if (methodDecl.getType() instanceof ClassOrInterfaceType) {
+                ClassOrInterfaceType returnType = (ClassOrInterfaceType) methodDecl.getType();
+                validateType(context.getNodeId(), returnType, context);
+            }
+
+            validateParameters(methodDecl, context);
+        });
     }
 
-    private void validateType(String methodName, ClassOrInterfaceType type, final APIListing listing) {
-        String typeAsString = type.getNameAsString();
+    private void validateParameters(CallableDeclaration<?> methodDecl, final DiagnosticContext context) {
+        final String methodId = context.getNodeId();
 
-        if (listing.getTypeToPackageNameMap().containsKey(typeAsString)) {
-            // we know the type based on our previous scans
-            validatePackageName(methodName, listing.getTypeToPackageNameMap().get(typeAsString), listing);
-        } else {
-            // we don't know the type. This is usually because it is a Java class library type, or a generic T type
-        }
+        methodDecl.getParameters().stream()
+                .map(Parameter::getType)
+                .filter(Type::isClassOrInterfaceType)
+                .map(Type::asClassOrInterfaceType)
+                .forEach(parameter -> validateType(methodId, parameter, context));
+    }
 
-        // we must also inspect the generic types
-        type.getTypeArguments().ifPresent(types -> {
-            types.stream()
-                    .filter(Type::isClassOrInterfaceType)
-                    .map(Type::asClassOrInterfaceType)
-                    .forEach(genericType -> validateType(methodName, genericType, listing));
-        });
+    private void validateType(String methodId, ClassOrInterfaceType type, final DiagnosticContext context) {
+        final IllegalTypes illegalTypes = illegalTypesByListing.computeIfAbsent(context.getListing(), IllegalTypes::new);
+        for (String illegalPackage : illegalTypes.of(type)) {
+            context.addDiagnostic(new Diagnostic(methodId, "Public API should never expose classes from the " + illegalPackage + " package."));
+        }
     }
 
-    private void validatePackageName(String methodId, String packageName, APIListing listing) {
-        for (String illegalPackage : illegalPackages) {
-            if (packageName.contains(illegalPackage)) {
-                listing.addDiagnostic(new Diagnostic(methodId, "Public API should never expose classes from the " + illegalPackage + " package."));
-                continue;
+    private final class IllegalTypes {
+        private final TypeIndex sharedTypeIndex;
+
+        // the simple names of the types this listing knows, which take precedence over the shared types, as for links
+        private final Set<String> typeNames;
+
+        // simple type name to the illegal package names its package contains, only for the types that have any
+        private final Map<String, String[]> illegalTypeNames = new HashMap<>();
+
+        // type reference, as written, to the illegal package names found in it and its generic arguments, in order
+        private final Map<String, String[]> typeReferences = new HashMap<>();
+
+        // which shared types a type reference can mean depends on the imports of the file it is in, so when there are
+        // shared types, the type references are only remembered for one file at a time
+        private CompilationUnit compilationUnit;
+        private Set<String> importedNames = Collections.emptySet();
+
+        IllegalTypes(APIListing listing) {
+            // we know the types based on our previous scans, of this library or of one built before it
+            this.sharedTypeIndex = listing.getSharedTypeIndex();
+            this.typeNames = listing.getTypeToPackageNameMap().keySet();
+            listing.getTypeToPackageNameMap().forEach((typeName, packageName) -> {
+                final String[] found = findIllegalPackages(packageName);
+                if (found.length > 0) {
+                    illegalTypeNames.put(typeName, found);
+                }
+            });
+        }
+
+        String[] of(ClassOrInterfaceType type) {
+            if (!sharedTypeIndex.isEmpty()) {
+                final CompilationUnit typeCompilationUnit = type.findCompilationUnit().orElse(null);
+                if (typeCompilationUnit != compilationUnit) {
+                    compilationUnit = typeCompilationUnit;
+                    importedNames = typeCompilationUnit == null
+                            ? Collections.emptySet() : getImportedNames(typeCompilationUnit);
+                    typeReferences.clear();
+                }
+            } else if (illegalTypeNames.isEmpty()) {
+                return NONE;
+            }
+
+            final String typeReference = type.asString();
+            String[] found = typeReferences.get(typeReference);
+            if (found == null) {
+                final List<String> collected = new ArrayList<>();
+                collect(type, collected);
+                found = collected.isEmpty() ? NONE : collected.toArray(NONE);
+                typeReferences.put(typeReference, found);
+            }
+            return found;
+        }
+
+        private void collect(ClassOrInterfaceType type, List<String> collected) {
+            // types we don't know are usually Java class library types, or generic T types
+            final String typeName = type.getNameAsString();
+            final String[] illegal = illegalTypeNames.get(typeName);
+            if (illegal != null) {
+                Collections.addAll(collected, illegal);
+            } else if (!typeNames.contains(typeName)) {
+                final String packageName = sharedTypeIndex.getPackageName(typeName, importedNames);
+                if (packageName != null) {
+                    Collections.addAll(collected, findIllegalPackages(packageName));
+                }
+            }
+
+            // we must also inspect the generic types
+            type.getTypeArguments().ifPresent(types -> {
+                types.stream()
+                        .filter(Type::isClassOrInterfaceType)
+                        .map(Type::asClassOrInterfaceType)
+                        .forEach(genericType -> collect(genericType, collected));
+            });
+        }
+
+        private String[] findIllegalPackages(String packageName) {
+            final List<String> found = new ArrayList<>();
+            for (String illegalPackage : illegalPackages) {
+                if (packageName.contains(illegalPackage)) {
+                    found.add(illegalPackage);
+                }
             }
+            return found.isEmpty() ? NONE : found.toArray(NONE);
         }
     }
 }
@@ -1,8 +1,9 @@
 package com.azure.tools.apiview.processor.diagnostics.rules;
 
 import com.azure.tools.apiview.processor.analysers.util.ASTUtils;
+import com.azure.tools.apiview.processor.diagnostics.DiagnosticContext;
 import com.azure.tools.apiview.processor.diagnostics.DiagnosticRule;
-import com.azure.tools.apiview.processor.model.APIListing;
+import com.azure.tools.apiview.processor.diagnostics.RuleDispatchTable;
 import com.azure.tools.apiview.processor.model.Diagnostic;
 import com.github.javaparser.ast.CompilationUnit;
 
@@ -23,13 +24,17 @@ public class ImportsDiagnosticRule implements DiagnosticRule {
     }
 
     @Override
-    public void scan(final CompilationUnit cu, final APIListing listing) {
+    public void register(final RuleDispatchTable.Builder table) {
+        table.onCompilationUnit(this::check);
+    }
+
+    private void check(final CompilationUnit cu, final DiagnosticContext context) {
         // we need to map the issue to the class id, because import text isn't printed in the APIView output
-        getClassName(cu).map(listing.getKnownTypes()::get).ifPresent(typeId -> {
+        getClassName(cu).map(context.getListing().getKnownTypes()::get).ifPresent(typeId -> {
             ASTUtils.getImports(cu).forEach(importStr -> {
                 for (String illegalPackage : illegalPackages) {
                     if (importStr.contains(illegalPackage)) {
-                        listing.addDiagnostic(new Diagnostic(typeId, "Do not add dependencies to classes in the '" + illegalPackage + "' package."));
+                        context.addDiagnostic(new Diagnostic(typeId, "Do not add dependencies to classes in the '" + illegalPackage + "' package."));
                     }
                 }
             });
@@ -1,21 +1,21 @@
 package com.azure.tools.apiview.processor.diagnostics.rules;
 
+import com.azure.tools.apiview.processor.diagnostics.DiagnosticContext;
 import com.azure.tools.apiview.processor.diagnostics.DiagnosticRule;
-import com.azure.tools.apiview.processor.model.APIListing;
+import com.azure.tools.apiview.processor.diagnostics.RuleDispatchTable;
 import com.azure.tools.apiview.processor.model.Diagnostic;
-import com.github.javaparser.ast.CompilationUnit;
-
-import static com.azure.tools.apiview.processor.analysers.util.ASTUtils.*;
+import com.github.javaparser.ast.body.FieldDeclaration;
 
 public class NoPublicFieldsDiagnosticRule implements DiagnosticRule {
 
     @Override
-    public void scan(final CompilationUnit cu, final APIListing listing) {
-        getPublicOrProtectedFields(cu)
-                .filter(fieldDecl -> !fieldDecl.isStatic())
-                .forEach(fieldDecl -> {
-                    final String fieldId = makeId(fieldDecl);
-                    listing.addDiagnostic(new Diagnostic(fieldId, "There should not be non-static public or protected fields in any class."));
-                });
+    public void register(final RuleDispatchTable.Builder table) {
+        table.onField(this::check);
+    }
+
+    private void check(final FieldDeclaration fieldDecl, final DiagnosticContext context) {
+        if (!fieldDecl.isStatic()) {
+            context.addDiagnostic(new Diagnostic(context.getNodeId(), "There should not be non-static public or protected fields in any class."));
+        }
     }
 }
@@ -1,6 +1,8 @@
 package com.azure.tools.apiview.processor.diagnostics.rules;
 
+import com.azure.tools.apiview.processor.diagnostics.DiagnosticContext;
 import com.azure.tools.apiview.processor.diagnostics.DiagnosticRule;
+import com.azure.tools.apiview.processor.diagnostics.RuleDispatchTable;
 import com.azure.tools.apiview.processor.model.APIListing;
 import com.azure.tools.apiview.processor.model.Diagnostic;
 import com.github.javaparser.ast.CompilationUnit;
@@ -13,12 +15,17 @@ public class PackageNameDiagnosticRule implements DiagnosticRule {
     final static Pattern regex = Pattern.compile("^com.azure(\\.[a-z0-9]+)+$");
 
     @Override
-    public void scan(final CompilationUnit cu, final APIListing listing) {
+    public void register(final RuleDispatchTable.Builder table) {
+        table.onCompilationUnit(this::check);
+    }
+
+    private void check(final CompilationUnit cu, final DiagnosticContext context) {
+        final APIListing listing = context.getListing();
         getPackageName(cu).ifPresent(packageName -> {
             // we need to map the issue to the class id, because package text isn't printed in the APIView output
             getClassName(cu).map(listing.getKnownTypes()::get).ifPresent(typeId -> {
                 if (!regex.matcher(packageName).matches()) {
-                    listing.addDiagnostic(new Diagnostic(typeId,
+                    context.addDiagnostic(new Diagnostic(typeId,
                             "Package name must start with 'com.azure.<group>.', and it must be lower-case, with no underscores or hyphens."));
                 }
             });
@@ -1,23 +1,25 @@
 package com.azure.tools.apiview.processor.diagnostics.rules;
 
+import com.azure.tools.apiview.processor.diagnostics.DiagnosticContext;
 import com.azure.tools.apiview.processor.diagnostics.DiagnosticRule;
-import com.azure.tools.apiview.processor.model.APIListing;
+import com.azure.tools.apiview.processor.diagnostics.ProjectAggregates;
+import com.azure.tools.apiview.processor.diagnostics.RuleDispatchTable;
 import com.azure.tools.apiview.processor.model.Diagnostic;
-import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.body.MethodDeclaration;
-import com.github.javaparser.ast.body.Parameter;
 import com.github.javaparser.ast.type.ClassOrInterfaceType;
 import com.github.javaparser.ast.type.Type;
 
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.Consumer;
+import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
-import static com.azure.tools.apiview.processor.analysers.util.ASTUtils.*;
+import static com.azure.tools.apiview.processor.analysers.util.ASTUtils.makeId;
+import static com.azure.tools.apiview.processor.analysers.util.TypeMembers.SERVICE_CLIENT_BUILDER;
 
 /**
  * Not all builders require all methods, but we should warn regardless so it can be considered.
@@ -38,27 +40,33 @@ public class RequiredBuilderMethodsDiagnosticRule implements DiagnosticRule {
     }
 
     @Override
-    public void scan(final CompilationUnit cu, final APIListing listing) {
-        // check if the class has the @ServiceClientBuilder annotation, if not, do nothing
-        getClasses(cu).forEach(typeDeclaration -> {
-            if (typeDeclaration.isAnnotationPresent("ServiceClientBuilder")) {
-                AtomicInteger count = new AtomicInteger();
-                getPublicOrProtectedMethods(typeDeclaration).forEach(methodDeclaration -> {
-                    String methodName = methodDeclaration.getNameAsString();
-                    if (builderMethods.containsKey(methodName)) {
-                        count.incrementAndGet();
-                        builderMethods.get(methodName).apply(methodDeclaration).ifPresent(listing::addDiagnostic);
-                    }
-                });
-
-                // TODO replace with suggestions about methods that are not existing that the user might want to consider
-//                if (count.get() < builderMethods.size()) {
-//                    listing.addDiagnostic(new Diagnostic(makeId(cu),
-//                            "Not all expected builder methods are present.",
-//                            "https://azure.github.io/azure-sdk/java_design.html#java-service-client-builder-consistency"));
-//                }
+    public void register(final RuleDispatchTable.Builder table) {
+        // only the methods of classes with the @ServiceClientBuilder annotation are checked
+        builderMethods.forEach((methodName, func) -> table.onMethod(methodName, (methodDeclaration, context) -> {
+            if (context.getTypeMembers().hasAnnotation(SERVICE_CLIENT_BUILDER)) {
+                func.apply(methodDeclaration).ifPresent(context::addDiagnostic);
             }
-        });
+        }));
+
+        // builders often inherit some of their methods from a base builder in another file, so which methods are
+        // missing can only be worked out once every file has been seen
+        table.onProject(this::suggestMissingMethods);
+    }
+
+    private void suggestMissingMethods(final ProjectAggregates aggregates, final DiagnosticContext context) {
+        for (ProjectAggregates.TypeSummary builder : aggregates.getServiceClientBuilders()) {
+            final Set<String> methodNames = aggregates.getMethodNames(builder);
+            final List<String> missing = builderMethods.keySet().stream()
+                    .filter(methodName -> !methodNames.contains(methodName))
+                    .sorted()
+                    .collect(Collectors.toList());
+            if (!missing.isEmpty()) {
+                context.addDiagnostic(new Diagnostic(builder.getId(),
+                        "Not all builders need them, but consider whether this builder should also have the methods "
+                                + String.join(", ", missing) + ".",
+                        "https://azure.github.io/azure-sdk/java_design.html#java-service-client-builder-consistency"));
+            }
+        }
     }
 
     public static class ExactTypeNameCheckFunction implements Function<MethodDeclaration, Optional<Diagnostic>> {
@@ -0,0 +1,61 @@
+package com.azure.tools.apiview.processor.diagnostics.rules;
+
+import com.azure.tools.apiview.processor.diagnostics.DiagnosticContext;
+import com.azure.tools.apiview.processor.diagnostics.DiagnosticRule;
+import com.azure.tools.apiview.processor.diagnostics.ProjectAggregates;
+import com.azure.tools.apiview.processor.diagnostics.ProjectAggregates.TypeSummary;
+import com.azure.tools.apiview.processor.diagnostics.RuleDispatchTable;
+import com.azure.tools.apiview.processor.model.Diagnostic;
+
+import static com.azure.tools.apiview.processor.analysers.util.TypeMembers.SERVICE_CLIENT;
+import static com.azure.tools.apiview.processor.analysers.util.TypeMembers.SERVICE_CLIENT_BUILDER;
+
+/**
+ * Checks that service clients and their builders name each other: each {@code @ServiceClient} is built by a
+ * {@code @ServiceClientBuilder} in the same library, and the clients and builder named in the annotations are the right
+ * kind of type. Clients and their builders are almost always in different files, so this is a project-wide check.
+ */
+public class ServiceClientPairingDiagnosticRule implements DiagnosticRule {
+
+    @Override
+    public void register(final RuleDispatchTable.Builder table) {
+        table.onProject(this::check);
+    }
+
+    private void check(final ProjectAggregates aggregates, final DiagnosticContext context) {
+        for (TypeSummary client : aggregates.getServiceClients()) {
+            final String builderName = client.getBuilderName();
+            if (builderName == null) {
+                if (aggregates.getServiceClientBuilders().stream()
+                        .noneMatch(builder -> builder.getBuiltClientNames().contains(client.getName()))) {
+                    context.addDiagnostic(new Diagnostic(client.getId(),
+                            "No @ServiceClientBuilder in this library lists this client in its serviceClients.",
+                            "https://azure.github.io/azure-sdk/java_design.html#service-client-builder"));
+                }
+                continue;
+            }
+
+            final TypeSummary builder = aggregates.getType(builderName);
+            if (builder == null || !builder.hasAnnotation(SERVICE_CLIENT_BUILDER)) {
+                context.addDiagnostic(new Diagnostic(client.getId(),
+                        "The builder of this client, " + builderName + ", is not a @ServiceClientBuilder in this library.",
+                        "https://azure.github.io/azure-sdk/java_design.html#service-client-builder"));
+            } else if (!builder.getBuiltClientNames().contains(client.getName())) {
+                context.addDiagnostic(new Diagnostic(client.getId(),
+                        "The builder of this client, " + builderName + ", does not list it in its serviceClients.",
+                        "https://azure.github.io/azure-sdk/java_design.html#service-client-builder"));
+            }
+        }
+
+        for (TypeSummary builder : aggregates.getServiceClientBuilders()) {
+            for (String clientName : builder.getBuiltClientNames()) {
+                final TypeSummary client = aggregates.getType(clientName);
+                if (client == null || !client.hasAnnotation(SERVICE_CLIENT)) {
+                    context.addDiagnostic(new Diagnostic(builder.getId(),
+                            "The client " + clientName + " built by this builder is not a @ServiceClient in this library.",
+                            "https://azure.github.io/azure-sdk/java_design.html#service-client"));
+                }
+            }
+        }
+    }
+}
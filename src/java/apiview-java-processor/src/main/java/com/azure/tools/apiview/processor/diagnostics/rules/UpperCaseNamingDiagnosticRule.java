@@ -1,9 +1,9 @@
 package com.azure.tools.apiview.processor.diagnostics.rules;
 
+import com.azure.tools.apiview.processor.diagnostics.DiagnosticContext;
 import com.azure.tools.apiview.processor.diagnostics.DiagnosticRule;
-import com.azure.tools.apiview.processor.model.APIListing;
+import com.azure.tools.apiview.processor.diagnostics.RuleDispatchTable;
 import com.azure.tools.apiview.processor.model.Diagnostic;
-import com.github.javaparser.ast.CompilationUnit;
 
 import java.util.Arrays;
 import java.util.List;
@@ -13,6 +13,7 @@ import static com.azure.tools.apiview.processor.analysers.util.ASTUtils.*;
 public class UpperCaseNamingDiagnosticRule implements DiagnosticRule {
 
     private final List<String> illegalNames;
+    private int[] illegalNamePatterns;
 
     public UpperCaseNamingDiagnosticRule(String... illegalNames) {
         if (illegalNames == null || illegalNames.length == 0) {
@@ -22,18 +23,19 @@ public class UpperCaseNamingDiagnosticRule implements DiagnosticRule {
     }
 
     @Override
-    public void scan(final CompilationUnit cu, final APIListing listing) {
+    public void register(final RuleDispatchTable.Builder table) {
+        illegalNamePatterns = table.namePatterns(illegalNames);
+
         // check class name
-        getClassName(cu).ifPresent(name -> check(name, makeId(cu), listing));
+        table.onCompilationUnit((cu, context) -> getClassName(cu).ifPresent(name -> check(name, context)));
 
         // check all public / protected methods
-        getPublicOrProtectedMethods(cu)
-                .forEach(methodDeclaration -> check(methodDeclaration.getNameAsString(), makeId(methodDeclaration), listing));
+        table.onMethod((methodDeclaration, context) -> check(methodDeclaration.getNameAsString(), context));
     }
 
-    private void check(String name, String id, APIListing listing) {
-        if (illegalNames.stream().anyMatch(name::contains)) {
-            listing.addDiagnostic(new Diagnostic(id, "This is named with incorrect casing."));
+    private void check(String name, DiagnosticContext context) {
+        if (context.matchName(name).containsAny(illegalNamePatterns)) {
+            context.addDiagnostic(new Diagnostic(context.getNodeId(), "This is named with incorrect casing."));
         }
     }
 }
@@ -0,0 +1,153 @@
+package com.azure.tools.apiview.processor.maven;
+
+import com.azure.tools.apiview.processor.APIViewProcessor;
+import com.azure.tools.apiview.processor.ReviewNames;
+import com.azure.tools.apiview.processor.analysers.ASTAnalyser;
+import com.azure.tools.apiview.processor.analysers.util.PackageFilter;
+import com.azure.tools.apiview.processor.diagnostics.Diagnostics;
+import com.azure.tools.apiview.processor.model.APIListing;
+import com.azure.tools.apiview.processor.pipeline.StreamingListingWriter;
+import com.azure.tools.apiview.processor.sink.JsonTokenSink;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Generates the API listing for a module during its build, straight from the module's source roots, rather than from
+ * the sources jar afterwards in a separate JVM. The listing is written to the same file name as the command line tool
+ * would use for the module's sources jar.
+ *
+ * <p>The goal is described in {@code META-INF/maven/plugin.xml}, which is where its parameters are bound to the
+ * project, and is marked as thread-safe for parallel ({@code -T}) builds. Parsers are shared by every module built in
+ * the same JVM, so later modules in a reactor build reuse the warmed-up parsers of earlier ones. If none of the source
+ * files have changed since the listing was last generated, the listing is left as it is.</p>
+ */
+public class APIViewMojo extends AbstractMojo {
+    private static final String FINGERPRINT_SUFFIX = ".fingerprint";
+
+    // these fields are injected by Maven, as configured in plugin.xml
+    private List<String> sourceRoots;
+    private File outputDirectory;
+    private String artifactId;
+    private String version;
+    private String pluginVersion;
+    private boolean skip;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        if (skip) {
+            getLog().info("Skipping API listing generation");
+            return;
+        }
+
+        final List<Path> roots = sourceRoots.stream()
+                .map(Paths::get)
+                .filter(Files::isDirectory)
+                .collect(Collectors.toList());
+        if (roots.isEmpty()) {
+            getLog().info("No source roots, skipping API listing generation");
+            return;
+        }
+
+        final File outputFile = new File(outputDirectory, artifactId + "-" + version + "-sources.json");
+        final File fingerprintFile = new File(outputDirectory, outputFile.getName() + FINGERPRINT_SUFFIX);
+        final PackageFilter packageFilter = PackageFilter.fromSystemProperties();
+
+        try {
+            final String fingerprint = fingerprint(roots, packageFilter, pluginVersion,
+                    StreamingListingWriter.isLineOutput());
+            if (outputFile.isFile() && fingerprintFile.isFile()
+                    && fingerprint.equals(new String(Files.readAllBytes(fingerprintFile.toPath()), StandardCharsets.UTF_8))) {
+                getLog().info("API listing is up to date: " + outputFile);
+                return;
+            }
+
+            final long start = System.nanoTime();
+            Files.createDirectories(outputDirectory.toPath());
+            Files.deleteIfExists(fingerprintFile.toPath());
+
+            // the listing is written under a temporary name, and only replaces the previous one once it is complete
+            final APIViewProcessor processor =
+                    new APIViewProcessor(packageFilter.getIncludes(), packageFilter.getExcludes());
+            final APIListing apiListing = processor.analyseSources(roots,
+                    ReviewNames.getReviewName(artifactId, version), listing -> new JsonTokenSink(outputFile, listing));
+
+            // the fingerprint is only written once the listing is complete, so a failed run is never seen as up to date
+            Files.write(fingerprintFile.toPath(), fingerprint.getBytes(StandardCharsets.UTF_8));
+
+            getLog().info("Wrote API listing to " + outputFile + " in " + (System.nanoTime() - start) / 1_000_000
+                    + " ms, with " + apiListing.getDiagnostics().size() + " diagnostics");
+            if (getLog().isDebugEnabled()) {
+                // the statistics are for every listing built in this JVM so far, as the rules are shared
+                Diagnostics.getRuleStatistics().forEach(rule -> getLog().debug("Diagnostic rule " + rule));
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new MojoExecutionException("Unable to generate the API listing for " + artifactId, e);
+        }
+    }
+
+    /*
+     * Fingerprints the source files that would be analysed, by name, size and modification time, along with the
+     * plugin version, the package filter and the settings that change the diagnostics or the file written, so that
+     * any change that could change the listing changes the fingerprint. The listing is always written as JSON alone,
+     * so the configured token sinks do not matter here, but whether it is written as tokens or lines does.
+     */
+    static String fingerprint(List<Path> roots, PackageFilter packageFilter, String pluginVersion, boolean lineOutput)
+            throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        update(digest, "plugin=" + pluginVersion);
+        update(digest, "includes=" + packageFilter.getIncludes() + ", excludes=" + packageFilter.getExcludes());
+        update(digest, "ruleTimeBudgets=" + Boolean.getBoolean("apiview.ruleTimeBudgets"));
+        update(digest, "lineOutput=" + lineOutput);
+
+        // the rules bundled with the processor are covered by the plugin version, but a rules file can change any time
+        final String rulesFile = System.getProperty("apiview.diagnosticRules");
+        if (rulesFile != null) {
+            update(digest, "diagnosticRules=" + rulesFile);
+            digest.update(Files.readAllBytes(Paths.get(rulesFile)));
+            digest.update((byte) '\n');
+        }
+        for (Path root : roots) {
+            final List<Path> files = new ArrayList<>();
+            try (Stream<Path> paths = Files.walk(root)) {
+                paths.filter(path -> Files.isRegularFile(path) && ASTAnalyser.isAnalysable(path.toString()))
+                        .sorted()
+                        .forEach(files::add);
+            }
+            update(digest, root.toString());
+            for (Path file : files) {
+                update(digest, root.relativize(file) + ":" + Files.size(file) + ":"
+                        + Files.getLastModifiedTime(file).toMillis());
+            }
+        }
+
+        final StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+    }
+}
@@ -2,18 +2,19 @@ package com.azure.tools.apiview.processor.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+@JsonPropertyOrder({ "Navigation", "Name", "VersionString", "Tokens", "Diagnostics" })
 public class APIListing {
-    @JsonProperty("Navigation")
-    private List<ChildItem> navigation;
-
     @JsonIgnore
-    private ChildItem rootNav;
+    private final NavigationBuilder navigationBuilder;
 
     @JsonProperty("Name")
     private String name;
@@ -24,8 +25,10 @@ public class APIListing {
 
     // This string is taken from here:
     // https://github.com/Azure/azure-sdk-tools/blob/master/src/dotnet/APIView/APIView/Languages/CodeFileBuilder.cs#L50
+    // It was raised from 18 to 19 when member definition IDs changed format (see DefinitionIdGenerator), so that
+    // listings with the old IDs can be told apart from those with the new ones.
     @JsonProperty("VersionString")
-    private final String versionString = "18";
+    private final String versionString = "19";
 
     @JsonProperty("Tokens")
     private List<Token> tokens;
@@ -33,37 +36,66 @@ public class APIListing {
     @JsonProperty("Diagnostics")
     private List<Diagnostic> diagnostics;
 
+    // The type indexes below are filled in during the scan pass, which may run on several threads at once, so they are
+    // all concurrent maps. Keys and values are interned, as the same names are seen over and over across imports.
     @JsonIgnore
-    private Map<String, String> knownTypes;
+    private final Map<String, String> knownTypes;
 
-    // a map of package names to a list of types within that package
+    // a map of package names to the set of types within that package
     @JsonIgnore
-    private final Map<String, List<String>> packageNamesToTypesMap;
+    private final Map<String, Set<String>> packageNamesToTypesMap;
 
     @JsonIgnore
     private final Map<String, String> typeToPackageNameMap;
 
+    // the types of the listings built before this one in a batch run, consulted for types this listing does not have
+    @JsonIgnore
+    private TypeIndex sharedTypeIndex = TypeIndex.EMPTY;
+
     public APIListing(String reviewName) {
         this.name = reviewName;
         this.diagnostics = new ArrayList<>();
-        this.knownTypes = new HashMap<>();
-        this.packageNamesToTypesMap = new HashMap<>();
-        this.typeToPackageNameMap = new HashMap<>();
+        this.knownTypes = new ConcurrentHashMap<>();
+        this.packageNamesToTypesMap = new ConcurrentHashMap<>();
+        this.typeToPackageNameMap = new ConcurrentHashMap<>();
+        this.navigationBuilder = new NavigationBuilder();
+    }
 
-        this.navigation = new ArrayList<>();
-        this.rootNav = new ChildItem(name, TypeKind.ASSEMBLY);
-        this.navigation.add(rootNav);
+    /**
+     * Returns the navigation tree, assembled from all items that have been added to this listing. The tree is assembled
+     * the first time it is asked for, which finalises the navigation of the listing, and is then shared by every writer.
+     */
+    @JsonProperty("Navigation")
+    public List<ChildItem> getNavigation() {
+        return Collections.singletonList(navigationBuilder.build(new ChildItem(name, TypeKind.ASSEMBLY)));
     }
 
     public void addChildItem(ChildItem childItem) {
-        this.rootNav.addChildItem(childItem);
+        this.navigationBuilder.addToRoot(childItem);
     }
 
     public void addChildItem(String packageName, ChildItem childItem) {
-        this.rootNav.addChildItem(packageName, childItem);
+        this.navigationBuilder.addToPackage(packageName, childItem);
+    }
+
+    public void addNestedChildItem(String parentNavigationId, ChildItem childItem) {
+        this.navigationBuilder.addToParent(parentNavigationId, childItem);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getVersionString() {
+        return versionString;
+    }
+
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
     }
 
     public void addDiagnostic(Diagnostic diagnostic) {
+        diagnostic.assignId();
         this.diagnostics.add(diagnostic);
     }
 
@@ -85,7 +117,7 @@ public class APIListing {
 
     @Override
     public String toString() {
-        return "APIListing [rootNav = "+rootNav+", Name = "+ name +", Tokens = "+tokens+"]";
+        return "APIListing [Name = "+ name +", Tokens = "+tokens+"]";
     }
 
     /**
@@ -95,16 +127,67 @@ public class APIListing {
         return knownTypes;
     }
 
+    public void addKnownType(String typeName, String typeId) {
+        // files may be scanned in any order, so where two types share a simple name we keep the lexicographically
+        // smallest ID, so the outcome does not depend on which file was scanned first
+        knownTypes.merge(typeName.intern(), typeId.intern(), APIListing::min);
+    }
+
     public void addPackageTypeMapping(String packageName, String typeName) {
-        packageNamesToTypesMap.computeIfAbsent(packageName, name -> new ArrayList<>()).add(typeName);
-        typeToPackageNameMap.put(typeName, packageName);
+        packageName = packageName.intern();
+        typeName = typeName.intern();
+        packageNamesToTypesMap.computeIfAbsent(packageName, name -> ConcurrentHashMap.newKeySet()).add(typeName);
+        typeToPackageNameMap.merge(typeName, packageName, APIListing::min);
     }
 
-    public Map<String, List<String>> getPackageNamesToTypesMap() {
+    public Map<String, Set<String>> getPackageNamesToTypesMap() {
         return packageNamesToTypesMap;
     }
 
     public Map<String, String> getTypeToPackageNameMap() {
         return typeToPackageNameMap;
     }
-}
\ No newline at end of file
+
+    public TypeIndex getSharedTypeIndex() {
+        return sharedTypeIndex;
+    }
+
+    public void setSharedTypeIndex(TypeIndex sharedTypeIndex) {
+        this.sharedTypeIndex = sharedTypeIndex;
+    }
+
+    /**
+     * Returns the definition ID of the type with the given simple name, from this listing's own types or failing that,
+     * from the types of the shared type index that the given imported names bring into scope (see
+     * {@link TypeIndex#isImported(String, String, Set)}). Returns null if neither has the type.
+     */
+    public String getTypeId(String typeName, Set<String> importedNames) {
+        final String typeId = knownTypes.get(typeName);
+        return typeId != null ? typeId : sharedTypeIndex.getTypeId(typeName, importedNames);
+    }
+
+    /**
+     * Returns the name of the package of the type with the given simple name, from this listing's own types or failing
+     * that, from the types of the shared type index that the given imported names bring into scope. Returns null if
+     * neither has the type.
+     */
+    public String getPackageName(String typeName, Set<String> importedNames) {
+        final String packageName = typeToPackageNameMap.get(typeName);
+        return packageName != null ? packageName : sharedTypeIndex.getPackageName(typeName, importedNames);
+    }
+
+    private static String min(String s1, String s2) {
+        return s1.compareTo(s2) <= 0 ? s1 : s2;
+    }
+
+    /**
+     * Returns the sizes of the type indexes, for debug output.
+     */
+    public String getTypeIndexStatistics() {
+        final int packageTypeMappings = packageNamesToTypesMap.values().stream().mapToInt(Set::size).sum();
+        return "knownTypes: " + knownTypes.size()
+                + ", packages: " + packageNamesToTypesMap.size()
+                + ", packageTypeMappings: " + packageTypeMappings
+                + ", typeToPackageName: " + typeToPackageNameMap.size();
+    }
+}
@@ -0,0 +1,136 @@
+package com.azure.tools.apiview.processor.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts of the API surface of a library, per package and in total, as written in summary mode instead of a full
+ * {@link APIListing}. Only the public API is counted, as it would appear in the listing.
+ */
+@JsonPropertyOrder({ "Name", "VersionString", "Packages", "Totals" })
+public class APISummary {
+    @JsonProperty("Name")
+    private final String name;
+
+    @JsonProperty("VersionString")
+    private final String versionString;
+
+    @JsonProperty("Packages")
+    private final List<Counts> packages = new ArrayList<>();
+
+    @JsonProperty("Totals")
+    private final Counts totals = new Counts(null);
+
+    public APISummary(APIListing apiListing) {
+        this.name = apiListing.getName();
+        this.versionString = apiListing.getVersionString();
+    }
+
+    /**
+     * Adds the counts for one package, which are also added to the totals.
+     */
+    public void addPackage(Counts counts) {
+        packages.add(counts);
+        totals.add(counts);
+    }
+
+    /**
+     * Adds diagnostics that belong to no one package, such as those of the project-wide rules, to the totals only.
+     */
+    public void addDiagnostics(int diagnostics) {
+        totals.addDiagnostics(diagnostics);
+    }
+
+    public List<Counts> getPackages() {
+        return packages;
+    }
+
+    public Counts getTotals() {
+        return totals;
+    }
+
+    @Override
+    public String toString() {
+        return "APISummary [name = " + name + ", packages = " + packages.size() + ", totals = " + totals + "]";
+    }
+
+    /**
+     * The counts for a single package, or for the whole library when there is no package name.
+     */
+    @JsonPropertyOrder({ "Name", "Types", "Constructors", "Methods", "Fields", "Diagnostics" })
+    public static class Counts {
+        @JsonProperty("Name")
+        private final String name;
+
+        @JsonProperty("Types")
+        private int types;
+
+        @JsonProperty("Constructors")
+        private int constructors;
+
+        @JsonProperty("Methods")
+        private int methods;
+
+        @JsonProperty("Fields")
+        private int fields;
+
+        @JsonProperty("Diagnostics")
+        private int diagnostics;
+
+        public Counts(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void addType(int constructors, int methods, int fields) {
+            this.types++;
+            this.constructors += constructors;
+            this.methods += methods;
+            this.fields += fields;
+        }
+
+        public void addDiagnostics(int diagnostics) {
+            this.diagnostics += diagnostics;
+        }
+
+        public int getTypes() {
+            return types;
+        }
+
+        public int getConstructors() {
+            return constructors;
+        }
+
+        public int getMethods() {
+            return methods;
+        }
+
+        public int getFields() {
+            return fields;
+        }
+
+        public int getDiagnostics() {
+            return diagnostics;
+        }
+
+        private void add(Counts other) {
+            this.types += other.types;
+            this.constructors += other.constructors;
+            this.methods += other.methods;
+            this.fields += other.fields;
+            this.diagnostics += other.diagnostics;
+        }
+
+        @Override
+        public String toString() {
+            return types + " types, " + constructors + " constructors, " + methods + " methods, " + fields
+                    + " fields, " + diagnostics + " diagnostics";
+        }
+    }
+}
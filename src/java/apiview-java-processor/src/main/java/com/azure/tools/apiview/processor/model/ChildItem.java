@@ -1,22 +1,19 @@
 package com.azure.tools.apiview.processor.model;
 
 import com.azure.tools.apiview.processor.analysers.ASTAnalyser;
-import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
-import java.util.TreeSet;
 
+/**
+ * A single item in the navigation tree. Items are assembled into a tree by {@link NavigationBuilder}, which is also
+ * responsible for sorting the children of each item.
+ */
 public class ChildItem implements Comparable<ChildItem> {
     @JsonProperty("ChildItems")
-    private Set<ChildItem> childItems;
-
-    @JsonIgnore
-    private Map<String, ChildItem> packageNameToChildMap;
+    private final List<ChildItem> childItems;
 
     @JsonProperty("NavigationId")
     private String navigationId;
@@ -32,31 +29,23 @@ public class ChildItem implements Comparable<ChildItem> {
     }
 
     public ChildItem(final String navigationId, final String text, TypeKind typeKind) {
-        this.childItems = new TreeSet<>();
+        this.childItems = new ArrayList<>();
         this.navigationId = navigationId;
         this.tags = new Tags(typeKind);
         this.text = text;
-        this.packageNameToChildMap = new HashMap<>();
     }
 
-    public Set<ChildItem> getChildItem() {
-        return childItems;
+    public List<ChildItem> getChildItem() {
+        return Collections.unmodifiableList(childItems);
     }
 
-    public void addChildItem(ChildItem childItem) {
+    void addChildItem(ChildItem childItem) {
         this.childItems.add(childItem);
     }
 
-    public void addChildItem(String packageName, ChildItem childItem) {
-        if (packageNameToChildMap.containsKey(packageName)) {
-            ChildItem parent = packageNameToChildMap.get(packageName);
-            parent.addChildItem(childItem);
-        } else {
-            ChildItem parent = new ChildItem(packageName, packageName, TypeKind.NAMESPACE);
-            parent.addChildItem(childItem);
-            packageNameToChildMap.put(packageName, parent);
-            childItems.add(parent);
-        }
+    void sortChildItems() {
+        Collections.sort(childItems);
+        childItems.forEach(ChildItem::sortChildItems);
     }
 
     public String getNavigationId() {
@@ -86,8 +75,9 @@ public class ChildItem implements Comparable<ChildItem> {
     @Override
     public int compareTo(ChildItem o) {
         // we special case the module-info file so it appears at the top
-        if (ASTAnalyser.MODULE_INFO_KEY.equals(text)) return -1;
-        else if (ASTAnalyser.MODULE_INFO_KEY.equals(o.text)) return 1;
+        final boolean isModuleInfo = ASTAnalyser.MODULE_INFO_KEY.equals(text);
+        final boolean otherIsModuleInfo = ASTAnalyser.MODULE_INFO_KEY.equals(o.text);
+        if (isModuleInfo || otherIsModuleInfo) return Boolean.compare(otherIsModuleInfo, isModuleInfo);
         else return text.compareTo(o.text);
     }
 
@@ -95,17 +85,4 @@ public class ChildItem implements Comparable<ChildItem> {
     public String toString() {
         return "ChildItem [childItems = "+childItems+", navigationId = "+navigationId+", text = "+text+", tags = "+tags+"]";
     }
-
-    @Override
-    public boolean equals(final Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        final ChildItem childItem = (ChildItem) o;
-        return text.equals(childItem.text);
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(text);
-    }
-}
\ No newline at end of file
+}
@@ -2,8 +2,11 @@ package com.azure.tools.apiview.processor.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class Diagnostic {
-    private static int diagnosticIdCounter = 1;
+    // listings may be built concurrently within one JVM (for example, by the Maven plugin in a parallel build)
+    private static final AtomicInteger DIAGNOSTIC_ID_COUNTER = new AtomicInteger(1);
 
     @JsonProperty("DiagnosticId")
     private String diagnosticId;
@@ -22,9 +25,18 @@ public class Diagnostic {
     }
 
     public Diagnostic(String targetId, String text, String helpLinkUri) {
-        this.diagnosticId = "AZ_JAVA_" + diagnosticIdCounter++;
         this.targetId = targetId;
         this.text = text;
         this.helpLinkUri = helpLinkUri;
     }
+
+    /*
+     * Diagnostics are numbered as they are added to a listing rather than as they are created, so that rules can
+     * create them in whatever order they visit the code, and still have them numbered in rule order.
+     */
+    void assignId() {
+        if (diagnosticId == null) {
+            diagnosticId = "AZ_JAVA_" + DIAGNOSTIC_ID_COUNTER.getAndIncrement();
+        }
+    }
 }
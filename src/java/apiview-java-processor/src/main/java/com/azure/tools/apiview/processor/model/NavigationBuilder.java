@@ -0,0 +1,122 @@
+package com.azure.tools.apiview.processor.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Collects navigation items as they are discovered, and assembles them into the navigation tree when the listing is
+ * finalised.
+ *
+ * <p>Items may be added from any number of threads at once - additions are appended to a lock-free queue, and no
+ * ordering or tree structure is maintained until {@link #build(ChildItem)} is called. The tree is assembled only once,
+ * as assembling it rearranges the items, and no items may be added after that. Items are keyed by their
+ * navigation ID, so two nested types with the same name in different parents are kept apart. Each level of the tree
+ * is sorted exactly once, using {@link ChildItem#compareTo(ChildItem)}, so the module-info item remains at the top.</p>
+ */
+public class NavigationBuilder {
+    private final Queue<Entry> entries = new ConcurrentLinkedQueue<>();
+    private volatile ChildItem root;
+
+    /**
+     * Adds the given item directly beneath the root of the navigation tree.
+     */
+    public void addToRoot(ChildItem childItem) {
+        checkNotBuilt();
+        entries.add(new Entry(ParentKind.ROOT, null, childItem));
+    }
+
+    /**
+     * Adds the given item beneath the item for the given package, which is created if necessary.
+     */
+    public void addToPackage(String packageName, ChildItem childItem) {
+        checkNotBuilt();
+        entries.add(new Entry(ParentKind.PACKAGE, packageName, childItem));
+    }
+
+    /**
+     * Adds the given item beneath the item with the given navigation ID.
+     */
+    public void addToParent(String parentNavigationId, ChildItem childItem) {
+        checkNotBuilt();
+        entries.add(new Entry(ParentKind.ITEM, parentNavigationId, childItem));
+    }
+
+    /**
+     * Assembles all items added so far beneath the given root item, and returns the root. Later calls return the same
+     * root, without assembling the tree again, and the given item is ignored.
+     */
+    public synchronized ChildItem build(ChildItem root) {
+        if (this.root != null) {
+            return this.root;
+        }
+
+        // index all items by their navigation ID first, so that parents are found regardless of the order in which
+        // items were added
+        final Map<String, ChildItem> items = new HashMap<>();
+        final List<Entry> accepted = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            final String navigationId = entry.childItem.getNavigationId();
+            if (navigationId == null || items.putIfAbsent(navigationId, entry.childItem) == null) {
+                accepted.add(entry);
+            }
+        }
+
+        final Map<String, ChildItem> packages = new HashMap<>();
+        for (Entry entry : accepted) {
+            switch (entry.parentKind) {
+                case ROOT:
+                    root.addChildItem(entry.childItem);
+                    break;
+                case PACKAGE:
+                    packages.computeIfAbsent(entry.parentKey, packageName -> {
+                        ChildItem packageItem = new ChildItem(packageName, packageName, TypeKind.NAMESPACE);
+                        root.addChildItem(packageItem);
+                        return packageItem;
+                    }).addChildItem(entry.childItem);
+                    break;
+                case ITEM:
+                    final ChildItem parent = items.get(entry.parentKey);
+                    if (parent == null) {
+                        System.err.println("No navigation item found with ID '" + entry.parentKey + "', adding '"
+                                + entry.childItem.getText() + "' to the root");
+                        root.addChildItem(entry.childItem);
+                    } else {
+                        parent.addChildItem(entry.childItem);
+                    }
+                    break;
+            }
+        }
+
+        root.sortChildItems();
+        this.root = root;
+        return root;
+    }
+
+    private void checkNotBuilt() {
+        if (root != null) {
+            throw new IllegalStateException("The navigation tree has already been built");
+        }
+    }
+
+    private enum ParentKind {
+        ROOT,
+        PACKAGE,
+        ITEM
+    }
+
+    private static class Entry {
+        private final ParentKind parentKind;
+        private final String parentKey;
+        private final ChildItem childItem;
+
+        Entry(ParentKind parentKind, String parentKey, ChildItem childItem) {
+            this.parentKind = parentKind;
+            this.parentKey = parentKey;
+            this.childItem = childItem;
+        }
+    }
+}
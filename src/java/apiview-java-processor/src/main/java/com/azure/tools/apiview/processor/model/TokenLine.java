@@ -0,0 +1,42 @@
+package com.azure.tools.apiview.processor.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.List;
+
+/**
+ * A single line of a listing, made up of an indent level and the content tokens on the line. Unlike the flat token
+ * model, the indentation and the end of the line are not tokens of their own.
+ *
+ * @see TokenLines
+ */
+@JsonPropertyOrder({ "Indent", "Tokens" })
+public class TokenLine {
+    @JsonProperty("Indent")
+    private final int indent;
+
+    @JsonProperty("Tokens")
+    private final List<Token> tokens;
+
+    public TokenLine(final int indent, final List<Token> tokens) {
+        this.indent = indent;
+        this.tokens = tokens;
+    }
+
+    /**
+     * Returns the indent level of this line, in units of {@link TokenLines#INDENT_WIDTH} spaces.
+     */
+    public int getIndent() {
+        return indent;
+    }
+
+    public List<Token> getTokens() {
+        return tokens;
+    }
+
+    @Override
+    public String toString() {
+        return "TokenLine [indent = " + indent + ", tokens = " + tokens + "]";
+    }
+}
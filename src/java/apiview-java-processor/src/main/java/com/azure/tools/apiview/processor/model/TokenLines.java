@@ -0,0 +1,96 @@
+package com.azure.tools.apiview.processor.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.azure.tools.apiview.processor.model.TokenKind.NEW_LINE;
+import static com.azure.tools.apiview.processor.model.TokenKind.WHITESPACE;
+
+/**
+ * Converts between the flat token model, where indentation and line breaks are {@code WHITESPACE} and
+ * {@code NEW_LINE} tokens, and the line-structured {@link TokenLine} model.
+ *
+ * <p>Converting flat tokens to lines and back gives the original tokens, as long as the tokens end with a
+ * {@code NEW_LINE} (which a listing always does). Only a leading {@code WHITESPACE} token made up of a whole number of
+ * indent levels becomes the indent of a line; any other whitespace is kept as content.</p>
+ */
+public final class TokenLines {
+    /**
+     * The number of spaces in one indent level.
+     */
+    public static final int INDENT_WIDTH = 4;
+
+    // indentation tokens are all alike, so the strings for the common levels are shared
+    private static final String[] INDENTS = new String[16];
+    static {
+        for (int i = 0; i < INDENTS.length; i++) {
+            INDENTS[i] = makeIndent(i);
+        }
+    }
+
+    private TokenLines() { }
+
+    /**
+     * Groups the given flat tokens into lines. Any tokens after the last {@code NEW_LINE} form a final line.
+     */
+    public static List<TokenLine> fromTokens(List<Token> tokens) {
+        final List<TokenLine> lines = new ArrayList<>();
+
+        int start = 0;
+        for (int i = 0; i <= tokens.size(); i++) {
+            if (i == tokens.size() ? i > start : tokens.get(i).getKind() == NEW_LINE) {
+                int indent = 0;
+                if (start < i && isIndent(tokens.get(start))) {
+                    indent = tokens.get(start).getValue().length() / INDENT_WIDTH;
+                    start++;
+                }
+                lines.add(new TokenLine(indent, new ArrayList<>(tokens.subList(start, i))));
+                start = i + 1;
+            }
+        }
+
+        return lines;
+    }
+
+    /**
+     * Flattens the given lines back into tokens, with a {@code WHITESPACE} token for each indented line and a
+     * {@code NEW_LINE} token at the end of every line.
+     */
+    public static List<Token> toTokens(List<TokenLine> lines) {
+        final List<Token> tokens = new ArrayList<>();
+        for (TokenLine line : lines) {
+            if (line.getIndent() > 0) {
+                tokens.add(new Token(WHITESPACE, getIndent(line.getIndent())));
+            }
+            tokens.addAll(line.getTokens());
+            tokens.add(new Token(NEW_LINE, ""));
+        }
+        return tokens;
+    }
+
+    private static boolean isIndent(Token token) {
+        final String value = token.getValue();
+        if (token.getKind() != WHITESPACE || value == null || value.isEmpty() || value.length() % INDENT_WIDTH != 0
+                || token.getDefinitionId() != null || token.getNavigateToId() != null) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String getIndent(int level) {
+        return level < INDENTS.length ? INDENTS[level] : makeIndent(level);
+    }
+
+    private static String makeIndent(int level) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < level * INDENT_WIDTH; i++) {
+            sb.append(' ');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,218 @@
+package com.azure.tools.apiview.processor.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Holds the tokens of a listing as one segment per package, between the packages being tokenised (in any order, and
+ * possibly concurrently) and being written out in listing order.
+ *
+ * <p>Segments are kept on the heap until the number of tokens held reaches a threshold, set in tokens with the
+ * {@value #SPILL_THRESHOLD_PROPERTY} system property. Any segment added after that is encoded into a temp file
+ * instead, and read back into a heap buffer of its own when the segments are drained. This keeps the heap bounded
+ * however big the jar is, at the cost of an encode and decode for the spilled segments. The file is not memory-mapped,
+ * as a mapping keeps the file open until it is garbage collected, and on Windows an open file cannot be deleted.</p>
+ *
+ * <p>This only bounds the heap if the drained segments are written out as they go, rather than collected into one
+ * list.</p>
+ */
+public final class TokenSegmentStore implements Closeable {
+    public static final String SPILL_THRESHOLD_PROPERTY = "apiview.spillThreshold";
+
+    // enough for all but the very largest libraries to never touch the disk
+    private static final int DEFAULT_SPILL_THRESHOLD = 2_000_000;
+
+    private static final TokenKind[] KINDS = TokenKind.values();
+
+    private final int threshold;
+    private final Segment[] segments;
+    private int tokensInMemory;
+
+    private Path spillFile;
+    private FileChannel spillChannel;
+    private long spilledBytes;
+    private int spilledSegments;
+
+    /**
+     * Creates a store for the given number of segments, using the configured spill threshold.
+     */
+    public TokenSegmentStore(int segmentCount) {
+        this(segmentCount, Integer.getInteger(SPILL_THRESHOLD_PROPERTY, DEFAULT_SPILL_THRESHOLD));
+    }
+
+    public TokenSegmentStore(int segmentCount, int threshold) {
+        this.segments = new Segment[segmentCount];
+        this.threshold = threshold;
+    }
+
+    /**
+     * Stores the tokens of the segment at the given index, spilling them to disk if the threshold has been reached.
+     * This may be called from multiple threads at once.
+     */
+    public void set(int index, String packageName, List<Token> tokens) {
+        synchronized (this) {
+            if (tokensInMemory + tokens.size() <= threshold) {
+                tokensInMemory += tokens.size();
+                segments[index] = new Segment(packageName, tokens, -1, 0);
+                return;
+            }
+        }
+
+        // encoding is done outside the lock, so that spilling threads only contend for the file write
+        final byte[] bytes = encode(tokens);
+        synchronized (this) {
+            try {
+                if (spillChannel == null) {
+                    spillFile = Files.createTempFile("apiview-tokens-", ".bin");
+                    spillFile.toFile().deleteOnExit();
+                    spillChannel = FileChannel.open(spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                }
+                final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                long position = spilledBytes;
+                while (buffer.hasRemaining()) {
+                    position += spillChannel.write(buffer, position);
+                }
+                segments[index] = new Segment(packageName, null, spilledBytes, bytes.length);
+                spilledBytes = position;
+                spilledSegments++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Gives each segment to the given consumer in index order, releasing each segment once it has been consumed. All
+     * segments must have been set first.
+     */
+    public void drain(BiConsumer<String, List<Token>> consumer) {
+        for (int i = 0; i < segments.length; i++) {
+            final Segment segment = segments[i];
+            if (segment == null) {
+                throw new IllegalStateException("Token segment " + i + " was never set");
+            }
+            segments[i] = null;
+
+            if (segment.tokens != null) {
+                consumer.accept(segment.packageName, segment.tokens);
+            } else {
+                consumer.accept(segment.packageName, decode(read(segment)));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (spillChannel != null) {
+            spillChannel.close();
+            spillChannel = null;
+            try {
+                Files.deleteIfExists(spillFile);
+            } catch (IOException e) {
+                // the file is still deleted when the JVM exits, as it was registered for that when it was created
+                System.err.println("Unable to delete token spill file '" + spillFile + "': " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Token segments: " + (segments.length - spilledSegments) + " held in memory (" + tokensInMemory
+                + " tokens), " + spilledSegments + " spilled to disk (" + spilledBytes + " bytes)";
+    }
+
+    private ByteBuffer read(Segment segment) {
+        final ByteBuffer buffer = ByteBuffer.allocate(segment.length);
+        try {
+            long position = segment.offset;
+            while (buffer.hasRemaining()) {
+                final int read = spillChannel.read(buffer, position);
+                if (read < 0) {
+                    throw new EOFException("Token spill file '" + spillFile + "' ended before segment at " + position);
+                }
+                position += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static byte[] encode(List<Token> tokens) {
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream(tokens.size() * 16);
+            final DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(tokens.size());
+            for (Token token : tokens) {
+                out.writeByte(token.getKind().ordinal());
+                writeString(out, token.getValue());
+                writeString(out, token.getDefinitionId());
+                writeString(out, token.getNavigateToId());
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // writing to a byte array cannot fail
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<Token> decode(ByteBuffer buffer) {
+        final int count = buffer.getInt();
+        final List<Token> tokens = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final TokenKind kind = KINDS[buffer.get()];
+            final Token token = new Token(kind, readString(buffer), readString(buffer));
+            token.setNavigateToId(readString(buffer));
+            tokens.add(token);
+        }
+        return tokens;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length == -1) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class Segment {
+        private final String packageName;
+        private final List<Token> tokens;
+        private final long offset;
+        private final int length;
+
+        Segment(String packageName, List<Token> tokens, long offset, int length) {
+            this.packageName = packageName;
+            this.tokens = tokens;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.azure.tools.apiview.processor.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A read-only index of the types of listings that have already been built, shared by the listings built after them in
+ * the same batch run. This lets a library link to, and have diagnostics consider, the types of the libraries it
+ * depends on, as long as those libraries come earlier in the batch.
+ *
+ * <p>Types are kept by their fully qualified name, and a simple name is only resolved to a type in the index if the
+ * compilation unit it is written in imports that type, or the package (or enclosing type) it is declared in, or is in
+ * that package itself. So an unrelated type that happens to share its simple name with a type of an earlier listing is
+ * not linked to it. Where the imports match types with the same simple name in several listings, the type from the
+ * listing that was added first is used.</p>
+ *
+ * <p>Only the types a listing declares are added, and not the types it merely imports, so that a type is only ever
+ * attributed to the package (and linked to the ID) it is declared with.</p>
+ *
+ * <p>Each listing contributes to the index once, with {@link #plus(APIListing)}, which returns a new index. The
+ * indexes of a batch share one append-only store of types, in which each type records which listing added it, and an
+ * index only sees the types of the listings it was built from. So adding a listing only costs as much as the types it
+ * adds, rather than a copy of every type in the batch. An index is never modified once created, and the store can be
+ * read from any number of threads while a listing is added to it.</p>
+ */
+public final class TypeIndex {
+    public static final TypeIndex EMPTY = new TypeIndex(new Types(), 0, 0);
+
+    private final Types types;
+    private final int listingCount;
+    private final int typeCount;
+
+    private TypeIndex(Types types, int listingCount, int typeCount) {
+        this.types = types;
+        this.listingCount = listingCount;
+        this.typeCount = typeCount;
+    }
+
+    /**
+     * Returns a new index with the types of the given listing added to the types of this one.
+     */
+    public TypeIndex plus(APIListing apiListing) {
+        final Map<String, String> knownTypes = apiListing.getKnownTypes();
+        synchronized (types) {
+            // the store is only appended to from the newest index, so one that has already been added to (such as
+            // EMPTY, in a second batch) starts a store of its own with the types it can see
+            final Types target = types.listingCount == listingCount ? types : types.copy(listingCount);
+
+            int added = 0;
+            for (Map.Entry<String, String> knownType : knownTypes.entrySet()) {
+                if (target.add(knownType.getKey(), knownType.getValue(), listingCount)) {
+                    added++;
+                }
+            }
+            target.listingCount = listingCount + 1;
+            return new TypeIndex(target, listingCount + 1, typeCount + added);
+        }
+    }
+
+    /**
+     * Returns the definition ID of the type with the given simple name that the given imported names bring into scope
+     * (see {@link #isImported(String, String, Set)}), or null if there is no such type.
+     */
+    public String getTypeId(String typeName, Set<String> importedNames) {
+        final Type type = find(typeName, importedNames);
+        return type == null ? null : type.id;
+    }
+
+    /**
+     * Returns the name of the package of the type with the given simple name that the given imported names bring into
+     * scope (see {@link #isImported(String, String, Set)}), or null if there is no such type.
+     */
+    public String getPackageName(String typeName, Set<String> importedNames) {
+        final Type type = find(typeName, importedNames);
+        return type == null ? null : type.packageName;
+    }
+
+    /**
+     * Returns true if no listings have been added to the index.
+     */
+    public boolean isEmpty() {
+        return listingCount == 0;
+    }
+
+    /**
+     * Returns true if a type with the given definition ID is in the index.
+     */
+    public boolean containsTypeId(String typeId) {
+        final Type type = types.byId.get(typeId);
+        return type != null && type.listing < listingCount;
+    }
+
+    /**
+     * Returns true if the type with the given ID, declared in the given package (or enclosing type), is in scope for a
+     * compilation unit with the given imported names. The imported names are the fully qualified names of its
+     * single-type imports, and {@code <name>.*} for each of its on-demand imports and for its own package.
+     */
+    public static boolean isImported(String typeId, String packageName, Set<String> importedNames) {
+        return importedNames.contains(typeId) || (packageName != null && importedNames.contains(packageName + ".*"));
+    }
+
+    private Type find(String typeName, Set<String> importedNames) {
+        final Type[] candidates = types.byName.get(typeName);
+        if (candidates == null) {
+            return null;
+        }
+        for (Type type : candidates) {
+            if (type.listing < listingCount && isImported(type.id, type.packageName, importedNames)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /*
+     * The ID of a type is its fully qualified name, so its package (or for a nested type, its enclosing type, as in
+     * APIListing) is everything before its simple name.
+     */
+    private static String getPackageName(String typeName, String typeId) {
+        if (typeId.length() > typeName.length() && typeId.endsWith(typeName)
+                && typeId.charAt(typeId.length() - typeName.length() - 1) == '.') {
+            return typeId.substring(0, typeId.length() - typeName.length() - 1);
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "Shared type index: " + typeCount + " types from " + listingCount + " listings";
+    }
+
+    /*
+     * The types of every listing added to the indexes that share this store, oldest listing first.
+     */
+    private static final class Types {
+        // simple type name to the types with that name, replaced rather than modified when a type is added
+        private final Map<String, Type[]> byName = new ConcurrentHashMap<>();
+        private final Map<String, Type> byId = new ConcurrentHashMap<>();
+
+        // the number of listings added, guarded by this
+        private int listingCount;
+
+        boolean add(String typeName, String typeId, int listing) {
+            if (byId.containsKey(typeId)) {
+                return false;
+            }
+            final Type type = new Type(typeId, getPackageName(typeName, typeId), listing);
+            byId.put(typeId, type);
+            byName.merge(typeName, new Type[] { type }, (existing, added) -> {
+                final Type[] merged = Arrays.copyOf(existing, existing.length + 1);
+                merged[existing.length] = type;
+                return merged;
+            });
+            return true;
+        }
+
+        Types copy(int listings) {
+            final Types copy = new Types();
+            byName.forEach((typeName, named) -> {
+                for (Type type : named) {
+                    if (type.listing < listings) {
+                        copy.add(typeName, type.id, type.listing);
+                    }
+                }
+            });
+            copy.listingCount = listings;
+            return copy;
+        }
+    }
+
+    private static final class Type {
+        private final String id;
+        private final String packageName;
+        private final int listing;
+
+        Type(String id, String packageName, int listing) {
+            this.id = id;
+            this.packageName = packageName;
+            this.listing = listing;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.azure.tools.apiview.processor.pipeline;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Limits how many files are parsed at once, based on how full the heap is. Parsing many large files at once can push
+ * the JVM into spending most of its time in GC, while parsing a small jar on every core just adds overhead, so:
+ *
+ * <ul>
+ *     <li>The most threads that will ever be used is chosen up front from the size of the jar file, with roughly one
+ *     thread per {@link #BYTES_PER_THREAD} bytes of (compressed) jar, up to the number of available processors.</li>
+ *     <li>After every garbage collection, the heap occupancy that the collection left behind is taken from its
+ *     {@link GarbageCollectionNotificationInfo}, and the limit is reduced as occupancy rises (and raised again as it
+ *     falls). Sampling the heap as the notification arrives would include whatever was allocated since, which is
+ *     mostly garbage. After a young collection, the old generation may still hold garbage of its own, so those
+ *     samples can overstate what is live, which errs towards parsing fewer files at once.</li>
+ * </ul>
+ *
+ * <p>With {@code -Dapiview.debug=true}, every change of limit is logged, so the concurrency chosen over the course of
+ * a run can be seen.</p>
+ */
+public final class AdaptiveConcurrency implements AutoCloseable {
+    static final long BYTES_PER_THREAD = 64 * 1024;
+
+    private static final boolean DEBUG = Boolean.getBoolean("apiview.debug");
+
+    private final int maxThreads;
+    private final long start = System.nanoTime();
+    private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+    private final Set<String> heapPools = new HashSet<>();
+    private final NotificationListener gcListener = (Notification notification, Object handback) -> onGc(notification);
+
+    private int limit;
+    private int active;
+    private int peak;
+    private int changes;
+
+    public AdaptiveConcurrency(int maxThreads) {
+        this.maxThreads = Math.max(1, maxThreads);
+        this.limit = this.maxThreads;
+
+        for (MemoryPoolMXBean poolBean : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (poolBean.getType() == MemoryType.HEAP) {
+                heapPools.add(poolBean.getName());
+            }
+        }
+
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gcBean instanceof NotificationEmitter) {
+                ((NotificationEmitter) gcBean).addNotificationListener(gcListener, null, null);
+                emitters.add((NotificationEmitter) gcBean);
+            }
+        }
+
+        log("starting with " + this.maxThreads + " parser threads, "
+                + describeHeap(getHeapOccupancy(memoryBean.getHeapMemoryUsage().getUsed())));
+    }
+
+    /**
+     * Returns the most threads worth using for a jar file of the given size.
+     */
+    public static int getMaxThreads(long jarFileSize) {
+        final long bySize = Math.max(1, jarFileSize / BYTES_PER_THREAD);
+        return (int) Math.min(bySize, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Waits until fewer than the current limit of callers hold a permit, and then takes one.
+     */
+    public synchronized void acquire() throws InterruptedException {
+        while (active >= limit) {
+            wait();
+        }
+        active++;
+        peak = Math.max(peak, active);
+    }
+
+    public synchronized void release() {
+        active--;
+        notifyAll();
+    }
+
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public void close() {
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(gcListener);
+            } catch (ListenerNotFoundException e) {
+                // already removed
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Concurrency: up to " + maxThreads + " parser threads, at most " + peak + " active at once, limit changed "
+                + changes + " times";
+    }
+
+    private void onGc(Notification notification) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        final GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+
+        long used = 0;
+        for (Map.Entry<String, MemoryUsage> pool : info.getGcInfo().getMemoryUsageAfterGc().entrySet()) {
+            if (heapPools.contains(pool.getKey())) {
+                used += pool.getValue().getUsed();
+            }
+        }
+        update(getHeapOccupancy(used));
+    }
+
+    private void update(double occupancy) {
+        final int newLimit = getLimit(occupancy);
+        synchronized (this) {
+            if (newLimit == limit) {
+                return;
+            }
+            limit = newLimit;
+            changes++;
+            notifyAll();
+        }
+        log("limit is now " + newLimit + " parser threads, " + describeHeap(occupancy));
+    }
+
+    /*
+     * The further the heap fills up, the fewer files are parsed at once, down to one at a time.
+     */
+    private int getLimit(double occupancy) {
+        if (occupancy >= 0.85) {
+            return 1;
+        } else if (occupancy >= 0.70) {
+            return Math.max(1, maxThreads / 4);
+        } else if (occupancy >= 0.50) {
+            return Math.max(1, maxThreads / 2);
+        }
+        return maxThreads;
+    }
+
+    private double getHeapOccupancy(long used) {
+        final MemoryUsage heap = memoryBean.getHeapMemoryUsage();
+        final long max = heap.getMax() > 0 ? heap.getMax() : heap.getCommitted();
+        return max > 0 ? (double) used / max : 0;
+    }
+
+    private static String describeHeap(double occupancy) {
+        return "heap " + Math.round(occupancy * 100) + "% full";
+    }
+
+    private void log(String message) {
+        if (!DEBUG) {
+            return;
+        }
+        System.out.println("  Concurrency at " + (System.nanoTime() - start) / 1_000_000 + " ms: " + message);
+    }
+}
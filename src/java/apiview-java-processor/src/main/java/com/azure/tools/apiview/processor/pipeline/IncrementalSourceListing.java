@@ -0,0 +1,187 @@
+package com.azure.tools.apiview.processor.pipeline;
+
+import com.azure.tools.apiview.processor.analysers.ASTAnalyser;
+import com.azure.tools.apiview.processor.analysers.util.PackageFilter;
+import com.azure.tools.apiview.processor.analysers.util.SourceFiles;
+import com.azure.tools.apiview.processor.model.APIListing;
+import com.azure.tools.apiview.processor.model.Token;
+import com.azure.tools.apiview.processor.sink.JsonTokenSink;
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ast.CompilationUnit;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds the listing for directories of source files, and keeps it up to date as the files change, doing as little
+ * work as possible each time:
+ *
+ * <ul>
+ *     <li>Each file is only parsed again when its size or modification time has changed. The compilation units of all
+ *     other files are kept from the previous update.</li>
+ *     <li>The type indexes and navigation tree are rebuilt from the kept compilation units, which is cheap compared to
+ *     parsing.</li>
+ *     <li>Only the packages with changed files are tokenised again, unless the set of known types has changed, in which
+ *     case every package is, as links from any package may have changed.</li>
+ * </ul>
+ *
+ * <p>Diagnostics are run over every file on each update, as diagnostic IDs are numbered in listing order. The listing
+ * is written to a temp file and then moved over the output file, so readers never see a partial listing.</p>
+ */
+public final class IncrementalSourceListing {
+    private final List<Path> sourceRoots;
+    private final String reviewName;
+    private final PackageFilter packageFilter;
+
+    private final Map<Path, SourceFile> files = new HashMap<>();
+    private final Map<String, List<Token>> packageTokens = new HashMap<>();
+    private Map<String, String> knownTypes = new HashMap<>();
+    private Map<String, Set<String>> packageTypes = new HashMap<>();
+
+    public IncrementalSourceListing(List<Path> sourceRoots, String reviewName, PackageFilter packageFilter) {
+        this.sourceRoots = sourceRoots;
+        this.reviewName = reviewName;
+        this.packageFilter = packageFilter;
+    }
+
+    /**
+     * Brings the listing up to date with the source files as they are now, and writes it to the given output file.
+     * Returns the listing, without its tokens.
+     */
+    public APIListing update(File outputFile) throws IOException {
+        final long start = System.nanoTime();
+
+        // find the files that have been added, changed or removed since the last update
+        final Set<String> changedPackages = new HashSet<>();
+        final Map<Path, String> current = SourceFiles.listSourceFiles(sourceRoots, packageFilter);
+        files.keySet().removeIf(path -> {
+            if (current.containsKey(path)) {
+                return false;
+            }
+            changedPackages.add(files.get(path).packageName);
+            return true;
+        });
+
+        final List<Path> changed = new ArrayList<>();
+        for (Map.Entry<Path, String> entry : current.entrySet()) {
+            final SourceFile previous = files.get(entry.getKey());
+            if (previous == null || !previous.isUpToDate(entry.getKey())) {
+                changed.add(entry.getKey());
+                if (previous != null) {
+                    changedPackages.add(previous.packageName);
+                }
+            }
+        }
+
+        // parse the changed files, which are independent of each other, concurrently
+        final Map<Path, SourceFile> parsed = new ConcurrentHashMap<>();
+        try {
+            changed.parallelStream().forEach(path -> parsed.put(path, parse(path, current.get(path))));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        parsed.values().forEach(sourceFile -> changedPackages.add(sourceFile.packageName));
+        files.putAll(parsed);
+
+        // rebuild the type indexes and navigation tree from every file, parsed now or before
+        final APIListing apiListing = new APIListing(reviewName);
+        apiListing.setLanguage("Java");
+        apiListing.setTokens(new ArrayList<>());
+        final ASTAnalyser analyser = new ASTAnalyser(apiListing, packageFilter);
+        files.values().stream()
+                .filter(sourceFile -> sourceFile.compilationUnit != null)
+                .forEach(sourceFile -> analyser.add(sourceFile.name, sourceFile.compilationUnit));
+
+        // tokenise the packages that need it, keeping the tokens of the rest
+        final Map<String, String> newKnownTypes = new HashMap<>(apiListing.getKnownTypes());
+        final Map<String, Set<String>> newPackageTypes = new HashMap<>(apiListing.getPackageNamesToTypesMap());
+        final boolean typesChanged = !newKnownTypes.equals(knownTypes) || !newPackageTypes.equals(packageTypes);
+        knownTypes = newKnownTypes;
+        packageTypes = newPackageTypes;
+
+        final List<String> packageNames = analyser.getPackageNames();
+        packageTokens.keySet().retainAll(packageNames);
+        final List<String> tokenised = new ArrayList<>();
+        for (String packageName : packageNames) {
+            if (typesChanged || changedPackages.contains(packageName) || !packageTokens.containsKey(packageName)) {
+                tokenised.add(packageName);
+            }
+        }
+        final Map<String, List<Token>> newTokens = new ConcurrentHashMap<>();
+        tokenised.parallelStream().forEach(packageName -> newTokens.put(packageName, analyser.tokenisePackage(packageName)));
+        packageTokens.putAll(newTokens);
+
+        // write the listing out, and run the diagnostics before it is completed, as they are written at the end. The
+        // sink only replaces the previous listing once the new one is complete
+        try (JsonTokenSink sink = new JsonTokenSink(outputFile, apiListing)) {
+            for (String packageName : packageNames) {
+                sink.acceptPackage(packageName, packageTokens.get(packageName));
+            }
+            packageNames.forEach(analyser::scanDiagnostics);
+            analyser.scanProjectDiagnostics();
+            sink.complete();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        System.out.println("  Updated listing in " + (System.nanoTime() - start) / 1_000_000 + " ms: parsed "
+                + changed.size() + " of " + files.size() + " files, tokenised " + tokenised.size() + " of "
+                + packageNames.size() + " packages" + (typesChanged ? " (known types changed)" : ""));
+        return apiListing;
+    }
+
+    private static SourceFile parse(Path path, String name) {
+        try {
+            final long size = Files.size(path);
+            final long lastModified = Files.getLastModifiedTime(path).toMillis();
+            CompilationUnit compilationUnit = null;
+            try (InputStream inputStream = Files.newInputStream(path)) {
+                compilationUnit = ASTAnalyser.parse(name, inputStream);
+            } catch (ParseProblemException e) {
+                // as with a sources jar, a file that cannot be parsed is reported and left out of the listing
+                System.err.println("Unable to parse '" + path + "'");
+                e.printStackTrace();
+            }
+            return new SourceFile(name, size, lastModified, compilationUnit);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class SourceFile {
+        private final String name;
+        private final long size;
+        private final long lastModified;
+        private final CompilationUnit compilationUnit;
+        private final String packageName;
+
+        SourceFile(String name, long size, long lastModified, CompilationUnit compilationUnit) {
+            this.name = name;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.compilationUnit = compilationUnit;
+            this.packageName = compilationUnit == null ? null : compilationUnit.getPackageDeclaration()
+                    .map(packageDeclaration -> packageDeclaration.getNameAsString())
+                    .orElse("");
+        }
+
+        boolean isUpToDate(Path path) {
+            try {
+                return Files.size(path) == size && Files.getLastModifiedTime(path).toMillis() == lastModified;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.azure.tools.apiview.processor.pipeline;
+
+import com.azure.tools.apiview.processor.model.APIListing;
+import com.azure.tools.apiview.processor.model.Token;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Writes a listing progressively, so that a consumer can show the outline of the API before tokenising has finished.
+ * Two files are written alongside the output file:
+ *
+ * <ol>
+ *     <li>{@code <name>.navigation.json}, a complete document with the navigation tree, name, version, package names
+ *     and known types. It is written as soon as scanning is done, and appears atomically, so it is never seen half
+ *     written.</li>
+ *     <li>{@code <name>.packages.jsonl}, which has one line per package, appended and flushed as each package is
+ *     tokenised, in listing order. Each line is a complete JSON object with the package name and its tokens. The last
+ *     line holds the diagnostics, and marks the listing as complete.</li>
+ * </ol>
+ *
+ * <p>Concatenating the tokens of every line gives the same tokens as the output file.</p>
+ */
+public final class ProgressiveListingWriter implements Closeable {
+    private final APIListing apiListing;
+    private final JsonGenerator generator;
+
+    public ProgressiveListingWriter(File outputFile, APIListing apiListing, List<String> packageNames)
+            throws IOException {
+        this.apiListing = apiListing;
+        final ObjectMapper objectMapper = StreamingListingWriter.createObjectMapper();
+
+        final File navigationFile = getSiblingFile(outputFile, ".navigation.json");
+        final File navigationTempFile = getSiblingFile(outputFile, ".navigation.json.tmp");
+        try (JsonGenerator navigation = objectMapper.getFactory().createGenerator(navigationTempFile, JsonEncoding.UTF8)) {
+            navigation.useDefaultPrettyPrinter();
+            navigation.writeStartObject();
+            navigation.writeObjectField("Navigation", apiListing.getNavigation());
+            navigation.writeObjectField("Name", apiListing.getName());
+            navigation.writeObjectField("VersionString", apiListing.getVersionString());
+            navigation.writeObjectField("Packages", packageNames);
+            navigation.writeObjectField("KnownTypes", new TreeMap<>(apiListing.getKnownTypes()));
+            navigation.writeEndObject();
+        }
+        Files.move(navigationTempFile.toPath(), navigationFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+
+        this.generator = objectMapper.getFactory()
+                .createGenerator(getSiblingFile(outputFile, ".packages.jsonl"), JsonEncoding.UTF8);
+
+        // each line is terminated explicitly, rather than separated by Jackson's default root value separator
+        this.generator.setRootValueSeparator(null);
+    }
+
+    /**
+     * Appends a line with the tokens of the given package, and flushes it so that it is visible to consumers.
+     */
+    public void writePackage(String packageName, List<Token> tokens) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("Package", packageName);
+        generator.writeArrayFieldStart("Tokens");
+        for (Token token : tokens) {
+            generator.writeObject(token);
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+        generator.flush();
+    }
+
+    /**
+     * Appends the final line, with the diagnostics, which tells consumers that the listing is complete. A writer that
+     * is closed without this was abandoned, and consumers never see the final line.
+     */
+    public void complete() throws IOException {
+        generator.writeStartObject();
+        generator.writeObjectField("Diagnostics", apiListing.getDiagnostics());
+        generator.writeBooleanField("Complete", true);
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+        generator.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+
+    private static File getSiblingFile(File outputFile, String suffix) {
+        String name = outputFile.getName();
+        if (name.endsWith(".json")) {
+            name = name.substring(0, name.length() - ".json".length());
+        }
+        return new File(outputFile.getAbsoluteFile().getParentFile(), name + suffix);
+    }
+}
@@ -0,0 +1,333 @@
+package com.azure.tools.apiview.processor.pipeline;
+
+import com.azure.tools.apiview.processor.analysers.ASTAnalyser;
+import com.azure.tools.apiview.processor.analysers.util.PackageFilter;
+import com.azure.tools.apiview.processor.analysers.util.SourceFiles;
+import com.azure.tools.apiview.processor.model.APIListing;
+import com.azure.tools.apiview.processor.model.APISummary;
+import com.azure.tools.apiview.processor.model.Token;
+import com.azure.tools.apiview.processor.model.TokenLine;
+import com.azure.tools.apiview.processor.model.TokenLines;
+import com.azure.tools.apiview.processor.sink.FanOutTokenSink;
+import com.azure.tools.apiview.processor.sink.TokenSinks;
+import com.github.javaparser.ParseProblemException;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Processes a sources jar file as a pipeline of stages connected by bounded {@link StageQueue queues}:
+ *
+ * <ol>
+ *     <li>A reader thread reads each source file out of the jar file, largest first, so that the biggest files are not
+ *     left parsing on their own at the end. Files in packages rejected by the {@link PackageFilter} are skipped by
+ *     name, without being read.</li>
+ *     <li>A pool of parser threads parses the files, and builds up the type indexes and navigation tree. The pool is
+ *     sized from the size of the jar file, and how many of its threads parse at once is adjusted to the heap
+ *     occupancy by {@link AdaptiveConcurrency}.</li>
+ *     <li>A pool of tokeniser threads tokenises each package.</li>
+ *     <li>The calling thread gives each package of tokens to the configured {@link TokenSinks sinks} (by default, the
+ *     JSON output file) in package order, and then runs the diagnostics over it.</li>
+ * </ol>
+ *
+ * <p>Reading and parsing overlap, as do tokenising and writing. Tokenising cannot start until every file has been
+ * parsed, as linking types together needs the complete set of known types, and the navigation tree is written at the
+ * start of the output file. At most {@link #TOKENISE_QUEUE_CAPACITY} packages are tokenised ahead of the writer, so
+ * only a bounded number of packages of tokens are ever held in memory at once.</p>
+ *
+ * <p>When the listing is written as {@link TokenLine line records}, each package is converted to lines by the tokeniser
+ * thread, so only the lines are queued for the writer, along with the flat tokens when progressive output also needs
+ * them.</p>
+ *
+ * <p>In summary mode ({@link #summarise(File)}), only the read and parse stages are run, and the public API of each
+ * package is counted rather than tokenised.</p>
+ *
+ * <p>With progressive output enabled, a {@link ProgressiveListingWriter} also writes the navigation as soon as scanning
+ * is done, and each package as soon as it is written to the output file.</p>
+ */
+public class SourceJarPipeline {
+    private static final int READ_QUEUE_CAPACITY = 64;
+    private static final int TOKENISE_QUEUE_CAPACITY = 8;
+
+    // enable with -Dapiview.progressiveOutput=true to also write the listing progressively, for previews
+    private static final boolean PROGRESSIVE_OUTPUT = Boolean.getBoolean("apiview.progressiveOutput");
+
+    private final File inputFile;
+    private final APIListing apiListing;
+    private final PackageFilter packageFilter;
+    private final ASTAnalyser analyser;
+    private final int threads;
+
+    public SourceJarPipeline(File inputFile, APIListing apiListing, PackageFilter packageFilter) {
+        this(inputFile, apiListing, packageFilter, new ASTAnalyser(apiListing, packageFilter));
+    }
+
+    SourceJarPipeline(File inputFile, APIListing apiListing, PackageFilter packageFilter, ASTAnalyser analyser) {
+        this.inputFile = inputFile;
+        this.apiListing = apiListing;
+        this.packageFilter = packageFilter;
+        this.analyser = analyser;
+        this.threads = AdaptiveConcurrency.getMaxThreads(inputFile.length());
+    }
+
+    /**
+     * Runs the pipeline, writing the listing to the given output file.
+     */
+    public void run(File outputFile) throws IOException, InterruptedException {
+        final StageQueue<SourceFile> readQueue = new StageQueue<>("read", READ_QUEUE_CAPACITY);
+        final StageQueue<Future<PackageTokens>> tokeniseQueue = new StageQueue<>("tokenise", TOKENISE_QUEUE_CAPACITY);
+
+        final long start = System.nanoTime();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        try {
+            // read and parse all files
+            scanSources(executor, readQueue);
+            final long scanned = System.nanoTime();
+
+            // tokenise each package, and write them out in order as they complete
+            final ExecutorService tokenisers = Executors.newFixedThreadPool(threads);
+            try {
+                final Future<?> producer = executor.submit(() -> {
+                    try {
+                        for (String packageName : analyser.getPackageNames()) {
+                            tokeniseQueue.put(tokenisers.submit(() ->
+                                    new PackageTokens(packageName, analyser.tokenisePackage(packageName))));
+                        }
+                    } finally {
+                        tokeniseQueue.close();
+                    }
+                    return null;
+                });
+
+                final FanOutTokenSink sink = TokenSinks.create(outputFile, apiListing);
+                try (ProgressiveListingWriter progressive = PROGRESSIVE_OUTPUT
+                        ? new ProgressiveListingWriter(outputFile, apiListing, analyser.getPackageNames()) : null;
+                     FanOutTokenSink sinks = sink) {
+                    Future<PackageTokens> next;
+                    while ((next = tokeniseQueue.take()) != null) {
+                        final PackageTokens packageTokens = get(next);
+                        if (packageTokens.lines != null) {
+                            sinks.acceptPackageLines(packageTokens.packageName, packageTokens.lines);
+                        } else {
+                            sinks.acceptPackage(packageTokens.packageName, packageTokens.tokens);
+                        }
+                        if (progressive != null) {
+                            progressive.writePackage(packageTokens.packageName, packageTokens.tokens);
+                        }
+                        analyser.scanDiagnostics(packageTokens.packageName);
+                    }
+                    analyser.scanProjectDiagnostics();
+                    sinks.complete();
+                    if (progressive != null) {
+                        progressive.complete();
+                    }
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                get(producer);
+                TokenSinks.report(sink);
+            } finally {
+                tokenisers.shutdownNow();
+            }
+
+            if (Boolean.getBoolean("apiview.debug")) {
+                System.out.println("  Pipeline: scanned in " + toMillis(scanned - start) + " ms, tokenised and written in "
+                        + toMillis(System.nanoTime() - scanned) + " ms with " + threads + " threads");
+                System.out.println("    " + readQueue);
+                System.out.println("    " + tokeniseQueue);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs only the read and parse stages of the pipeline, and then writes a summary of the API surface and the number
+     * of diagnostics for each package to the given output file, instead of the listing. Nothing is tokenised.
+     */
+    public APISummary summarise(File outputFile) throws IOException, InterruptedException {
+        final StageQueue<SourceFile> readQueue = new StageQueue<>("read", READ_QUEUE_CAPACITY);
+
+        final long start = System.nanoTime();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        try {
+            scanSources(executor, readQueue);
+        } finally {
+            executor.shutdownNow();
+        }
+        final long scanned = System.nanoTime();
+
+        // diagnostics are numbered as they are created, so they are still scanned one package at a time, in order
+        final APISummary summary = new APISummary(apiListing);
+        for (String packageName : analyser.getPackageNames()) {
+            final APISummary.Counts counts = analyser.summarisePackage(packageName);
+            final int diagnosticCount = apiListing.getDiagnostics().size();
+            analyser.scanDiagnostics(packageName);
+            counts.addDiagnostics(apiListing.getDiagnostics().size() - diagnosticCount);
+            summary.addPackage(counts);
+        }
+        final int diagnosticCount = apiListing.getDiagnostics().size();
+        analyser.scanProjectDiagnostics();
+        summary.addDiagnostics(apiListing.getDiagnostics().size() - diagnosticCount);
+
+        StreamingListingWriter.createObjectMapper().writerWithDefaultPrettyPrinter().writeValue(outputFile, summary);
+
+        if (Boolean.getBoolean("apiview.debug")) {
+            System.out.println("  Pipeline: scanned in " + toMillis(scanned - start) + " ms, summarised in "
+                    + toMillis(System.nanoTime() - scanned) + " ms with " + threads + " threads");
+            System.out.println("    " + readQueue);
+        }
+        return summary;
+    }
+
+    /*
+     * Reads and parses every source file, on the given executor, returning once all files have been scanned.
+     */
+    private void scanSources(ExecutorService executor, StageQueue<SourceFile> readQueue)
+            throws IOException, InterruptedException {
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        try (AdaptiveConcurrency concurrency = new AdaptiveConcurrency(threads)) {
+            final List<Future<?>> scanStage = new ArrayList<>();
+            scanStage.add(executor.submit(() -> readSources(readQueue, failure)));
+            for (int i = 0; i < threads; i++) {
+                scanStage.add(executor.submit(() -> parseSources(readQueue, concurrency, failure)));
+            }
+            await(scanStage);
+            rethrow(failure.get());
+            if (Boolean.getBoolean("apiview.debug")) {
+                System.out.println("  " + concurrency);
+            }
+        }
+    }
+
+    private Void readSources(StageQueue<SourceFile> readQueue, AtomicReference<Throwable> failure)
+            throws IOException, InterruptedException {
+        try (JarFile jarFile = new JarFile(inputFile)) {
+            // entry sizes come from the central directory, so ordering by size does not need anything to be read
+            final List<JarEntry> entries = new ArrayList<>();
+            final Enumeration<JarEntry> enumeration = jarFile.entries();
+            while (enumeration.hasMoreElements()) {
+                final JarEntry entry = enumeration.nextElement();
+                if (!entry.isDirectory() && ASTAnalyser.isAnalysable(entry.getName())
+                        && packageFilter.acceptsFile(entry.getName())) {
+                    entries.add(entry);
+                }
+            }
+            entries.sort(Comparator.comparingLong(JarEntry::getSize).reversed());
+
+            for (JarEntry entry : entries) {
+                if (failure.get() != null) {
+                    break;
+                }
+                try (InputStream inputStream = jarFile.getInputStream(entry)) {
+                    readQueue.put(new SourceFile(entry.getName(), SourceFiles.readFully(inputStream)));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            failure.compareAndSet(null, e);
+            throw e;
+        } finally {
+            readQueue.close();
+        }
+        return null;
+    }
+
+    private Void parseSources(StageQueue<SourceFile> readQueue, AdaptiveConcurrency concurrency,
+                              AtomicReference<Throwable> failure) throws InterruptedException {
+        SourceFile sourceFile;
+        while ((sourceFile = readQueue.take()) != null) {
+            if (failure.get() != null) {
+                // keep draining the queue after a failure, so that the reader is never left blocked
+                continue;
+            }
+            concurrency.acquire();
+            try {
+                analyser.scan(sourceFile.name, new ByteArrayInputStream(sourceFile.contents));
+            } catch (ParseProblemException e) {
+                // as with a non-pipelined run, a file that cannot be parsed is reported and left out of the listing
+                System.err.println("Unable to parse '" + sourceFile.name + "'");
+                e.printStackTrace();
+            } catch (Throwable e) {
+                // anything else, including errors such as a StackOverflowError on deeply nested code, fails the run.
+                // The worker keeps taking files, so the reader still finishes if every worker fails this way
+                failure.compareAndSet(null, e);
+            } finally {
+                concurrency.release();
+            }
+        }
+        return null;
+    }
+
+    private static void await(List<Future<?>> futures) throws IOException, InterruptedException {
+        for (Future<?> future : futures) {
+            get(future);
+        }
+    }
+
+    private static <T> T get(Future<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            rethrow(e.getCause());
+            return null;
+        }
+    }
+
+    private static void rethrow(Throwable t) throws IOException {
+        if (t == null) {
+            return;
+        } else if (t instanceof IOException) {
+            throw (IOException) t;
+        } else if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        }
+        throw new RuntimeException(t);
+    }
+
+    private static long toMillis(long nanos) {
+        return nanos / 1_000_000;
+    }
+
+    private static class SourceFile {
+        private final String name;
+        private final byte[] contents;
+
+        SourceFile(String name, byte[] contents) {
+            this.name = name;
+            this.contents = contents;
+        }
+    }
+
+    /*
+     * The tokens of a single package, held as flat tokens, as lines, or both, depending on how they will be written.
+     * The lines share their tokens with the flat list, so keeping both for progressive output only costs the list.
+     */
+    private static class PackageTokens {
+        private final String packageName;
+        private final List<Token> tokens;
+        private final List<TokenLine> lines;
+
+        PackageTokens(String packageName, List<Token> tokens) {
+            this.packageName = packageName;
+            final boolean isLineOutput = StreamingListingWriter.isLineOutput();
+            this.tokens = !isLineOutput || PROGRESSIVE_OUTPUT ? tokens : null;
+            this.lines = isLineOutput ? TokenLines.fromTokens(tokens) : null;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.azure.tools.apiview.processor.pipeline;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded queue between two stages of the {@link SourceJarPipeline}. Producers block when the queue is full, so a
+ * slow stage holds back the stages before it rather than letting work pile up in memory.
+ *
+ * <p>Once the producing stage is done it calls {@link #close()}, after which {@link #take()} returns {@code null} to
+ * every consumer once the queue has drained. The queue also records how deep it got, and how long producers and
+ * consumers spent blocked on it, so that the slowest stage of a run can be identified.</p>
+ */
+final class StageQueue<T> {
+    private static final Object END = new Object();
+
+    private final String name;
+    private final BlockingQueue<Object> queue;
+
+    private final AtomicInteger maxDepth = new AtomicInteger();
+    private final AtomicLong depthTotal = new AtomicLong();
+    private final AtomicLong puts = new AtomicLong();
+    private final AtomicLong producerStallNanos = new AtomicLong();
+    private final AtomicLong consumerStallNanos = new AtomicLong();
+
+    StageQueue(String name, int capacity) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Adds the given item, blocking while the queue is full.
+     */
+    void put(T item) throws InterruptedException {
+        final long start = System.nanoTime();
+        if (!queue.offer(item)) {
+            queue.put(item);
+            producerStallNanos.addAndGet(System.nanoTime() - start);
+        }
+
+        final int depth = queue.size();
+        maxDepth.accumulateAndGet(depth, Math::max);
+        depthTotal.addAndGet(depth);
+        puts.incrementAndGet();
+    }
+
+    /**
+     * Returns the next item, blocking while the queue is empty, or null if the queue has been closed and drained.
+     */
+    @SuppressWarnings("unchecked")
+    T take() throws InterruptedException {
+        Object item = queue.poll();
+        if (item == null) {
+            final long start = System.nanoTime();
+            item = queue.take();
+            consumerStallNanos.addAndGet(System.nanoTime() - start);
+        }
+
+        if (item == END) {
+            // put the marker back, so that any other consumers of this queue also see the end
+            queue.put(END);
+            return null;
+        }
+        return (T) item;
+    }
+
+    /**
+     * Signals that no more items will be added. This must be called once, after the last call to {@link #put(Object)}.
+     */
+    void close() throws InterruptedException {
+        queue.put(END);
+    }
+
+    @Override
+    public String toString() {
+        final long count = puts.get();
+        return String.format("%s: %d items, max depth %d, average depth %.1f, producers stalled %d ms, consumers stalled %d ms",
+                name, count, maxDepth.get(), count == 0 ? 0.0 : (double) depthTotal.get() / count,
+                TimeUnit.NANOSECONDS.toMillis(producerStallNanos.get()),
+                TimeUnit.NANOSECONDS.toMillis(consumerStallNanos.get()));
+    }
+}
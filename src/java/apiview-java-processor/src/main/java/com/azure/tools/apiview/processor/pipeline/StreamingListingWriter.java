@@ -0,0 +1,157 @@
+package com.azure.tools.apiview.processor.pipeline;
+
+import com.azure.tools.apiview.processor.model.APIListing;
+import com.azure.tools.apiview.processor.model.Token;
+import com.azure.tools.apiview.processor.model.TokenLine;
+import com.azure.tools.apiview.processor.model.TokenLines;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import static com.fasterxml.jackson.databind.MapperFeature.*;
+
+/**
+ * Writes an {@link APIListing} to disk one package of tokens at a time, rather than holding every token in memory and
+ * serialising the listing in one go. The output is identical to writing the whole listing with
+ * {@link #createObjectMapper()}.
+ *
+ * <p>The navigation tree, name and version are written when the writer is opened, so the navigation must be complete
+ * by then. Diagnostics are written when the listing is {@link #complete() completed}. A writer that is closed without
+ * being completed leaves nothing that could pass for a listing: a file is written under a temporary name and only
+ * moved into place once complete, so it is deleted instead, and a stream is left with an unterminated document.</p>
+ *
+ * <p>With line output enabled, the tokens are written as a {@code Lines} array of {@link TokenLine line records}
+ * instead of the flat {@code Tokens} array, so indentation and line breaks are not written as tokens. Tokens may be
+ * given to the writer in either form, and are converted as needed.</p>
+ */
+public final class StreamingListingWriter implements Closeable {
+    // enable with -Dapiview.lineOutput=true to write line records rather than flat tokens
+    private static final boolean LINE_OUTPUT = Boolean.getBoolean("apiview.lineOutput");
+
+    private final APIListing apiListing;
+    private final JsonGenerator generator;
+
+    // the file being written, and the file it is moved to once complete, or both null when writing to a stream
+    private final File tempFile;
+    private final File outputFile;
+    private boolean completed;
+
+    public StreamingListingWriter(File outputFile, APIListing apiListing) throws IOException {
+        this(createObjectMapper().getFactory().createGenerator(getTempFile(outputFile), JsonEncoding.UTF8), apiListing,
+                outputFile);
+    }
+
+    /**
+     * Creates a writer that writes the listing to the given stream. The stream is flushed, but not closed, when the
+     * writer is closed.
+     */
+    public StreamingListingWriter(OutputStream outputStream, APIListing apiListing) throws IOException {
+        this(createObjectMapper().getFactory().createGenerator(outputStream, JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET), apiListing, null);
+    }
+
+    private StreamingListingWriter(JsonGenerator generator, APIListing apiListing, File outputFile) throws IOException {
+        this.apiListing = apiListing;
+        this.generator = generator;
+        this.outputFile = outputFile;
+        this.tempFile = outputFile == null ? null : getTempFile(outputFile);
+
+        // an abandoned listing must not be terminated for us when the generator is closed
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        this.generator.useDefaultPrettyPrinter();
+
+        // the field order here must match the @JsonPropertyOrder on APIListing
+        generator.writeStartObject();
+        generator.writeObjectField("Navigation", apiListing.getNavigation());
+        generator.writeObjectField("Name", apiListing.getName());
+        generator.writeObjectField("VersionString", apiListing.getVersionString());
+        generator.writeArrayFieldStart(LINE_OUTPUT ? "Lines" : "Tokens");
+    }
+
+    /**
+     * Returns true if listings are written as line records rather than flat tokens.
+     */
+    public static boolean isLineOutput() {
+        return LINE_OUTPUT;
+    }
+
+    /**
+     * Returns the object mapper used to write API listings.
+     */
+    public static ObjectMapper createObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.disable(AUTO_DETECT_CREATORS, AUTO_DETECT_FIELDS, AUTO_DETECT_GETTERS, AUTO_DETECT_IS_GETTERS);
+        return objectMapper;
+    }
+
+    /**
+     * Appends the given tokens to the listing.
+     */
+    public void writeTokens(List<Token> tokens) throws IOException {
+        if (LINE_OUTPUT) {
+            writeLines(TokenLines.fromTokens(tokens));
+            return;
+        }
+        for (Token token : tokens) {
+            generator.writeObject(token);
+        }
+    }
+
+    /**
+     * Appends the given lines to the listing.
+     */
+    public void writeLines(List<TokenLine> lines) throws IOException {
+        if (!LINE_OUTPUT) {
+            writeTokens(TokenLines.toTokens(lines));
+            return;
+        }
+        for (TokenLine line : lines) {
+            generator.writeObject(line);
+        }
+    }
+
+    /**
+     * Writes the diagnostics and finishes the listing, moving the file into place if writing to a file. This must be
+     * called once every token has been written and the diagnostics have been run.
+     */
+    public void complete() throws IOException {
+        generator.writeEndArray();
+        generator.writeObjectField("Diagnostics", apiListing.getDiagnostics());
+        generator.writeEndObject();
+        generator.close();
+        if (tempFile != null) {
+            Files.move(tempFile.toPath(), outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        completed = true;
+    }
+
+    /**
+     * Closes the writer. If the listing was not completed, the partly written file is deleted.
+     */
+    @Override
+    public void close() throws IOException {
+        if (completed) {
+            return;
+        }
+        try {
+            generator.close();
+        } finally {
+            if (tempFile != null) {
+                Files.deleteIfExists(tempFile.toPath());
+            }
+        }
+    }
+
+    private static File getTempFile(File outputFile) {
+        return new File(outputFile.getPath() + ".tmp");
+    }
+}
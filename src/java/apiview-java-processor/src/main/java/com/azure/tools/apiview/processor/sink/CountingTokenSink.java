@@ -0,0 +1,47 @@
+package com.azure.tools.apiview.processor.sink;
+
+import com.azure.tools.apiview.processor.model.Token;
+import com.azure.tools.apiview.processor.model.TokenKind;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts tokens by kind, along with the number of packages and lines.
+ */
+public class CountingTokenSink implements TokenSink {
+    private final Map<TokenKind, Integer> counts = new EnumMap<>(TokenKind.class);
+    private int packages;
+    private int tokens;
+
+    @Override
+    public void accept(Token token) {
+        tokens++;
+        counts.merge(token.getKind(), 1, Integer::sum);
+    }
+
+    @Override
+    public void acceptPackage(String packageName, List<Token> tokens) {
+        packages++;
+        TokenSink.super.acceptPackage(packageName, tokens);
+    }
+
+    public int getPackageCount() {
+        return packages;
+    }
+
+    public int getTokenCount() {
+        return tokens;
+    }
+
+    public int getCount(TokenKind kind) {
+        return counts.getOrDefault(kind, 0);
+    }
+
+    @Override
+    public String toString() {
+        return "Token counts: " + tokens + " tokens on " + getCount(TokenKind.NEW_LINE) + " lines in " + packages
+                + " packages " + counts;
+    }
+}
@@ -0,0 +1,74 @@
+package com.azure.tools.apiview.processor.sink;
+
+import com.azure.tools.apiview.processor.model.Token;
+import com.azure.tools.apiview.processor.model.TokenLine;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sends every token to each of a number of sinks, in the order the sinks were given.
+ */
+public class FanOutTokenSink implements TokenSink {
+    private final List<TokenSink> sinks;
+
+    public FanOutTokenSink(List<TokenSink> sinks) {
+        this.sinks = Collections.unmodifiableList(new ArrayList<>(sinks));
+    }
+
+    public List<TokenSink> getSinks() {
+        return sinks;
+    }
+
+    @Override
+    public void accept(Token token) {
+        for (TokenSink sink : sinks) {
+            sink.accept(token);
+        }
+    }
+
+    @Override
+    public void acceptPackage(String packageName, List<Token> tokens) {
+        for (TokenSink sink : sinks) {
+            sink.acceptPackage(packageName, tokens);
+        }
+    }
+
+    @Override
+    public void acceptPackageLines(String packageName, List<TokenLine> lines) {
+        for (TokenSink sink : sinks) {
+            sink.acceptPackageLines(packageName, lines);
+        }
+    }
+
+    @Override
+    public void complete() throws IOException {
+        for (TokenSink sink : sinks) {
+            sink.complete();
+        }
+    }
+
+    /**
+     * Closes every sink, even if closing an earlier one fails.
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (TokenSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
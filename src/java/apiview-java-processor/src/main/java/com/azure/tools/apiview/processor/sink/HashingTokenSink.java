@@ -0,0 +1,123 @@
+package com.azure.tools.apiview.processor.sink;
+
+import com.azure.tools.apiview.processor.model.Token;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.azure.tools.apiview.processor.model.TokenKind.TYPE_NAME;
+
+/**
+ * Computes SHA-256 fingerprints of the listing, so that API changes can be spotted without comparing whole listings.
+ * There is one fingerprint for the whole listing, and one per type. A type's fingerprint covers the tokens from its
+ * declaration up to the declaration of the next type (so a nested type is fingerprinted separately from its outer
+ * type), and changes if anything in that range changes, including the IDs that tokens define or link to.
+ *
+ * <p>If given a file, the type fingerprints are written to it once the listing is complete, one
+ * {@code <fingerprint> <type ID>} line per type, followed by a line for the whole listing. Nothing is written for a
+ * listing that is abandoned, as its fingerprints would not be those of the API.</p>
+ */
+public class HashingTokenSink implements TokenSink {
+    private final File fingerprintsFile;
+    private final MessageDigest listingDigest = newDigest();
+    private final Map<String, MessageDigest> typeDigests = new LinkedHashMap<>();
+    private MessageDigest typeDigest;
+
+    private Map<String, String> typeFingerprints;
+    private String listingFingerprint;
+
+    public HashingTokenSink() {
+        this(null);
+    }
+
+    public HashingTokenSink(File fingerprintsFile) {
+        this.fingerprintsFile = fingerprintsFile;
+    }
+
+    @Override
+    public void accept(Token token) {
+        // the tokens that declare a type define its ID, whereas package names and type references link somewhere
+        if (token.getKind() == TYPE_NAME && token.getDefinitionId() != null && token.getNavigateToId() == null) {
+            typeDigest = typeDigests.computeIfAbsent(token.getDefinitionId(), id -> newDigest());
+        }
+
+        final byte[] bytes = (token.getKind().getId() + "\u0000" + token.getValue() + "\u0000" + token.getDefinitionId()
+                + "\u0000" + token.getNavigateToId() + "\u0001").getBytes(StandardCharsets.UTF_8);
+        listingDigest.update(bytes);
+        if (typeDigest != null) {
+            typeDigest.update(bytes);
+        }
+    }
+
+    /**
+     * Returns the fingerprint of each type, keyed by type ID, in listing order. This is only available once the sink
+     * is closed.
+     */
+    public Map<String, String> getTypeFingerprints() {
+        return typeFingerprints;
+    }
+
+    /**
+     * Returns the fingerprint of the whole listing. This is only available once the sink is closed.
+     */
+    public String getListingFingerprint() {
+        return listingFingerprint;
+    }
+
+    @Override
+    public void complete() throws IOException {
+        finish();
+        if (fingerprintsFile != null) {
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(fingerprintsFile.toPath(), StandardCharsets.UTF_8))) {
+                typeFingerprints.forEach((id, fingerprint) -> out.print(fingerprint + " " + id + "\n"));
+                out.print(listingFingerprint + " *\n");
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        finish();
+    }
+
+    private void finish() {
+        if (listingFingerprint != null) {
+            return;
+        }
+        final Map<String, String> fingerprints = new LinkedHashMap<>();
+        typeDigests.forEach((id, digest) -> fingerprints.put(id, toHex(digest.digest())));
+        typeFingerprints = Collections.unmodifiableMap(fingerprints);
+        listingFingerprint = toHex(listingDigest.digest());
+    }
+
+    @Override
+    public String toString() {
+        return "Listing fingerprint: " + (listingFingerprint == null ? "(incomplete)" : listingFingerprint)
+                + (typeFingerprints == null ? "" : " (" + typeFingerprints.size() + " types)");
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        final StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,97 @@
+package com.azure.tools.apiview.processor.sink;
+
+import com.azure.tools.apiview.processor.model.APIListing;
+import com.azure.tools.apiview.processor.model.Token;
+import com.azure.tools.apiview.processor.model.TokenLine;
+import com.azure.tools.apiview.processor.pipeline.StreamingListingWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the JSON listing with a {@link StreamingListingWriter}, to a file or a stream. The file is opened (or the
+ * listing started) when the first tokens arrive, or on completion for a listing with no tokens, as the navigation tree
+ * written at the start must be complete by then. The file only appears once the listing is complete.
+ */
+public class JsonTokenSink implements TokenSink {
+    private final File outputFile;
+    private final OutputStream outputStream;
+    private final APIListing apiListing;
+
+    // tokens given one at a time are held until the next package, as line output needs whole lines
+    private final List<Token> pending = new ArrayList<>();
+    private StreamingListingWriter writer;
+
+    public JsonTokenSink(File outputFile, APIListing apiListing) {
+        this.outputFile = outputFile;
+        this.outputStream = null;
+        this.apiListing = apiListing;
+    }
+
+    /**
+     * Creates a sink that writes the listing to the given stream, which is flushed but not closed when the sink is.
+     */
+    public JsonTokenSink(OutputStream outputStream, APIListing apiListing) {
+        this.outputFile = null;
+        this.outputStream = outputStream;
+        this.apiListing = apiListing;
+    }
+
+    @Override
+    public void accept(Token token) {
+        pending.add(token);
+    }
+
+    @Override
+    public void acceptPackage(String packageName, List<Token> tokens) {
+        try {
+            flushPending();
+            getWriter().writeTokens(tokens);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void acceptPackageLines(String packageName, List<TokenLine> lines) {
+        try {
+            flushPending();
+            getWriter().writeLines(lines);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void complete() throws IOException {
+        flushPending();
+        getWriter().complete();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    private void flushPending() throws IOException {
+        if (!pending.isEmpty()) {
+            getWriter().writeTokens(pending);
+            pending.clear();
+        }
+    }
+
+    private StreamingListingWriter getWriter() throws IOException {
+        if (writer == null) {
+            writer = outputFile != null
+                    ? new StreamingListingWriter(outputFile, apiListing)
+                    : new StreamingListingWriter(outputStream, apiListing);
+        }
+        return writer;
+    }
+}
@@ -0,0 +1,35 @@
+package com.azure.tools.apiview.processor.sink;
+
+import com.azure.tools.apiview.processor.model.Token;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects tokens into a list, such as the tokens of an {@link com.azure.tools.apiview.processor.model.APIListing}.
+ */
+public class ListTokenSink implements TokenSink {
+    private final List<Token> tokens;
+
+    public ListTokenSink() {
+        this(new ArrayList<>());
+    }
+
+    public ListTokenSink(List<Token> tokens) {
+        this.tokens = tokens;
+    }
+
+    @Override
+    public void accept(Token token) {
+        tokens.add(token);
+    }
+
+    @Override
+    public void acceptPackage(String packageName, List<Token> tokens) {
+        this.tokens.addAll(tokens);
+    }
+
+    public List<Token> getTokens() {
+        return tokens;
+    }
+}
@@ -0,0 +1,24 @@
+package com.azure.tools.apiview.processor.sink;
+
+import com.azure.tools.apiview.processor.model.Token;
+
+import java.util.List;
+
+/**
+ * Discards all tokens. This is useful for benchmarking, as it takes the cost of producing any output out of a run.
+ */
+public final class NullTokenSink implements TokenSink {
+    public static final NullTokenSink INSTANCE = new NullTokenSink();
+
+    private NullTokenSink() { }
+
+    @Override
+    public void accept(Token token) {
+        // no-op
+    }
+
+    @Override
+    public void acceptPackage(String packageName, List<Token> tokens) {
+        // no-op
+    }
+}
@@ -0,0 +1,77 @@
+package com.azure.tools.apiview.processor.sink;
+
+import com.azure.tools.apiview.processor.model.Token;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import static com.azure.tools.apiview.processor.model.TokenKind.NEW_LINE;
+
+/**
+ * Renders the listing as plain text, as it would appear in the review, which is handy for diffing API surfaces.
+ *
+ * <p>When writing to a file, the text is written under a temporary name and only moved into place once the listing is
+ * complete, as {@link JsonTokenSink} does, so an abandoned listing does not leave a partial rendering behind.</p>
+ */
+public class TextTokenSink implements TokenSink {
+    private final Writer writer;
+
+    // the file being written, and the file it is moved to once complete, or both null when writing to a writer
+    private final File tempFile;
+    private final File outputFile;
+    private boolean completed;
+
+    public TextTokenSink(Writer writer) {
+        this.writer = writer;
+        this.tempFile = null;
+        this.outputFile = null;
+    }
+
+    public TextTokenSink(File outputFile) throws IOException {
+        this.tempFile = new File(outputFile.getPath() + ".tmp");
+        this.outputFile = outputFile;
+        this.writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void accept(Token token) {
+        try {
+            if (token.getKind() == NEW_LINE) {
+                writer.write('\n');
+            } else if (token.getValue() != null) {
+                writer.write(token.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void complete() throws IOException {
+        writer.close();
+        if (tempFile != null) {
+            Files.move(tempFile.toPath(), outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        completed = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (completed) {
+            return;
+        }
+        try {
+            writer.close();
+        } finally {
+            if (tempFile != null) {
+                Files.deleteIfExists(tempFile.toPath());
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.azure.tools.apiview.processor.sink;
+
+import com.azure.tools.apiview.processor.model.Token;
+import com.azure.tools.apiview.processor.model.TokenLine;
+import com.azure.tools.apiview.processor.model.TokenLines;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receives the tokens of a listing, in listing order, one package at a time. Every artifact that is derived from the
+ * tokens (the JSON listing, a plain text rendering, fingerprints, counts) is produced by a sink, so that all of them
+ * come out of a single pass over the tokens. Use {@link FanOutTokenSink} to send the tokens to several sinks at once.
+ *
+ * <p>Sinks report I/O failures while receiving tokens as {@link java.io.UncheckedIOException}.</p>
+ *
+ * @see TokenSinks
+ */
+public interface TokenSink extends Closeable {
+
+    /**
+     * Receives the next token of the listing.
+     */
+    void accept(Token token);
+
+    /**
+     * Receives all tokens of the given package. Packages are received in listing order.
+     */
+    default void acceptPackage(String packageName, List<Token> tokens) {
+        for (Token token : tokens) {
+            accept(token);
+        }
+    }
+
+    /**
+     * Receives all tokens of the given package, as lines. By default the lines are converted back to flat tokens.
+     */
+    default void acceptPackageLines(String packageName, List<TokenLine> lines) {
+        acceptPackage(packageName, TokenLines.toTokens(lines));
+    }
+
+    /**
+     * Called once the whole listing, including its diagnostics, is complete, before the sink is closed. A sink that is
+     * closed without being completed was abandoned because the listing could not be produced, and should not leave
+     * behind anything that could pass for a complete listing.
+     */
+    default void complete() throws IOException { }
+
+    /**
+     * Called once the sink is no longer needed, whether or not the listing was completed.
+     */
+    @Override
+    default void close() throws IOException { }
+}
@@ -0,0 +1,80 @@
+package com.azure.tools.apiview.processor.sink;
+
+import com.azure.tools.apiview.processor.model.APIListing;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the sinks for a run from the {@value #SINKS_PROPERTY} system property, a comma-separated list of:
+ *
+ * <ul>
+ *     <li>{@code json} - the JSON listing, written to the output file. This is the default.</li>
+ *     <li>{@code text} - a plain text rendering of the listing, written to {@code <name>.txt}.</li>
+ *     <li>{@code hash} - per-type and whole-listing fingerprints, written to {@code <name>.fingerprints.txt}.</li>
+ *     <li>{@code count} - token counts, which are reported once the listing is complete.</li>
+ *     <li>{@code null} - nothing at all, for benchmarking.</li>
+ * </ul>
+ *
+ * For example, {@code -Dapiview.sinks=json,text,hash} writes all three files from one pass over the tokens. The files
+ * are only written for a listing that is completed.
+ */
+public final class TokenSinks {
+    public static final String SINKS_PROPERTY = "apiview.sinks";
+
+    private TokenSinks() { }
+
+    /**
+     * Creates the configured sinks for writing the given listing to the given output file.
+     */
+    public static FanOutTokenSink create(File outputFile, APIListing apiListing) throws IOException {
+        final List<TokenSink> sinks = new ArrayList<>();
+        for (String name : System.getProperty(SINKS_PROPERTY, "json").split(",")) {
+            switch (name.trim()) {
+                case "json":
+                    sinks.add(new JsonTokenSink(outputFile, apiListing));
+                    break;
+                case "text":
+                    sinks.add(new TextTokenSink(getSiblingFile(outputFile, ".txt")));
+                    break;
+                case "hash":
+                    sinks.add(new HashingTokenSink(getSiblingFile(outputFile, ".fingerprints.txt")));
+                    break;
+                case "count":
+                    sinks.add(new CountingTokenSink());
+                    break;
+                case "null":
+                    sinks.add(NullTokenSink.INSTANCE);
+                    break;
+                case "":
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown token sink '" + name.trim() + "' in " + SINKS_PROPERTY
+                            + ", expected any of json, text, hash, count and null");
+            }
+        }
+        return new FanOutTokenSink(sinks);
+    }
+
+    /**
+     * Prints what the given sinks found out about the listing, such as token counts and fingerprints. This should be
+     * called after the sinks are closed.
+     */
+    public static void report(FanOutTokenSink sink) {
+        for (TokenSink s : sink.getSinks()) {
+            if (s instanceof CountingTokenSink || s instanceof HashingTokenSink) {
+                System.out.println("  " + s);
+            }
+        }
+    }
+
+    private static File getSiblingFile(File outputFile, String suffix) {
+        String name = outputFile.getName();
+        if (name.endsWith(".json")) {
+            name = name.substring(0, name.length() - ".json".length());
+        }
+        return new File(outputFile.getAbsoluteFile().getParentFile(), name + suffix);
+    }
+}
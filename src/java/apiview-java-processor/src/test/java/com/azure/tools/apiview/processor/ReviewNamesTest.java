@@ -0,0 +1,42 @@
+package com.azure.tools.apiview.processor;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ReviewNamesTest {
+    private static final String[] NO_POM = null;
+
+    @Test
+    public void reviewNamesComeFromPomCoordinates() {
+        assertEquals("azure-core (version 1.2.3)",
+                ReviewNames.getReviewName(new String[] { "azure-core", "1.2.3" }, "ignored-9.9.9.jar"));
+    }
+
+    @Test
+    public void reviewNamesFallBackToTheFileName() {
+        assertEquals("azure-core (version 1.2.3)", ReviewNames.getReviewName(NO_POM, "azure-core-1.2.3-sources.jar"));
+        assertEquals("azure-core (version 1.2.3)", ReviewNames.getReviewName(NO_POM, "azure-core-1.2.3.jar"));
+        assertEquals("azure-core (version 1.2.3-beta.1)",
+                ReviewNames.getReviewName(new String[] { "", "" }, "azure-core-1.2.3-beta.1-sources.jar"));
+    }
+
+    @Test
+    public void fileNamesWithoutAVersionAreUsedWhole() {
+        assertEquals("library (version unknown)", ReviewNames.getReviewName(NO_POM, "library-sources.jar"));
+        assertEquals("library (version unknown)", ReviewNames.getReviewName(NO_POM, "library.jar"));
+        assertEquals("2fa-client (version unknown)", ReviewNames.getReviewName(NO_POM, "2fa-client.jar"));
+    }
+
+    @Test
+    public void embeddedJarsWithoutAVersionAreNamed() throws IOException {
+        final ByteArrayOutputStream jar = new ByteArrayOutputStream();
+        new ZipOutputStream(jar).close();
+        assertEquals("library (version unknown)",
+                new APIViewProcessor().analyse(jar.toByteArray(), "library-sources.jar").getName());
+    }
+}
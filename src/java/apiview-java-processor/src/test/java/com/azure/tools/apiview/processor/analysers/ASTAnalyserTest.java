@@ -0,0 +1,51 @@
+package com.azure.tools.apiview.processor.analysers;
+
+import com.azure.tools.apiview.processor.analysers.util.PackageFilter;
+import com.azure.tools.apiview.processor.model.APIListing;
+import com.azure.tools.apiview.processor.model.Token;
+import com.azure.tools.apiview.processor.model.TypeIndex;
+import com.azure.tools.apiview.processor.sink.ListTokenSink;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ASTAnalyserTest {
+    private static final PackageFilter NO_FILTER = new PackageFilter(Collections.emptyList(), Collections.emptyList());
+
+    @Test
+    public void nestedTypesSeeSharedTypes() throws IOException {
+        final APIListing liba = analyse("liba", TypeIndex.EMPTY,
+                "com/a/Options.java", "package com.a; public class Options { }");
+
+        final APIListing libb = analyse("libb", TypeIndex.EMPTY.plus(liba), "com/b/Client.java",
+                "package com.b; import com.a.Options; public class Client {"
+                        + " public void send(Options options) { }"
+                        + " public static class Inner { public void send(Options options) { } } }");
+
+        // both the outer and the nested type's parameter link to the type of the other listing
+        final List<String> links = libb.getTokens().stream()
+                .filter(token -> "Options".equals(token.getValue()))
+                .map(Token::getNavigateToId)
+                .collect(Collectors.toList());
+        assertEquals(Collections.nCopies(2, "com.a.Options"), links);
+    }
+
+    private static APIListing analyse(String name, TypeIndex sharedTypeIndex, String fileName, String source)
+            throws IOException {
+        final APIListing listing = new APIListing(name);
+        listing.setTokens(new ArrayList<>());
+        listing.setSharedTypeIndex(sharedTypeIndex);
+        final ASTAnalyser analyser = new ASTAnalyser(listing, NO_FILTER);
+        analyser.scan(fileName, new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8)));
+        analyser.writeListing(new ListTokenSink(listing.getTokens()));
+        return listing;
+    }
+}
@@ -0,0 +1,176 @@
+package com.azure.tools.apiview.processor.analysers;
+
+import com.azure.tools.apiview.processor.analysers.util.PackageFilter;
+import com.azure.tools.apiview.processor.model.APIListing;
+import com.azure.tools.apiview.processor.model.Token;
+import com.azure.tools.apiview.processor.model.TokenKind;
+import com.azure.tools.apiview.processor.pipeline.StreamingListingWriter;
+import com.azure.tools.apiview.processor.sink.ListTokenSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares the listing of a small compiled library with the listing of its source. The fixture only uses what both
+ * analysers can show, so it has no javadoc, source-retention annotations or implicit constructors. A second fixture
+ * uses nested types and overloads that are displayed differently by the two analysers, so only its IDs are compared.
+ */
+public class BytecodeAnalyserTest {
+    private static final PackageFilter NO_FILTER = new PackageFilter(Collections.emptyList(), Collections.emptyList());
+
+    @TempDir
+    static Path classes;
+
+    private static Fixture fixture;
+
+    @BeforeAll
+    public static void analyseFixture() throws IOException, URISyntaxException {
+        fixture = new Fixture("bytecode-fixture");
+    }
+
+    @Test
+    public void navigationMatchesSource() throws IOException {
+        final ObjectMapper objectMapper = StreamingListingWriter.createObjectMapper();
+        assertEquals(objectMapper.writeValueAsString(fixture.sourceListing.getNavigation()),
+                objectMapper.writeValueAsString(fixture.bytecodeListing.getNavigation()));
+    }
+
+    @Test
+    public void textMatchesSource() {
+        // the tokens may be split differently (e.g. '? super T' is one token from source), but read the same
+        assertEquals(render(fixture.sourceTokens), render(fixture.bytecodeTokens));
+    }
+
+    @Test
+    public void definitionIdsMatchSource() {
+        assertFalse(definitionIds(fixture.sourceTokens).isEmpty());
+        assertEquals(definitionIds(fixture.sourceTokens), definitionIds(fixture.bytecodeTokens));
+    }
+
+    @Test
+    public void definitionIdsOfNestedTypesAndOverloadsMatchSource() throws IOException, URISyntaxException {
+        final Fixture ids = new Fixture("bytecode-fixture-ids");
+        final List<String> sourceIds = definitionIds(ids.sourceTokens);
+        assertTrue(sourceIds.contains("com.azure.ids.Outer.put(Map.Entry)"));
+        assertTrue(sourceIds.contains("com.azure.ids.Outer.deep(Inner.Deepest)"));
+        assertTrue(sourceIds.contains("com.azure.ids.Outer.Inner.Deepest.up(Inner,Other)"));
+        assertTrue(sourceIds.contains("com.azure.ids.User.take(Outer.Inner,Outer.Inner.Deepest)"));
+        assertTrue(sourceIds.contains("com.azure.ids.Outer.accept<T-extends-CharSequence&Comparable<T>>(T)"));
+        assertEquals(sourceIds, definitionIds(ids.bytecodeTokens));
+    }
+
+    @Test
+    public void linksWithinTheListingMatchSource() {
+        // links to types outside the listing are left out, as those depend on the imports of the source file
+        final Set<String> ids = new HashSet<>(definitionIds(fixture.sourceTokens));
+        final List<String> sourceLinks = links(fixture.sourceTokens, ids);
+        assertFalse(sourceLinks.isEmpty());
+        assertEquals(sourceLinks, links(fixture.bytecodeTokens, ids));
+    }
+
+    @Test
+    public void jarWithoutClassFilesIsAnError() {
+        final APIListing listing = new APIListing("javadoc");
+        final List<Token> tokens = new ArrayList<>();
+        new BytecodeAnalyser(listing, NO_FILTER).writeListing(new ListTokenSink(tokens));
+
+        assertEquals(1, tokens.size());
+        assertEquals(TokenKind.LINE_ID_MARKER, tokens.get(0).getKind());
+        assertEquals("error", tokens.get(0).getDefinitionId());
+        assertEquals(1, listing.getDiagnostics().size());
+    }
+
+    /*
+     * The listings of a fixture, from its source and from the classes it compiles to.
+     */
+    private static final class Fixture {
+        private final APIListing sourceListing = new APIListing("fixture");
+        private final List<Token> sourceTokens = new ArrayList<>();
+        private final APIListing bytecodeListing = new APIListing("fixture");
+        private final List<Token> bytecodeTokens = new ArrayList<>();
+
+        Fixture(String name) throws IOException, URISyntaxException {
+            final Path sources = Paths.get(BytecodeAnalyserTest.class.getResource("/" + name).toURI());
+            final List<Path> sourceFiles = listFiles(sources);
+            final Path output = Files.createDirectories(classes.resolve(name));
+
+            final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+            assumeTrue(compiler != null, "Compiling the fixture needs a JDK");
+            final List<String> arguments = new ArrayList<>();
+            arguments.add("-parameters");
+            arguments.add("-d");
+            arguments.add(output.toString());
+            sourceFiles.forEach(file -> arguments.add(file.toString()));
+            assertEquals(0, compiler.run(null, null, null, arguments.toArray(new String[0])));
+
+            final ASTAnalyser astAnalyser = new ASTAnalyser(sourceListing, NO_FILTER);
+            for (Path file : sourceFiles) {
+                try (InputStream inputStream = Files.newInputStream(file)) {
+                    astAnalyser.scan(sources.relativize(file).toString(), inputStream);
+                }
+            }
+            astAnalyser.writeListing(new ListTokenSink(sourceTokens));
+
+            final BytecodeAnalyser bytecodeAnalyser = new BytecodeAnalyser(bytecodeListing, NO_FILTER);
+            for (Path file : listFiles(output)) {
+                try (InputStream inputStream = Files.newInputStream(file)) {
+                    bytecodeAnalyser.read(output.relativize(file).toString(), inputStream);
+                }
+            }
+            bytecodeAnalyser.writeListing(new ListTokenSink(bytecodeTokens));
+        }
+    }
+
+    private static List<Path> listFiles(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static List<String> render(List<Token> tokens) {
+        final StringBuilder sb = new StringBuilder();
+        for (Token token : tokens) {
+            sb.append(token.getKind() == TokenKind.NEW_LINE ? "\n" : token.getValue());
+        }
+        return Stream.of(sb.toString().split("\n"))
+                .map(line -> line.replaceAll("\\s+$", ""))
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> definitionIds(List<Token> tokens) {
+        return tokens.stream()
+                .map(Token::getDefinitionId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> links(List<Token> tokens, Set<String> ids) {
+        return tokens.stream()
+                .map(Token::getNavigateToId)
+                .filter(ids::contains)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,76 @@
+package com.azure.tools.apiview.processor.analysers.util;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DefinitionIdGeneratorTest {
+    private static final String NUMBER = "public <T extends Number> void foo(T value, Map<String, T> values) { }";
+    private static final String TEXT = "public <T extends CharSequence> void foo(T value, Map<String, T> values) { }";
+    private static final String OTHER = "public void foo(int value) { }";
+
+    // the lines before the first member in the parsed source
+    private static final int HEADER_LINES = 3;
+
+    @Test
+    public void membersAreGivenTheirUsualIds() {
+        final String bar = "public void bar(Map.Entry<String, int[]> e, java.util.List<?> list, String... rest) { }";
+        final Map<String, String> ids = getIds(OTHER, bar);
+        assertEquals("com.azure.Foo.foo(int)", ids.get(OTHER));
+        assertEquals("com.azure.Foo.bar(Map.Entry,java.util.List,String...)", ids.get(bar));
+    }
+
+    @Test
+    public void collidingIdsDoNotDependOnDeclarationOrder() {
+        final Map<String, String> ids = getIds(NUMBER, OTHER, TEXT);
+        assertEquals(ids, getIds(TEXT, NUMBER, OTHER));
+
+        assertEquals("com.azure.Foo.foo<T-extends-Number>(T,Map<String,T>)", ids.get(NUMBER));
+        assertEquals("com.azure.Foo.foo<T-extends-CharSequence>(T,Map<String,T>)", ids.get(TEXT));
+        assertEquals("com.azure.Foo.foo(int)", ids.get(OTHER));
+    }
+
+    @Test
+    public void collisionsAreRecordedOnTheType() {
+        final Map<String, String> collisions = DefinitionIdGenerator.getCollisions(parse(NUMBER, TEXT, OTHER));
+        assertEquals(2, collisions.size());
+        collisions.values().forEach(baseId -> assertEquals("com.azure.Foo.foo(T,Map)", baseId));
+        assertTrue(collisions.containsKey("com.azure.Foo.foo<T-extends-Number>(T,Map<String,T>)"));
+        assertTrue(collisions.containsKey("com.azure.Foo.foo<T-extends-CharSequence>(T,Map<String,T>)"));
+
+        // told apart by their full signatures, so none of them depend on declaration order
+        assertTrue(DefinitionIdGenerator.getSuffixedCollisions(parse(NUMBER, TEXT, OTHER)).isEmpty());
+    }
+
+    @Test
+    public void identicalSignaturesFallBackToDeclarationOrder() {
+        final Map<String, String> collisions = DefinitionIdGenerator.getCollisions(parse(OTHER, OTHER));
+        assertEquals(1, collisions.size());
+        assertEquals("com.azure.Foo.foo(int)", collisions.get("com.azure.Foo.foo(int)-2"));
+        assertEquals(collisions, DefinitionIdGenerator.getSuffixedCollisions(parse(OTHER, OTHER)));
+    }
+
+    /*
+     * Returns the ID of each method, keyed by the line it is declared on.
+     */
+    private static Map<String, String> getIds(String... members) {
+        final Map<String, String> ids = new HashMap<>();
+        for (MethodDeclaration method : parse(members).getMethods()) {
+            final int line = method.getBegin().get().line;
+            ids.put(members[line - HEADER_LINES - 1], DefinitionIdGenerator.getId(method));
+        }
+        return ids;
+    }
+
+    private static TypeDeclaration<?> parse(String... members) {
+        return StaticJavaParser.parse("package com.azure;\nimport java.util.Map;\npublic class Foo {\n"
+                + String.join("\n", members) + "\n}\n").getType(0);
+    }
+}
@@ -0,0 +1,193 @@
+package com.azure.tools.apiview.processor.analysers.util;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.EnumConstantDeclaration;
+import com.github.javaparser.ast.body.InitializerDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks {@link MethodBodyFilter} against a full parse of the same source: once the bodies of the methods,
+ * constructors and initializers of every type are emptied in both, the filtered source must parse to the same tree as
+ * the original. Everything in a body is marked {@code BODY}, and everything that must be kept is marked {@code KEPT}.
+ */
+public class MethodBodyFilterTest {
+
+    @Test
+    public void defaultMethods() {
+        assertBodiesRemoved(
+                "package p;",
+                "public interface Api {",
+                "    default String name() { return \"BODY\"; }",
+                "    default void run() { if (true) { name(); } /* BODY */ }",
+                "    static Api create() { return new Api() { }; /* BODY */ }",
+                "    String NAME = \"KEPT\";",
+                "}");
+    }
+
+    @Test
+    public void annotationElementDefaults() {
+        assertBodiesRemoved(
+                "package p;",
+                "public @interface Ann {",
+                "    String[] value() default { \"KEPT\", \"{\" };",
+                "    Class<?> type() default Object.class;",
+                "    int[] counts() default {};",
+                "    Nested nested() default @Nested(names = { \"KEPT\" });",
+                "    @interface Nested { String[] names() default { }; }",
+                "}");
+    }
+
+    @Test
+    public void anonymousClassesInFieldInitializers() {
+        assertBodiesRemoved(
+                "package p;",
+                "public class Holder {",
+                "    private final Runnable task = new Runnable() {",
+                "        @Override",
+                "        public void run() { System.out.println(\"KEPT\"); }",
+                "    };",
+                "    private final Object[] tasks = { new Object() { public String toString() { return \"KEPT\"; } } };",
+                "    public void run() { task.run(); new Runnable() { public void run() { } }; /* BODY */ }",
+                "}");
+    }
+
+    @Test
+    public void enumConstantBodies() {
+        assertBodiesRemoved(
+                "package p;",
+                "public enum Op {",
+                "    PLUS(\"+\") {",
+                "        @Override int apply(int a, int b) { return a + b; /* BODY */ }",
+                "    },",
+                "    MINUS(\"-\") {",
+                "        private final String KEPT = \"KEPT\";",
+                "        @Override int apply(int a, int b) { return a - b; /* BODY */ }",
+                "    },",
+                "    NOTHING(\"0\");",
+                "    private final String symbol;",
+                "    Op(String symbol) { this.symbol = symbol; /* BODY */ }",
+                "    int apply(int a, int b) { return 0; /* BODY */ }",
+                "}");
+    }
+
+    @Test
+    public void lambdasInInitializers() {
+        assertBodiesRemoved(
+                "package p;",
+                "import java.util.*;",
+                "import java.util.function.*;",
+                "public class Lambdas {",
+                "    public static final Function<String, String> UPPER = s -> { return s + \"KEPT\"; };",
+                "    static final Map<String, Supplier<List<String>>> M = new HashMap<String, Supplier<List<String>>>() {{",
+                "        put(\"KEPT\", () -> { return new ArrayList<>(); });",
+                "    }};",
+                "    private final Runnable r = () -> { };",
+                "    static { Runnable s = () -> { System.out.println(\"BODY\"); }; }",
+                "    { int x = 1; /* BODY */ }",
+                "    public Lambdas() { r.run(); /* BODY */ }",
+                "    public Runnable get() { return () -> { /* BODY */ }; }",
+                "}");
+    }
+
+    @Test
+    public void literalsContainingBraces() {
+        assertBodiesRemoved(
+                "package p;",
+                "public class Literals {",
+                "    public static final String OPEN = \"{KEPT\";",
+                "    public static final char CLOSE = '}';",
+                "    public static final String ESCAPED = \"\\\"}{\\\"KEPT\";",
+                "    public static final char QUOTE = '\\'';",
+                "    public static final char BACKSLASH = '\\\\';",
+                "    public String method() { String s = \"}\"; char c = '{'; char q = '\\''; return s + c + q + \"BODY\"; }",
+                "    public String other() { return \"\\\\\" + \"{{\" + '\\\"' + \"BODY\"; }",
+                "    public int after() { return 1; /* BODY */ }",
+                "}");
+    }
+
+    @Test
+    public void commentsContainingBraces() {
+        assertBodiesRemoved(
+                "package p;",
+                "public class Comments {",
+                "    // a stray } in a line comment",
+                "    /* and a { in a block comment */",
+                "    public void method() {",
+                "        // }",
+                "        /* { */",
+                "        String s = \"BODY\";",
+                "    }",
+                "    /** Javadoc with {@code {braces}} and a lone }. */",
+                "    public void other() { /* } */ int x = 1; // {",
+                "    }",
+                "    public static final String KEPT = \"KEPT\"; // }",
+                "}");
+    }
+
+    private static void assertBodiesRemoved(String... lines) {
+        final String source = String.join("\n", lines) + "\n";
+        final String filtered = MethodBodyFilter.removeBodies(source);
+
+        // only body characters other than line breaks are touched, so every node keeps its position
+        assertEquals(source.length(), filtered.length());
+        for (int i = 0; i < source.length(); i++) {
+            if (source.charAt(i) != filtered.charAt(i)) {
+                assertEquals(' ', filtered.charAt(i), "Unexpected change at " + i + " of:\n" + filtered);
+                assertFalse(source.charAt(i) == '\n' || source.charAt(i) == '\r');
+            }
+        }
+
+        assertFalse(filtered.contains("BODY"), () -> "A body was not removed:\n" + filtered);
+        assertEquals(count(source, "KEPT"), count(filtered, "KEPT"), () -> "Too much was removed:\n" + filtered);
+        assertTrue(count(source, "BODY") > 0 || count(source, "KEPT") > 0);
+
+        assertEquals(emptyBodies(StaticJavaParser.parse(source)), emptyBodies(StaticJavaParser.parse(filtered)));
+    }
+
+    /*
+     * Empties the bodies of the members of every type, including the class bodies of enum constants, but not those of
+     * anonymous classes, which are part of an expression.
+     */
+    private static String emptyBodies(CompilationUnit compilationUnit) {
+        for (MethodDeclaration method : compilationUnit.findAll(MethodDeclaration.class)) {
+            if (isTypeMember(method) && method.getBody().isPresent()) {
+                method.setBody(new BlockStmt());
+            }
+        }
+        for (ConstructorDeclaration constructor : compilationUnit.findAll(ConstructorDeclaration.class)) {
+            if (isTypeMember(constructor)) {
+                constructor.setBody(new BlockStmt());
+            }
+        }
+        for (InitializerDeclaration initializer : compilationUnit.findAll(InitializerDeclaration.class)) {
+            if (isTypeMember(initializer)) {
+                initializer.setBody(new BlockStmt());
+            }
+        }
+        return compilationUnit.toString();
+    }
+
+    private static boolean isTypeMember(Node member) {
+        return member.getParentNode()
+                .filter(parent -> parent instanceof TypeDeclaration || parent instanceof EnumConstantDeclaration)
+                .isPresent();
+    }
+
+    private static int count(String text, String marker) {
+        int count = 0;
+        for (int i = text.indexOf(marker); i >= 0; i = text.indexOf(marker, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
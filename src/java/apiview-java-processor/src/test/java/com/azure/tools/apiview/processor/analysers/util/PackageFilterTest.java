@@ -0,0 +1,133 @@
+package com.azure.tools.apiview.processor.analysers.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the package globs compiled by {@link PackageFilter}, and how the package is taken from a file's path.
+ */
+public class PackageFilterTest {
+    private static final List<String> NONE = Collections.emptyList();
+
+    @Test
+    public void implementationPackagesAreExcluded() {
+        final PackageFilter filter = new PackageFilter(NONE, Collections.singletonList("**.implementation.**"));
+
+        assertFalse(filter.acceptsFile("com/foo/implementation/Client.java"));
+        assertFalse(filter.acceptsFile("com/foo/implementation/models/Model.java"));
+        assertFalse(filter.acceptsFile("implementation/Client.java"));
+        assertTrue(filter.acceptsFile("com/foo/implementations/Client.java"));
+        assertTrue(filter.acceptsFile("com/foo/myimplementation/Client.java"));
+        assertTrue(filter.acceptsFile("com/foo/Client.java"));
+    }
+
+    @Test
+    public void singleWildcardMatchesExactlyOneSegment() {
+        final PackageFilter filter = new PackageFilter(Collections.singletonList("com.azure.*"), NONE);
+
+        assertTrue(filter.acceptsFile("com/azure/core/Client.java"));
+        assertFalse(filter.acceptsFile("com/azure/Client.java"));
+        assertFalse(filter.acceptsFile("com/azure/core/http/Client.java"));
+        assertFalse(filter.acceptsFile("com/azurex/core/Client.java"));
+    }
+
+    @Test
+    public void wildcardWithinSegment() {
+        final PackageFilter filter = new PackageFilter(Collections.singletonList("com.azure.storage.*blob"), NONE);
+
+        assertTrue(filter.acceptsFile("com/azure/storage/blob/Client.java"));
+        assertTrue(filter.acceptsFile("com/azure/storage/fileblob/Client.java"));
+        assertFalse(filter.acceptsFile("com/azure/storage/blobs/Client.java"));
+    }
+
+    @Test
+    public void leadingAndTrailingDoubleWildcards() {
+        final PackageFilter filter = new PackageFilter(Arrays.asList("**.models", "com.azure.core.**"), NONE);
+
+        assertTrue(filter.acceptsFile("models/Model.java"));
+        assertTrue(filter.acceptsFile("com/azure/storage/models/Model.java"));
+        assertFalse(filter.acceptsFile("com/azure/storage/models/blob/Model.java"));
+        assertTrue(filter.acceptsFile("com/azure/core/Client.java"));
+        assertTrue(filter.acceptsFile("com/azure/core/http/policy/Policy.java"));
+        assertFalse(filter.acceptsFile("com/azure/corex/Client.java"));
+    }
+
+    @Test
+    public void defaultPackage() {
+        assertTrue(new PackageFilter(NONE, Collections.singletonList("**.implementation.**"))
+                .acceptsFile("Client.java"));
+        assertTrue(new PackageFilter(Collections.singletonList("**"), NONE).acceptsFile("Client.java"));
+        assertFalse(new PackageFilter(Collections.singletonList("com.**"), NONE).acceptsFile("Client.java"));
+    }
+
+    @Test
+    public void moduleDescriptorsAreAlwaysAccepted() {
+        final PackageFilter filter = new PackageFilter(Collections.singletonList("com.azure.core"),
+                Collections.singletonList("**"));
+
+        assertTrue(filter.acceptsFile("module-info.java"));
+        assertTrue(filter.acceptsFile("module-info.class"));
+        assertFalse(filter.acceptsFile("com/azure/core/Client.java"));
+    }
+
+    @Test
+    public void pathsWithBackslashesAndLeadingSlashes() {
+        final PackageFilter filter = new PackageFilter(Collections.singletonList("com.azure.*"),
+                Collections.singletonList("**.implementation.**"));
+
+        assertTrue(filter.acceptsFile("com\\azure\\core\\Client.java"));
+        assertFalse(filter.acceptsFile("com\\azure\\core\\implementation\\Client.java"));
+        assertTrue(filter.acceptsFile("/com/azure/core/Client.java"));
+        assertTrue(filter.acceptsFile("\\com\\azure\\core\\Client.java"));
+
+        assertEquals(3, filter.getAcceptedCount());
+        assertEquals(1, filter.getSkippedCount());
+    }
+
+    @Test
+    public void excludesWinOverIncludes() {
+        final PackageFilter filter = new PackageFilter(Collections.singletonList("com.azure.**"),
+                Collections.singletonList("**.implementation.**"));
+
+        assertTrue(filter.acceptsPackage("com.azure.core"));
+        assertFalse(filter.acceptsPackage("com.azure.core.implementation"));
+        assertFalse(filter.acceptsPackage("org.example"));
+    }
+
+    @Test
+    public void globsFromSystemProperties() {
+        final String includes = System.getProperty(PackageFilter.INCLUDE_PACKAGES_PROPERTY);
+        final String excludes = System.getProperty(PackageFilter.EXCLUDE_PACKAGES_PROPERTY);
+        try {
+            System.clearProperty(PackageFilter.INCLUDE_PACKAGES_PROPERTY);
+            System.clearProperty(PackageFilter.EXCLUDE_PACKAGES_PROPERTY);
+            PackageFilter filter = PackageFilter.fromSystemProperties();
+            assertEquals(NONE, filter.getIncludes());
+            assertEquals(Collections.singletonList(PackageFilter.DEFAULT_EXCLUDE_PACKAGES), filter.getExcludes());
+
+            System.setProperty(PackageFilter.INCLUDE_PACKAGES_PROPERTY, " com.azure.** , ,com.microsoft.**");
+            System.setProperty(PackageFilter.EXCLUDE_PACKAGES_PROPERTY, "");
+            filter = PackageFilter.fromSystemProperties();
+            assertEquals(Arrays.asList("com.azure.**", "com.microsoft.**"), filter.getIncludes());
+            assertEquals(NONE, filter.getExcludes());
+        } finally {
+            restore(PackageFilter.INCLUDE_PACKAGES_PROPERTY, includes);
+            restore(PackageFilter.EXCLUDE_PACKAGES_PROPERTY, excludes);
+        }
+    }
+
+    private static void restore(String property, String value) {
+        if (value == null) {
+            System.clearProperty(property);
+        } else {
+            System.setProperty(property, value);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.azure.tools.apiview.processor.diagnostics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that a misspelt or missing key in the rules file is rejected, rather than leaving a rule running without its
+ * parameters.
+ */
+public class DiagnosticRuleConfigTest {
+    private static final String SOURCE = "rules.json";
+
+    @Test
+    public void bundledRulesAreAccepted() {
+        assertEquals(12, DiagnosticRuleConfig.load().size());
+    }
+
+    @Test
+    public void builderMethodsAreAccepted() throws IOException {
+        assertEquals(1, DiagnosticRuleConfig.parse(config("{ 'rules': [ { 'name': 'requiredBuilderMethods', "
+                + "'timeBudgetMillis': 10, 'methods': { 'endpoint': { 'parameterTypes': [ 'String' ] }, "
+                + "'serviceVersion': { 'directSubclassOf': 'ServiceVersion' } } } ] }"), SOURCE).size());
+    }
+
+    @Test
+    public void unknownRuleKeyIsRejected() throws IOException {
+        assertRejected("Unknown key 'methodz' for diagnostic rule 'requiredBuilderMethods' in 'rules.json'",
+                "{ 'rules': [ { 'name': 'requiredBuilderMethods', 'methodz': { } } ] }");
+        assertRejected("Unknown key 'package' for diagnostic rule 'imports' in 'rules.json'",
+                "{ 'rules': [ { 'name': 'imports', 'packages': [ ], 'package': [ 'com.sun' ] } ] }");
+        assertRejected("Unknown key 'names' for diagnostic rule 'noPublicFields' in 'rules.json'",
+                "{ 'rules': [ { 'name': 'noPublicFields', 'names': [ ] } ] }");
+    }
+
+    @Test
+    public void missingRuleKeyIsRejected() throws IOException {
+        assertRejected("Missing key 'methods' for diagnostic rule 'requiredBuilderMethods' in 'rules.json'",
+                "{ 'rules': [ { 'name': 'requiredBuilderMethods' } ] }");
+        assertRejected("Missing key 'prefixes' for diagnostic rule 'badPrefixes' in 'rules.json'",
+                "{ 'rules': [ { 'name': 'badPrefixes' } ] }");
+    }
+
+    @Test
+    public void unknownMethodKeyIsRejected() throws IOException {
+        assertRejected("Unknown key 'parameterType' for builder method 'endpoint' in 'rules.json'",
+                "{ 'rules': [ { 'name': 'requiredBuilderMethods', "
+                        + "'methods': { 'endpoint': { 'parameterType': [ 'String' ] } } } ] }");
+    }
+
+    @Test
+    public void methodMustCheckItsParametersOneWay() throws IOException {
+        assertRejected("Exactly one of 'directSubclassOf' and 'parameterTypes' must be given for builder method "
+                        + "'endpoint' in 'rules.json'",
+                "{ 'rules': [ { 'name': 'requiredBuilderMethods', 'methods': { 'endpoint': { } } } ] }");
+        assertRejected("Exactly one of 'directSubclassOf' and 'parameterTypes' must be given for builder method "
+                        + "'serviceVersion' in 'rules.json'",
+                "{ 'rules': [ { 'name': 'requiredBuilderMethods', 'methods': { 'serviceVersion': { "
+                        + "'parameterTypes': [ 'String' ], 'directSubclassOf': 'ServiceVersion' } } } ] }");
+    }
+
+    @Test
+    public void disabledRulesAreNotChecked() throws IOException {
+        assertEquals(0, DiagnosticRuleConfig.parse(config(
+                "{ 'rules': [ { 'name': 'requiredBuilderMethods', 'enabled': false, 'methodz': { } } ] }"), SOURCE)
+                .size());
+    }
+
+    private static void assertRejected(String message, String config) throws IOException {
+        final JsonNode json = config(config);
+        assertEquals(message, assertThrows(IllegalArgumentException.class,
+                () -> DiagnosticRuleConfig.parse(json, SOURCE)).getMessage());
+    }
+
+    private static JsonNode config(String json) throws IOException {
+        return new ObjectMapper().readTree(json.replace('\'', '"'));
+    }
+}
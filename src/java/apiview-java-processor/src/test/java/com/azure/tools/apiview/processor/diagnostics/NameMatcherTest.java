@@ -0,0 +1,91 @@
+package com.azure.tools.apiview.processor.diagnostics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks {@link NameMatcher} against {@link String#contains(CharSequence)} and {@link String#startsWith(String)} for
+ * pattern sets where one pattern can be found inside, or in the middle of matching, another.
+ */
+public class NameMatcherTest {
+
+    @Test
+    public void overlappingPatterns() {
+        assertMatchesLikeString(Arrays.asList("abab", "bab", "aba", "ba", "aa", "aab"),
+                "ababab", "aabab", "baba", "xabaabx", "bbb", "a", "");
+    }
+
+    @Test
+    public void prefixPatterns() {
+        assertMatchesLikeString(Arrays.asList("get", "getAll", "getAllAsync", "g", "set", "setter"),
+                "getAllAsync", "getAll", "getA", "gget", "forget", "setterGet", "sett", "isGetter", "G");
+    }
+
+    @Test
+    public void sharedSuffixPatterns() {
+        assertMatchesLikeString(Arrays.asList("Client", "AsyncClient", "SyncClient", "ent", "t"),
+                "BlobAsyncClient", "BlobClient", "AsyncClien", "SyncClientBuilder", "ClientClient", "AsyncSyncClient",
+                "Clientt", "Cli");
+    }
+
+    @Test
+    public void nonAsciiPatterns() {
+        assertMatchesLikeString(Arrays.asList("é", "ée", "naïve", "ïv"),
+                "naïveté", "naive", "éée", "caféEntry", "ïïv");
+    }
+
+    @Test
+    public void randomNames() {
+        // small alphabets, so that patterns overlap, repeat and are found partly often
+        final List<List<String>> patternSets = Arrays.asList(
+                Arrays.asList("abab", "bab", "aba", "ba", "aa", "aab", "b"),
+                Arrays.asList("get", "getAll", "getAllAsync", "g", "set", "setter"),
+                Arrays.asList("Client", "AsyncClient", "SyncClient", "ent", "t"));
+        final Random random = new Random(1);
+        for (List<String> patterns : patternSets) {
+            final StringBuilder alphabet = new StringBuilder("xé");
+            patterns.forEach(alphabet::append);
+
+            final List<String> names = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                final StringBuilder name = new StringBuilder();
+                final int length = random.nextInt(16);
+                while (name.length() < length) {
+                    // mix whole patterns in with single characters, so that long patterns are found too
+                    if (random.nextInt(4) == 0) {
+                        name.append(patterns.get(random.nextInt(patterns.size())));
+                    } else {
+                        name.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                    }
+                }
+                names.add(name.toString());
+            }
+            assertMatchesLikeString(patterns, names.toArray(new String[0]));
+        }
+    }
+
+    private static void assertMatchesLikeString(List<String> patterns, String... names) {
+        final NameMatcher matcher = new NameMatcher(patterns);
+        for (String name : names) {
+            final NameMatches matches = matcher.match(name);
+            for (int p = 0; p < patterns.size(); p++) {
+                final String pattern = patterns.get(p);
+                assertEquals(name.contains(pattern), matches.contains(p),
+                        "'" + name + "' contains '" + pattern + "'");
+                assertEquals(name.startsWith(pattern), matches.startsWith(p),
+                        "'" + name + "' starts with '" + pattern + "'");
+            }
+
+            final int[] all = new int[patterns.size()];
+            Arrays.setAll(all, p -> p);
+            assertEquals(patterns.stream().anyMatch(name::contains), matches.containsAny(all), name);
+            assertEquals(patterns.stream().anyMatch(name::startsWith), matches.startsWithAny(all), name);
+        }
+    }
+}
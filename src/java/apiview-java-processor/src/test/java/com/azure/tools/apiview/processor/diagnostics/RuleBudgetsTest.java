@@ -0,0 +1,92 @@
+package com.azure.tools.apiview.processor.diagnostics;
+
+import com.azure.tools.apiview.processor.diagnostics.DiagnosticRuleConfig.ConfiguredRule;
+import com.azure.tools.apiview.processor.model.APIListing;
+import com.azure.tools.apiview.processor.model.Diagnostic;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that a rule that goes over its time budget is only turned off for the listing it went over on, and that the
+ * diagnostic saying so comes out with the rule's other diagnostics.
+ */
+public class RuleBudgetsTest {
+    private static final String SOURCE = "package p;\npublic class A { }\nclass B { }\nclass C { }\n";
+
+    @Test
+    public void budgetsApplyToEachListingOnItsOwn() {
+        final RuleStatistics slow = new RuleStatistics("slow", 1);
+        final RuleDispatchTable table = RuleDispatchTable.ofConfigured(Arrays.asList(
+                new ConfiguredRule(new TypeNameRule("slow", 2), slow),
+                new ConfiguredRule(new TypeNameRule("fast", 0), new RuleStatistics("fast", 0))));
+
+        // each listing gets its full budget, however many listings the rule went over its budget on before
+        for (int i = 0; i < 2; i++) {
+            final APIListing listing = new APIListing("listing" + i);
+            final RuleBudgets budgets = table.newBudgets();
+            table.scan(StaticJavaParser.parse(SOURCE), listing, null, budgets);
+            table.scan(StaticJavaParser.parse(SOURCE), listing, null, budgets);
+
+            assertEquals(Arrays.asList("slow A", "informational p.A slow",
+                    "fast A", "fast B", "fast C", "fast A", "fast B", "fast C"), describe(listing.getDiagnostics()));
+        }
+        assertEquals(2, slow.getDisabledListings());
+    }
+
+    @Test
+    public void budgetsAreOnlyAppliedWhenGiven() {
+        final RuleDispatchTable table = RuleDispatchTable.ofConfigured(Arrays.asList(
+                new ConfiguredRule(new TypeNameRule("slow", 2), new RuleStatistics("slow", 1))));
+
+        final APIListing listing = new APIListing("listing");
+        final CompilationUnit cu = StaticJavaParser.parse(SOURCE);
+        table.scan(cu, listing, null, null);
+
+        assertEquals(Arrays.asList("slow A", "slow B", "slow C"), describe(listing.getDiagnostics()));
+        assertEquals(0, table.getStatistics().get(0).getDisabledListings());
+    }
+
+    private static List<String> describe(List<Diagnostic> diagnostics) {
+        final ObjectMapper objectMapper = new ObjectMapper();
+        return diagnostics.stream().map(diagnostic -> {
+            final JsonNode json = objectMapper.valueToTree(diagnostic);
+            final String text = json.get("Text").asText();
+            return text.startsWith("Informational")
+                    ? "informational " + json.get("TargetId").asText() + " " + text.split("'")[1]
+                    : text;
+        }).collect(Collectors.toList());
+    }
+
+    /*
+     * Reports the name of every type, taking at least the given time over each.
+     */
+    private static final class TypeNameRule implements DiagnosticRule {
+        private final String name;
+        private final long millis;
+
+        TypeNameRule(String name, long millis) {
+            this.name = name;
+            this.millis = millis;
+        }
+
+        @Override
+        public void register(RuleDispatchTable.Builder table) {
+            table.onType((type, context) -> {
+                context.addDiagnostic(new Diagnostic(null, name + " " + type.getNameAsString()));
+                final long end = System.nanoTime() + millis * 1_000_000;
+                while (System.nanoTime() < end) {
+                    Thread.yield();
+                }
+            });
+        }
+    }
+}
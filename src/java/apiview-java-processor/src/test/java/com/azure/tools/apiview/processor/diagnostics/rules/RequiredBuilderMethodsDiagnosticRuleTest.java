@@ -0,0 +1,103 @@
+package com.azure.tools.apiview.processor.diagnostics.rules;
+
+import com.azure.tools.apiview.processor.analysers.ASTAnalyser;
+import com.azure.tools.apiview.processor.analysers.util.PackageFilter;
+import com.azure.tools.apiview.processor.model.APIListing;
+import com.azure.tools.apiview.processor.sink.ListTokenSink;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks which builder methods are suggested through the analyser, with the bundled rules, as a listing would be
+ * checked. Each source is a file of its own.
+ */
+public class RequiredBuilderMethodsDiagnosticRuleTest {
+    private static final PackageFilter NO_FILTER = new PackageFilter(Collections.emptyList(), Collections.emptyList());
+
+    private static final String CLIENT = "package com.azure.foo;\n"
+            + "@ServiceClient(builder = FooClientBuilder.class)\n"
+            + "public final class FooClient { }\n";
+
+    @Test
+    public void missingMethodsAreSuggested() throws IOException {
+        final String builder = "package com.azure.foo;\n"
+                + "@ServiceClientBuilder(serviceClients = FooClient.class)\n"
+                + "public final class FooClientBuilder {\n"
+                + "    public FooClientBuilder endpoint(String endpoint) { return this; }\n"
+                + "    public FooClientBuilder httpClient(HttpClient httpClient) { return this; }\n"
+                + "}\n";
+        assertEquals(Collections.singletonList("com.azure.foo.FooClientBuilder: Not all builders need them, but "
+                        + "consider whether this builder should also have the methods addPolicy, configuration, "
+                        + "connectionString, credential, httpLogOptions, pipeline, retryPolicy, serviceVersion."),
+                builderDiagnostics(CLIENT, builder));
+    }
+
+    @Test
+    public void methodsInheritedFromBaseBuildersInOtherFilesAreNotSuggested() throws IOException {
+        final String base = "package com.azure.foo;\n"
+                + "public abstract class BaseClientBuilder<T extends BaseClientBuilder<T>> {\n"
+                + "    public T addPolicy(HttpPipelinePolicy policy) { return null; }\n"
+                + "    public T configuration(Configuration configuration) { return null; }\n"
+                + "    public T httpClient(HttpClient httpClient) { return null; }\n"
+                + "    public T httpLogOptions(HttpLogOptions httpLogOptions) { return null; }\n"
+                + "    protected T pipeline(HttpPipeline pipeline) { return null; }\n"
+                + "    public T retryPolicy(RetryPolicy retryPolicy) { return null; }\n"
+                + "}\n";
+        final String builder = "package com.azure.foo;\n"
+                + "@ServiceClientBuilder(serviceClients = FooClient.class)\n"
+                + "public final class FooClientBuilder extends BaseClientBuilder<FooClientBuilder> {\n"
+                + "    public FooClientBuilder connectionString(String connectionString) { return this; }\n"
+                + "    public FooClientBuilder credential(TokenCredential credential) { return this; }\n"
+                + "    public FooClientBuilder endpoint(String endpoint) { return this; }\n"
+                + "    public FooClientBuilder serviceVersion(FooServiceVersion version) { return this; }\n"
+                + "}\n";
+        assertEquals(Collections.emptyList(), builderDiagnostics(base, CLIENT, builder));
+    }
+
+    @Test
+    public void parameterTypesAreChecked() throws IOException {
+        final String builder = "package com.azure.foo;\n"
+                + "@ServiceClientBuilder(serviceClients = FooClient.class)\n"
+                + "public final class FooClientBuilder extends BaseClientBuilder<FooClientBuilder> {\n"
+                + "    public FooClientBuilder credential(FooCredential credential) { return this; }\n"
+                + "}\n";
+        assertEquals(Collections.singletonList("com.azure.foo.FooClientBuilder.credential(FooCredential): Incorrect "
+                        + "type being supplied to this builder method. Expected [[TokenCredential, AzureKeyCredential]], "
+                        + "but was FooCredential."),
+                builderDiagnostics(CLIENT, builder).stream()
+                        .filter(diagnostic -> diagnostic.contains("Incorrect type"))
+                        .collect(Collectors.toList()));
+    }
+
+    private static List<String> builderDiagnostics(String... sources) throws IOException {
+        final APIListing listing = new APIListing("test");
+        listing.setTokens(new ArrayList<>());
+        final ASTAnalyser analyser = new ASTAnalyser(listing, NO_FILTER);
+        for (String source : sources) {
+            final int nameStart = source.indexOf(" class ") + " class ".length();
+            final String typeName = source.substring(nameStart, source.indexOf(' ', nameStart)).replaceAll("<.*", "");
+            analyser.scan("com/azure/foo/" + typeName + ".java",
+                    new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8)));
+        }
+        analyser.writeListing(new ListTokenSink(listing.getTokens()));
+
+        final ObjectMapper objectMapper = new ObjectMapper();
+        return listing.getDiagnostics().stream()
+                .map(diagnostic -> (JsonNode) objectMapper.valueToTree(diagnostic))
+                .filter(json -> json.path("Text").asText().startsWith("Not all builders")
+                        || json.path("Text").asText().startsWith("Incorrect type"))
+                .map(json -> json.get("TargetId").asText() + ": " + json.get("Text").asText())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,96 @@
+package com.azure.tools.apiview.processor.diagnostics.rules;
+
+import com.azure.tools.apiview.processor.analysers.ASTAnalyser;
+import com.azure.tools.apiview.processor.analysers.util.PackageFilter;
+import com.azure.tools.apiview.processor.model.APIListing;
+import com.azure.tools.apiview.processor.sink.ListTokenSink;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the pairing of service clients and builders through the analyser, with the bundled rules, as a listing would
+ * be checked. Each source is a file of its own.
+ */
+public class ServiceClientPairingDiagnosticRuleTest {
+    private static final PackageFilter NO_FILTER = new PackageFilter(Collections.emptyList(), Collections.emptyList());
+
+    private static final String FOO_CLIENT = "package com.azure.foo;\n"
+            + "@ServiceClient(builder = FooClientBuilder.class)\n"
+            + "public final class FooClient { }\n";
+    private static final String FOO_ASYNC_CLIENT = "package com.azure.foo;\n"
+            + "@ServiceClient(builder = FooClientBuilder.class, isAsync = true)\n"
+            + "public final class FooAsyncClient { }\n";
+
+    @Test
+    public void clientsAndBuildersInSeparateFilesArePaired() throws IOException {
+        final String builder = "package com.azure.foo;\n"
+                + "@ServiceClientBuilder(serviceClients = { FooClient.class, FooAsyncClient.class })\n"
+                + "public final class FooClientBuilder { }\n";
+        assertEquals(Collections.emptyList(), pairingDiagnostics(FOO_CLIENT, FOO_ASYNC_CLIENT, builder));
+    }
+
+    @Test
+    public void singleServiceClientValuesArePaired() throws IOException {
+        final String builder = "package com.azure.foo;\n"
+                + "@ServiceClientBuilder(serviceClients = FooClient.class)\n"
+                + "public final class FooClientBuilder { }\n";
+        assertEquals(Collections.emptyList(), pairingDiagnostics(FOO_CLIENT, builder));
+    }
+
+    @Test
+    public void clientsAndBuildersThatDoNotNameEachOtherAreReported() throws IOException {
+        // the builder only lists the sync client, and lists a type that is not a client
+        final String builder = "package com.azure.foo;\n"
+                + "@ServiceClientBuilder(serviceClients = { FooClient.class, FooOptions.class })\n"
+                + "public final class FooClientBuilder { }\n";
+        final String options = "package com.azure.foo;\npublic final class FooOptions { }\n";
+
+        // a client that names a builder that does not exist, and one that names none, which no builder lists
+        final String barClient = "package com.azure.foo;\n"
+                + "@ServiceClient(builder = BarClientBuilder.class)\n"
+                + "public final class BarClient { }\n";
+        final String bazClient = "package com.azure.foo;\n"
+                + "@ServiceClient(isAsync = false)\n"
+                + "public final class BazClient { }\n";
+
+        // in listing order, which is by type name
+        assertEquals(Arrays.asList(
+                        "com.azure.foo.BarClient: The builder of this client, BarClientBuilder, is not a @ServiceClientBuilder in this library.",
+                        "com.azure.foo.BazClient: No @ServiceClientBuilder in this library lists this client in its serviceClients.",
+                        "com.azure.foo.FooAsyncClient: The builder of this client, FooClientBuilder, does not list it in its serviceClients.",
+                        "com.azure.foo.FooClientBuilder: The client FooOptions built by this builder is not a @ServiceClient in this library."),
+                pairingDiagnostics(FOO_CLIENT, FOO_ASYNC_CLIENT, builder, options, barClient, bazClient));
+    }
+
+    private static List<String> pairingDiagnostics(String... sources) throws IOException {
+        final APIListing listing = new APIListing("test");
+        listing.setTokens(new ArrayList<>());
+        final ASTAnalyser analyser = new ASTAnalyser(listing, NO_FILTER);
+        for (String source : sources) {
+            final int nameStart = source.indexOf(" class ") + " class ".length();
+            final String typeName = source.substring(nameStart, source.indexOf(' ', nameStart));
+            analyser.scan("com/azure/foo/" + typeName + ".java",
+                    new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8)));
+        }
+        analyser.writeListing(new ListTokenSink(listing.getTokens()));
+
+        final ObjectMapper objectMapper = new ObjectMapper();
+        return listing.getDiagnostics().stream()
+                .map(diagnostic -> (JsonNode) objectMapper.valueToTree(diagnostic))
+                .filter(json -> json.path("HelpLinkUri").asText().matches(".*#service-client(-builder)?"))
+                .map(json -> json.get("TargetId").asText() + ": " + json.get("Text").asText())
+                .collect(Collectors.toList());
+    }
+}
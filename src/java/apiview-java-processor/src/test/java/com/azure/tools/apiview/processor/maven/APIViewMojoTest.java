@@ -0,0 +1,92 @@
+package com.azure.tools.apiview.processor.maven;
+
+import com.azure.tools.apiview.processor.analysers.util.PackageFilter;
+import com.azure.tools.apiview.processor.sink.TokenSinks;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class APIViewMojoTest {
+    private static final PackageFilter NO_FILTER = new PackageFilter(Collections.emptyList(), Collections.emptyList());
+    private static final String STALE = "stale listing";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void listingIsOnlyRegeneratedWhenTheSourcesChange() throws Exception {
+        final Path sourceRoot = Files.createDirectories(directory.resolve("src/com/azure/test"));
+        final Path source = sourceRoot.resolve("Client.java");
+        Files.write(source, "package com.azure.test; public class Client { }".getBytes(StandardCharsets.UTF_8));
+        final File outputDirectory = directory.resolve("target").toFile();
+        final File outputFile = new File(outputDirectory, "test-1.0.0-sources.json");
+
+        final APIViewMojo mojo = createMojo(directory.resolve("src"), outputDirectory);
+        mojo.execute();
+        assertTrue(read(outputFile).contains("com.azure.test.Client"));
+
+        // nothing has changed, so the listing is left alone
+        Files.write(outputFile.toPath(), STALE.getBytes(StandardCharsets.UTF_8));
+        mojo.execute();
+        assertEquals(STALE, read(outputFile));
+
+        Files.write(source, "package com.azure.test; public class Client { public void send() { } }"
+                .getBytes(StandardCharsets.UTF_8));
+        mojo.execute();
+        assertTrue(read(outputFile).contains("com.azure.test.Client.send()"));
+    }
+
+    @Test
+    public void fingerprintCoversTheOutputFormatButNotTheSinks() throws Exception {
+        final Path sourceRoot = Files.createDirectories(directory.resolve("src"));
+        final List<Path> roots = Collections.singletonList(sourceRoot);
+        final String tokens = APIViewMojo.fingerprint(roots, NO_FILTER, "1.0.0", false);
+
+        assertNotEquals(tokens, APIViewMojo.fingerprint(roots, NO_FILTER, "1.0.0", true));
+
+        // the mojo always writes JSON alone, whatever sinks are configured for the command line tool
+        final String sinks = System.getProperty(TokenSinks.SINKS_PROPERTY);
+        System.setProperty(TokenSinks.SINKS_PROPERTY, "json,text");
+        try {
+            assertEquals(tokens, APIViewMojo.fingerprint(roots, NO_FILTER, "1.0.0", false));
+        } finally {
+            if (sinks == null) {
+                System.clearProperty(TokenSinks.SINKS_PROPERTY);
+            } else {
+                System.setProperty(TokenSinks.SINKS_PROPERTY, sinks);
+            }
+        }
+    }
+
+    private static APIViewMojo createMojo(Path sourceRoot, File outputDirectory) throws ReflectiveOperationException {
+        // the fields are injected by Maven, as configured in plugin.xml
+        final APIViewMojo mojo = new APIViewMojo();
+        set(mojo, "sourceRoots", Collections.singletonList(sourceRoot.toString()));
+        set(mojo, "outputDirectory", outputDirectory);
+        set(mojo, "artifactId", "test");
+        set(mojo, "version", "1.0.0");
+        set(mojo, "pluginVersion", "1.0.0");
+        return mojo;
+    }
+
+    private static void set(APIViewMojo mojo, String name, Object value) throws ReflectiveOperationException {
+        final Field field = APIViewMojo.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(mojo, value);
+    }
+
+    private static String read(File file) throws Exception {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
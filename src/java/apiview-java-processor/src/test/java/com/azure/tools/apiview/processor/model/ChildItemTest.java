@@ -0,0 +1,45 @@
+package com.azure.tools.apiview.processor.model;
+
+import com.azure.tools.apiview.processor.analysers.ASTAnalyser;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ChildItemTest {
+
+    @Test
+    public void compareToIsAntisymmetric() {
+        final List<ChildItem> items = Arrays.asList(item(ASTAnalyser.MODULE_INFO_KEY),
+                item(ASTAnalyser.MODULE_INFO_KEY), item("a"), item("b"), item("b"));
+        for (ChildItem a : items) {
+            for (ChildItem b : items) {
+                assertEquals(Integer.signum(a.compareTo(b)), -Integer.signum(b.compareTo(a)));
+            }
+        }
+        assertEquals(0, items.get(0).compareTo(items.get(1)));
+    }
+
+    @Test
+    public void moduleInfoIsSortedFirst() {
+        final List<ChildItem> items = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            items.add(item(i % 50 == 0 ? ASTAnalyser.MODULE_INFO_KEY : "com.azure.p" + i));
+        }
+        Collections.shuffle(items, new Random(3));
+        Collections.sort(items);
+
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals(i < 4, ASTAnalyser.MODULE_INFO_KEY.equals(items.get(i).getText()));
+        }
+    }
+
+    private static ChildItem item(String text) {
+        return new ChildItem(text, text, TypeKind.NAMESPACE);
+    }
+}
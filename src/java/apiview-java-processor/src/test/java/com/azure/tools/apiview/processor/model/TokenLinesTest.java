@@ -0,0 +1,103 @@
+package com.azure.tools.apiview.processor.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.azure.tools.apiview.processor.model.TokenKind.KEYWORD;
+import static com.azure.tools.apiview.processor.model.TokenKind.NEW_LINE;
+import static com.azure.tools.apiview.processor.model.TokenKind.PUNCTUATION;
+import static com.azure.tools.apiview.processor.model.TokenKind.TEXT;
+import static com.azure.tools.apiview.processor.model.TokenKind.TYPE_NAME;
+import static com.azure.tools.apiview.processor.model.TokenKind.WHITESPACE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TokenLinesTest {
+
+    @Test
+    public void indentedLinesRoundTrip() {
+        final List<Token> tokens = new ArrayList<>();
+        for (int level = 0; level < 20; level++) {
+            // deeper than the shared indent strings go
+            if (level > 0) {
+                tokens.add(new Token(WHITESPACE, indent(level)));
+            }
+            tokens.add(new Token(KEYWORD, "class"));
+            tokens.add(new Token(WHITESPACE, " "));
+            tokens.add(new Token(TYPE_NAME, "Level" + level, "com.azure.Level" + level));
+            tokens.add(new Token(NEW_LINE, ""));
+        }
+
+        final List<TokenLine> lines = TokenLines.fromTokens(tokens);
+        assertEquals(20, lines.size());
+        for (int level = 0; level < lines.size(); level++) {
+            assertEquals(level, lines.get(level).getIndent());
+            assertEquals(3, lines.get(level).getTokens().size());
+        }
+        assertRoundTrip(tokens);
+    }
+
+    @Test
+    public void emptyLinesRoundTrip() {
+        assertRoundTrip(Arrays.asList(
+                new Token(NEW_LINE, ""),
+                new Token(TEXT, "a"),
+                new Token(NEW_LINE, ""),
+                new Token(NEW_LINE, ""),
+                new Token(WHITESPACE, "    "),
+                new Token(NEW_LINE, "")));
+    }
+
+    @Test
+    public void otherWhitespaceIsKeptAsContent() {
+        final Token withId = new Token(WHITESPACE, "    ", "id");
+        final Token withLink = new Token(WHITESPACE, "        ");
+        withLink.setNavigateToId("link");
+        final List<Token> tokens = Arrays.asList(
+                new Token(WHITESPACE, "  "), new Token(TEXT, "two spaces"), new Token(NEW_LINE, ""),
+                new Token(WHITESPACE, "\t"), new Token(TEXT, "tab"), new Token(NEW_LINE, ""),
+                new Token(WHITESPACE, "      "), new Token(TEXT, "six spaces"), new Token(NEW_LINE, ""),
+                withId, new Token(TEXT, "with ID"), new Token(NEW_LINE, ""),
+                withLink, new Token(TEXT, "with link"), new Token(NEW_LINE, ""),
+                new Token(WHITESPACE, "    "), new Token(WHITESPACE, "    "), new Token(PUNCTUATION, "}"),
+                new Token(NEW_LINE, ""));
+
+        final List<TokenLine> lines = TokenLines.fromTokens(tokens);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, lines.get(i).getIndent());
+        }
+        // only the first of two indent tokens is taken as the indent
+        assertEquals(1, lines.get(5).getIndent());
+        assertEquals(2, lines.get(5).getTokens().size());
+        assertRoundTrip(tokens);
+    }
+
+    @Test
+    public void tokensAfterTheLastNewLineFormAFinalLine() {
+        final List<TokenLine> lines = TokenLines.fromTokens(Arrays.asList(
+                new Token(TEXT, "a"), new Token(NEW_LINE, ""), new Token(WHITESPACE, "    "), new Token(TEXT, "b")));
+        assertEquals(2, lines.size());
+        assertEquals(1, lines.get(1).getIndent());
+        assertEquals("b", lines.get(1).getTokens().get(0).getValue());
+    }
+
+    private static void assertRoundTrip(List<Token> tokens) {
+        assertEquals(render(tokens), render(TokenLines.toTokens(TokenLines.fromTokens(tokens))));
+    }
+
+    // Token has no equals method, so tokens are compared by their full description
+    private static List<String> render(List<Token> tokens) {
+        return tokens.stream().map(Token::toString).collect(Collectors.toList());
+    }
+
+    private static String indent(int level) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < level * TokenLines.INDENT_WIDTH; i++) {
+            sb.append(' ');
+        }
+        return sb.toString();
+    }
+}
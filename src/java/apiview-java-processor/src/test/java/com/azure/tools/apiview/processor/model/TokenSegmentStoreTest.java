@@ -0,0 +1,105 @@
+package com.azure.tools.apiview.processor.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that segments spilled to disk are drained in the same order, and with the same tokens, as segments held in
+ * memory.
+ */
+public class TokenSegmentStoreTest {
+    private static final int SEGMENTS = 40;
+
+    @Test
+    public void spilledSegmentsDrainAsInMemory() throws IOException {
+        final List<List<Token>> segments = createSegments(new Random(42));
+        final List<String> expected = drain(segments, Integer.MAX_VALUE, false);
+
+        // a threshold of a few segments holds the first ones in memory and spills the rest
+        assertEquals(expected, drain(segments, 50, false));
+        // with no room at all, every segment is spilled
+        assertEquals(expected, drain(segments, 0, false));
+    }
+
+    @Test
+    public void segmentsSetConcurrentlyDrainInIndexOrder() throws IOException {
+        final List<List<Token>> segments = createSegments(new Random(7));
+        final List<String> expected = drain(segments, Integer.MAX_VALUE, false);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(expected, drain(segments, 50, true));
+        }
+    }
+
+    @Test
+    public void statisticsShowSpilledSegments() throws IOException {
+        try (TokenSegmentStore store = new TokenSegmentStore(2, 1)) {
+            store.set(0, "a", Collections.singletonList(new Token(TokenKind.TEXT, "a")));
+            store.set(1, "b", Collections.singletonList(new Token(TokenKind.TEXT, "b")));
+            final String statistics = store.toString();
+            assertTrue(statistics.contains("1 held in memory (1 tokens)"), statistics);
+            assertTrue(statistics.contains("1 spilled to disk"), statistics);
+        }
+    }
+
+    @Test
+    public void drainingAMissingSegmentFails() throws IOException {
+        try (TokenSegmentStore store = new TokenSegmentStore(2, 0)) {
+            store.set(1, "b", Collections.singletonList(new Token(TokenKind.TEXT, "b")));
+            assertThrows(IllegalStateException.class, () -> store.drain((packageName, tokens) -> { }));
+        }
+    }
+
+    /*
+     * Sets the segments in a shuffled order (or from several threads at once) and returns what the store drains, with
+     * each token written out in full, as Token has no equals method.
+     */
+    private static List<String> drain(List<List<Token>> segments, int threshold, boolean parallel) throws IOException {
+        final List<Integer> order = IntStream.range(0, segments.size()).boxed().collect(Collectors.toList());
+        Collections.shuffle(order, new Random(threshold));
+
+        final List<String> drained = new ArrayList<>();
+        try (TokenSegmentStore store = new TokenSegmentStore(segments.size(), threshold)) {
+            (parallel ? order.parallelStream() : order.stream())
+                    .forEach(index -> store.set(index, "com.azure.p" + index, segments.get(index)));
+            store.drain((packageName, tokens) -> {
+                drained.add(packageName);
+                tokens.forEach(token -> drained.add(token.toString()));
+            });
+        }
+        return drained;
+    }
+
+    private static List<List<Token>> createSegments(Random random) {
+        final TokenKind[] kinds = TokenKind.values();
+        final String[] values = { "", " ", "    ", "class", "Foo<T>", "\"{}\"", "ünïcödé ✓", "é😀", null };
+
+        final List<List<Token>> segments = new ArrayList<>();
+        for (int i = 0; i < SEGMENTS; i++) {
+            // some packages are empty, and some are larger than the threshold on their own
+            final int size = i % 10 == 0 ? 0 : random.nextInt(i % 7 == 0 ? 200 : 20);
+            final List<Token> tokens = new ArrayList<>(size);
+            for (int j = 0; j < size; j++) {
+                final Token token = new Token(kinds[random.nextInt(kinds.length)], values[random.nextInt(values.length)],
+                        random.nextBoolean() ? null : "com.azure.p" + i + ".Type" + j);
+                if (random.nextBoolean()) {
+                    token.setNavigateToId(values[random.nextInt(values.length)]);
+                }
+                tokens.add(token);
+            }
+            segments.add(tokens);
+        }
+        return segments;
+    }
+}
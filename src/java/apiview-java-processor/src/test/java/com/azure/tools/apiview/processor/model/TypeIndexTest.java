@@ -0,0 +1,102 @@
+package com.azure.tools.apiview.processor.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TypeIndexTest {
+
+    @Test
+    public void onlyDeclaredTypesAreShared() {
+        final APIListing listing = new APIListing("a");
+        listing.addPackageTypeMapping("com.a", "A");
+        listing.addKnownType("A", "com.a.A");
+        listing.addPackageTypeMapping("com.a.A", "Nested");
+        listing.addKnownType("Nested", "com.a.A.Nested");
+        // imported by the listing, but declared elsewhere
+        listing.addPackageTypeMapping("io.netty.buffer", "ByteBuf");
+
+        final TypeIndex index = TypeIndex.EMPTY.plus(listing);
+        final Set<String> imports = imports("com.a.*", "com.a.A.*", "io.netty.buffer.ByteBuf");
+
+        assertEquals("com.a.A", index.getTypeId("A", imports));
+        assertEquals("com.a", index.getPackageName("A", imports));
+        assertEquals("com.a.A", index.getPackageName("Nested", imports));
+        assertTrue(index.containsTypeId("com.a.A.Nested"));
+
+        assertNull(index.getTypeId("ByteBuf", imports));
+        assertNull(index.getPackageName("ByteBuf", imports));
+    }
+
+    @Test
+    public void typesAreOnlyFoundWhereImported() {
+        final APIListing listing = new APIListing("a");
+        listing.addKnownType("Options", "com.a.Options");
+        listing.addKnownType("Nested", "com.a.Outer.Nested");
+        final TypeIndex index = TypeIndex.EMPTY.plus(listing);
+
+        // a type of the same name, declared in the library being built or in a library outside the batch
+        assertNull(index.getTypeId("Options", imports("com.b.*", "com.c.Options")));
+
+        assertEquals("com.a.Options", index.getTypeId("Options", imports("com.a.Options")));
+        assertEquals("com.a.Options", index.getTypeId("Options", imports("com.a.*")));
+
+        // importing the outer type does not bring its nested types into scope by their simple names
+        assertNull(index.getTypeId("Nested", imports("com.a.Outer")));
+        assertEquals("com.a.Outer.Nested", index.getTypeId("Nested", imports("com.a.Outer.*")));
+    }
+
+    @Test
+    public void typesOfEarlierListingsArePreferred() {
+        final APIListing first = new APIListing("first");
+        first.addPackageTypeMapping("com.first", "Options");
+        first.addKnownType("Options", "com.first.Options");
+
+        final APIListing second = new APIListing("second");
+        second.addPackageTypeMapping("com.second", "Options");
+        second.addKnownType("Options", "com.second.Options");
+
+        final TypeIndex index = TypeIndex.EMPTY.plus(first).plus(second);
+        assertEquals("com.first.Options", index.getTypeId("Options", imports("com.first.*", "com.second.*")));
+        assertEquals("com.second.Options", index.getTypeId("Options", imports("com.second.*")));
+        assertEquals("com.second", index.getPackageName("Options", imports("com.second.Options")));
+    }
+
+    @Test
+    public void indexesOnlySeeTheirOwnListings() {
+        final APIListing first = new APIListing("first");
+        first.addKnownType("First", "com.first.First");
+        final APIListing second = new APIListing("second");
+        second.addKnownType("Second", "com.second.Second");
+        final APIListing other = new APIListing("other");
+        other.addKnownType("Other", "com.other.Other");
+
+        final TypeIndex one = TypeIndex.EMPTY.plus(first);
+        final TypeIndex two = one.plus(second);
+        // adding to an index that has already been added to does not change what the newer index sees
+        final TypeIndex branch = one.plus(other);
+
+        assertTrue(TypeIndex.EMPTY.isEmpty());
+        assertFalse(TypeIndex.EMPTY.containsTypeId("com.first.First"));
+        assertFalse(one.containsTypeId("com.second.Second"));
+        assertTrue(two.containsTypeId("com.first.First"));
+        assertTrue(two.containsTypeId("com.second.Second"));
+        assertFalse(two.containsTypeId("com.other.Other"));
+        assertTrue(branch.containsTypeId("com.first.First"));
+        assertTrue(branch.containsTypeId("com.other.Other"));
+        assertFalse(branch.containsTypeId("com.second.Second"));
+        assertEquals("Shared type index: 2 types from 2 listings", branch.toString());
+    }
+
+    private static Set<String> imports(String... names) {
+        return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(names)));
+    }
+}
@@ -0,0 +1,117 @@
+package com.azure.tools.apiview.processor.pipeline;
+
+import com.azure.tools.apiview.processor.APIViewProcessor;
+import com.azure.tools.apiview.processor.analysers.util.PackageFilter;
+import com.azure.tools.apiview.processor.sink.JsonTokenSink;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that after each kind of edit, the listing written by an update is the same as a full listing of the tree.
+ */
+public class IncrementalSourceListingTest {
+    private static final PackageFilter NO_FILTER = new PackageFilter(Collections.emptyList(), Collections.emptyList());
+    private static final String REVIEW_NAME = "test (version 1.0.0)";
+    private static final Pattern DIAGNOSTIC_ID = Pattern.compile("AZ_JAVA_(\\d+)");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void updatesMatchAFullListing() throws IOException {
+        final Path sourceRoot = directory.resolve("src");
+        write(sourceRoot, "com/azure/a/Client.java", "package com.azure.a;\nimport com.azure.b.*;\n"
+                + "public class Client {\n"
+                + "    public Options options() { return null; }\n"
+                + "    public Gone gone() { return null; }\n"
+                + "    public int count() { return 1; }\n"
+                + "}\n");
+        write(sourceRoot, "com/azure/b/Other.java", "package com.azure.b;\npublic class Other { }\n");
+        write(sourceRoot, "com/azure/b/Gone.java", "package com.azure.b;\npublic class Gone { }\n");
+
+        final List<Path> sourceRoots = Collections.singletonList(sourceRoot);
+        final IncrementalSourceListing listing = new IncrementalSourceListing(sourceRoots, REVIEW_NAME, NO_FILTER);
+        final File outputFile = directory.resolve("listing.json").toFile();
+        listing.update(outputFile);
+        assertMatchesFullListing(sourceRoots, outputFile);
+
+        // a method body, which changes no types
+        write(sourceRoot, "com/azure/a/Client.java", "package com.azure.a;\nimport com.azure.b.*;\n"
+                + "public class Client {\n"
+                + "    public Options options() { return null; }\n"
+                + "    public Gone gone() { return null; }\n"
+                + "    public int count() { return 1 + 1; }\n"
+                + "}\n");
+        listing.update(outputFile);
+        assertMatchesFullListing(sourceRoots, outputFile);
+
+        // a new type, which the unchanged client now links to
+        write(sourceRoot, "com/azure/b/Options.java", "package com.azure.b;\npublic class Options { }\n");
+        listing.update(outputFile);
+        assertMatchesFullListing(sourceRoots, outputFile);
+        assertTrue(read(outputFile).contains("\"NavigateToId\" : \"com.azure.b.Options\""));
+
+        // a deleted file, which the unchanged client no longer links to
+        Files.delete(sourceRoot.resolve("com/azure/b/Gone.java"));
+        listing.update(outputFile);
+        assertMatchesFullListing(sourceRoots, outputFile);
+
+        // a save that does not parse, and then the fix
+        write(sourceRoot, "com/azure/b/Other.java", "package com.azure.b;\npublic class Other {\n");
+        listing.update(outputFile);
+        assertMatchesFullListing(sourceRoots, outputFile);
+
+        write(sourceRoot, "com/azure/b/Other.java", "package com.azure.b;\npublic class Other { public void run() { } }\n");
+        listing.update(outputFile);
+        assertMatchesFullListing(sourceRoots, outputFile);
+        assertTrue(read(outputFile).contains("com.azure.b.Other.run()"));
+    }
+
+    private void assertMatchesFullListing(List<Path> sourceRoots, File outputFile) throws IOException {
+        final File fullFile = directory.resolve("full.json").toFile();
+        new APIViewProcessor(Collections.emptyList(), Collections.emptyList())
+                .analyseSources(sourceRoots, REVIEW_NAME, apiListing -> new JsonTokenSink(fullFile, apiListing));
+        assertEquals(renumberDiagnostics(read(fullFile)), renumberDiagnostics(read(outputFile)));
+    }
+
+    /*
+     * Diagnostic IDs are numbered from a counter shared by every listing in the JVM, so each listing's IDs are
+     * renumbered from one, in the order they appear.
+     */
+    private static String renumberDiagnostics(String json) {
+        final Matcher matcher = DIAGNOSTIC_ID.matcher(json);
+        final StringBuffer sb = new StringBuffer();
+        int first = -1;
+        while (matcher.find()) {
+            final int id = Integer.parseInt(matcher.group(1));
+            if (first < 0) {
+                first = id;
+            }
+            matcher.appendReplacement(sb, "AZ_JAVA_" + (id - first + 1));
+        }
+        return matcher.appendTail(sb).toString();
+    }
+
+    private static void write(Path sourceRoot, String name, String source) throws IOException {
+        final Path path = sourceRoot.resolve(name);
+        Files.createDirectories(path.getParent());
+        Files.write(path, source.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
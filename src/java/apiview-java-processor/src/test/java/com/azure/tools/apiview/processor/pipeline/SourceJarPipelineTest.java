@@ -0,0 +1,56 @@
+package com.azure.tools.apiview.processor.pipeline;
+
+import com.azure.tools.apiview.processor.analysers.ASTAnalyser;
+import com.azure.tools.apiview.processor.analysers.util.PackageFilter;
+import com.azure.tools.apiview.processor.model.APIListing;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+public class SourceJarPipelineTest {
+    private static final PackageFilter NO_FILTER = new PackageFilter(Collections.emptyList(), Collections.emptyList());
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void errorsInParserThreadsFailTheRun() throws IOException {
+        // more files than the read queue holds, so the reader would be left blocked if the parsers stopped taking them
+        final File jarFile = directory.resolve("sources.jar").toFile();
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jarFile.toPath()))) {
+            for (int i = 0; i < 200; i++) {
+                out.putNextEntry(new JarEntry("com/azure/test/Type" + i + ".java"));
+                out.write(("package com.azure.test; public class Type" + i + " { }").getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+
+        final APIListing apiListing = new APIListing("test");
+        apiListing.setTokens(new ArrayList<>());
+        final ASTAnalyser analyser = new ASTAnalyser(apiListing, NO_FILTER) {
+            @Override
+            public void scan(String fileName, InputStream inputStream) {
+                throw new StackOverflowError();
+            }
+        };
+        final SourceJarPipeline pipeline = new SourceJarPipeline(jarFile, apiListing, NO_FILTER, analyser);
+
+        final File outputFile = directory.resolve("output.json").toFile();
+        assertTimeoutPreemptively(Duration.ofSeconds(30),
+                () -> assertThrows(StackOverflowError.class, () -> pipeline.run(outputFile)));
+    }
+}
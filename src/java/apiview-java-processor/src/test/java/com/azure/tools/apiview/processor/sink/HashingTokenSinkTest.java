@@ -0,0 +1,125 @@
+package com.azure.tools.apiview.processor.sink;
+
+import com.azure.tools.apiview.processor.analysers.ASTAnalyser;
+import com.azure.tools.apiview.processor.analysers.util.PackageFilter;
+import com.azure.tools.apiview.processor.model.APIListing;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Checks that type fingerprints are the same from one run to the next, and that an edit only changes the fingerprint
+ * of the type it was made in.
+ */
+public class HashingTokenSinkTest {
+    private static final PackageFilter NO_FILTER = new PackageFilter(Collections.emptyList(), Collections.emptyList());
+
+    private static final String CLIENT = "package com.azure.a;\nimport com.azure.a.models.Options;\n"
+            + "public final class Client {\n"
+            + "    public Options options() { return null; }\n"
+            + "    public static final class Nested {\n"
+            + "        public void run() { }\n"
+            + "    }\n"
+            + "    public void send() { }\n"
+            + "}\n";
+    private static final String OPTIONS = "package com.azure.a.models;\n"
+            + "public final class Options {\n"
+            + "    public int getCount() { return 0; }\n"
+            + "}\n";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void fingerprintsAreStableAcrossRuns() throws IOException {
+        final HashingTokenSink first = fingerprint(CLIENT, OPTIONS);
+        final HashingTokenSink second = fingerprint(CLIENT, OPTIONS);
+
+        assertEquals(Arrays.asList("com.azure.a.Client", "com.azure.a.Client.Nested", "com.azure.a.models.Options"),
+                new ArrayList<>(first.getTypeFingerprints().keySet()));
+        assertEquals(first.getTypeFingerprints(), second.getTypeFingerprints());
+        assertEquals(first.getListingFingerprint(), second.getListingFingerprint());
+    }
+
+    @Test
+    public void editsOnlyChangeTheirOwnType() throws IOException {
+        final Map<String, String> before = fingerprint(CLIENT, OPTIONS).getTypeFingerprints();
+
+        // a method of the referenced type, which the client links to but does not contain
+        assertOnlyChanged(before, fingerprint(CLIENT, OPTIONS.replace("getCount", "getSize")).getTypeFingerprints(),
+                "com.azure.a.models.Options");
+
+        // a method of the nested type, which is listed after all members of its outer type
+        assertOnlyChanged(before, fingerprint(CLIENT.replace("run()", "run(int count)"), OPTIONS).getTypeFingerprints(),
+                "com.azure.a.Client.Nested");
+
+        // methods of the outer type, declared before and after the nested type
+        assertOnlyChanged(before, fingerprint(CLIENT.replace("options()", "getOptions()"), OPTIONS)
+                .getTypeFingerprints(), "com.azure.a.Client");
+        assertOnlyChanged(before, fingerprint(CLIENT.replace("send()", "close()"), OPTIONS).getTypeFingerprints(),
+                "com.azure.a.Client");
+    }
+
+    @Test
+    public void fingerprintsAreOnlyWrittenForACompletedListing() throws IOException {
+        final File fingerprintsFile = directory.resolve("listing.fingerprints.txt").toFile();
+        try (HashingTokenSink sink = new HashingTokenSink(fingerprintsFile)) {
+            write(sink, CLIENT, OPTIONS);
+        }
+        assertEquals(0, directory.toFile().list().length);
+
+        final HashingTokenSink sink = new HashingTokenSink(fingerprintsFile);
+        write(sink, CLIENT, OPTIONS);
+        sink.complete();
+        sink.close();
+
+        final List<String> expected = new ArrayList<>();
+        sink.getTypeFingerprints().forEach((id, fingerprint) -> expected.add(fingerprint + " " + id));
+        expected.add(sink.getListingFingerprint() + " *");
+        assertEquals(expected, Files.readAllLines(fingerprintsFile.toPath(), StandardCharsets.UTF_8));
+    }
+
+    private static void assertOnlyChanged(Map<String, String> before, Map<String, String> after, String changed) {
+        assertEquals(before.keySet(), after.keySet());
+        before.forEach((id, fingerprint) -> {
+            if (id.equals(changed)) {
+                assertNotEquals(fingerprint, after.get(id), id);
+            } else {
+                assertEquals(fingerprint, after.get(id), id);
+            }
+        });
+    }
+
+    private static HashingTokenSink fingerprint(String... sources) throws IOException {
+        final HashingTokenSink sink = new HashingTokenSink();
+        write(sink, sources);
+        sink.complete();
+        return sink;
+    }
+
+    private static void write(TokenSink sink, String... sources) throws IOException {
+        final APIListing apiListing = new APIListing("test");
+        apiListing.setTokens(new ArrayList<>());
+        final ASTAnalyser analyser = new ASTAnalyser(apiListing, NO_FILTER);
+        for (String source : sources) {
+            final int nameStart = source.indexOf(" class ") + " class ".length();
+            final String fileName = source.substring(nameStart, source.indexOf(' ', nameStart)) + ".java";
+            analyser.scan(fileName, new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8)));
+        }
+        analyser.writeListing(sink);
+    }
+}
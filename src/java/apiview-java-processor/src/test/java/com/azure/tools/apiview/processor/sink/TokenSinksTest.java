@@ -0,0 +1,149 @@
+package com.azure.tools.apiview.processor.sink;
+
+import com.azure.tools.apiview.processor.APIViewProcessor;
+import com.azure.tools.apiview.processor.analysers.ASTAnalyser;
+import com.azure.tools.apiview.processor.analysers.util.PackageFilter;
+import com.azure.tools.apiview.processor.model.APIListing;
+import com.azure.tools.apiview.processor.model.TokenKind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the sinks configured with {@value TokenSinks#SINKS_PROPERTY}: that adding sinks does not change the JSON
+ * listing, and that nothing is left behind for a listing that is abandoned.
+ */
+public class TokenSinksTest {
+    private static final PackageFilter NO_FILTER = new PackageFilter(Collections.emptyList(), Collections.emptyList());
+    private static final String SOURCE = "package com.azure.test;\n"
+            + "public final class Client {\n"
+            + "    public String getName() { return null; }\n"
+            + "}\n";
+
+    @TempDir
+    Path directory;
+
+    private String sinks;
+
+    @BeforeEach
+    public void saveSinks() {
+        sinks = System.getProperty(TokenSinks.SINKS_PROPERTY);
+    }
+
+    @AfterEach
+    public void restoreSinks() {
+        if (sinks == null) {
+            System.clearProperty(TokenSinks.SINKS_PROPERTY);
+        } else {
+            System.setProperty(TokenSinks.SINKS_PROPERTY, sinks);
+        }
+    }
+
+    @Test
+    public void extraSinksDoNotChangeTheJsonListing() throws IOException {
+        final Path sourceRoot = directory.resolve("src");
+        Files.createDirectories(sourceRoot.resolve("com/azure/test"));
+        Files.write(sourceRoot.resolve("com/azure/test/Client.java"), SOURCE.getBytes(StandardCharsets.UTF_8));
+
+        System.clearProperty(TokenSinks.SINKS_PROPERTY);
+        final File jsonOnly = directory.resolve("json/listing.json").toFile();
+        analyse(sourceRoot, jsonOnly);
+        assertEquals(Collections.singletonList("listing.json"), Arrays.asList(jsonOnly.getParentFile().list()));
+
+        System.setProperty(TokenSinks.SINKS_PROPERTY, "json,text");
+        final File withText = directory.resolve("text/listing.json").toFile();
+        analyse(sourceRoot, withText);
+
+        // diagnostic IDs are numbered across the JVM, so only match in position
+        assertEquals(withoutDiagnosticIds(read(jsonOnly)), withoutDiagnosticIds(read(withText)));
+        assertTrue(read(new File(withText.getParentFile(), "listing.txt")).contains("public String getName()"));
+    }
+
+    @Test
+    public void nothingIsWrittenForAnAbandonedListing() throws IOException {
+        System.setProperty(TokenSinks.SINKS_PROPERTY, "json,text,hash,count");
+        final File outputFile = directory.resolve("listing.json").toFile();
+        final APIListing apiListing = newListing();
+        try (FanOutTokenSink sink = TokenSinks.create(outputFile, apiListing)) {
+            write(apiListing, sink);
+        }
+        assertEquals(0, directory.toFile().list().length);
+    }
+
+    @Test
+    public void everySinkGetsEveryToken() throws IOException {
+        System.setProperty(TokenSinks.SINKS_PROPERTY, " count , null,,count");
+        final APIListing apiListing = newListing();
+        final FanOutTokenSink sink = TokenSinks.create(directory.resolve("listing.json").toFile(), apiListing);
+        write(apiListing, sink);
+        sink.complete();
+        sink.close();
+
+        assertEquals(3, sink.getSinks().size());
+        assertEquals(NullTokenSink.INSTANCE, sink.getSinks().get(1));
+        final CountingTokenSink first = (CountingTokenSink) sink.getSinks().get(0);
+        final CountingTokenSink second = (CountingTokenSink) sink.getSinks().get(2);
+        assertEquals(1, first.getPackageCount());
+        // the constructor and the method
+        assertEquals(2, first.getCount(TokenKind.MEMBER_NAME));
+        assertEquals(first.getTokenCount(), second.getTokenCount());
+        assertEquals(0, directory.toFile().list().length);
+    }
+
+    @Test
+    public void unknownSinksAreRejected() {
+        System.setProperty(TokenSinks.SINKS_PROPERTY, "json,txt");
+        assertThrows(IllegalArgumentException.class,
+                () -> TokenSinks.create(directory.resolve("listing.json").toFile(), newListing()));
+    }
+
+    private static void analyse(Path sourceRoot, File outputFile) throws IOException {
+        Files.createDirectories(outputFile.getParentFile().toPath());
+        new APIViewProcessor(Collections.emptyList(), Collections.emptyList())
+                .analyseSources(Collections.singletonList(sourceRoot), "test (version 1.0.0)", apiListing -> {
+                    try {
+                        return TokenSinks.create(outputFile, apiListing);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    private static APIListing newListing() {
+        final APIListing apiListing = new APIListing("test");
+        apiListing.setLanguage("Java");
+        apiListing.setTokens(new ArrayList<>());
+        return apiListing;
+    }
+
+    private static void write(APIListing apiListing, TokenSink sink) throws IOException {
+        final ASTAnalyser analyser = new ASTAnalyser(apiListing, NO_FILTER);
+        analyser.scan("com/azure/test/Client.java", new ByteArrayInputStream(SOURCE.getBytes(StandardCharsets.UTF_8)));
+        analyser.writeListing(sink);
+    }
+
+    private static String withoutDiagnosticIds(String json) {
+        return json.replaceAll("AZ_JAVA_\\d+", "AZ_JAVA_");
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
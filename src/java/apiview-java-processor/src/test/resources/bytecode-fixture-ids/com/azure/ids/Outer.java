@@ -0,0 +1,47 @@
+package com.azure.ids;
+
+import java.util.Map;
+
+public class Outer {
+    public Outer() {
+    }
+
+    public void put(Map.Entry<String, Integer> entry) {
+    }
+
+    public void use(Inner inner) {
+    }
+
+    public void deep(Inner.Deepest deepest) {
+    }
+
+    public <T extends CharSequence & Comparable<T>> void accept(T value) {
+    }
+
+    public <T extends Map.Entry<String, ? extends Number>> void accept(T value) {
+    }
+
+    private <T extends Number> void accept(T value) {
+    }
+
+    public static class Inner {
+        public Inner() {
+        }
+
+        public void back(Outer outer, Inner inner, Deepest deepest) {
+        }
+
+        public static class Deepest {
+            public Deepest() {
+            }
+
+            public void up(Inner inner, Other other) {
+            }
+        }
+    }
+
+    public static class Other {
+        public Other() {
+        }
+    }
+}
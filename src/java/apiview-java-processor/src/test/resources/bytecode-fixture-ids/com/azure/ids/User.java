@@ -0,0 +1,9 @@
+package com.azure.ids;
+
+public class User {
+    public User() {
+    }
+
+    public void take(Outer.Inner inner, Outer.Inner.Deepest deepest) {
+    }
+}
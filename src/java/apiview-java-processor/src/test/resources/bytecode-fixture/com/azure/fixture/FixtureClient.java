@@ -0,0 +1,57 @@
+package com.azure.fixture;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+public final class FixtureClient {
+    public static final int MAX_RETRIES = 3;
+    public static final String NAME = "fixture";
+    public static final float NOT_A_NUMBER = Float.NaN;
+    public static final double UNBOUNDED = Double.POSITIVE_INFINITY;
+    public static final double FLOOR = Double.NEGATIVE_INFINITY;
+
+    protected final String endpoint;
+
+    public FixtureClient(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    protected FixtureClient(String endpoint, int retries) {
+        this(endpoint);
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public <T extends Number> List<T> convert(List<String> values, Map<String, ? super T> lookup) throws IOException {
+        return null;
+    }
+
+    public void configure(Options options) {
+    }
+
+    public <T extends Number> void accept(T value) {
+    }
+
+    public <T extends CharSequence> void accept(T value) {
+    }
+
+    public static FixtureClient create(String... endpoints) {
+        return new FixtureClient(endpoints[0]);
+    }
+
+    @Deprecated
+    public void close() {
+    }
+
+    public static final class Options {
+        public Options() {
+        }
+
+        public Options setTimeout(long timeout) {
+            return this;
+        }
+    }
+}
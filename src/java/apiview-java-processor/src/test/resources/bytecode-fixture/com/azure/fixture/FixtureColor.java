@@ -0,0 +1,10 @@
+package com.azure.fixture;
+
+public enum FixtureColor {
+    RED,
+    GREEN;
+
+    public String lower() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,9 @@
+package com.azure.fixture;
+
+public interface FixtureOption<T> {
+    T getValue();
+
+    default boolean isSet() {
+        return getValue() != null;
+    }
+}
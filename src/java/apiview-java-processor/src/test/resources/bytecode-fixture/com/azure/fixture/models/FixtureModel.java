@@ -0,0 +1,23 @@
+package com.azure.fixture.models;
+
+import com.azure.fixture.FixtureColor;
+
+public class FixtureModel implements Comparable<FixtureModel> {
+    private FixtureColor color;
+
+    public FixtureModel() {
+    }
+
+    public FixtureColor getColor() {
+        return color;
+    }
+
+    public FixtureModel setColor(FixtureColor color) {
+        this.color = color;
+        return this;
+    }
+
+    public int compareTo(FixtureModel other) {
+        return 0;
+    }
+}